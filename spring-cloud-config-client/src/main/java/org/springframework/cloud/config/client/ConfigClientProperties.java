@@ -130,7 +130,9 @@ public class ConfigClientProperties {
 	private MultipleUriStrategy multipleUriStrategy = MultipleUriStrategy.ALWAYS;
 
 	/**
-	 * The Accept header media type to send to config server.
+	 * The Accept header media type to send to config server. Binary encodings
+	 * (application/vnd.spring-cloud.config-server.v2+smile or +cbor) parse faster but
+	 * need the matching Jackson data format on the classpath.
 	 */
 	private String mediaType = EnvironmentMediaType.V2_JSON;
 
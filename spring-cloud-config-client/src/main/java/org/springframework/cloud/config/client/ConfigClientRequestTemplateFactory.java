@@ -77,6 +77,8 @@ public class ConfigClientRequestTemplateFactory {
 
 		ClientHttpRequestFactory requestFactory = createHttpRequestFactory(properties);
 		RestTemplate template = new RestTemplate(requestFactory);
+		// for clients that ask for a binary encoding with spring.cloud.config.media-type
+		EnvironmentMessageConverters.addTo(template.getMessageConverters());
 		Map<String, String> headers = new HashMap<>(properties.getHeaders());
 		headers.remove(AUTHORIZATION); // To avoid redundant addition of header
 		if (!headers.isEmpty()) {
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.client;
+
+import java.util.List;
+
+import org.springframework.cloud.config.environment.EnvironmentMediaType;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Message converters for the binary encodings of environments,
+ * {@link EnvironmentMediaType#V2_SMILE} and {@link EnvironmentMediaType#V2_CBOR}, which
+ * are only added if the corresponding Jackson data format is on the classpath.
+ *
+ * @since 4.3.0
+ */
+final class EnvironmentMessageConverters {
+
+	private static final boolean SMILE_PRESENT = ClassUtils.isPresent(
+			"com.fasterxml.jackson.dataformat.smile.SmileFactory", EnvironmentMessageConverters.class.getClassLoader());
+
+	private static final boolean CBOR_PRESENT = ClassUtils.isPresent(
+			"com.fasterxml.jackson.dataformat.cbor.CBORFactory", EnvironmentMessageConverters.class.getClassLoader());
+
+	private EnvironmentMessageConverters() {
+	}
+
+	static void addTo(List<HttpMessageConverter<?>> converters) {
+		if (SMILE_PRESENT) {
+			MappingJackson2SmileHttpMessageConverter smile = new MappingJackson2SmileHttpMessageConverter();
+			smile.setSupportedMediaTypes(List.of(MediaType.valueOf(EnvironmentMediaType.V2_SMILE)));
+			converters.add(smile);
+		}
+		if (CBOR_PRESENT) {
+			MappingJackson2CborHttpMessageConverter cbor = new MappingJackson2CborHttpMessageConverter();
+			cbor.setSupportedMediaTypes(List.of(MediaType.valueOf(EnvironmentMediaType.V2_CBOR)));
+			converters.add(cbor);
+		}
+	}
+
+}
@@ -21,6 +21,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -51,6 +52,8 @@ public class Environment {
 
 	private String state;
 
+	private boolean cacheable = true;
+
 	public Environment(String name, String... profiles) {
 		this(name, profiles, "master", null, null);
 	}
@@ -61,6 +64,7 @@ public class Environment {
 	 */
 	public Environment(Environment env) {
 		this(env.getName(), env.getProfiles(), env.getLabel(), env.getVersion(), env.getState());
+		this.cacheable = env.isCacheable();
 	}
 
 	@JsonCreator
@@ -157,6 +161,21 @@ public class Environment {
 		this.state = state;
 	}
 
+	/**
+	 * Whether the version identifies the content of the property sources, so that
+	 * anything derived from the environment may be cached for that version. Not
+	 * serialized.
+	 * @return false if the content may change without a new version
+	 */
+	@JsonIgnore
+	public boolean isCacheable() {
+		return this.cacheable;
+	}
+
+	public void setCacheable(boolean cacheable) {
+		this.cacheable = cacheable;
+	}
+
 	@Override
 	public String toString() {
 		return "Environment [name=" + this.name + ", profiles=" + Arrays.asList(this.profiles) + ", label=" + this.label
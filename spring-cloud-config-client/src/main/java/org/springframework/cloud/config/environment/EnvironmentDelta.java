@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The changes to an {@link Environment} between the version a client holds
+ * (<code>since</code>) and the current version. Property sources are listed in the order
+ * of the current environment, followed by the sources that no longer exist (with all of
+ * their keys removed). If the server no longer knows the version the client holds, the
+ * delta is a <code>reset</code>: the client should discard what it has and every current
+ * property is listed as added.
+ *
+ * @since 4.3.0
+ */
+public class EnvironmentDelta {
+
+	private final String name;
+
+	private final String[] profiles;
+
+	private final String label;
+
+	private final String version;
+
+	private final String state;
+
+	private final String since;
+
+	private final boolean reset;
+
+	private final List<PropertySourceDelta> propertySources = new ArrayList<>();
+
+	@JsonCreator
+	public EnvironmentDelta(@JsonProperty("name") String name, @JsonProperty("profiles") String[] profiles,
+			@JsonProperty("label") String label, @JsonProperty("version") String version,
+			@JsonProperty("state") String state, @JsonProperty("since") String since,
+			@JsonProperty("reset") boolean reset) {
+		this.name = name;
+		this.profiles = profiles;
+		this.label = label;
+		this.version = version;
+		this.state = state;
+		this.since = since;
+		this.reset = reset;
+	}
+
+	public void add(PropertySourceDelta propertySource) {
+		this.propertySources.add(propertySource);
+	}
+
+	public List<PropertySourceDelta> getPropertySources() {
+		return this.propertySources;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public String[] getProfiles() {
+		return this.profiles;
+	}
+
+	public String getLabel() {
+		return this.label;
+	}
+
+	public String getVersion() {
+		return this.version;
+	}
+
+	public String getState() {
+		return this.state;
+	}
+
+	public String getSince() {
+		return this.since;
+	}
+
+	public boolean isReset() {
+		return this.reset;
+	}
+
+	@Override
+	public String toString() {
+		return "EnvironmentDelta [name=" + this.name + ", since=" + this.since + ", version=" + this.version
+				+ ", reset=" + this.reset + ", propertySources=" + this.propertySources + "]";
+	}
+
+}
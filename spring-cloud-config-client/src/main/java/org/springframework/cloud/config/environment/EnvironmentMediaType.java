@@ -34,6 +34,25 @@ public final class EnvironmentMediaType {
 	 */
 	public static final String V2_JSON = "application/vnd.spring-cloud.config-server.v2+json";
 
+	/**
+	 * Constant for the Config Server media type of an {@link EnvironmentDelta}.
+	 */
+	public static final String DELTA_JSON = "application/vnd.spring-cloud.config-server.delta+json";
+
+	/**
+	 * Constant for the Config Server V2 media type encoded with Smile, a binary JSON
+	 * format. Needs <code>jackson-dataformat-smile</code> on both ends.
+	 * @since 4.3.0
+	 */
+	public static final String V2_SMILE = "application/vnd.spring-cloud.config-server.v2+smile";
+
+	/**
+	 * Constant for the Config Server V2 media type encoded with CBOR (RFC 8949). Needs
+	 * <code>jackson-dataformat-cbor</code> on both ends.
+	 * @since 4.3.0
+	 */
+	public static final String V2_CBOR = "application/vnd.spring-cloud.config-server.v2+cbor";
+
 	private EnvironmentMediaType() {
 	}
 
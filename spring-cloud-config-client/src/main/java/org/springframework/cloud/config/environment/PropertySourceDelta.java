@@ -0,0 +1,82 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.environment;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The changes to a named {@link PropertySource} within an {@link EnvironmentDelta}.
+ *
+ * @since 4.3.0
+ */
+public class PropertySourceDelta {
+
+	private final String name;
+
+	private final Map<String, Object> added;
+
+	private final Map<String, Object> changed;
+
+	private final List<String> removed;
+
+	public PropertySourceDelta(String name) {
+		this(name, new LinkedHashMap<>(), new LinkedHashMap<>(), new ArrayList<>());
+	}
+
+	@JsonCreator
+	public PropertySourceDelta(@JsonProperty("name") String name, @JsonProperty("added") Map<String, Object> added,
+			@JsonProperty("changed") Map<String, Object> changed, @JsonProperty("removed") List<String> removed) {
+		this.name = name;
+		this.added = added;
+		this.changed = changed;
+		this.removed = removed;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public Map<String, Object> getAdded() {
+		return this.added;
+	}
+
+	public Map<String, Object> getChanged() {
+		return this.changed;
+	}
+
+	public List<String> getRemoved() {
+		return this.removed;
+	}
+
+	@JsonIgnore
+	public boolean isEmpty() {
+		return this.added.isEmpty() && this.changed.isEmpty() && this.removed.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "PropertySourceDelta [name=" + this.name + "]";
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.apache.commons.logging.LogFactory;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.EnvironmentMediaType;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.environment.PropertyValueDescriptor;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class EnvironmentMessageConvertersTests {
+
+	@ParameterizedTest
+	@ValueSource(strings = { EnvironmentMediaType.V2_SMILE, EnvironmentMediaType.V2_CBOR })
+	public void readsBinaryEnvironments(String mediaType) throws Exception {
+		Environment environment = environment();
+		JsonFactory factory = mediaType.equals(EnvironmentMediaType.V2_SMILE) ? new SmileFactory() : new CBORFactory();
+		byte[] binary = new ObjectMapper(factory).writeValueAsBytes(environment);
+		byte[] json = new ObjectMapper().writeValueAsBytes(environment);
+		// the point of a binary encoding: fewer bytes on the wire
+		assertThat(binary.length).isLessThan(json.length);
+
+		RestTemplate template = new ConfigClientRequestTemplateFactory(LogFactory.getLog(getClass()),
+				new ConfigClientProperties(new MockEnvironment()))
+			.create();
+		MockRestServiceServer server = MockRestServiceServer.bindTo(template).build();
+		server.expect(requestTo("http://localhost:8888/app/default"))
+			.andExpect(header(HttpHeaders.ACCEPT, mediaType))
+			.andRespond(withSuccess(binary, MediaType.valueOf(mediaType)));
+		HttpHeaders headers = new HttpHeaders();
+		headers.setAccept(MediaType.parseMediaTypes(mediaType));
+		Environment result = template
+			.exchange("http://localhost:8888/app/default", HttpMethod.GET, new HttpEntity<>(headers), Environment.class)
+			.getBody();
+		server.verify();
+
+		assertThat(result.getName()).isEqualTo("app");
+		assertThat(result.getVersion()).isEqualTo("v1");
+		assertThat(result.getPropertySources()).hasSize(1);
+		Map<?, ?> source = result.getPropertySources().get(0).getSource();
+		assertThat(source).hasSize(100);
+		assertThat((Map<?, ?>) source.get("key.7")).containsEntry("value", "value 7")
+			.containsEntry("origin", "application.yml:8:5");
+	}
+
+	private Environment environment() {
+		Environment environment = new Environment("app", new String[] { "default" }, "main", "v1", null);
+		Map<String, Object> source = new LinkedHashMap<>();
+		for (int i = 0; i < 100; i++) {
+			source.put("key." + i, new PropertyValueDescriptor("value " + i, "application.yml:" + (i + 1) + ":5"));
+		}
+		environment.add(new PropertySource("application.yml", source));
+		return environment;
+	}
+
+}
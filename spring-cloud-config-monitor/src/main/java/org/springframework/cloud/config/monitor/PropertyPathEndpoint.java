@@ -27,6 +27,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.cloud.bus.event.RefreshRemoteApplicationEvent;
+import org.springframework.cloud.config.server.environment.EnvironmentChangedEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.http.HttpHeaders;
@@ -86,6 +87,8 @@ public class PropertyPathEndpoint implements ApplicationEventPublisherAware {
 					log.info("Refresh for: " + service);
 					this.applicationEventPublisher
 						.publishEvent(new RefreshRemoteApplicationEvent(this, this.busId, service));
+					// let local watchers and streams check for the new version right away
+					this.applicationEventPublisher.publishEvent(new EnvironmentChangedEvent(this, service));
 				}
 				return services;
 			}
@@ -23,6 +23,7 @@ import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import org.springframework.cloud.config.server.environment.EnvironmentChangedEvent;
 import org.springframework.context.support.StaticApplicationContext;
 import org.springframework.http.HttpHeaders;
 
@@ -103,4 +104,14 @@ public class PropertyPathEndpointTests {
 			.toString()).isEqualTo("[foo-local-dev, foo-local, foo]");
 	}
 
+	@Test
+	public void testNotifyPublishesEnvironmentChanges() {
+		List<Object> events = new ArrayList<>();
+		this.endpoint.setApplicationEventPublisher(events::add);
+		this.endpoint.notifyByPath(new HttpHeaders(), Collections.singletonMap("path", "foo-local.yml"));
+		assertThat(events).filteredOn(EnvironmentChangedEvent.class::isInstance)
+			.extracting(event -> ((EnvironmentChangedEvent) event).getApplication())
+			.containsExactly("foo-local", "foo");
+	}
+
 }
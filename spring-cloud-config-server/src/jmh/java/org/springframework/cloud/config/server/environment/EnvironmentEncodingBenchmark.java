@@ -0,0 +1,133 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.config.server.environment;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+
+/**
+ * Compares the JSON, Smile and CBOR encodings of the V2 environment media types: the
+ * time the server takes to write an environment and the client takes to parse it, and
+ * the number of bytes on the wire, which is printed once per trial as
+ * <code>[format] keys: N, bytes: N</code>.
+ *
+ * @since 4.3.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvironmentEncodingBenchmark {
+
+	@Param({ "json", "smile", "cbor" })
+	private String format;
+
+	@Param({ "10000", "50000" })
+	private int keys;
+
+	private ObjectMapper mapper;
+
+	private Environment environment;
+
+	private byte[] encoded;
+
+	@Setup
+	public void setup() throws IOException {
+		this.mapper = new ObjectMapper(factory(this.format));
+		this.environment = environment(this.keys);
+		this.encoded = this.mapper.writeValueAsBytes(this.environment);
+		System.out.println("[" + this.format + "] keys: " + this.keys + ", bytes: " + this.encoded.length);
+	}
+
+	@Benchmark
+	public byte[] write() throws IOException {
+		return this.mapper.writeValueAsBytes(this.environment);
+	}
+
+	@Benchmark
+	public Environment parse() throws IOException {
+		return this.mapper.readValue(this.encoded, Environment.class);
+	}
+
+	private static JsonFactory factory(String format) {
+		return switch (format) {
+			case "smile" -> new SmileFactory();
+			case "cbor" -> new CBORFactory();
+			default -> new JsonFactory();
+		};
+	}
+
+	/**
+	 * An environment shaped like a typical config server response: a profile specific,
+	 * an application and a shared source, with string, numeric and boolean values.
+	 * @param size the total number of keys
+	 * @return the environment
+	 */
+	static Environment environment(int size) {
+		Environment environment = new Environment("app", "prod");
+		environment.setLabel("main");
+		environment.setVersion("0123456789abcdef0123456789abcdef01234567");
+		String[] names = { "https://git.example.com/config.git/app-prod.yml",
+				"https://git.example.com/config.git/app.yml", "https://git.example.com/config.git/application.yml" };
+		for (int s = 0; s < names.length; s++) {
+			Map<String, Object> source = new LinkedHashMap<>();
+			for (int i = s; i < size; i += names.length) {
+				String key = "app.module" + (i % 40) + ".component" + (i % 13) + ".setting" + i;
+				Object value = switch (i % 4) {
+					case 0 -> i;
+					case 1 -> i % 3 == 0;
+					default -> "http://service" + (i % 100) + ".example.com:8080/api/v1/resource/" + i;
+				};
+				source.put(key, value);
+			}
+			environment.add(new PropertySource(names[s], source));
+		}
+		return environment;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(EnvironmentEncodingBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+
+/**
+ * Compares building the nested yml/json map of a large environment with
+ * {@link PropertyTree} against the flatten-then-navigate conversion it replaced
+ * ({@link LegacyConverter}, kept here verbatim as the baseline).
+ * <ul>
+ * <li>{@code legacy}: the previous conversion, run on every request.</li>
+ * <li>{@code propertyTree}: a new tree per request, so keys are parsed every time.</li>
+ * <li>{@code cachedPropertyTree}: the tree shared per environment version, as the
+ * controller uses it, so only the nested map is built.</li>
+ * </ul>
+ *
+ * @since 4.3.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertyTreeBenchmark {
+
+	@Param({ "10000", "50000" })
+	private int keys;
+
+	private Environment environment;
+
+	private PropertyTree.Cache cache;
+
+	@Setup
+	public void setup() {
+		this.environment = environment(this.keys);
+		this.cache = new PropertyTree.Cache();
+	}
+
+	@Benchmark
+	public Map<String, Object> legacy() {
+		return LegacyConverter.convertToMap(this.environment);
+	}
+
+	@Benchmark
+	public Map<String, Object> propertyTree() {
+		return PropertyTree.of(this.environment).toMap(null);
+	}
+
+	@Benchmark
+	public Map<String, Object> cachedPropertyTree() {
+		return this.cache.get(this.environment).toMap(null);
+	}
+
+	/**
+	 * An environment with a profile specific and a default source, where the profile
+	 * overrides a tenth of the keys. Half of the keys are plain dotted keys, the other
+	 * half are elements of lists of maps.
+	 * @param size the number of keys of the default source
+	 * @return the environment
+	 */
+	static Environment environment(int size) {
+		Map<String, Object> defaults = new LinkedHashMap<>();
+		Map<String, Object> profile = new LinkedHashMap<>();
+		for (int i = 0; i < size; i++) {
+			String key = (i % 2 == 0) ? "app.group" + (i % 100) + ".nested.key" + i
+					: "app.servers" + (i % 50) + "[" + (i / 100) + "].property" + (i % 7);
+			defaults.put(key, "value" + i);
+			if (i % 10 == 0) {
+				profile.put(key, "override" + i);
+			}
+		}
+		Environment environment = new Environment("app", "prod");
+		environment.setVersion("0123456789abcdef");
+		environment.add(new PropertySource("app-prod.yml", profile));
+		environment.add(new PropertySource("app.yml", defaults));
+		return environment;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(PropertyTreeBenchmark.class.getSimpleName()).build()).run();
+	}
+
+	/**
+	 * The conversion used before {@link PropertyTree}: flatten all sources into one map,
+	 * then walk every key with a new navigator that tokenizes it with substring and
+	 * {@link Integer#parseInt(String)}.
+	 */
+	static final class LegacyConverter {
+
+		private LegacyConverter() {
+		}
+
+		static Map<String, Object> convertToMap(Environment input) {
+			Map<String, Object> properties = convertToProperties(input);
+			Map<String, Object> rootMap = new LinkedHashMap<>();
+			for (Map.Entry<String, Object> entry : properties.entrySet()) {
+				PropertyNavigator nav = new PropertyNavigator(entry.getKey());
+				nav.setMapValue(rootMap, entry.getValue());
+			}
+			return rootMap;
+		}
+
+		private static Map<String, Object> convertToProperties(Environment profiles) {
+			List<PropertySource> sources = new ArrayList<>(profiles.getPropertySources());
+			Collections.reverse(sources);
+			Map<String, Object> combinedMap = new LinkedHashMap<>();
+			Map<String, Map<String, Object>> arrayMap = new LinkedHashMap<>();
+			for (PropertySource source : sources) {
+				@SuppressWarnings("unchecked")
+				Map<String, Object> value = (Map<String, Object>) source.getSource();
+				Map<String, Map<String, Object>> currentArrayMap = new LinkedHashMap<>();
+				for (Map.Entry<String, Object> entry : value.entrySet()) {
+					if (!entry.getKey().contains("[")) {
+						combinedMap.put(entry.getKey(), entry.getValue());
+					}
+					else {
+						String prefixKey = entry.getKey().substring(0, entry.getKey().indexOf("["));
+						currentArrayMap.computeIfAbsent(prefixKey, k -> new LinkedHashMap<>())
+							.put(entry.getKey(), entry.getValue());
+					}
+				}
+				arrayMap.putAll(currentArrayMap);
+			}
+			for (Map.Entry<String, Map<String, Object>> entry : arrayMap.entrySet()) {
+				combinedMap.putAll(entry.getValue());
+			}
+			combinedMap.keySet().removeIf(key -> key.equals("spring.profiles"));
+			return combinedMap;
+		}
+
+	}
+
+	private static final class PropertyNavigator {
+
+		private final String propertyKey;
+
+		private String prefix = "";
+
+		private int currentPos;
+
+		private NodeType valueType;
+
+		private PropertyNavigator(String propertyKey) {
+			this.propertyKey = propertyKey;
+			this.currentPos = -1;
+			this.valueType = NodeType.MAP;
+		}
+
+		@SuppressWarnings("unchecked")
+		private void setMapValue(Map<String, Object> map, Object value) {
+			String key = getKey();
+			if (NodeType.MAP.equals(this.valueType)) {
+				Map<String, Object> nestedMap;
+				if (map.get(key) instanceof Map) {
+					nestedMap = (Map<String, Object>) map.get(key);
+				}
+				else if (map.get(key) != null) {
+					this.prefix = key + ".";
+					nestedMap = map;
+				}
+				else {
+					nestedMap = new LinkedHashMap<>();
+					map.put(key, nestedMap);
+				}
+				setMapValue(nestedMap, value);
+			}
+			else if (NodeType.ARRAY.equals(this.valueType)) {
+				List<Object> list = (List<Object>) map.get(key);
+				if (list == null) {
+					list = new ArrayList<>();
+					map.put(key, list);
+				}
+				setListValue(list, value);
+			}
+			else {
+				map.put(this.prefix + key, value);
+			}
+		}
+
+		private void setListValue(List<Object> list, Object value) {
+			int index = getIndex();
+			while (list.size() <= index) {
+				list.add(null);
+			}
+			if (NodeType.MAP.equals(this.valueType)) {
+				@SuppressWarnings("unchecked")
+				Map<String, Object> map = (Map<String, Object>) list.get(index);
+				if (map == null) {
+					map = new LinkedHashMap<>();
+					list.set(index, map);
+				}
+				setMapValue(map, value);
+			}
+			else if (NodeType.ARRAY.equals(this.valueType)) {
+				@SuppressWarnings("unchecked")
+				List<Object> nestedList = (List<Object>) list.get(index);
+				if (nestedList == null) {
+					nestedList = new ArrayList<>();
+					list.set(index, nestedList);
+				}
+				setListValue(nestedList, value);
+			}
+			else {
+				list.set(index, value);
+			}
+		}
+
+		private int getIndex() {
+			int start = this.currentPos + 1;
+			for (int i = start; i < this.propertyKey.length(); i++) {
+				char c = this.propertyKey.charAt(i);
+				if (c == ']') {
+					this.currentPos = i;
+					break;
+				}
+				else if (!Character.isDigit(c)) {
+					throw new IllegalArgumentException("Invalid key: " + this.propertyKey);
+				}
+			}
+			if (this.currentPos < start || this.currentPos == start) {
+				throw new IllegalArgumentException("Invalid key: " + this.propertyKey);
+			}
+			int index = Integer.parseInt(this.propertyKey.substring(start, this.currentPos));
+			this.currentPos++;
+			if (this.currentPos == this.propertyKey.length()) {
+				this.valueType = NodeType.LEAF;
+			}
+			else {
+				switch (this.propertyKey.charAt(this.currentPos)) {
+					case '.':
+						this.valueType = NodeType.MAP;
+						break;
+					case '[':
+						this.valueType = NodeType.ARRAY;
+						break;
+					default:
+						throw new IllegalArgumentException("Invalid key: " + this.propertyKey);
+				}
+			}
+			return index;
+		}
+
+		private String getKey() {
+			int start = this.currentPos + 1;
+			int openingBracketPosition = -1;
+			for (int i = start; i < this.propertyKey.length(); i++) {
+				char currentChar = this.propertyKey.charAt(i);
+				if (currentChar == '.') {
+					this.valueType = NodeType.MAP;
+					this.currentPos = i;
+					break;
+				}
+				else if (currentChar == '[') {
+					openingBracketPosition = i;
+				}
+				else if (currentChar == ']') {
+					String bracketContents = this.propertyKey.substring(openingBracketPosition + 1, i);
+					try {
+						Integer.parseInt(bracketContents);
+						this.valueType = NodeType.ARRAY;
+						this.currentPos = openingBracketPosition;
+						break;
+					}
+					catch (NumberFormatException ex) {
+						// not an index, so the brackets are part of the key
+					}
+				}
+			}
+			if (this.currentPos < start) {
+				this.currentPos = this.propertyKey.length();
+				this.valueType = NodeType.LEAF;
+			}
+			else if (this.currentPos == start) {
+				throw new IllegalArgumentException("Invalid key: " + this.propertyKey);
+			}
+			return this.propertyKey.substring(start, this.currentPos);
+		}
+
+		private enum NodeType {
+
+			LEAF, MAP, ARRAY
+
+		}
+
+	}
+
+}
@@ -16,29 +16,68 @@
 
 package org.springframework.cloud.config.server.config;
 
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
 import io.micrometer.observation.ObservationRegistry;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.cloud.config.server.encryption.EnvironmentEncryptor;
 import org.springframework.cloud.config.server.encryption.ResourceEncryptor;
+import org.springframework.cloud.config.server.environment.AbstractScmEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.CoalescingEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.CompositeEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.EnvironmentBatchController;
+import org.springframework.cloud.config.server.environment.EnvironmentCacheControl;
 import org.springframework.cloud.config.server.environment.EnvironmentController;
 import org.springframework.cloud.config.server.environment.EnvironmentEncryptorEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.EnvironmentNegativeCache;
+import org.springframework.cloud.config.server.environment.EnvironmentNegativeCacheMeterBinder;
 import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.cloud.config.server.environment.EnvironmentRequestCoalescer;
+import org.springframework.cloud.config.server.environment.EnvironmentRequestCoalescerMeterBinder;
+import org.springframework.cloud.config.server.environment.EnvironmentRequestHistory;
+import org.springframework.cloud.config.server.environment.EnvironmentRequestsEndpoint;
+import org.springframework.cloud.config.server.environment.EnvironmentRequestLimiter;
+import org.springframework.cloud.config.server.environment.EnvironmentRequestLimiterMeterBinder;
+import org.springframework.cloud.config.server.environment.EnvironmentResponseCache;
+import org.springframework.cloud.config.server.environment.EnvironmentResponseCacheMeterBinder;
+import org.springframework.cloud.config.server.environment.EnvironmentSnapshots;
+import org.springframework.cloud.config.server.environment.EnvironmentStreamController;
+import org.springframework.cloud.config.server.environment.EnvironmentWarmer;
+import org.springframework.cloud.config.server.environment.EnvironmentWatchController;
+import org.springframework.cloud.config.server.environment.LimitingEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.MultipleJGitEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.NegativeCachingEnvironmentRepository;
+import org.springframework.cloud.config.server.resource.GenericResourceRepository;
 import org.springframework.cloud.config.server.resource.ResourceController;
 import org.springframework.cloud.config.server.resource.ResourceControllerAdvice;
 import org.springframework.cloud.config.server.resource.ResourceRepository;
+import org.springframework.cloud.config.server.support.InstrumentedLock;
+import org.springframework.cloud.config.server.support.InstrumentedLockMeterBinder;
+import org.springframework.cloud.config.server.support.ResponseCompressor;
 import org.springframework.cloud.context.config.annotation.RefreshScope;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -48,7 +87,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * @author Tim Ysewyn
  */
 @Configuration(proxyBeanMethods = false)
-@ConditionalOnWebApplication
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ConfigServerMvcConfiguration implements WebMvcConfigurer {
 
 	@Override
@@ -58,6 +97,230 @@ public class ConfigServerMvcConfiguration implements WebMvcConfigurer {
 		configurer.mediaType("yaml", MediaType.valueOf("text/yaml"));
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".cache.responses.enabled")
+	public EnvironmentResponseCache environmentResponseCache(ConfigServerProperties server) {
+		return new EnvironmentResponseCache(server.getCache().getResponses().getMaxSize().toBytes());
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(CacheMeterBinder.class)
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".cache.responses.enabled")
+	static class EnvironmentResponseCacheMetricsConfiguration {
+
+		@Bean
+		public EnvironmentResponseCacheMeterBinder environmentResponseCacheMeterBinder(
+				EnvironmentResponseCache environmentResponseCache) {
+			return new EnvironmentResponseCacheMeterBinder(environmentResponseCache);
+		}
+
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".cache.negative.enabled")
+	public EnvironmentNegativeCache environmentNegativeCache(ConfigServerProperties server) {
+		ConfigServerProperties.Cache.Negative negative = server.getCache().getNegative();
+		return new EnvironmentNegativeCache(negative.getMaxSize(), negative.getTtl());
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(CacheMeterBinder.class)
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".cache.negative.enabled")
+	static class EnvironmentNegativeCacheMetricsConfiguration {
+
+		@Bean
+		public EnvironmentNegativeCacheMeterBinder environmentNegativeCacheMeterBinder(
+				EnvironmentNegativeCache environmentNegativeCache) {
+			return new EnvironmentNegativeCacheMeterBinder(environmentNegativeCache);
+		}
+
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".coalesce-requests")
+	public EnvironmentRequestCoalescer environmentRequestCoalescer() {
+		return new EnvironmentRequestCoalescer();
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(MeterBinder.class)
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".coalesce-requests")
+	static class EnvironmentRequestCoalescerMetricsConfiguration {
+
+		@Bean
+		public EnvironmentRequestCoalescerMeterBinder environmentRequestCoalescerMeterBinder(
+				EnvironmentRequestCoalescer environmentRequestCoalescer) {
+			return new EnvironmentRequestCoalescerMeterBinder(environmentRequestCoalescer);
+		}
+
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".admission.enabled")
+	public EnvironmentRequestLimiter environmentRequestLimiter(ConfigServerProperties server) {
+		ConfigServerProperties.Admission admission = server.getAdmission();
+		EnvironmentRequestLimiter limiter = new EnvironmentRequestLimiter(admission.getMaxConcurrent(),
+				admission.getMaxQueued());
+		limiter.setMaxQueuedPerApplication(admission.getMaxQueuedPerApplication());
+		limiter.setMaxWait(admission.getMaxWait());
+		limiter.setRetryAfter(admission.getRetryAfter());
+		return limiter;
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(MeterBinder.class)
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".admission.enabled")
+	static class EnvironmentRequestLimiterMetricsConfiguration {
+
+		@Bean
+		public EnvironmentRequestLimiterMeterBinder environmentRequestLimiterMeterBinder(
+				EnvironmentRequestLimiter environmentRequestLimiter) {
+			return new EnvironmentRequestLimiterMeterBinder(environmentRequestLimiter);
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(MeterBinder.class)
+	static class InstrumentedLockMetricsConfiguration {
+
+		@Bean
+		public InstrumentedLockMeterBinder instrumentedLockMeterBinder(
+				ObjectProvider<AbstractScmEnvironmentRepository> environmentRepositories,
+				ObjectProvider<GenericResourceRepository> resourceRepositories,
+				ObjectProvider<ResourceController> resourceControllers) {
+			return new InstrumentedLockMeterBinder(() -> {
+				List<InstrumentedLock> locks = new ArrayList<>();
+				environmentRepositories.orderedStream().forEach(repository -> {
+					locks.add(repository.getLock());
+					if (repository instanceof MultipleJGitEnvironmentRepository multiple) {
+						multiple.getRepos().values().forEach(pattern -> locks.add(pattern.getLock()));
+					}
+				});
+				resourceRepositories.orderedStream().forEach(repository -> locks.add(repository.getLock()));
+				resourceControllers.orderedStream().forEach(controller -> locks.add(controller.getLock()));
+				return locks;
+			});
+		}
+
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".compression.enabled")
+	public ResponseCompressor responseCompressor(ConfigServerProperties server) {
+		return new ResponseCompressor(server.getCompression().getMinResponseSize().toBytes());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".delta.enabled")
+	public EnvironmentSnapshots environmentSnapshots(ConfigServerProperties server) {
+		return new EnvironmentSnapshots(server.getDelta().getMaxSize(), server.getDelta().getMaxVersions());
+	}
+
+	@Bean
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".batch.enabled")
+	public EnvironmentBatchController environmentBatchController(EnvironmentController environmentController,
+			ConfigServerProperties server, ObjectProvider<ObjectMapper> objectMapper) {
+		EnvironmentBatchController controller = new EnvironmentBatchController(environmentController,
+				objectMapper.getIfAvailable(ObjectMapper::new));
+		controller.setMaxSize(server.getBatch().getMaxSize());
+		return controller;
+	}
+
+	@Bean
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".watch.enabled")
+	public EnvironmentWatchController environmentWatchController(EnvironmentController environmentController,
+			ConfigServerProperties server) {
+		EnvironmentWatchController controller = new EnvironmentWatchController(environmentController,
+				server.getWatch().getCheckInterval());
+		controller.setDefaultWait(server.getWatch().getDefaultWait());
+		controller.setMaxWait(server.getWatch().getMaxWait());
+		return controller;
+	}
+
+	@Bean
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".stream.enabled")
+	public EnvironmentStreamController environmentStreamController(EnvironmentController environmentController,
+			ConfigServerProperties server) {
+		ConfigServerProperties.Stream stream = server.getStream();
+		EnvironmentStreamController controller = new EnvironmentStreamController(environmentController,
+				stream.getCheckInterval());
+		controller.setHeartbeatInterval(stream.getHeartbeatInterval());
+		controller.setTimeout(stream.getTimeout());
+		controller.setMaxSubscribers(stream.getMaxSubscribers());
+		return controller;
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".cache-control.enabled")
+	public EnvironmentCacheControl environmentCacheControl(
+			@Autowired(required = false) List<EnvironmentRepository> environmentRepos, ConfigServerProperties server) {
+		List<EnvironmentRepository> repositories = new ArrayList<>();
+		if (environmentRepos != null) {
+			for (EnvironmentRepository repository : environmentRepos) {
+				// the composite only aggregates the other repositories
+				if (!(repository instanceof CompositeEnvironmentRepository)) {
+					repositories.add(repository);
+				}
+			}
+		}
+		ConfigServerProperties.CacheControl properties = server.getCacheControl();
+		EnvironmentCacheControl cacheControl = new EnvironmentCacheControl(properties.getMaxAge() != null
+				? properties.getMaxAge() : EnvironmentCacheControl.getRefreshInterval(repositories));
+		cacheControl.setStaleWhileRevalidate(properties.getStaleWhileRevalidate());
+		cacheControl.setImmutableMaxAge(properties.getImmutableMaxAge());
+		cacheControl.setNoStore(properties.getNoStore() != null ? properties.getNoStore()
+				: EnvironmentCacheControl.containsSecrets(repositories));
+		cacheControl.setCachePublic(properties.isCachePublic());
+		return cacheControl;
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnExpression("${" + ConfigServerProperties.PREFIX + ".request-history.enabled:false} or ${"
+			+ ConfigServerProperties.PREFIX + ".warm-up.enabled:false}")
+	public EnvironmentRequestHistory environmentRequestHistory(ConfigServerProperties server) {
+		return new EnvironmentRequestHistory(
+				Math.max(server.getRequestHistory().getMaxSize(), server.getWarmUp().getHistorySize()));
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(Endpoint.class)
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".request-history.enabled")
+	static class EnvironmentRequestsEndpointConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnAvailableEndpoint
+		public EnvironmentRequestsEndpoint environmentRequestsEndpoint(
+				EnvironmentRequestHistory environmentRequestHistory) {
+			return new EnvironmentRequestsEndpoint(environmentRequestHistory);
+		}
+
+	}
+
+	@Bean
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".warm-up.enabled")
+	public EnvironmentWarmer environmentWarmer(EnvironmentController environmentController,
+			ObjectProvider<EnvironmentRequestHistory> environmentRequestHistory, ConfigServerProperties server) {
+		ConfigServerProperties.WarmUp warmUp = server.getWarmUp();
+		EnvironmentWarmer warmer = new EnvironmentWarmer(environmentController,
+				environmentRequestHistory.getIfAvailable());
+		warmer.setEnvironments(warmUp.getEnvironments());
+		warmer.setHistorySize(warmUp.getHistorySize());
+		warmer.setHistoryFile(StringUtils.hasText(warmUp.getHistoryFile()) ? Paths.get(warmUp.getHistoryFile())
+				: Paths.get(System.getProperty("java.io.tmpdir"), "config-server-request-history.txt"));
+		warmer.setWaitForReadiness(warmUp.isWaitForReadiness());
+		return warmer;
+	}
+
 	@Configuration(proxyBeanMethods = false)
 	@ConditionalOnMissingBean(org.springframework.cloud.context.scope.refresh.RefreshScope.class)
 	static class EnvironmentControllerConfiguration {
@@ -74,6 +337,36 @@ public class ConfigServerMvcConfiguration implements WebMvcConfigurer {
 		@Autowired(required = false)
 		private ObservationRegistry observationRegistry = ObservationRegistry.NOOP;
 
+		@Autowired(required = false)
+		private EnvironmentResponseCache responseCache;
+
+		@Autowired(required = false)
+		private EnvironmentNegativeCache negativeCache;
+
+		@Autowired(required = false)
+		private EnvironmentRequestCoalescer requestCoalescer;
+
+		@Autowired(required = false)
+		private EnvironmentRequestLimiter requestLimiter;
+
+		@Autowired(required = false)
+		private ResponseCompressor compressor;
+
+		@Autowired(required = false)
+		private EnvironmentSnapshots snapshots;
+
+		@Autowired(required = false)
+		private EnvironmentRequestHistory requestHistory;
+
+		@Autowired(required = false)
+		private EnvironmentCacheControl cacheControl;
+
+		private final Lock guardedLock = new ReentrantLock();
+
+		private EnvironmentRepository guardedSource;
+
+		private EnvironmentRepository guarded;
+
 		@Bean
 		public EnvironmentController environmentController(EnvironmentRepository envRepository,
 				ConfigServerProperties server) {
@@ -82,10 +375,16 @@ public class ConfigServerMvcConfiguration implements WebMvcConfigurer {
 
 		protected EnvironmentController delegateController(EnvironmentRepository envRepository,
 				ConfigServerProperties server) {
-			EnvironmentController controller = new EnvironmentController(encrypted(envRepository, server),
-					this.objectMapper);
+			EnvironmentEncryptorEnvironmentRepository encrypted = encrypted(envRepository, server);
+			EnvironmentController controller = new EnvironmentController(encrypted, this.objectMapper);
 			controller.setStripDocumentFromYaml(server.isStripDocumentFromYaml());
 			controller.setAcceptEmpty(server.isAcceptEmpty());
+			controller.setEtagSalt(encrypted.getFingerprint());
+			controller.setResponseCache(this.responseCache);
+			controller.setCompressor(this.compressor);
+			controller.setSnapshots(this.snapshots);
+			controller.setRequestHistory(this.requestHistory);
+			controller.setCacheControl(this.cacheControl);
 			return controller;
 		}
 
@@ -93,10 +392,15 @@ public class ConfigServerMvcConfiguration implements WebMvcConfigurer {
 		@ConditionalOnBean(ResourceRepository.class)
 		public ResourceController resourceController(ResourceRepository repository, EnvironmentRepository envRepository,
 				ConfigServerProperties server) {
-			ResourceController controller = new ResourceController(repository, encrypted(envRepository, server),
-					this.resourceEncryptorMap);
+			EnvironmentEncryptorEnvironmentRepository encrypted = encrypted(envRepository, server);
+			ResourceController controller = new ResourceController(repository, encrypted, this.resourceEncryptorMap);
 			controller.setEncryptEnabled(server.getEncrypt().isEnabled());
 			controller.setPlainTextEncryptEnabled(server.getEncrypt().isPlainTextEncrypt());
+			controller.setCompressor(this.compressor);
+			controller.setResponseCache(this.responseCache);
+			controller.setCacheSalt(encrypted.getFingerprint());
+			controller.setRequestHistory(this.requestHistory);
+			controller.setCacheControl(this.cacheControl);
 			return controller;
 		}
 
@@ -106,13 +410,43 @@ public class ConfigServerMvcConfiguration implements WebMvcConfigurer {
 			return new ResourceControllerAdvice();
 		}
 
-		private EnvironmentRepository encrypted(EnvironmentRepository envRepository, ConfigServerProperties server) {
+		private EnvironmentEncryptorEnvironmentRepository encrypted(EnvironmentRepository envRepository,
+				ConfigServerProperties server) {
 			EnvironmentEncryptorEnvironmentRepository encrypted = new EnvironmentEncryptorEnvironmentRepository(
-					envRepository, this.environmentEncryptors, this.observationRegistry);
+					guarded(envRepository), this.environmentEncryptors, this.observationRegistry);
 			encrypted.setOverrides(server.getOverrides());
 			return encrypted;
 		}
 
+		/**
+		 * Wrap the repository in the request limiter, coalescer and negative cache once, so
+		 * that the environment and resource controllers share slots, calls in flight and
+		 * cached misses.
+		 */
+		private EnvironmentRepository guarded(EnvironmentRepository envRepository) {
+			this.guardedLock.lock();
+			try {
+				if (this.guardedSource != envRepository) {
+					EnvironmentRepository delegate = this.requestLimiter != null
+							? new LimitingEnvironmentRepository(envRepository, this.requestLimiter) : envRepository;
+					if (this.requestCoalescer != null) {
+						// coalesced requests share the slot of the request they join
+						delegate = new CoalescingEnvironmentRepository(delegate, this.requestCoalescer);
+					}
+					if (this.negativeCache != null) {
+						// known misses neither wait for a slot nor join a backend call
+						delegate = new NegativeCachingEnvironmentRepository(delegate, this.negativeCache);
+					}
+					this.guarded = delegate;
+					this.guardedSource = envRepository;
+				}
+				return this.guarded;
+			}
+			finally {
+				this.guardedLock.unlock();
+			}
+		}
+
 	}
 
 	@Configuration(proxyBeanMethods = false)
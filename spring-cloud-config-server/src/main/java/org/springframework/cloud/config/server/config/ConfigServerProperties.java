@@ -16,11 +16,15 @@
 
 package org.springframework.cloud.config.server.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.core.style.ToStringCreator;
+import org.springframework.util.unit.DataSize;
 
 /**
  * @author Dave Syer
@@ -103,12 +107,69 @@ public class ConfigServerProperties {
 	 */
 	private boolean reverseLocationOrder = false;
 
+	/**
+	 * Flag indicating that concurrent identical environment requests (same application,
+	 * profiles, label and origin flag) should share a single call to the environment
+	 * repository instead of each repeating the same work.
+	 */
+	private boolean coalesceRequests = false;
+
 	/**
 	 * Decryption configuration for when server handles encrypted properties before
 	 * sending them to clients.
 	 */
 	private Encrypt encrypt = new Encrypt();
 
+	/**
+	 * Caching configuration for assembled environments.
+	 */
+	private Cache cache = new Cache();
+
+	/**
+	 * Batch environment endpoint configuration.
+	 */
+	private Batch batch = new Batch();
+
+	/**
+	 * Response compression configuration.
+	 */
+	private Compression compression = new Compression();
+
+	/**
+	 * Configuration of the snapshots used for environment deltas.
+	 */
+	private Delta delta = new Delta();
+
+	/**
+	 * Long-poll watch endpoint configuration.
+	 */
+	private Watch watch = new Watch();
+
+	/**
+	 * Server-sent events change stream configuration.
+	 */
+	private Stream stream = new Stream();
+
+	/**
+	 * Admission control for environment requests.
+	 */
+	private Admission admission = new Admission();
+
+	/**
+	 * Warm-up of environments on startup and after backend changes.
+	 */
+	private WarmUp warmUp = new WarmUp();
+
+	/**
+	 * Tracking of the most requested environments.
+	 */
+	private RequestHistory requestHistory = new RequestHistory();
+
+	/**
+	 * Cache-Control headers of environment and resource responses.
+	 */
+	private CacheControl cacheControl = new CacheControl();
+
 	public boolean isEnabled() {
 		return this.enabled;
 	}
@@ -121,6 +182,46 @@ public class ConfigServerProperties {
 		return this.encrypt;
 	}
 
+	public Cache getCache() {
+		return this.cache;
+	}
+
+	public Batch getBatch() {
+		return this.batch;
+	}
+
+	public Compression getCompression() {
+		return this.compression;
+	}
+
+	public Delta getDelta() {
+		return this.delta;
+	}
+
+	public Watch getWatch() {
+		return this.watch;
+	}
+
+	public Stream getStream() {
+		return this.stream;
+	}
+
+	public Admission getAdmission() {
+		return this.admission;
+	}
+
+	public WarmUp getWarmUp() {
+		return this.warmUp;
+	}
+
+	public RequestHistory getRequestHistory() {
+		return this.requestHistory;
+	}
+
+	public CacheControl getCacheControl() {
+		return this.cacheControl;
+	}
+
 	public String getDefaultLabel() {
 		return this.defaultLabel;
 	}
@@ -201,6 +302,14 @@ public class ConfigServerProperties {
 		this.reverseLocationOrder = reverseLocationOrder;
 	}
 
+	public boolean isCoalesceRequests() {
+		return this.coalesceRequests;
+	}
+
+	public void setCoalesceRequests(boolean coalesceRequests) {
+		this.coalesceRequests = coalesceRequests;
+	}
+
 	@Override
 	public String toString() {
 		return new ToStringCreator(this).append("enabled", enabled)
@@ -215,6 +324,17 @@ public class ConfigServerProperties {
 			.append("failOnCompositeError", failOnCompositeError)
 			.append("encrypt", encrypt)
 			.append("reverseLocationOrder", reverseLocationOrder)
+			.append("coalesceRequests", coalesceRequests)
+			.append("cache", cache)
+			.append("batch", batch)
+			.append("compression", compression)
+			.append("delta", delta)
+			.append("watch", watch)
+			.append("stream", stream)
+			.append("admission", admission)
+			.append("warmUp", warmUp)
+			.append("requestHistory", requestHistory)
+			.append("cacheControl", cacheControl)
 			.toString();
 
 	}
@@ -261,4 +381,748 @@ public class ConfigServerProperties {
 
 	}
 
+	/**
+	 * Environment cache properties.
+	 */
+	public static class Cache {
+
+		/**
+		 * Enable caching of environments assembled by version-aware repositories (e.g.
+		 * git and svn). Cached entries are keyed by the backend version (e.g. commit id)
+		 * and are dropped as soon as that version changes.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of cached environments.
+		 */
+		private int maxSize = 1000;
+
+		/**
+		 * Cache of rendered environment responses.
+		 */
+		private Responses responses = new Responses();
+
+		/**
+		 * Cache of negative results (unknown labels, repositories and applications).
+		 */
+		private Negative negative = new Negative();
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMaxSize() {
+			return this.maxSize;
+		}
+
+		public void setMaxSize(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		public Responses getResponses() {
+			return this.responses;
+		}
+
+		public Negative getNegative() {
+			return this.negative;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("enabled", enabled)
+				.append("maxSize", maxSize)
+				.append("responses", responses)
+				.append("negative", negative)
+				.toString();
+
+		}
+
+		public static class Responses {
+
+			/**
+			 * Enable caching of rendered JSON, properties and YAML responses. Responses are
+			 * keyed by their ETag, which includes the environment version, so only
+			 * versioned environments are cached.
+			 */
+			private boolean enabled = false;
+
+			/**
+			 * Maximum total size of the cached responses.
+			 */
+			private DataSize maxSize = DataSize.ofMegabytes(64);
+
+			public boolean isEnabled() {
+				return this.enabled;
+			}
+
+			public void setEnabled(boolean enabled) {
+				this.enabled = enabled;
+			}
+
+			public DataSize getMaxSize() {
+				return this.maxSize;
+			}
+
+			public void setMaxSize(DataSize maxSize) {
+				this.maxSize = maxSize;
+			}
+
+			@Override
+			public String toString() {
+				return new ToStringCreator(this).append("enabled", enabled).append("maxSize", maxSize).toString();
+			}
+
+		}
+
+		public static class Negative {
+
+			/**
+			 * Enable caching of requests for labels or repositories that do not exist and
+			 * for applications without any configuration, so that clients retrying them
+			 * do not hit the backend every time. Entries are dropped when the backend
+			 * reports a change (e.g. a webhook or a fetch that found new commits).
+			 */
+			private boolean enabled = false;
+
+			/**
+			 * Maximum number of cached negative results.
+			 */
+			private int maxSize = 1000;
+
+			/**
+			 * How long a negative result is remembered.
+			 */
+			private Duration ttl = Duration.ofSeconds(10);
+
+			public boolean isEnabled() {
+				return this.enabled;
+			}
+
+			public void setEnabled(boolean enabled) {
+				this.enabled = enabled;
+			}
+
+			public int getMaxSize() {
+				return this.maxSize;
+			}
+
+			public void setMaxSize(int maxSize) {
+				this.maxSize = maxSize;
+			}
+
+			public Duration getTtl() {
+				return this.ttl;
+			}
+
+			public void setTtl(Duration ttl) {
+				this.ttl = ttl;
+			}
+
+			@Override
+			public String toString() {
+				return new ToStringCreator(this).append("enabled", enabled)
+					.append("maxSize", maxSize)
+					.append("ttl", ttl)
+					.toString();
+			}
+
+		}
+
+	}
+
+	public static class Batch {
+
+		/**
+		 * Enable the batch endpoint (<code>POST /batch</code>) that returns the
+		 * environments of many applications in one call.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of environments requested in one batch.
+		 */
+		private int maxSize = 100;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMaxSize() {
+			return this.maxSize;
+		}
+
+		public void setMaxSize(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("enabled", enabled).append("maxSize", maxSize).toString();
+		}
+
+	}
+
+	public static class Compression {
+
+		/**
+		 * Compress environment and text resource responses with gzip or deflate for
+		 * clients that accept it. With the response cache enabled, compressed bodies are
+		 * cached too, so each version is compressed only once.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Minimum size of a response body for it to be compressed.
+		 */
+		private DataSize minResponseSize = DataSize.ofKilobytes(2);
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public DataSize getMinResponseSize() {
+			return this.minResponseSize;
+		}
+
+		public void setMinResponseSize(DataSize minResponseSize) {
+			this.minResponseSize = minResponseSize;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("enabled", enabled)
+				.append("minResponseSize", minResponseSize)
+				.toString();
+		}
+
+	}
+
+	public static class Delta {
+
+		/**
+		 * Keep snapshots of recently served environment versions, so that clients can
+		 * request only the properties that changed since the version they hold.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of environments (application, profiles and label) with
+		 * snapshots.
+		 */
+		private int maxSize = 1000;
+
+		/**
+		 * Maximum number of versions kept per environment.
+		 */
+		private int maxVersions = 5;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMaxSize() {
+			return this.maxSize;
+		}
+
+		public void setMaxSize(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		public int getMaxVersions() {
+			return this.maxVersions;
+		}
+
+		public void setMaxVersions(int maxVersions) {
+			this.maxVersions = maxVersions;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("enabled", enabled)
+				.append("maxSize", maxSize)
+				.append("maxVersions", maxVersions)
+				.toString();
+		}
+
+	}
+
+	public static class Watch {
+
+		/**
+		 * Enable the long-poll endpoint at /watch that holds a request until the
+		 * environment version differs from the one the client sent.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * How often watched environments are checked for a new version.
+		 */
+		private Duration checkInterval = Duration.ofSeconds(5);
+
+		/**
+		 * How long a request without a wait parameter is held.
+		 */
+		private Duration defaultWait = Duration.ofSeconds(30);
+
+		/**
+		 * Maximum time a request is held, whatever wait the client asks for.
+		 */
+		private Duration maxWait = Duration.ofMinutes(5);
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getCheckInterval() {
+			return this.checkInterval;
+		}
+
+		public void setCheckInterval(Duration checkInterval) {
+			this.checkInterval = checkInterval;
+		}
+
+		public Duration getDefaultWait() {
+			return this.defaultWait;
+		}
+
+		public void setDefaultWait(Duration defaultWait) {
+			this.defaultWait = defaultWait;
+		}
+
+		public Duration getMaxWait() {
+			return this.maxWait;
+		}
+
+		public void setMaxWait(Duration maxWait) {
+			this.maxWait = maxWait;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("enabled", enabled)
+				.append("checkInterval", checkInterval)
+				.append("defaultWait", defaultWait)
+				.append("maxWait", maxWait)
+				.toString();
+		}
+
+	}
+
+	public static class Stream {
+
+		/**
+		 * Enable the server-sent events endpoint at /stream that sends an event every
+		 * time the version of an environment changes.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * How often subscribed environments are checked for a new version.
+		 */
+		private Duration checkInterval = Duration.ofSeconds(5);
+
+		/**
+		 * How often a heartbeat comment is sent to every subscriber.
+		 */
+		private Duration heartbeatInterval = Duration.ofSeconds(30);
+
+		/**
+		 * How long a stream stays open before the client has to reconnect.
+		 */
+		private Duration timeout = Duration.ofMinutes(30);
+
+		/**
+		 * Maximum number of concurrent subscribers.
+		 */
+		private int maxSubscribers = 10000;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getCheckInterval() {
+			return this.checkInterval;
+		}
+
+		public void setCheckInterval(Duration checkInterval) {
+			this.checkInterval = checkInterval;
+		}
+
+		public Duration getHeartbeatInterval() {
+			return this.heartbeatInterval;
+		}
+
+		public void setHeartbeatInterval(Duration heartbeatInterval) {
+			this.heartbeatInterval = heartbeatInterval;
+		}
+
+		public Duration getTimeout() {
+			return this.timeout;
+		}
+
+		public void setTimeout(Duration timeout) {
+			this.timeout = timeout;
+		}
+
+		public int getMaxSubscribers() {
+			return this.maxSubscribers;
+		}
+
+		public void setMaxSubscribers(int maxSubscribers) {
+			this.maxSubscribers = maxSubscribers;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("enabled", enabled)
+				.append("checkInterval", checkInterval)
+				.append("heartbeatInterval", heartbeatInterval)
+				.append("timeout", timeout)
+				.append("maxSubscribers", maxSubscribers)
+				.toString();
+		}
+
+	}
+
+	public static class Admission {
+
+		/**
+		 * Limit the number of environment requests that are served concurrently, queue
+		 * the excess and reject requests with a 503 once the queue is full.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of environment requests served concurrently.
+		 */
+		private int maxConcurrent = 20;
+
+		/**
+		 * Maximum number of environment requests waiting to be served.
+		 */
+		private int maxQueued = 100;
+
+		/**
+		 * Maximum number of waiting requests for a single application. Zero or less for
+		 * no limit other than max-queued.
+		 */
+		private int maxQueuedPerApplication = 0;
+
+		/**
+		 * Maximum time a request waits to be served before it is rejected.
+		 */
+		private Duration maxWait = Duration.ofSeconds(10);
+
+		/**
+		 * Delay sent in the Retry-After header of rejected requests.
+		 */
+		private Duration retryAfter = Duration.ofSeconds(5);
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMaxConcurrent() {
+			return this.maxConcurrent;
+		}
+
+		public void setMaxConcurrent(int maxConcurrent) {
+			this.maxConcurrent = maxConcurrent;
+		}
+
+		public int getMaxQueued() {
+			return this.maxQueued;
+		}
+
+		public void setMaxQueued(int maxQueued) {
+			this.maxQueued = maxQueued;
+		}
+
+		public int getMaxQueuedPerApplication() {
+			return this.maxQueuedPerApplication;
+		}
+
+		public void setMaxQueuedPerApplication(int maxQueuedPerApplication) {
+			this.maxQueuedPerApplication = maxQueuedPerApplication;
+		}
+
+		public Duration getMaxWait() {
+			return this.maxWait;
+		}
+
+		public void setMaxWait(Duration maxWait) {
+			this.maxWait = maxWait;
+		}
+
+		public Duration getRetryAfter() {
+			return this.retryAfter;
+		}
+
+		public void setRetryAfter(Duration retryAfter) {
+			this.retryAfter = retryAfter;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("enabled", enabled)
+				.append("maxConcurrent", maxConcurrent)
+				.append("maxQueued", maxQueued)
+				.append("maxQueuedPerApplication", maxQueuedPerApplication)
+				.append("maxWait", maxWait)
+				.append("retryAfter", retryAfter)
+				.toString();
+		}
+
+	}
+
+	public static class WarmUp {
+
+		/**
+		 * Load and render environments before clients ask for them: when the server has
+		 * started and again whenever the backend reports a change.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Environments that are always warmed up, in the form
+		 * <code>name/profiles[/label]</code>.
+		 */
+		private List<String> environments = new ArrayList<>();
+
+		/**
+		 * Number of most requested environments that are remembered across restarts and
+		 * warmed up.
+		 */
+		private int historySize = 50;
+
+		/**
+		 * File in which the most requested environments are remembered across restarts.
+		 * Defaults to a file in the temporary directory.
+		 */
+		private String historyFile;
+
+		/**
+		 * Whether the server waits for the initial warm-up to finish before it reports
+		 * itself ready to accept traffic. Otherwise the warm-up runs in the background.
+		 */
+		private boolean waitForReadiness = false;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public List<String> getEnvironments() {
+			return this.environments;
+		}
+
+		public void setEnvironments(List<String> environments) {
+			this.environments = environments;
+		}
+
+		public int getHistorySize() {
+			return this.historySize;
+		}
+
+		public void setHistorySize(int historySize) {
+			this.historySize = historySize;
+		}
+
+		public String getHistoryFile() {
+			return this.historyFile;
+		}
+
+		public void setHistoryFile(String historyFile) {
+			this.historyFile = historyFile;
+		}
+
+		public boolean isWaitForReadiness() {
+			return this.waitForReadiness;
+		}
+
+		public void setWaitForReadiness(boolean waitForReadiness) {
+			this.waitForReadiness = waitForReadiness;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("enabled", enabled)
+				.append("environments", environments)
+				.append("historySize", historySize)
+				.append("historyFile", historyFile)
+				.append("waitForReadiness", waitForReadiness)
+				.toString();
+		}
+
+	}
+
+	public static class RequestHistory {
+
+		/**
+		 * Track how often each environment (application, profiles and label) is
+		 * requested, and expose the most requested ones through the
+		 * <code>environmentrequests</code> actuator endpoint. Always enabled when warm-up
+		 * is enabled.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Maximum number of most requested environments remembered.
+		 */
+		private int maxSize = 100;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getMaxSize() {
+			return this.maxSize;
+		}
+
+		public void setMaxSize(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("enabled", enabled).append("maxSize", maxSize).toString();
+		}
+
+	}
+
+	public static class CacheControl {
+
+		/**
+		 * Add Cache-Control headers to environment and resource responses, so that HTTP
+		 * caches in front of the server can answer repeated requests.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * How long responses may be cached. Defaults to the refresh rate of the git
+		 * repositories, or to no caching without revalidation if the backend is checked on
+		 * every request.
+		 */
+		private Duration maxAge;
+
+		/**
+		 * How long a stale response may be served while it is revalidated.
+		 */
+		private Duration staleWhileRevalidate;
+
+		/**
+		 * How long responses for full commit id labels may be cached. These are marked
+		 * immutable.
+		 */
+		private Duration immutableMaxAge = Duration.ofDays(365);
+
+		/**
+		 * Forbid caching of responses. Defaults to true if a backend serves secrets (e.g.
+		 * Vault or CredHub).
+		 */
+		private Boolean noStore;
+
+		/**
+		 * Add the public directive, allowing shared caches to store responses to
+		 * authenticated requests.
+		 */
+		private boolean cachePublic = false;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public Duration getMaxAge() {
+			return this.maxAge;
+		}
+
+		public void setMaxAge(Duration maxAge) {
+			this.maxAge = maxAge;
+		}
+
+		public Duration getStaleWhileRevalidate() {
+			return this.staleWhileRevalidate;
+		}
+
+		public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+			this.staleWhileRevalidate = staleWhileRevalidate;
+		}
+
+		public Duration getImmutableMaxAge() {
+			return this.immutableMaxAge;
+		}
+
+		public void setImmutableMaxAge(Duration immutableMaxAge) {
+			this.immutableMaxAge = immutableMaxAge;
+		}
+
+		public Boolean getNoStore() {
+			return this.noStore;
+		}
+
+		public void setNoStore(Boolean noStore) {
+			this.noStore = noStore;
+		}
+
+		public boolean isCachePublic() {
+			return this.cachePublic;
+		}
+
+		public void setCachePublic(boolean cachePublic) {
+			this.cachePublic = cachePublic;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("enabled", enabled)
+				.append("maxAge", maxAge)
+				.append("staleWhileRevalidate", staleWhileRevalidate)
+				.append("immutableMaxAge", immutableMaxAge)
+				.append("noStore", noStore)
+				.append("cachePublic", cachePublic)
+				.toString();
+		}
+
+	}
+
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Mono;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cloud.config.server.encryption.EnvironmentEncryptor;
+import org.springframework.cloud.config.server.encryption.ResourceEncryptor;
+import org.springframework.cloud.config.server.environment.CompositeEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.EnvironmentEncryptorEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.cloud.config.server.environment.ReactiveCompositeEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.ReactiveEnvironmentController;
+import org.springframework.cloud.config.server.environment.ReactiveEnvironmentEncryptorEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.ReactiveEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.ReactiveEnvironmentRepositoryAdapter;
+import org.springframework.cloud.config.server.environment.ReactiveRedisEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.RedisEnvironmentProperties;
+import org.springframework.cloud.config.server.environment.RedisEnvironmentRepository;
+import org.springframework.cloud.config.server.resource.ReactiveResourceController;
+import org.springframework.cloud.config.server.resource.ResourceController;
+import org.springframework.cloud.config.server.resource.ResourceControllerAdvice;
+import org.springframework.cloud.config.server.resource.ResourceRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+/**
+ * Serves environments and resources with WebFlux when the server runs on a reactive web
+ * stack. Repositories with a non-blocking client are queried natively, all others run
+ * on the bounded elastic scheduler.
+ *
+ * @since 4.3.0
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnClass(Mono.class)
+public class ConfigServerWebFluxConfiguration {
+
+	@Bean
+	@ConditionalOnMissingBean
+	public ReactiveCompositeEnvironmentRepository reactiveCompositeEnvironmentRepository(
+			@Autowired(required = false) List<EnvironmentRepository> environmentRepos,
+			ObjectProvider<ReactiveRedisEnvironmentRepository> reactiveRedis, ConfigServerProperties properties) {
+		List<EnvironmentRepository> blocking = new ArrayList<>();
+		if (environmentRepos != null) {
+			for (EnvironmentRepository repository : environmentRepos) {
+				// the primary composite is made of all the others
+				if (!(repository instanceof CompositeEnvironmentRepository)) {
+					blocking.add(repository);
+				}
+			}
+		}
+		List<ReactiveEnvironmentRepository> repositories = new ArrayList<>();
+		ReactiveRedisEnvironmentRepository redis = reactiveRedis.getIfAvailable();
+		if (redis != null && blocking.stream().filter(RedisEnvironmentRepository.class::isInstance).count() == 1) {
+			blocking.removeIf(RedisEnvironmentRepository.class::isInstance);
+			repositories.add(redis);
+		}
+		for (EnvironmentRepository repository : blocking) {
+			repositories.add(new ReactiveEnvironmentRepositoryAdapter(repository));
+		}
+		return new ReactiveCompositeEnvironmentRepository(repositories, properties.isFailOnCompositeError());
+	}
+
+	@Bean
+	@ConditionalOnMissingBean
+	public ReactiveEnvironmentController reactiveEnvironmentController(
+			ReactiveCompositeEnvironmentRepository repository, EnvironmentRepository envRepository,
+			ConfigServerProperties server, ObjectProvider<EnvironmentEncryptor> environmentEncryptors,
+			ObjectProvider<ObjectMapper> objectMapper, ObjectProvider<ObservationRegistry> observationRegistry) {
+		EnvironmentEncryptorEnvironmentRepository encryptor = new EnvironmentEncryptorEnvironmentRepository(
+				envRepository, environmentEncryptors.orderedStream().toList(),
+				observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+		encryptor.setOverrides(server.getOverrides());
+		ReactiveEnvironmentController controller = new ReactiveEnvironmentController(
+				new ReactiveEnvironmentEncryptorEnvironmentRepository(repository, encryptor),
+				objectMapper.getIfAvailable(ObjectMapper::new));
+		controller.setStripDocumentFromYaml(server.isStripDocumentFromYaml());
+		controller.setAcceptEmpty(server.isAcceptEmpty());
+		controller.setEtagSalt(encryptor.getFingerprint());
+		return controller;
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnBean(ResourceRepository.class)
+	static class ReactiveResourceControllerConfiguration {
+
+		@Autowired(required = false)
+		private List<EnvironmentEncryptor> environmentEncryptors;
+
+		@Autowired(required = false)
+		private Map<String, ResourceEncryptor> resourceEncryptorMap = new HashMap<>();
+
+		@Bean
+		@ConditionalOnMissingBean
+		public ReactiveResourceController reactiveResourceController(ResourceRepository repository,
+				EnvironmentRepository envRepository, ConfigServerProperties server,
+				ObjectProvider<ObservationRegistry> observationRegistry) {
+			EnvironmentEncryptorEnvironmentRepository encrypted = new EnvironmentEncryptorEnvironmentRepository(
+					envRepository, this.environmentEncryptors,
+					observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+			encrypted.setOverrides(server.getOverrides());
+			ResourceController controller = new ResourceController(repository, encrypted, this.resourceEncryptorMap);
+			controller.setEncryptEnabled(server.getEncrypt().isEnabled());
+			controller.setPlainTextEncryptEnabled(server.getEncrypt().isPlainTextEncrypt());
+			return new ReactiveResourceController(controller);
+		}
+
+		@Bean
+		public ResourceControllerAdvice resourceControllerAdvice() {
+			return new ResourceControllerAdvice();
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(ReactiveStringRedisTemplate.class)
+	static class ReactiveRedisConfiguration {
+
+		@Bean
+		@ConditionalOnBean({ RedisEnvironmentRepository.class, ReactiveStringRedisTemplate.class })
+		public ReactiveRedisEnvironmentRepository reactiveRedisEnvironmentRepository(
+				ReactiveStringRedisTemplate redis, RedisEnvironmentProperties properties) {
+			return new ReactiveRedisEnvironmentRepository(redis, properties);
+		}
+
+	}
+
+}
@@ -20,6 +20,8 @@ import java.util.List;
 import java.util.Optional;
 
 import com.google.cloud.secretmanager.v1.SecretManagerServiceClient;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
 import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import org.apache.http.client.HttpClient;
@@ -57,6 +59,8 @@ import org.springframework.cloud.config.server.environment.ConsulEnvironmentWatc
 import org.springframework.cloud.config.server.environment.CredhubEnvironmentProperties;
 import org.springframework.cloud.config.server.environment.CredhubEnvironmentRepository;
 import org.springframework.cloud.config.server.environment.CredhubEnvironmentRepositoryFactory;
+import org.springframework.cloud.config.server.environment.EnvironmentCache;
+import org.springframework.cloud.config.server.environment.EnvironmentCacheMeterBinder;
 import org.springframework.cloud.config.server.environment.EnvironmentRepository;
 import org.springframework.cloud.config.server.environment.EnvironmentWatch;
 import org.springframework.cloud.config.server.environment.GoogleSecretManagerEnvironmentProperties;
@@ -66,6 +70,8 @@ import org.springframework.cloud.config.server.environment.HttpClient4BuilderCus
 import org.springframework.cloud.config.server.environment.HttpClientConfigurableHttpConnectionFactory;
 import org.springframework.cloud.config.server.environment.HttpClientVaultRestTemplateFactory;
 import org.springframework.cloud.config.server.environment.HttpRequestConfigTokenProvider;
+import org.springframework.cloud.config.server.environment.JGitFetchScheduler;
+import org.springframework.cloud.config.server.environment.JGitFetchSchedulerMeterBinder;
 import org.springframework.cloud.config.server.environment.JdbcEnvironmentProperties;
 import org.springframework.cloud.config.server.environment.JdbcEnvironmentRepository;
 import org.springframework.cloud.config.server.environment.JdbcEnvironmentRepositoryFactory;
@@ -144,6 +150,13 @@ public class EnvironmentRepositoryConfiguration {
 		return new MultipleJGitEnvironmentProperties();
 	}
 
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".cache.enabled")
+	public EnvironmentCache environmentCache(ConfigServerProperties server) {
+		return new EnvironmentCache(server.getCache().getMaxSize());
+	}
+
 	@Bean
 	@ConditionalOnMissingBean(ConfigTokenProvider.class)
 	public ConfigTokenProvider defaultConfigTokenProvider(ObjectProvider<HttpServletRequest> httpRequest) {
@@ -163,6 +176,18 @@ public class EnvironmentRepositoryConfiguration {
 
 	}
 
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(CacheMeterBinder.class)
+	@ConditionalOnProperty(ConfigServerProperties.PREFIX + ".cache.enabled")
+	protected static class EnvironmentCacheMetricsConfiguration {
+
+		@Bean
+		public EnvironmentCacheMeterBinder environmentCacheMeterBinder(EnvironmentCache environmentCache) {
+			return new EnvironmentCacheMeterBinder(environmentCache);
+		}
+
+	}
+
 	@Configuration(proxyBeanMethods = false)
 	@ConditionalOnProperty("spring.cloud.config.server.consul.watch.enabled")
 	protected static class ConsulEnvironmentWatchConfiguration {
@@ -196,11 +221,22 @@ public class EnvironmentRepositoryConfiguration {
 				Optional<TransportConfigCallback> customTransportConfigCallback,
 				Optional<GoogleCloudSourceSupport> googleCloudSourceSupport,
 				GitCredentialsProviderFactory gitCredentialsProviderFactory,
-				List<HttpClient4BuilderCustomizer> customizers) {
+				List<HttpClient4BuilderCustomizer> customizers, ObjectProvider<EnvironmentCache> environmentCache,
+				JGitFetchScheduler fetchScheduler) {
 			final TransportConfigCallbackFactory transportConfigCallbackFactory = new TransportConfigCallbackFactory(
 					customTransportConfigCallback.orElse(null), googleCloudSourceSupport.orElse(null));
-			return new MultipleJGitEnvironmentRepositoryFactory(environment, server, jgitHttpConnectionFactory,
-					transportConfigCallbackFactory, gitCredentialsProviderFactory, customizers);
+			MultipleJGitEnvironmentRepositoryFactory factory = new MultipleJGitEnvironmentRepositoryFactory(
+					environment, server, jgitHttpConnectionFactory, transportConfigCallbackFactory,
+					gitCredentialsProviderFactory, customizers);
+			factory.setEnvironmentCache(environmentCache.getIfAvailable());
+			factory.setFetchScheduler(fetchScheduler);
+			return factory;
+		}
+
+		@Bean
+		@ConditionalOnMissingBean
+		public JGitFetchScheduler jgitFetchScheduler() {
+			return new JGitFetchScheduler();
 		}
 
 		@Bean
@@ -211,6 +247,18 @@ public class EnvironmentRepositoryConfiguration {
 
 	}
 
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass({ MeterBinder.class, TransportConfigCallback.class })
+	@ConditionalOnProperty("spring.cloud.config.server.git.background-fetch")
+	static class JGitFetchMetricsConfig {
+
+		@Bean
+		public JGitFetchSchedulerMeterBinder jgitFetchSchedulerMeterBinder(JGitFetchScheduler fetchScheduler) {
+			return new JGitFetchSchedulerMeterBinder(fetchScheduler);
+		}
+
+	}
+
 	@Configuration(proxyBeanMethods = false)
 	@ConditionalOnClass({ HttpClient.class, TransportConfigCallback.class })
 	static class JGitHttpClientConfig {
@@ -270,9 +318,12 @@ public class EnvironmentRepositoryConfiguration {
 
 		@Bean
 		public SvnEnvironmentRepositoryFactory svnEnvironmentRepositoryFactory(ConfigurableEnvironment environment,
-				ConfigServerProperties server, ObjectProvider<ObservationRegistry> observationRegistry) {
-			return new SvnEnvironmentRepositoryFactory(environment, server,
+				ConfigServerProperties server, ObjectProvider<ObservationRegistry> observationRegistry,
+				ObjectProvider<EnvironmentCache> environmentCache) {
+			SvnEnvironmentRepositoryFactory factory = new SvnEnvironmentRepositoryFactory(environment, server,
 					observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+			factory.setEnvironmentCache(environmentCache.getIfAvailable());
+			return factory;
 		}
 
 	}
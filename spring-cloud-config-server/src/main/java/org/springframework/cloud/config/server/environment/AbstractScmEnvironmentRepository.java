@@ -16,9 +16,11 @@
 
 package org.springframework.cloud.config.server.environment;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 import io.micrometer.observation.ObservationRegistry;
@@ -26,6 +28,7 @@ import io.micrometer.observation.ObservationRegistry;
 import org.springframework.cloud.config.environment.Environment;
 import org.springframework.cloud.config.server.support.AbstractScmAccessor;
 import org.springframework.cloud.config.server.support.AbstractScmAccessorProperties;
+import org.springframework.cloud.config.server.support.InstrumentedLock;
 import org.springframework.core.Ordered;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.util.StringUtils;
@@ -39,10 +42,14 @@ public abstract class AbstractScmEnvironmentRepository extends AbstractScmAccess
 
 	private final EnvironmentCleaner cleaner = new EnvironmentCleaner();
 
+	private final InstrumentedLock lock = new InstrumentedLock("environment");
+
 	private int order = Ordered.LOWEST_PRECEDENCE;
 
 	private final ObservationRegistry observationRegistry;
 
+	private EnvironmentCache environmentCache;
+
 	public AbstractScmEnvironmentRepository(ConfigurableEnvironment environment,
 			ObservationRegistry observationRegistry) {
 		super(environment);
@@ -57,32 +64,105 @@ public abstract class AbstractScmEnvironmentRepository extends AbstractScmAccess
 	}
 
 	@Override
-	public synchronized Environment findOne(String application, String profile, String label) {
+	public Environment findOne(String application, String profile, String label) {
 		return findOne(application, profile, label, false);
 	}
 
 	@Override
-	public synchronized Environment findOne(String application, String profile, String label, boolean includeOrigin) {
+	public Environment findOne(String application, String profile, String label, boolean includeOrigin) {
 		var environment = new Environment(application, StringUtils.commaDelimitedListToStringArray(profile), label, "",
 				"");
 
 		for (String l : splitAndReorder(label)) {
-			var e = findOneInternal(application, profile, l, includeOrigin);
-			environment.addAll(e.getPropertySources());
-			environment.setVersion(concat(e.getVersion(), environment.getVersion()));
+			var lock = lockWorkingDirectory(l);
+			try {
+				var e = findOneInternal(application, profile, l, includeOrigin);
+				environment.addAll(e.getPropertySources());
+				environment.setVersion(concat(e.getVersion(), environment.getVersion()));
+				environment.setCacheable(environment.isCacheable() && e.isCacheable());
+			}
+			finally {
+				if (lock != null) {
+					lock.unlock();
+				}
+			}
 		}
 
-		return this.cleaner.clean(environment, getWorkingDirectory().toURI().toString(), getUri());
+		return environment;
+	}
+
+	/**
+	 * Acquire exclusive access to the working directory a label is read from. By default
+	 * all labels share one working directory, guarded by {@link #getLock() the lock}.
+	 * Subclasses that read labels from directories of their own lock only those, and
+	 * subclasses that read every version from a directory that never changes need no
+	 * lock at all.
+	 * @param label the label about to be read
+	 * @return the lock that was acquired, to be released once the label has been read, or
+	 * null if none was needed
+	 */
+	protected Lock lockWorkingDirectory(String label) {
+		this.lock.lock();
+		return this.lock;
+	}
+
+	/**
+	 * The directory the given locations were resolved in. Its path is removed from the
+	 * names of the property sources read from the locations.
+	 * @param locations the resolved locations
+	 * @return the directory holding the locations
+	 */
+	protected File getWorkingDirectory(Locations locations) {
+		return getWorkingDirectory();
+	}
+
+	/**
+	 * The lock that serializes access to the working directory. Subclasses hold it while
+	 * they update or read the working directory, e.g. in
+	 * {@link #getLocations(String, String, String)}. It is reentrant, and unlike a
+	 * monitor it does not pin the carrier thread of a virtual thread that blocks on I/O
+	 * while holding it. It is also exposed so that its metrics can be published (see
+	 * {@link org.springframework.cloud.config.server.support.InstrumentedLockMeterBinder}).
+	 * @return the lock of this repository
+	 */
+	public final InstrumentedLock getLock() {
+		return this.lock;
 	}
 
 	private Environment findOneInternal(String application, String profile, String label, boolean includeOrigin) {
+		var locations = getLocations(application, profile, label);
+		var cacheable = isCacheable(locations);
+		var cache = cacheable ? this.environmentCache : null;
+		var source = getWorkingDirectory().getAbsolutePath();
+		var workingDirectory = getWorkingDirectory(locations).toURI().toString();
+		if (cache != null) {
+			var cached = cache.get(source, application, profile, label, includeOrigin, locations.getVersion());
+			if (cached != null) {
+				return this.cleaner.clean(cached, workingDirectory, getUri());
+			}
+		}
 		var delegate = new NativeEnvironmentRepository(getEnvironment(), new NativeEnvironmentProperties(),
 				this.observationRegistry);
-		var locations = getLocations(application, profile, label);
 		delegate.setSearchLocations(locations.getLocations());
 		var environment = delegate.findOne(application, profile, "", includeOrigin);
 		environment.setVersion(locations.getVersion());
-		return environment;
+		environment.setCacheable(cacheable);
+		if (cache != null) {
+			cache.put(source, application, profile, label, includeOrigin, locations.getVersion(), environment);
+		}
+		return this.cleaner.clean(environment, workingDirectory, getUri());
+	}
+
+	/**
+	 * Whether the environment assembled from the given locations can be cached. The
+	 * version of the locations must uniquely identify their content. The decision is
+	 * passed on with {@link Environment#setCacheable(boolean)}, so that nothing else
+	 * derived from the environment (e.g. an ETag) is cached either.
+	 * @param locations the resolved locations
+	 * @return true if an {@link EnvironmentCache} may be used
+	 */
+	protected boolean isCacheable(Locations locations) {
+		return StringUtils.hasText(locations.getVersion());
 	}
 
 	private List<String> splitAndReorder(String label) {
@@ -113,6 +193,14 @@ public abstract class AbstractScmEnvironmentRepository extends AbstractScmAccess
 		return "";
 	}
 
+	public EnvironmentCache getEnvironmentCache() {
+		return this.environmentCache;
+	}
+
+	public void setEnvironmentCache(EnvironmentCache environmentCache) {
+		this.environmentCache = environmentCache;
+	}
+
 	@Override
 	public int getOrder() {
 		return this.order;
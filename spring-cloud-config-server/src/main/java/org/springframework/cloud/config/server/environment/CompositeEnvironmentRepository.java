@@ -84,6 +84,7 @@ public class CompositeEnvironmentRepository implements EnvironmentRepository {
 			env.addAll(envRepo.getPropertySources());
 			env.setVersion(envRepo.getVersion());
 			env.setState(envRepo.getState());
+			env.setCacheable(envRepo.isCacheable());
 		}
 		else {
 			for (EnvironmentRepository repo : environmentRepositories) {
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.style.ToStringCreator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Returns the environments of many applications in one call. The request body is a JSON
+ * array of <code>{"name": ..., "profiles": ..., "label": ...}</code> objects and the
+ * response is a JSON array with one entry per request item, in the same order, holding
+ * either the <code>environment</code> or an <code>error</code>. Entries are written as
+ * soon as they are ready, and a failing item does not fail the rest of the batch. A batch
+ * with an item that has no name or profiles is rejected with a 400 before anything is
+ * written.
+ * <p>
+ * All items are loaded within one {@link EnvironmentRefreshBatch}, so each backing
+ * repository contacts its remote at most once per batch.
+ *
+ * @since 4.3.0
+ */
+@RestController
+@RequestMapping(path = "${spring.cloud.config.server.prefix:}")
+public class EnvironmentBatchController {
+
+	private final EnvironmentController environmentController;
+
+	private final ObjectMapper objectMapper;
+
+	private int maxSize = 100;
+
+	public EnvironmentBatchController(EnvironmentController environmentController, ObjectMapper objectMapper) {
+		this.environmentController = environmentController;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Maximum number of items accepted in one batch. Larger batches are rejected with a
+	 * 400.
+	 * @param maxSize the maximum number of items
+	 */
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	@PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> batch(@RequestBody List<Item> items) {
+		if (items.size() > this.maxSize || !items.stream().allMatch(EnvironmentBatchController::isValid)) {
+			return ResponseEntity.badRequest().build();
+		}
+		// the body is written on an async thread, where repositories still need the
+		// request (e.g. for its X-Config-Token header)
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		return ResponseEntity.ok()
+			.contentType(MediaType.APPLICATION_JSON)
+			.body(outputStream -> write(items, outputStream, attributes));
+	}
+
+	private static boolean isValid(Item item) {
+		return item != null && StringUtils.hasText(item.getName()) && StringUtils.hasText(item.getProfiles());
+	}
+
+	private void write(List<Item> items, OutputStream outputStream, RequestAttributes attributes)
+			throws IOException {
+		RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+		if (previous == null) {
+			RequestContextHolder.setRequestAttributes(attributes);
+		}
+		try {
+			write(items, outputStream);
+		}
+		finally {
+			if (previous == null) {
+				RequestContextHolder.resetRequestAttributes();
+			}
+		}
+	}
+
+	/**
+	 * Writes the batch response. Runs on the thread that streams the response, which is
+	 * where the refresh batch has to be open.
+	 * @param items the requested environments
+	 * @param outputStream the response body
+	 * @throws IOException if the response cannot be written
+	 */
+	void write(List<Item> items, OutputStream outputStream) throws IOException {
+		try (EnvironmentRefreshBatch batch = EnvironmentRefreshBatch.open();
+				JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream)) {
+			generator.writeStartArray();
+			for (Item item : items) {
+				generator.writeStartObject();
+				if (item != null) {
+					generator.writeStringField("name", item.getName());
+					generator.writeStringField("profiles", item.getProfiles());
+					generator.writeStringField("label", item.getLabel());
+				}
+				try {
+					Environment environment = findOne(item);
+					generator.writeFieldName("environment");
+					this.objectMapper.writeValue(generator, environment);
+				}
+				catch (RuntimeException e) {
+					writeError(generator, e);
+				}
+				generator.writeEndObject();
+				generator.flush();
+			}
+			generator.writeEndArray();
+		}
+	}
+
+	private Environment findOne(Item item) {
+		if (!isValid(item)) {
+			throw new IllegalArgumentException("Batch items need a name and profiles");
+		}
+		return this.environmentController.getEnvironment(item.getName(), item.getProfiles(), item.getLabel(), false);
+	}
+
+	private void writeError(JsonGenerator generator, RuntimeException e) throws IOException {
+		HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
+		String message = null;
+		ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(e.getClass(), ResponseStatus.class);
+		if (responseStatus != null) {
+			status = responseStatus.code();
+			message = responseStatus.reason();
+		}
+		else if (e instanceof RepositoryException) {
+			status = HttpStatus.NOT_FOUND;
+			message = e.getMessage();
+		}
+		else if (e instanceof IllegalArgumentException) {
+			status = HttpStatus.BAD_REQUEST;
+			message = e.getMessage();
+		}
+		else if (e instanceof EnvironmentException) {
+			message = e.getMessage();
+		}
+		generator.writeObjectFieldStart("error");
+		generator.writeNumberField("status", status.value());
+		generator.writeStringField("message", StringUtils.hasText(message) ? message : status.getReasonPhrase());
+		generator.writeEndObject();
+	}
+
+	/**
+	 * One requested environment.
+	 */
+	public static class Item {
+
+		private String name;
+
+		private String profiles;
+
+		private String label;
+
+		public Item() {
+		}
+
+		public Item(String name, String profiles, String label) {
+			this.name = name;
+			this.profiles = profiles;
+			this.label = label;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String getProfiles() {
+			return this.profiles;
+		}
+
+		public void setProfiles(String profiles) {
+			this.profiles = profiles;
+		}
+
+		public String getLabel() {
+			return this.label;
+		}
+
+		public void setLabel(String label) {
+			this.label = label;
+		}
+
+		@Override
+		public String toString() {
+			return new ToStringCreator(this).append("name", name)
+				.append("profiles", profiles)
+				.append("label", label)
+				.toString();
+		}
+
+	}
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.environment.PropertyValueDescriptor;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * A bounded, least recently used cache of assembled {@link Environment Environments}.
+ * Entries are keyed by the source that produced them (e.g. a git working directory), the
+ * application, profiles, label and the <code>includeOrigin</code> flag, and are only
+ * valid for the backend version (e.g. a commit id) they were built from. A lookup with a
+ * different version evicts the stale entry, so a cached environment is never served once
+ * the backend has moved on.
+ *
+ * @since 4.3.0
+ */
+public class EnvironmentCache {
+
+	/**
+	 * Default maximum number of cached environments.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	private final int maxSize;
+
+	private final Map<Key, Entry> entries;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong puts = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	public EnvironmentCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public EnvironmentCache(int maxSize) {
+		Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				if (size() > EnvironmentCache.this.maxSize) {
+					EnvironmentCache.this.evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Look up an environment built from the given backend version.
+	 * @param source identifier of the repository that built the environment
+	 * @param application the application name
+	 * @param profile the (comma separated) profiles
+	 * @param label the label
+	 * @param includeOrigin whether property origins were included
+	 * @param version the current backend version
+	 * @return a copy of the cached environment or null if there is none for that version
+	 */
+	public Environment get(String source, String application, String profile, String label, boolean includeOrigin,
+			String version) {
+		if (!StringUtils.hasText(version)) {
+			this.misses.incrementAndGet();
+			return null;
+		}
+		Key key = new Key(source, application, profile, label, includeOrigin);
+		Entry entry;
+		synchronized (this.entries) {
+			entry = this.entries.get(key);
+			if (entry != null && !entry.version.equals(version)) {
+				this.entries.remove(key);
+				this.evictions.incrementAndGet();
+				entry = null;
+			}
+		}
+		if (entry == null) {
+			this.misses.incrementAndGet();
+			return null;
+		}
+		this.hits.incrementAndGet();
+		return copy(entry.environment);
+	}
+
+	/**
+	 * Store an environment built from the given backend version. Environments without a
+	 * version are not cached because there is no way to tell when they become stale.
+	 * @param source identifier of the repository that built the environment
+	 * @param application the application name
+	 * @param profile the (comma separated) profiles
+	 * @param label the label
+	 * @param includeOrigin whether property origins were included
+	 * @param version the backend version the environment was built from
+	 * @param environment the environment to cache
+	 */
+	public void put(String source, String application, String profile, String label, boolean includeOrigin,
+			String version, Environment environment) {
+		if (!StringUtils.hasText(version) || environment == null) {
+			return;
+		}
+		Entry entry = new Entry(version, copy(environment));
+		synchronized (this.entries) {
+			this.entries.put(new Key(source, application, profile, label, includeOrigin), entry);
+		}
+		this.puts.incrementAndGet();
+	}
+
+	/**
+	 * Remove all cached environments.
+	 */
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	public long getPuts() {
+		return this.puts.get();
+	}
+
+	public long getEvictions() {
+		return this.evictions.get();
+	}
+
+	/**
+	 * Callers routinely mutate the environments they are handed (decryption, overrides,
+	 * origin rewriting), so the cache never shares its own instances.
+	 */
+	static Environment copy(Environment environment) {
+		Environment result = new Environment(environment);
+		for (PropertySource source : environment.getPropertySources()) {
+			Map<Object, Object> map = new LinkedHashMap<>(source.getSource().size());
+			for (Map.Entry<?, ?> entry : source.getSource().entrySet()) {
+				Object value = entry.getValue();
+				if (value instanceof PropertyValueDescriptor descriptor) {
+					value = new PropertyValueDescriptor(descriptor.getValue(), descriptor.getOrigin());
+				}
+				map.put(entry.getKey(), value);
+			}
+			result.add(new PropertySource(source.getName(), map));
+		}
+		return result;
+	}
+
+	private static final class Entry {
+
+		private final String version;
+
+		private final Environment environment;
+
+		private Entry(String version, Environment environment) {
+			this.version = version;
+			this.environment = environment;
+		}
+
+	}
+
+	private static final class Key {
+
+		private final String source;
+
+		private final String application;
+
+		private final String profile;
+
+		private final String label;
+
+		private final boolean includeOrigin;
+
+		private Key(String source, String application, String profile, String label, boolean includeOrigin) {
+			this.source = source;
+			this.application = application;
+			this.profile = profile;
+			this.label = label;
+			this.includeOrigin = includeOrigin;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Key other = (Key) o;
+			return this.includeOrigin == other.includeOrigin && Objects.equals(this.source, other.source)
+					&& Objects.equals(this.application, other.application)
+					&& Objects.equals(this.profile, other.profile) && Objects.equals(this.label, other.label);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.source, this.application, this.profile, this.label, this.includeOrigin);
+		}
+
+	}
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.http.CacheControl;
+
+/**
+ * Decides the <code>Cache-Control</code> header of environment and resource responses,
+ * so that HTTP caches (reverse proxies, CDNs) in front of the server can answer repeated
+ * requests without serving stale or sensitive content:
+ * <ul>
+ * <li>Responses are never stored when a backend serves secrets (e.g. Vault, CredHub, or
+ * a cloud secret manager).</li>
+ * <li>An environment for a full commit id label, built from exactly that commit, never
+ * changes and is marked immutable.</li>
+ * <li>Otherwise responses may be cached for as long as the server itself would serve them
+ * without checking the backend (e.g. the git <code>refresh-rate</code>), and have to be
+ * revalidated (using their ETag) when the backend is checked on every request.</li>
+ * </ul>
+ *
+ * @since 4.3.0
+ */
+public class EnvironmentCacheControl {
+
+	private static final Pattern COMMIT_ID = Pattern.compile("[0-9a-f]{40}|[0-9a-f]{64}");
+
+	// by name, so that the optional client libraries of these backends are not required
+	private static final Set<String> SECRET_BACKENDS = Set.of(
+			"org.springframework.cloud.config.server.environment.AbstractVaultEnvironmentRepository",
+			"org.springframework.cloud.config.server.environment.CredhubEnvironmentRepository",
+			"org.springframework.cloud.config.server.environment.AwsSecretsManagerEnvironmentRepository",
+			"org.springframework.cloud.config.server.environment.AwsParameterStoreEnvironmentRepository",
+			"org.springframework.cloud.config.server.environment.GoogleSecretManagerEnvironmentRepository");
+
+	private final Duration maxAge;
+
+	private Duration staleWhileRevalidate;
+
+	private Duration immutableMaxAge = Duration.ofDays(365);
+
+	private boolean noStore;
+
+	private boolean cachePublic;
+
+	/**
+	 * Create a new instance.
+	 * @param maxAge how long responses may be cached (null or zero if they have to be
+	 * revalidated every time)
+	 */
+	public EnvironmentCacheControl(Duration maxAge) {
+		this.maxAge = maxAge;
+	}
+
+	/**
+	 * How long a stale response may still be served while it is revalidated in the
+	 * background.
+	 * @param staleWhileRevalidate the duration (may be null)
+	 */
+	public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+		this.staleWhileRevalidate = staleWhileRevalidate;
+	}
+
+	/**
+	 * How long responses for commit id labels may be cached.
+	 * @param immutableMaxAge the duration
+	 */
+	public void setImmutableMaxAge(Duration immutableMaxAge) {
+		this.immutableMaxAge = immutableMaxAge;
+	}
+
+	/**
+	 * Forbid caching of all responses.
+	 * @param noStore true if responses must not be stored
+	 */
+	public void setNoStore(boolean noStore) {
+		this.noStore = noStore;
+	}
+
+	/**
+	 * Allow shared caches to store responses to authenticated requests.
+	 * @param cachePublic true to add the <code>public</code> directive
+	 */
+	public void setCachePublic(boolean cachePublic) {
+		this.cachePublic = cachePublic;
+	}
+
+	/**
+	 * @param environment the environment a response is rendered from (may be null)
+	 * @return the cache control for the response
+	 */
+	public CacheControl getCacheControl(Environment environment) {
+		if (this.noStore) {
+			return CacheControl.noStore();
+		}
+		CacheControl cacheControl;
+		if (isImmutable(environment)) {
+			cacheControl = CacheControl.maxAge(this.immutableMaxAge).immutable();
+		}
+		else if (this.maxAge == null || this.maxAge.isZero() || this.maxAge.isNegative()) {
+			cacheControl = CacheControl.noCache();
+		}
+		else {
+			cacheControl = CacheControl.maxAge(this.maxAge);
+			if (this.staleWhileRevalidate != null && !this.staleWhileRevalidate.isZero()) {
+				cacheControl = cacheControl.staleWhileRevalidate(this.staleWhileRevalidate);
+			}
+		}
+		return this.cachePublic ? cacheControl.cachePublic() : cacheControl;
+	}
+
+	/**
+	 * @param environment the environment a response is rendered from (may be null)
+	 * @return the value of the <code>Cache-Control</code> header for the response
+	 */
+	public String getHeaderValue(Environment environment) {
+		return getCacheControl(environment).getHeaderValue();
+	}
+
+	private static boolean isImmutable(Environment environment) {
+		String label = environment != null ? environment.getLabel() : null;
+		return label != null && COMMIT_ID.matcher(label).matches() && label.equals(environment.getVersion());
+	}
+
+	/**
+	 * The time during which the given repositories serve environments without checking
+	 * their backend for changes, i.e. the git <code>refresh-rate</code>. Repositories
+	 * that check their backend on every request (including git without a refresh rate)
+	 * yield null.
+	 * @param repositories the environment repositories
+	 * @return the shortest refresh interval, or null if changes are seen right away
+	 */
+	public static Duration getRefreshInterval(Collection<? extends EnvironmentRepository> repositories) {
+		Duration result = null;
+		for (EnvironmentRepository repository : repositories) {
+			if (!(repository instanceof JGitEnvironmentRepository git) || git.getRefreshRate() <= 0) {
+				return null;
+			}
+			Duration interval = Duration.ofSeconds(git.getRefreshRate());
+			if (git instanceof MultipleJGitEnvironmentRepository multiple) {
+				for (JGitEnvironmentRepository repo : multiple.getRepos().values()) {
+					if (repo.getRefreshRate() <= 0) {
+						return null;
+					}
+					interval = min(interval, Duration.ofSeconds(repo.getRefreshRate()));
+				}
+			}
+			result = result != null ? min(result, interval) : interval;
+		}
+		return result;
+	}
+
+	private static Duration min(Duration one, Duration two) {
+		return one.compareTo(two) <= 0 ? one : two;
+	}
+
+	/**
+	 * @param repositories the environment repositories
+	 * @return true if any of the repositories serves secrets
+	 */
+	public static boolean containsSecrets(Collection<? extends EnvironmentRepository> repositories) {
+		for (EnvironmentRepository repository : repositories) {
+			for (Class<?> type = repository.getClass(); type != null; type = type.getSuperclass()) {
+				if (SECRET_BACKENDS.contains(type.getName())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when the configuration of an application has (probably) changed in the
+ * backend, for example when a repository webhook arrives. Listeners such as the
+ * {@link EnvironmentStreamController} react by checking the application's environments
+ * for a new version right away, instead of waiting for their next periodic check.
+ *
+ * @since 4.3.0
+ */
+public class EnvironmentChangedEvent extends ApplicationEvent {
+
+	private final String application;
+
+	/**
+	 * Create a new event.
+	 * @param source the component that detected the change
+	 * @param application the application name, or <code>*</code> (or null) if any
+	 * application may be affected
+	 */
+	public EnvironmentChangedEvent(Object source, String application) {
+		super(source);
+		this.application = application;
+	}
+
+	public String getApplication() {
+		return this.application;
+	}
+
+	/**
+	 * Whether the change may affect the environment of the given application(s).
+	 * @param name the (comma separated) application names of an environment
+	 * @return true if the environment should be checked for changes
+	 */
+	public boolean matches(String name) {
+		if (this.application == null || "*".equals(this.application) || name == null) {
+			return true;
+		}
+		for (String candidate : name.split(",")) {
+			if (this.application.equals(candidate.trim())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -16,31 +16,32 @@
 
 package org.springframework.cloud.config.server.environment;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.yaml.snakeyaml.DumperOptions.FlowStyle;
-import org.yaml.snakeyaml.Yaml;
-import org.yaml.snakeyaml.nodes.Tag;
 
 import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.EnvironmentDelta;
 import org.springframework.cloud.config.environment.EnvironmentMediaType;
-import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.server.environment.EnvironmentRenderer.BinaryRenderer;
+import org.springframework.cloud.config.server.environment.EnvironmentRenderer.Renderer;
 import org.springframework.cloud.config.server.support.PathUtils;
+import org.springframework.cloud.config.server.support.ResponseCompressor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -48,9 +49,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-
-import static org.springframework.cloud.config.server.support.EnvironmentPropertySource.prepareEnvironment;
-import static org.springframework.cloud.config.server.support.EnvironmentPropertySource.resolvePlaceholders;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
 
 /**
  * @author Dave Syer
@@ -70,21 +73,32 @@ public class EnvironmentController {
 
 	private static final Log LOG = LogFactory.getLog(EnvironmentController.class);
 
-	private EnvironmentRepository repository;
+	// text representations up to this size are rendered completely before they are sent
+	private static final int RESPONSE_BUFFER_SIZE = 1024 * 1024;
 
-	private ObjectMapper objectMapper;
+	private EnvironmentRepository repository;
 
-	private boolean stripDocument = true;
+	private final EnvironmentRenderer environmentRenderer;
 
 	private boolean acceptEmpty = true;
 
+	private EnvironmentResponseCache responseCache;
+
+	private ResponseCompressor compressor;
+
+	private EnvironmentSnapshots snapshots;
+
+	private EnvironmentRequestHistory requestHistory;
+
+	private EnvironmentCacheControl cacheControl;
+
 	public EnvironmentController(EnvironmentRepository repository) {
 		this(repository, new ObjectMapper());
 	}
 
 	public EnvironmentController(EnvironmentRepository repository, ObjectMapper objectMapper) {
 		this.repository = repository;
-		this.objectMapper = objectMapper;
+		this.environmentRenderer = new EnvironmentRenderer(objectMapper);
 	}
 
 	/**
@@ -93,7 +107,7 @@ public class EnvironmentController {
 	 * @param stripDocument the flag to set
 	 */
 	public void setStripDocumentFromYaml(boolean stripDocument) {
-		this.stripDocument = stripDocument;
+		this.environmentRenderer.setStripDocument(stripDocument);
 	}
 
 	/**
@@ -104,27 +118,219 @@ public class EnvironmentController {
 		this.acceptEmpty = acceptEmpty;
 	}
 
+	/**
+	 * Secret mixed into every ETag. Should change whenever the server side
+	 * transformation of environments (overrides, decryption) changes.
+	 * @param etagSalt the salt to set
+	 */
+	public void setEtagSalt(String etagSalt) {
+		this.environmentRenderer.setEtagSalt(etagSalt);
+	}
+
+	/**
+	 * Cache for rendered responses. Only responses of versioned environments are cached,
+	 * keyed by their ETag.
+	 * @param responseCache the cache to use (may be null)
+	 */
+	public void setResponseCache(EnvironmentResponseCache responseCache) {
+		this.responseCache = responseCache;
+	}
+
+	/**
+	 * Compresses responses for clients that accept it. With a response cache the
+	 * compressed bodies are cached too, so each version is compressed only once.
+	 * @param compressor the compressor to use (may be null)
+	 */
+	public void setCompressor(ResponseCompressor compressor) {
+		this.compressor = compressor;
+	}
+
+	/**
+	 * Snapshots of recently served environment versions, used to send clients only the
+	 * properties that changed since the version they hold.
+	 * @param snapshots the snapshots to use (may be null)
+	 */
+	public void setSnapshots(EnvironmentSnapshots snapshots) {
+		this.snapshots = snapshots;
+	}
+
+	/**
+	 * Counts the JSON environment requests served, so that the most requested
+	 * environments can be warmed up after a restart.
+	 * @param requestHistory the history to use (may be null)
+	 */
+	public void setRequestHistory(EnvironmentRequestHistory requestHistory) {
+		this.requestHistory = requestHistory;
+	}
+
+	/**
+	 * Decides the <code>Cache-Control</code> header of responses, so that HTTP caches in
+	 * front of the server can serve them.
+	 * @param cacheControl the cache control to use (may be null for no header)
+	 */
+	public void setCacheControl(EnvironmentCacheControl cacheControl) {
+		this.cacheControl = cacheControl;
+	}
+
+	/**
+	 * Load and render the JSON representations (with and without origins) of an
+	 * environment without a request, so that the caches are ready for the first client
+	 * that asks for it.
+	 * @param name the application name
+	 * @param profiles the (comma separated) profiles
+	 * @param label the label (may be null)
+	 * @throws Exception if the environment cannot be loaded or rendered
+	 */
+	public void warmUp(String name, String profiles, String label) throws Exception {
+		getEnvironment(null, name, profiles, label, true);
+		getEnvironment(null, name, profiles, label, false);
+	}
+
 	@GetMapping(path = "/{name}/{profiles:(?!.*\\b\\.(?:ya?ml|properties|json)\\b).*}",
 			produces = MediaType.APPLICATION_JSON_VALUE)
 	public Environment defaultLabel(@PathVariable String name, @PathVariable String profiles) {
-		return getEnvironment(name, profiles, null, false);
+		return labelled(name, profiles, null);
 	}
 
 	@GetMapping(path = "/{name}/{profiles:(?!.*\\b\\.(?:ya?ml|properties|json)\\b).*}",
-			produces = EnvironmentMediaType.V2_JSON)
+			produces = { EnvironmentMediaType.V2_JSON, EnvironmentMediaType.V2_SMILE, EnvironmentMediaType.V2_CBOR })
 	public Environment defaultLabelIncludeOrigin(@PathVariable String name, @PathVariable String profiles) {
-		return getEnvironment(name, profiles, null, true);
+		return labelledIncludeOrigin(name, profiles, null);
 	}
 
 	@GetMapping(path = "/{name}/{profiles}/{label:.*}", produces = MediaType.APPLICATION_JSON_VALUE)
 	public Environment labelled(@PathVariable String name, @PathVariable String profiles, @PathVariable String label) {
-		return getEnvironment(name, profiles, label, false);
+		return serve(name, profiles, label, false);
 	}
 
-	@GetMapping(path = "/{name}/{profiles}/{label:.*}", produces = EnvironmentMediaType.V2_JSON)
+	@GetMapping(path = "/{name}/{profiles}/{label:.*}",
+			produces = { EnvironmentMediaType.V2_JSON, EnvironmentMediaType.V2_SMILE, EnvironmentMediaType.V2_CBOR })
 	public Environment labelledIncludeOrigin(@PathVariable String name, @PathVariable String profiles,
 			@PathVariable String label) {
-		return getEnvironment(name, profiles, label, true);
+		return serve(name, profiles, label, true);
+	}
+
+	@GetMapping(path = "/{name}/{profiles:(?!.*\\b\\.(?:ya?ml|properties|json)\\b).*}",
+			produces = EnvironmentMediaType.DELTA_JSON)
+	public EnvironmentDelta defaultLabelDelta(@PathVariable String name, @PathVariable String profiles,
+			@RequestParam(required = false) String since) {
+		return labelledDelta(name, profiles, null, since);
+	}
+
+	@GetMapping(path = "/{name}/{profiles}/{label:.*}", produces = EnvironmentMediaType.DELTA_JSON)
+	public EnvironmentDelta labelledDelta(@PathVariable String name, @PathVariable String profiles,
+			@PathVariable String label, @RequestParam(required = false) String since) {
+		Environment environment = getEnvironment(name, profiles, label, false);
+		if (this.snapshots == null) {
+			return EnvironmentSnapshots.diff(null, environment, since);
+		}
+		return this.snapshots.getDelta(normalize(name), profiles, normalize(label), environment, since);
+	}
+
+	/**
+	 * Serves an environment to the request this controller is handling, if there is one.
+	 * Direct calls, e.g. from other controllers, just load the environment.
+	 */
+	private Environment serve(String name, String profiles, String label, boolean includeOrigin) {
+		ServletWebRequest request = currentRequest();
+		if (request == null) {
+			return getEnvironment(name, profiles, label, includeOrigin);
+		}
+		try {
+			return getEnvironment(request, name, profiles, label, includeOrigin);
+		}
+		catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Answers conditional requests and writes binary encodings and compressed or cached
+	 * bodies to the response itself, leaving only plain JSON to the message converters.
+	 * Without a request (warm-up) the cacheable bodies are rendered into the cache.
+	 * @return the environment to serialize, or null if the response is complete
+	 */
+	private Environment getEnvironment(ServletWebRequest request, String name, String profiles, String label,
+			boolean includeOrigin) throws IOException {
+		MediaType binary = includeOrigin ? getBinaryMediaType(request) : null;
+		if (binary != null) {
+			writeBinaryEnvironment(request, name, profiles, label, binary);
+			return null;
+		}
+		Environment environment = getEnvironment(name, profiles, label, includeOrigin);
+		record(request, name, profiles, label);
+		applyCacheControl(request, environment);
+		String coding = getContentCoding(request);
+		String etag = this.environmentRenderer.getEtag(environment, includeOrigin ? "origin" : "json", false);
+		if (checkNotModified(request, ResponseCompressor.getEtag(etag, coding))) {
+			return null;
+		}
+		if (coding == null && (etag == null || this.responseCache == null)) {
+			// leave serialization and content negotiation to the message converters
+			return environment;
+		}
+		MediaType mediaType = includeOrigin ? MediaType.valueOf(EnvironmentMediaType.V2_JSON)
+				: MediaType.APPLICATION_JSON;
+		BinaryRenderer renderer = EnvironmentRenderer.encode(this.environmentRenderer.json(environment));
+		write(request, getBody(etag, coding, mediaType, renderer));
+		return null;
+	}
+
+	/**
+	 * Serves the V2 representation (with origins) in a binary encoding, which is a lot
+	 * cheaper to parse than JSON for large environments.
+	 */
+	private void writeBinaryEnvironment(ServletWebRequest request, String name, String profiles, String label,
+			MediaType mediaType) throws IOException {
+		Environment environment = getEnvironment(name, profiles, label, true);
+		record(request, name, profiles, label);
+		applyCacheControl(request, environment);
+		String coding = getContentCoding(request);
+		String etag = this.environmentRenderer.getEtag(environment, "origin." + mediaType.getSubtypeSuffix(), false);
+		if (checkNotModified(request, ResponseCompressor.getEtag(etag, coding))) {
+			return;
+		}
+		write(request, getBody(etag, coding, mediaType, this.environmentRenderer.binary(environment, mediaType)));
+	}
+
+	/**
+	 * The request this controller is handling on the current thread, or null for calls
+	 * from anywhere else (including other handlers on the same thread).
+	 */
+	private ServletWebRequest currentRequest() {
+		if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)
+				|| attributes.getResponse() == null) {
+			return null;
+		}
+		Object handler = attributes.getRequest().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+		if (!(handler instanceof HandlerMethod method) || !method.getBeanType().isInstance(this)) {
+			return null;
+		}
+		return new ServletWebRequest(attributes.getRequest(), attributes.getResponse());
+	}
+
+	private void record(ServletWebRequest request, String name, String profiles, String label) {
+		// warm-ups have no request and should not count
+		if (request != null && this.requestHistory != null) {
+			this.requestHistory.record(name, profiles, label);
+		}
+	}
+
+	private void applyCacheControl(ServletWebRequest request, Environment environment) {
+		// set before a 304 is sent, which has to carry the header too
+		if (this.cacheControl != null && request != null && request.getResponse() != null) {
+			request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, this.cacheControl.getHeaderValue(environment));
+		}
+	}
+
+	private MediaType getBinaryMediaType(ServletWebRequest request) {
+		String accept = request != null ? request.getHeader(HttpHeaders.ACCEPT) : null;
+		if (accept == null) {
+			return null;
+		}
+		List<MediaType> acceptable = MediaType.parseMediaTypes(accept);
+		MimeTypeUtils.sortBySpecificity(acceptable);
+		return EnvironmentRenderer.getBinaryMediaType(acceptable);
 	}
 
 	public Environment getEnvironment(String name, String profiles, String label, boolean includeOrigin) {
@@ -135,6 +341,9 @@ public class EnvironmentController {
 			if (!this.acceptEmpty && (environment == null || environment.getPropertySources().isEmpty())) {
 				throw new EnvironmentNotFoundException("Profile Not found");
 			}
+			if (this.snapshots != null) {
+				this.snapshots.record(name, profiles, label, environment);
+			}
 			return environment;
 		}
 		catch (Exception e) {
@@ -161,14 +370,10 @@ public class EnvironmentController {
 	public ResponseEntity<String> labelledProperties(@PathVariable String name, @PathVariable String profiles,
 			@PathVariable String label, @RequestParam(defaultValue = "true") boolean resolvePlaceholders)
 			throws IOException {
-		validateProfiles(profiles);
-		Environment environment = labelled(name, profiles, label);
-		Map<String, Object> properties = convertToProperties(environment);
-		String propertiesString = getPropertiesString(properties);
-		if (resolvePlaceholders) {
-			propertiesString = resolvePlaceholders(prepareEnvironment(environment), propertiesString);
-		}
-		return getSuccess(propertiesString);
+		EnvironmentRenderer.validateProfiles(profiles);
+		Environment environment = getEnvironment(name, profiles, label, false);
+		return respond(currentRequest(), environment, "properties", resolvePlaceholders, MediaType.TEXT_PLAIN,
+				this.environmentRenderer.properties(environment, resolvePlaceholders));
 	}
 
 	@GetMapping("{name}-{profiles}.json")
@@ -181,25 +386,10 @@ public class EnvironmentController {
 	public ResponseEntity<String> labelledJsonProperties(@PathVariable String name, @PathVariable String profiles,
 			@PathVariable String label, @RequestParam(defaultValue = "true") boolean resolvePlaceholders)
 			throws Exception {
-		validateProfiles(profiles);
-		Environment environment = labelled(name, profiles, label);
-		Map<String, Object> properties = convertToMap(environment);
-		String json = this.objectMapper.writeValueAsString(properties);
-		if (resolvePlaceholders) {
-			json = resolvePlaceholders(prepareEnvironment(environment), json);
-		}
-		return getSuccess(json, MediaType.APPLICATION_JSON);
-	}
-
-	private String getPropertiesString(Map<String, Object> properties) {
-		StringBuilder output = new StringBuilder();
-		for (Entry<String, Object> entry : properties.entrySet()) {
-			if (output.length() > 0) {
-				output.append("\n");
-			}
-			output.append(entry.getKey()).append(": ").append(entry.getValue());
-		}
-		return output.toString();
+		EnvironmentRenderer.validateProfiles(profiles);
+		Environment environment = getEnvironment(name, profiles, label, false);
+		return respond(currentRequest(), environment, "properties.json", resolvePlaceholders,
+				MediaType.APPLICATION_JSON, this.environmentRenderer.jsonProperties(environment, resolvePlaceholders));
 	}
 
 	@GetMapping({ "/{name}-{profiles}.yml", "/{name}-{profiles}.yaml" })
@@ -212,47 +402,131 @@ public class EnvironmentController {
 	public ResponseEntity<String> labelledYaml(@PathVariable String name, @PathVariable String profiles,
 			@PathVariable String label, @RequestParam(defaultValue = "true") boolean resolvePlaceholders)
 			throws Exception {
-		validateProfiles(profiles);
-		Environment environment = labelled(name, profiles, label);
-		Map<String, Object> result = convertToMap(environment);
-		if (this.stripDocument && result.size() == 1 && result.keySet().iterator().next().equals("document")) {
-			Object value = result.get("document");
-			if (value instanceof Collection) {
-				return getSuccess(new Yaml().dumpAs(value, Tag.SEQ, FlowStyle.BLOCK));
+		EnvironmentRenderer.validateProfiles(profiles);
+		Environment environment = getEnvironment(name, profiles, label, false);
+		return respond(currentRequest(), environment, this.environmentRenderer.getYamlRepresentation(),
+				resolvePlaceholders, MediaType.TEXT_PLAIN,
+				this.environmentRenderer.yaml(environment, resolvePlaceholders));
+	}
+
+	/**
+	 * Renders a text representation of an environment. For a request this controller is
+	 * handling, it answers conditional requests, serves the rendered bytes from the
+	 * response cache where possible and writes the body to the response itself.
+	 * @param request the current request (may be null)
+	 * @param environment the environment to render
+	 * @param representation the name of the representation
+	 * @param resolvePlaceholders whether placeholders are resolved in the representation
+	 * @param mediaType the content type of the representation
+	 * @param renderer renders the representation
+	 * @return the response or null if it has been written already
+	 * @throws IOException if rendering fails
+	 */
+	private ResponseEntity<String> respond(ServletWebRequest request, Environment environment, String representation,
+			boolean resolvePlaceholders, MediaType mediaType, Renderer renderer) throws IOException {
+		if (request == null) {
+			return getSuccess(EnvironmentRenderer.render(renderer), mediaType);
+		}
+		applyCacheControl(request, environment);
+		String coding = getContentCoding(request);
+		String etag = this.environmentRenderer.getEtag(environment, representation, resolvePlaceholders);
+		if (checkNotModified(request, ResponseCompressor.getEtag(etag, coding))) {
+			return null;
+		}
+		if (coding != null || (etag != null && this.responseCache != null)) {
+			write(request, getBody(etag, coding, mediaType, EnvironmentRenderer.encode(renderer)));
+			return null;
+		}
+		// a body that fits the buffer is only committed once it has been rendered
+		// completely, so that rendering errors still get an error status
+		BufferedResponseBody body = new BufferedResponseBody(request.getResponse(), mediaType, RESPONSE_BUFFER_SIZE);
+		Writer writer = new OutputStreamWriter(body, StandardCharsets.UTF_8);
+		renderer.render(writer);
+		writer.flush();
+		body.finish();
+		return null;
+	}
+
+	/**
+	 * Renders a response body, or serves it from the response cache if the response has
+	 * an ETag, and applies the negotiated content coding. Environments whose content may
+	 * change without a new version have no ETag, so they are never cached.
+	 * @param etag the ETag of the uncompressed response (may be null)
+	 * @param coding the negotiated content coding (may be null)
+	 * @param mediaType the content type of the body
+	 * @param renderer renders the body
+	 * @return the response
+	 * @throws IOException if rendering fails
+	 */
+	private ResponseEntity<byte[]> getBody(String etag, String coding, MediaType mediaType, BinaryRenderer renderer)
+			throws IOException {
+		boolean cached = etag != null && this.responseCache != null;
+		String variant = cached ? ResponseCompressor.getEtag(etag, coding) : null;
+		if (cached && coding != null) {
+			byte[] compressed = this.responseCache.get(variant);
+			if (compressed != null) {
+				return getCompressed(compressed, coding, mediaType);
 			}
-			else {
-				return getSuccess(new Yaml().dumpAs(value, Tag.STR, FlowStyle.BLOCK));
+		}
+		byte[] body = cached ? getCachedBody(etag, renderer) : renderer.render();
+		if (coding != null && this.compressor.shouldCompress(body.length)) {
+			byte[] compressed = this.compressor.compress(body, coding);
+			if (cached) {
+				this.responseCache.put(variant, compressed);
 			}
+			return getCompressed(compressed, coding, mediaType);
 		}
-		String yaml = new Yaml().dumpAsMap(result);
+		return getSuccess(body, mediaType);
+	}
 
-		if (resolvePlaceholders) {
-			yaml = resolvePlaceholders(prepareEnvironment(environment), yaml);
+	/**
+	 * Writes a rendered response. Without a response (warm-up) there is nothing to do,
+	 * because rendering the body has filled the cache already.
+	 */
+	private void write(ServletWebRequest request, ResponseEntity<byte[]> entity) throws IOException {
+		HttpServletResponse response = request != null ? request.getResponse() : null;
+		if (response == null) {
+			return;
 		}
+		response.setStatus(entity.getStatusCode().value());
+		entity.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+		byte[] body = entity.getBody();
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+		response.flushBuffer();
+	}
 
-		return getSuccess(yaml);
+	private ResponseEntity<byte[]> getCompressed(byte[] body, String coding, MediaType mediaType) {
+		HttpHeaders headers = getHttpHeaders(mediaType);
+		headers.set(HttpHeaders.CONTENT_ENCODING, coding);
+		return new ResponseEntity<>(body, headers, HttpStatus.OK);
+	}
+
+	private byte[] getCachedBody(String etag, BinaryRenderer renderer) throws IOException {
+		byte[] body = this.responseCache.get(etag);
+		if (body == null) {
+			body = renderer.render();
+			this.responseCache.put(etag, body);
+		}
+		return body;
+	}
+
+	private String getContentCoding(ServletWebRequest request) {
+		if (this.compressor == null || request == null) {
+			return null;
+		}
+		return this.compressor.negotiate(request.getRequest(), request.getResponse());
 	}
 
 	/**
-	 * Method {@code convertToMap} converts an {@code Environment} to a nested Map which
-	 * represents a yml/json structure.
-	 * @param input the environment to be converted
-	 * @return the nested map containing the environment's properties
+	 * Sets the ETag and answers a matching <code>If-None-Match</code> with a 304, so that
+	 * neither the body nor its serialization is needed.
+	 * @param request the current request (may be null)
+	 * @param etag the ETag of the response (may be null)
+	 * @return true if the response is complete and nothing more should be written
 	 */
-	private Map<String, Object> convertToMap(Environment input) {
-		// First use the current convertToProperties to get a flat Map from the
-		// environment
-		Map<String, Object> properties = convertToProperties(input);
-
-		// The root map which holds all the first level properties
-		Map<String, Object> rootMap = new LinkedHashMap<>();
-		for (Map.Entry<String, Object> entry : properties.entrySet()) {
-			String key = entry.getKey();
-			Object value = entry.getValue();
-			PropertyNavigator nav = new PropertyNavigator(key);
-			nav.setMapValue(rootMap, value);
-		}
-		return rootMap;
+	private boolean checkNotModified(ServletWebRequest request, String etag) {
+		return request != null && etag != null && request.checkNotModified(etag);
 	}
 
 	@ExceptionHandler(RepositoryException.class)
@@ -270,11 +544,10 @@ public class EnvironmentController {
 		response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage());
 	}
 
-	private void validateProfiles(String profiles) {
-		if (profiles.contains("-")) {
-			throw new IllegalArgumentException(
-					"Properties output not supported for name or profiles containing hyphens");
-		}
+	@ExceptionHandler(EnvironmentOverloadedException.class)
+	public void overloaded(HttpServletResponse response, EnvironmentOverloadedException e) throws IOException {
+		response.setHeader(HttpHeaders.RETRY_AFTER, e.getRetryAfterSeconds());
+		response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage());
 	}
 
 	private HttpHeaders getHttpHeaders(MediaType mediaType) {
@@ -283,233 +556,60 @@ public class EnvironmentController {
 		return httpHeaders;
 	}
 
-	private ResponseEntity<String> getSuccess(String body) {
-		return new ResponseEntity<>(body, getHttpHeaders(MediaType.TEXT_PLAIN), HttpStatus.OK);
-	}
-
-	private ResponseEntity<String> getSuccess(String body, MediaType mediaType) {
+	private <T> ResponseEntity<T> getSuccess(T body, MediaType mediaType) {
 		return new ResponseEntity<>(body, getHttpHeaders(mediaType), HttpStatus.OK);
 	}
 
-	private Map<String, Object> convertToProperties(Environment profiles) {
-		List<PropertySource> sources = new ArrayList<>(profiles.getPropertySources());
-		Collections.reverse(sources);
-		Map<String, Object> combinedMap = new LinkedHashMap<>();
-		Map<String, Map<String, Object>> arrayMap = new LinkedHashMap<>();
-		for (PropertySource source : sources) {
-			@SuppressWarnings("unchecked")
-			Map<String, Object> value = (Map<String, Object>) source.getSource();
-			Map<String, Map<String, Object>> currentArrayMap = new LinkedHashMap<>();
-
-			for (Entry<String, Object> entry : value.entrySet()) {
-				if (!entry.getKey().contains("[")) {
-					combinedMap.put(entry.getKey(), entry.getValue());
-				}
-				else {
-					String prefixKey = entry.getKey().substring(0, entry.getKey().indexOf("["));
-					currentArrayMap.computeIfAbsent(prefixKey, k -> new LinkedHashMap<>())
-						.put(entry.getKey(), entry.getValue());
-				}
-			}
-			// Override array properties by prefix key
-			arrayMap.putAll(currentArrayMap);
-		}
-
-		// Combine all unique keys for array values into the combined map
-		for (Entry<String, Map<String, Object>> entry : arrayMap.entrySet()) {
-			combinedMap.putAll(entry.getValue());
-		}
-
-		postProcessProperties(combinedMap);
-		return combinedMap;
-	}
-
-	private void postProcessProperties(Map<String, Object> propertiesMap) {
-		propertiesMap.keySet().removeIf(key -> key.equals("spring.profiles"));
-	}
-
 	/**
-	 * Class {@code PropertyNavigator} is used to navigate through the property key and
-	 * create necessary Maps and Lists making up the nested structure to finally set the
-	 * property value at the leaf node.
-	 * <p>
-	 * The following rules in yml/json are implemented: <pre>
-	 * 1. an array element can be:
-	 *    - a value (leaf)
-	 *    - a map
-	 *    - a nested array
-	 * 2. a map value can be:
-	 *    - a value (leaf)
-	 *    - a nested map
-	 *    - an array
-	 * </pre>
+	 * Holds back the start of a rendered body, so that a failure while rendering a body
+	 * that fits the buffer can still be answered with an error status. Larger bodies are
+	 * streamed to the client once the buffer is full.
 	 */
-	private static final class PropertyNavigator {
+	private static final class BufferedResponseBody extends OutputStream {
 
-		private final String propertyKey;
+		private final HttpServletResponse response;
 
-		// Supports keys like org.x and org.x.y like in boot logging
-		private String prefix = "";
+		private final MediaType mediaType;
 
-		private int currentPos;
+		private final int limit;
 
-		private NodeType valueType;
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
 
-		private PropertyNavigator(String propertyKey) {
-			this.propertyKey = propertyKey;
-			this.currentPos = -1;
-			this.valueType = NodeType.MAP;
-		}
+		private OutputStream output;
 
-		@SuppressWarnings("unchecked")
-		private void setMapValue(Map<String, Object> map, Object value) {
-			String key = getKey();
-			if (NodeType.MAP.equals(this.valueType)) {
-				Map<String, Object> nestedMap;
-				if (map.get(key) instanceof Map) {
-					nestedMap = (Map<String, Object>) map.get(key);
-				}
-				else if (map.get(key) != null) {
-					// not an object, set prefix for later
-					prefix = key + ".";
-					nestedMap = map;
-				}
-				else {
-					// value of key is null
-					nestedMap = new LinkedHashMap<>();
-					map.put(key, nestedMap);
-				}
-				setMapValue(nestedMap, value);
-			}
-			else if (NodeType.ARRAY.equals(this.valueType)) {
-				List<Object> list = (List<Object>) map.get(key);
-				if (list == null) {
-					list = new ArrayList<>();
-					map.put(key, list);
-				}
-				setListValue(list, value);
-			}
-			else {
-				// use compound prefix
-				map.put(prefix + key, value);
-			}
+		private BufferedResponseBody(HttpServletResponse response, MediaType mediaType, int limit) {
+			this.response = response;
+			this.mediaType = new MediaType(mediaType, StandardCharsets.UTF_8);
+			this.limit = limit;
 		}
 
-		private void setListValue(List<Object> list, Object value) {
-			int index = getIndex();
-			// Fill missing elements if needed
-			while (list.size() <= index) {
-				list.add(null);
-			}
-			if (NodeType.MAP.equals(this.valueType)) {
-				@SuppressWarnings("unchecked")
-				Map<String, Object> map = (Map<String, Object>) list.get(index);
-				if (map == null) {
-					map = new LinkedHashMap<>();
-					list.set(index, map);
-				}
-				setMapValue(map, value);
-			}
-			else if (NodeType.ARRAY.equals(this.valueType)) {
-				@SuppressWarnings("unchecked")
-				List<Object> nestedList = (List<Object>) list.get(index);
-				if (nestedList == null) {
-					nestedList = new ArrayList<>();
-					list.set(index, nestedList);
-				}
-				setListValue(nestedList, value);
-			}
-			else {
-				list.set(index, value);
-			}
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
 		}
 
-		private int getIndex() {
-			// Consider [
-			int start = this.currentPos + 1;
-
-			for (int i = start; i < this.propertyKey.length(); i++) {
-				char c = this.propertyKey.charAt(i);
-				if (c == ']') {
-					this.currentPos = i;
-					break;
-				}
-				else if (!Character.isDigit(c)) {
-					throw new IllegalArgumentException("Invalid key: " + this.propertyKey);
-				}
-			}
-			// If no closing ] or if '[]'
-			if (this.currentPos < start || this.currentPos == start) {
-				throw new IllegalArgumentException("Invalid key: " + this.propertyKey);
-			}
-			else {
-				int index = Integer.parseInt(this.propertyKey.substring(start, this.currentPos));
-				// Skip the closing ]
-				this.currentPos++;
-				if (this.currentPos == this.propertyKey.length()) {
-					this.valueType = NodeType.LEAF;
-				}
-				else {
-					switch (this.propertyKey.charAt(this.currentPos)) {
-						case '.':
-							this.valueType = NodeType.MAP;
-							break;
-						case '[':
-							this.valueType = NodeType.ARRAY;
-							break;
-						default:
-							throw new IllegalArgumentException("Invalid key: " + this.propertyKey);
-					}
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			if (this.output == null) {
+				if (this.buffer.size() + length <= this.limit) {
+					this.buffer.write(bytes, offset, length);
+					return;
 				}
-				return index;
+				this.response.setContentType(this.mediaType.toString());
+				this.output = this.response.getOutputStream();
+				this.buffer.writeTo(this.output);
+				this.buffer.reset();
 			}
+			this.output.write(bytes, offset, length);
 		}
 
-		private String getKey() {
-			// Consider initial value or previous char '.' or '['
-			int start = this.currentPos + 1;
-			int openingBracketPosition = -1;
-			for (int i = start; i < this.propertyKey.length(); i++) {
-				char currentChar = this.propertyKey.charAt(i);
-				if (currentChar == '.') {
-					this.valueType = NodeType.MAP;
-					this.currentPos = i;
-					break;
-				}
-				else if (currentChar == '[') {
-					openingBracketPosition = i;
-				}
-				else if (currentChar == ']') {
-					String bracketContents = this.propertyKey.substring(openingBracketPosition + 1, i);
-					try {
-						Integer.parseInt(bracketContents);
-						this.valueType = NodeType.ARRAY;
-						this.currentPos = openingBracketPosition;
-						break;
-					}
-					catch (NumberFormatException e) {
-						// This means the key contains a [ and a ] but the contents were
-						// not an integer so it's not an array
-					}
-				}
-			}
-			// If there's no delimiter then it's a key of a leaf
-			if (this.currentPos < start) {
-				this.currentPos = this.propertyKey.length();
-				this.valueType = NodeType.LEAF;
-				// Else if we encounter '..' or '.[' or start of the property is . or [
-				// then it's invalid
-			}
-			else if (this.currentPos == start) {
-				throw new IllegalArgumentException("Invalid key: " + this.propertyKey);
+		private void finish() throws IOException {
+			if (this.output == null) {
+				this.response.setContentType(this.mediaType.toString());
+				this.response.setContentLength(this.buffer.size());
+				this.buffer.writeTo(this.response.getOutputStream());
 			}
-			return this.propertyKey.substring(start, this.currentPos);
-		}
-
-		private enum NodeType {
-
-			LEAF, MAP, ARRAY
-
+			this.response.flushBuffer();
 		}
 
 	}
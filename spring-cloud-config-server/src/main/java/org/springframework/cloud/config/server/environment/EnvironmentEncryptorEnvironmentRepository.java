@@ -16,10 +16,12 @@
 
 package org.springframework.cloud.config.server.environment;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import io.micrometer.observation.ObservationRegistry;
 
@@ -27,6 +29,7 @@ import org.springframework.cloud.config.environment.Environment;
 import org.springframework.cloud.config.environment.PropertySource;
 import org.springframework.cloud.config.environment.PropertyValueDescriptor;
 import org.springframework.cloud.config.server.encryption.EnvironmentEncryptor;
+import org.springframework.util.DigestUtils;
 
 /**
  * A delegating {@link EnvironmentRepository} that can decrypt the properties if an
@@ -61,11 +64,28 @@ public class EnvironmentEncryptorEnvironmentRepository implements EnvironmentRep
 
 	@Override
 	public Environment findOne(String name, String profiles, String label, boolean includeOrigin) {
-		Environment environment = this.delegate.findOne(name, profiles, label, includeOrigin);
+		return decrypt(this.delegate.findOne(name, profiles, label, includeOrigin), includeOrigin);
+	}
+
+	/**
+	 * Decrypts an environment and adds the overrides. Used directly by callers that load
+	 * environments themselves, like {@link ReactiveEnvironmentEncryptorEnvironmentRepository}.
+	 * An environment with decrypted values is not {@link Environment#isCacheable()
+	 * cacheable}: the values depend on keys (or Vault secrets) that may change without a
+	 * new version, so nothing derived from them is cached or gets an ETag.
+	 * @param environment the environment to decrypt
+	 * @param includeOrigin whether property origins are included
+	 * @return the decrypted environment
+	 */
+	public Environment decrypt(Environment environment, boolean includeOrigin) {
 		if (this.environmentEncryptors != null) {
+			Environment encrypted = environment;
 			for (EnvironmentEncryptor environmentEncryptor : environmentEncryptors) {
 				environment = environmentEncryptor.decrypt(environment);
 			}
+			if (environment.isCacheable() && isDecrypted(encrypted, environment)) {
+				environment.setCacheable(false);
+			}
 		}
 		if (!this.overrides.isEmpty()) {
 			environment.addFirst(new PropertySource("overrides", getOverridesMap(includeOrigin)));
@@ -73,6 +93,23 @@ public class EnvironmentEncryptorEnvironmentRepository implements EnvironmentRep
 		return environment;
 	}
 
+	private static boolean isDecrypted(Environment encrypted, Environment decrypted) {
+		if (encrypted == decrypted) {
+			return false;
+		}
+		List<PropertySource> before = encrypted.getPropertySources();
+		List<PropertySource> after = decrypted.getPropertySources();
+		if (before.size() != after.size()) {
+			return true;
+		}
+		for (int i = 0; i < before.size(); i++) {
+			if (!before.get(i).getSource().equals(after.get(i).getSource())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	private Map<?, ?> getOverridesMap(boolean includeOrigin) {
 		if (!includeOrigin) {
 			return this.overrides;
@@ -84,6 +121,27 @@ public class EnvironmentEncryptorEnvironmentRepository implements EnvironmentRep
 		return map;
 	}
 
+	/**
+	 * A digest of the overrides and the encryptors that are applied on top of the
+	 * delegate. It is stable across restarts and server instances, and changes whenever
+	 * the overrides or the set of encryptors change. It does not identify the keys, so
+	 * environments with decrypted values are not cacheable at all (see
+	 * {@link #decrypt(Environment, boolean)}).
+	 * @return the fingerprint
+	 */
+	public String getFingerprint() {
+		StringBuilder builder = new StringBuilder();
+		for (Map.Entry<String, String> entry : new TreeMap<>(this.overrides).entrySet()) {
+			builder.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+		}
+		if (this.environmentEncryptors != null) {
+			for (EnvironmentEncryptor environmentEncryptor : this.environmentEncryptors) {
+				builder.append(environmentEncryptor.getClass().getName()).append('\n');
+			}
+		}
+		return DigestUtils.md5DigestAsHex(builder.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
 	/**
 	 * @param overrides the overrides to set
 	 */
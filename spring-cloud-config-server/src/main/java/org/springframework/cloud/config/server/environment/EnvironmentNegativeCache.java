@@ -0,0 +1,253 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.context.ApplicationListener;
+import org.springframework.util.Assert;
+
+/**
+ * A bounded cache of negative environment lookups, i.e. requests for a label or
+ * repository that does not exist ({@link NoSuchLabelException},
+ * {@link NoSuchRepositoryException}) and requests for applications without any
+ * configuration files (an environment without property sources). Such requests are
+ * usually the result of a misconfigured client that keeps retrying, and without the cache
+ * every retry would fetch from the backend again. Entries expire after a short time to
+ * live and are dropped when an {@link EnvironmentChangedEvent} reports that the backend
+ * may have changed, for example after a webhook or a fetch that found new commits.
+ * Results are only shared between requests with the same config token, because backends
+ * like Vault load environments with the token of the request.
+ *
+ * @since 4.3.0
+ */
+public class EnvironmentNegativeCache implements ApplicationListener<EnvironmentChangedEvent> {
+
+	/**
+	 * Default maximum number of cached results.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	/**
+	 * Default time to live of a cached result.
+	 */
+	public static final Duration DEFAULT_TTL = Duration.ofSeconds(10);
+
+	private final int maxSize;
+
+	private final Duration ttl;
+
+	private final Map<Key, Entry> entries;
+
+	private Clock clock = Clock.systemUTC();
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong puts = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	public EnvironmentNegativeCache() {
+		this(DEFAULT_MAX_SIZE, DEFAULT_TTL);
+	}
+
+	public EnvironmentNegativeCache(int maxSize, Duration ttl) {
+		Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+		Assert.isTrue(ttl != null && !ttl.isNegative() && !ttl.isZero(), "ttl must be positive");
+		this.maxSize = maxSize;
+		this.ttl = ttl;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+				if (size() > EnvironmentNegativeCache.this.maxSize) {
+					EnvironmentNegativeCache.this.evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	void setClock(Clock clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * Answer a request from the cache if it failed or came back empty recently, and
+	 * otherwise load it and remember the result if it is a negative one.
+	 * @param application the application name
+	 * @param profile the (comma separated) profiles
+	 * @param label the label
+	 * @param loader loads the environment from the backend
+	 * @return the environment
+	 */
+	public Environment findOne(String application, String profile, String label, Supplier<Environment> loader) {
+		Key key = new Key(application, profile, label, RequestConfigToken.get());
+		long now = this.clock.millis();
+		Entry entry;
+		synchronized (this.entries) {
+			entry = this.entries.get(key);
+			if (entry != null && entry.expires <= now) {
+				this.entries.remove(key);
+				this.evictions.incrementAndGet();
+				entry = null;
+			}
+		}
+		if (entry != null) {
+			this.hits.incrementAndGet();
+			if (entry.failure != null) {
+				throw entry.failure;
+			}
+			return EnvironmentCache.copy(entry.environment);
+		}
+		this.misses.incrementAndGet();
+		Environment environment;
+		try {
+			environment = loader.get();
+		}
+		catch (NoSuchLabelException | NoSuchRepositoryException ex) {
+			put(key, new Entry(now + this.ttl.toMillis(), null, ex));
+			throw ex;
+		}
+		if (environment != null && environment.getPropertySources().isEmpty()) {
+			put(key, new Entry(now + this.ttl.toMillis(), EnvironmentCache.copy(environment), null));
+		}
+		return environment;
+	}
+
+	private void put(Key key, Entry entry) {
+		synchronized (this.entries) {
+			this.entries.put(key, entry);
+		}
+		this.puts.incrementAndGet();
+	}
+
+	@Override
+	public void onApplicationEvent(EnvironmentChangedEvent event) {
+		synchronized (this.entries) {
+			Iterator<Key> iterator = this.entries.keySet().iterator();
+			while (iterator.hasNext()) {
+				if (event.matches(iterator.next().application)) {
+					iterator.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove all cached results.
+	 */
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	public Duration getTtl() {
+		return this.ttl;
+	}
+
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	public long getPuts() {
+		return this.puts.get();
+	}
+
+	public long getEvictions() {
+		return this.evictions.get();
+	}
+
+	private static final class Entry {
+
+		private final long expires;
+
+		private final Environment environment;
+
+		private final RuntimeException failure;
+
+		private Entry(long expires, Environment environment, RuntimeException failure) {
+			this.expires = expires;
+			this.environment = environment;
+			this.failure = failure;
+		}
+
+	}
+
+	private static final class Key {
+
+		private final String application;
+
+		private final String profile;
+
+		private final String label;
+
+		private final String token;
+
+		private Key(String application, String profile, String label, String token) {
+			this.application = application;
+			this.profile = profile;
+			this.label = label;
+			this.token = token;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Key other = (Key) o;
+			return Objects.equals(this.application, other.application) && Objects.equals(this.profile, other.profile)
+					&& Objects.equals(this.label, other.label) && Objects.equals(this.token, other.token);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.application, this.profile, this.label, this.token);
+		}
+
+	}
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.time.Duration;
+
+/**
+ * Thrown when an environment request is rejected by an {@link EnvironmentRequestLimiter}
+ * because too many requests are already being served or waiting.
+ *
+ * @since 4.3.0
+ */
+@SuppressWarnings("serial")
+public class EnvironmentOverloadedException extends RuntimeException {
+
+	private final Duration retryAfter;
+
+	public EnvironmentOverloadedException(String message, Duration retryAfter) {
+		super(message);
+		this.retryAfter = retryAfter;
+	}
+
+	/**
+	 * @return how long clients should wait before trying again
+	 */
+	public Duration getRetryAfter() {
+		return this.retryAfter;
+	}
+
+	/**
+	 * @return the value of a <code>Retry-After</code> header, in whole seconds
+	 */
+	public String getRetryAfterSeconds() {
+		return String.valueOf(Math.max(1, (this.retryAfter.toMillis() + 999) / 1000));
+	}
+
+}
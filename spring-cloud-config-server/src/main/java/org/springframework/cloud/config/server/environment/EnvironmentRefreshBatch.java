@@ -0,0 +1,98 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Groups environment requests made by the current thread so that each backing repository
+ * contacts its remote at most once for the whole group. Repositories that support this
+ * check {@link #isRefreshed(Object)} before fetching or updating and record the result
+ * with {@link #setRefreshed(Object, String)} afterwards. Outside of a batch every request
+ * refreshes as usual.
+ *
+ * <pre class="code">
+ * try (EnvironmentRefreshBatch batch = EnvironmentRefreshBatch.open()) {
+ *     // several findOne calls
+ * }
+ * </pre>
+ *
+ * @since 4.3.0
+ */
+public final class EnvironmentRefreshBatch implements AutoCloseable {
+
+	private static final ThreadLocal<Map<Object, String>> REFRESHED = new ThreadLocal<>();
+
+	private final boolean owner;
+
+	private EnvironmentRefreshBatch(boolean owner) {
+		this.owner = owner;
+	}
+
+	/**
+	 * Start a batch on the current thread. A batch that is opened while another one is
+	 * active joins the outer one.
+	 * @return the batch, to be closed when the requests are done
+	 */
+	public static EnvironmentRefreshBatch open() {
+		if (REFRESHED.get() != null) {
+			return new EnvironmentRefreshBatch(false);
+		}
+		REFRESHED.set(new IdentityHashMap<>());
+		return new EnvironmentRefreshBatch(true);
+	}
+
+	/**
+	 * @param repository the repository
+	 * @return true if the repository was refreshed already in the current batch
+	 */
+	public static boolean isRefreshed(Object repository) {
+		Map<Object, String> refreshed = REFRESHED.get();
+		return refreshed != null && refreshed.containsKey(repository);
+	}
+
+	/**
+	 * @param repository the repository
+	 * @return the version recorded when the repository was refreshed in the current batch
+	 * (may be null)
+	 */
+	public static String getVersion(Object repository) {
+		Map<Object, String> refreshed = REFRESHED.get();
+		return refreshed != null ? refreshed.get(repository) : null;
+	}
+
+	/**
+	 * Record that the repository has been refreshed. Does nothing outside a batch.
+	 * @param repository the repository
+	 * @param version the version after the refresh, if it does not depend on the label
+	 */
+	public static void setRefreshed(Object repository, String version) {
+		Map<Object, String> refreshed = REFRESHED.get();
+		if (refreshed != null) {
+			refreshed.put(repository, version);
+		}
+	}
+
+	@Override
+	public void close() {
+		if (this.owner) {
+			REFRESHED.remove();
+		}
+	}
+
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.DumperOptions.FlowStyle;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.Tag;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.EnvironmentMediaType;
+import org.springframework.cloud.config.server.support.EnvironmentPlaceholderResolver;
+import org.springframework.cloud.config.server.support.EnvironmentPlaceholderResolverCache;
+import org.springframework.http.MediaType;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Renders environments as properties, JSON and YAML documents and computes the ETags of
+ * the representations. Shared by the servlet and the reactive environment controllers,
+ * so that both serve byte for byte the same bodies under the same ETags.
+ *
+ * @since 4.3.0
+ */
+final class EnvironmentRenderer {
+
+	static final MediaType V2_SMILE = MediaType.valueOf(EnvironmentMediaType.V2_SMILE);
+
+	static final MediaType V2_CBOR = MediaType.valueOf(EnvironmentMediaType.V2_CBOR);
+
+	private static final boolean SMILE_PRESENT = ClassUtils
+		.isPresent("com.fasterxml.jackson.dataformat.smile.SmileFactory", EnvironmentRenderer.class.getClassLoader());
+
+	private static final boolean CBOR_PRESENT = ClassUtils
+		.isPresent("com.fasterxml.jackson.dataformat.cbor.CBORFactory", EnvironmentRenderer.class.getClassLoader());
+
+	private final ObjectMapper objectMapper;
+
+	private final Map<MediaType, ObjectMapper> binaryMappers = new ConcurrentHashMap<>();
+
+	private boolean stripDocument = true;
+
+	private String etagSalt = "";
+
+	private final EnvironmentPlaceholderResolverCache placeholderResolvers = new EnvironmentPlaceholderResolverCache();
+
+	private final PropertyTree.Cache propertyTrees = new PropertyTree.Cache();
+
+	EnvironmentRenderer(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	void setStripDocument(boolean stripDocument) {
+		this.stripDocument = stripDocument;
+	}
+
+	/**
+	 * The name of the YAML representation, which depends on whether documents are
+	 * stripped.
+	 */
+	String getYamlRepresentation() {
+		return this.stripDocument ? "yaml" : "yaml.document";
+	}
+
+	void setEtagSalt(String etagSalt) {
+		this.etagSalt = etagSalt;
+	}
+
+	/**
+	 * The placeholder resolver for an environment, or null if placeholders are not to be
+	 * resolved.
+	 */
+	EnvironmentPlaceholderResolver getResolver(Environment environment, boolean resolvePlaceholders) {
+		return resolvePlaceholders ? this.placeholderResolvers.get(environment) : null;
+	}
+
+	Renderer json(Environment environment) {
+		return writer -> getJsonWriter().writeValue(writer, environment);
+	}
+
+	/**
+	 * Renders an environment in a binary encoding of the V2 media type.
+	 * @param environment the environment to render
+	 * @param mediaType {@link #V2_SMILE} or {@link #V2_CBOR}
+	 * @return the renderer
+	 * @see #getBinaryMediaType(List)
+	 */
+	BinaryRenderer binary(Environment environment, MediaType mediaType) {
+		ObjectMapper mapper = this.binaryMappers.computeIfAbsent(mediaType,
+				type -> this.objectMapper.copyWith(BinaryFactories.get(type)));
+		return () -> mapper.writeValueAsBytes(environment);
+	}
+
+	/**
+	 * The binary encoding a client asked for, if this server can produce it. Only the
+	 * exact media types count, so clients that accept anything still get JSON.
+	 * @param acceptable the acceptable media types, most preferred first
+	 * @return {@link #V2_SMILE}, {@link #V2_CBOR} or null if the client prefers another
+	 * media type
+	 */
+	static MediaType getBinaryMediaType(List<MediaType> acceptable) {
+		for (MediaType mediaType : acceptable) {
+			if (SMILE_PRESENT && V2_SMILE.equalsTypeAndSubtype(mediaType)) {
+				return V2_SMILE;
+			}
+			if (CBOR_PRESENT && V2_CBOR.equalsTypeAndSubtype(mediaType)) {
+				return V2_CBOR;
+			}
+			if (!V2_SMILE.equalsTypeAndSubtype(mediaType) && !V2_CBOR.equalsTypeAndSubtype(mediaType)) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	Renderer properties(Environment environment, boolean resolvePlaceholders) {
+		return writer -> writeProperties(environment, resolvePlaceholders, writer);
+	}
+
+	Renderer jsonProperties(Environment environment, boolean resolvePlaceholders) {
+		return writer -> getJsonWriter().writeValue(writer, convertToMap(environment, resolvePlaceholders));
+	}
+
+	Renderer yaml(Environment environment, boolean resolvePlaceholders) {
+		return writer -> writeYaml(environment, resolvePlaceholders, writer);
+	}
+
+	private void writeProperties(Environment environment, boolean resolvePlaceholders, Writer writer)
+			throws IOException {
+		EnvironmentPlaceholderResolver resolver = getResolver(environment, resolvePlaceholders);
+		Map<String, Object> properties = this.propertyTrees.get(environment).getProperties();
+		// resolve everything before writing, so that a failure leaves the writer untouched
+		String[] resolved = new String[properties.size() * 2];
+		int i = 0;
+		for (Entry<String, Object> entry : properties.entrySet()) {
+			resolved[i++] = resolve(resolver, entry.getKey());
+			resolved[i++] = resolve(resolver, String.valueOf(entry.getValue()));
+		}
+		for (i = 0; i < resolved.length; i += 2) {
+			if (i > 0) {
+				writer.write('\n');
+			}
+			writer.write(resolved[i]);
+			writer.write(": ");
+			writer.write(resolved[i + 1]);
+		}
+	}
+
+	private void writeYaml(Environment environment, boolean resolvePlaceholders, Writer writer) throws IOException {
+		Map<String, Object> result = convertToMap(environment, resolvePlaceholders);
+		if (this.stripDocument && result.size() == 1 && result.keySet().iterator().next().equals("document")) {
+			if (resolvePlaceholders) {
+				// documents are returned as they are
+				result = convertToMap(environment, false);
+			}
+			Object value = result.get("document");
+			if (value instanceof Collection) {
+				writer.write(new Yaml().dumpAs(value, Tag.SEQ, FlowStyle.BLOCK));
+			}
+			else {
+				writer.write(new Yaml().dumpAs(value, Tag.STR, FlowStyle.BLOCK));
+			}
+			return;
+		}
+		dumpYaml(result, writer);
+	}
+
+	private void dumpYaml(Map<String, Object> map, Writer writer) {
+		DumperOptions options = new DumperOptions();
+		options.setDefaultFlowStyle(FlowStyle.BLOCK);
+		new Yaml(options).dump(map, writer);
+	}
+
+	private ObjectWriter getJsonWriter() {
+		// the caller owns the target and flushes it
+		return this.objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	}
+
+	/**
+	 * Computes a strong ETag derived from the environment version. The ETag identifies
+	 * the exact rendered body, so it also serves as the response cache key. Environments
+	 * without a version, or whose content may change without a new version (see
+	 * {@link Environment#isCacheable()}), never get an ETag.
+	 * @param environment the environment about to be rendered
+	 * @param representation the representation about to be rendered
+	 * @param resolvePlaceholders whether placeholders are resolved in the representation
+	 * @return the ETag or null
+	 */
+	String getEtag(Environment environment, String representation, boolean resolvePlaceholders) {
+		if (environment == null || !environment.isCacheable() || !StringUtils.hasText(environment.getVersion())) {
+			// the content may change without a new version
+			return null;
+		}
+		String tag = String.join("\n", representation, String.valueOf(resolvePlaceholders), environment.getName(),
+				StringUtils.arrayToCommaDelimitedString(environment.getProfiles()), environment.getLabel(),
+				environment.getVersion(), environment.getState(), this.etagSalt);
+		return "\"" + DigestUtils.md5DigestAsHex(tag.getBytes(StandardCharsets.UTF_8)) + "\"";
+	}
+
+	/**
+	 * Method {@code convertToMap} converts an {@code Environment} to a nested Map which
+	 * represents a yml/json structure.
+	 * @param input the environment to be converted
+	 * @param resolvePlaceholders whether to resolve placeholders in keys and string values
+	 * @return the nested map containing the environment's properties
+	 */
+	private Map<String, Object> convertToMap(Environment input, boolean resolvePlaceholders) {
+		return this.propertyTrees.get(input).toMap(getResolver(input, resolvePlaceholders));
+	}
+
+	static String render(Renderer renderer) throws IOException {
+		StringWriter writer = new StringWriter();
+		renderer.render(writer);
+		return writer.toString();
+	}
+
+	static byte[] renderBytes(Renderer renderer) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+		renderer.render(writer);
+		writer.flush();
+		return output.toByteArray();
+	}
+
+	static BinaryRenderer encode(Renderer renderer) {
+		return () -> renderBytes(renderer);
+	}
+
+	static String resolve(EnvironmentPlaceholderResolver resolver, String text) {
+		return resolver != null ? resolver.resolvePlaceholders(text) : text;
+	}
+
+	static void validateProfiles(String profiles) {
+		if (profiles.contains("-")) {
+			throw new IllegalArgumentException(
+					"Properties output not supported for name or profiles containing hyphens");
+		}
+	}
+
+	/**
+	 * Writes a representation of an environment.
+	 */
+	interface Renderer {
+
+		void render(Writer writer) throws IOException;
+
+	}
+
+	/**
+	 * Renders the bytes of a representation of an environment.
+	 */
+	interface BinaryRenderer {
+
+		byte[] render() throws IOException;
+
+	}
+
+	/**
+	 * Keeps the optional Jackson data formats out of the signatures of the enclosing
+	 * class, so that they are only loaded when a binary encoding is requested.
+	 */
+	private static final class BinaryFactories {
+
+		static JsonFactory get(MediaType mediaType) {
+			return V2_CBOR.equals(mediaType) ? new CBORFactory() : new SmileFactory();
+		}
+
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.cloud.config.environment.Environment;
+
+/**
+ * Lets concurrent identical environment requests share a single call to the
+ * repository. The first caller for a key does the work, callers arriving while it is in
+ * flight wait for it and receive their own copy of its result (or its exception). Nothing
+ * is kept once the call completes, so this is not a cache. Only requests that carry the same
+ * config token share a call, because backends like Vault load the environment with the
+ * token of the request.
+ *
+ * @since 4.3.0
+ * @see CoalescingEnvironmentRepository
+ */
+public class EnvironmentRequestCoalescer {
+
+	private final Map<Key, CompletableFuture<Environment>> flights = new ConcurrentHashMap<>();
+
+	private final AtomicLong executions = new AtomicLong();
+
+	private final AtomicLong coalesced = new AtomicLong();
+
+	/**
+	 * Load an environment, joining a call for the same key that is already in flight.
+	 * @param repository the repository the environment is loaded from
+	 * @param application the application name
+	 * @param profile the (comma separated) profiles
+	 * @param label the label
+	 * @param includeOrigin whether property origins are included
+	 * @param loader loads the environment if no identical call is in flight
+	 * @return the environment, never shared with another caller
+	 */
+	public Environment findOne(EnvironmentRepository repository, String application, String profile, String label,
+			boolean includeOrigin, Supplier<Environment> loader) {
+		Key key = new Key(repository, application, profile, label, includeOrigin, RequestConfigToken.get());
+		CompletableFuture<Environment> flight = new CompletableFuture<>();
+		CompletableFuture<Environment> existing = this.flights.putIfAbsent(key, flight);
+		if (existing != null) {
+			this.coalesced.incrementAndGet();
+			return join(existing);
+		}
+		this.executions.incrementAndGet();
+		try {
+			Environment environment = loader.get();
+			// callers modify what they are handed, so waiters get copies of a snapshot
+			flight.complete(environment != null ? EnvironmentCache.copy(environment) : null);
+			return environment;
+		}
+		catch (RuntimeException | Error ex) {
+			flight.completeExceptionally(ex);
+			throw ex;
+		}
+		finally {
+			this.flights.remove(key, flight);
+		}
+	}
+
+	private Environment join(CompletableFuture<Environment> flight) {
+		try {
+			Environment environment = flight.join();
+			return environment != null ? EnvironmentCache.copy(environment) : null;
+		}
+		catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			if (ex.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw ex;
+		}
+	}
+
+	/**
+	 * @return the number of calls that went to a repository
+	 */
+	public long getExecutions() {
+		return this.executions.get();
+	}
+
+	/**
+	 * @return the number of calls that were answered by joining a call in flight
+	 */
+	public long getCoalesced() {
+		return this.coalesced.get();
+	}
+
+	/**
+	 * @return the number of calls currently in flight
+	 */
+	public int getInFlight() {
+		return this.flights.size();
+	}
+
+	private static final class Key {
+
+		private final EnvironmentRepository repository;
+
+		private final String application;
+
+		private final String profile;
+
+		private final String label;
+
+		private final boolean includeOrigin;
+
+		private final String token;
+
+		private Key(EnvironmentRepository repository, String application, String profile, String label,
+				boolean includeOrigin, String token) {
+			this.repository = repository;
+			this.application = application;
+			this.profile = profile;
+			this.label = label;
+			this.includeOrigin = includeOrigin;
+			this.token = token;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Key other = (Key) o;
+			return this.repository == other.repository && this.includeOrigin == other.includeOrigin
+					&& Objects.equals(this.application, other.application)
+					&& Objects.equals(this.profile, other.profile) && Objects.equals(this.label, other.label)
+					&& Objects.equals(this.token, other.token);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(System.identityHashCode(this.repository), this.application, this.profile, this.label,
+					this.includeOrigin, this.token);
+		}
+
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes metrics for an {@link EnvironmentRequestCoalescer}:
+ * <code>config.server.requests.executions</code> (calls that went to a repository),
+ * <code>config.server.requests.coalesced</code> (calls that joined one in flight) and
+ * <code>config.server.requests.in-flight</code>.
+ *
+ * @since 4.3.0
+ */
+public class EnvironmentRequestCoalescerMeterBinder implements MeterBinder {
+
+	private final EnvironmentRequestCoalescer coalescer;
+
+	public EnvironmentRequestCoalescerMeterBinder(EnvironmentRequestCoalescer coalescer) {
+		this.coalescer = coalescer;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter
+			.builder("config.server.requests.executions", this.coalescer, EnvironmentRequestCoalescer::getExecutions)
+			.description("Environment requests that were passed on to a repository")
+			.register(registry);
+		FunctionCounter
+			.builder("config.server.requests.coalesced", this.coalescer, EnvironmentRequestCoalescer::getCoalesced)
+			.description("Environment requests that shared an identical request already in flight")
+			.register(registry);
+		Gauge.builder("config.server.requests.in-flight", this.coalescer, EnvironmentRequestCoalescer::getInFlight)
+			.description("Environment requests currently passed on to a repository")
+			.register(registry);
+	}
+
+}
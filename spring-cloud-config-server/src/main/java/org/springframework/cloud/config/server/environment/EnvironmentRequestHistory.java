@@ -0,0 +1,387 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Tracks how often environments are requested per application, profiles and label, so
+ * that the most requested ("hot") environments can be prepared ahead of time by an
+ * {@link EnvironmentWarmer}, inspected through the {@link EnvironmentRequestsEndpoint},
+ * or used by admission policies through {@link #estimate(String, String, String)}.
+ * <p>
+ * Frequencies are estimated with a count-min sketch of fixed size, and only the
+ * <code>maxSize</code> most requested environments are remembered by name, so memory
+ * use is bounded no matter how many distinct environments are requested. Recording a
+ * request for an environment that is not among the most requested costs a few atomic
+ * increments and no allocation. All counts are periodically halved, so the history
+ * follows changes in the request pattern. The most requested environments can be saved
+ * to and loaded from a local file to survive a restart.
+ *
+ * @since 4.3.0
+ */
+public class EnvironmentRequestHistory {
+
+	/**
+	 * Default maximum number of most requested environments remembered.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 100;
+
+	private static final int DEPTH = 4;
+
+	private static final int[] SEEDS = { 0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F };
+
+	private final int maxSize;
+
+	private final AtomicLongArray counters;
+
+	private final int width;
+
+	private final long sampleSize;
+
+	private final AtomicLong additions = new AtomicLong();
+
+	private final Map<Request, Boolean> top = new ConcurrentHashMap<>();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private volatile long threshold;
+
+	public EnvironmentRequestHistory() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public EnvironmentRequestHistory(int maxSize) {
+		Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+		this.maxSize = maxSize;
+		this.width = Math.max(1024, Integer.highestOneBit(Math.min(maxSize, 1 << 16) * 16 - 1) << 1);
+		this.counters = new AtomicLongArray(DEPTH * this.width);
+		this.sampleSize = 10L * this.width;
+	}
+
+	/**
+	 * Count a request.
+	 * @param name the application name
+	 * @param profiles the (comma separated) profiles
+	 * @param label the label (may be null)
+	 */
+	public void record(String name, String profiles, String label) {
+		add(name, profiles, label, 1);
+	}
+
+	private void add(String name, String profiles, String label, long count) {
+		long estimate = increment(hash(name, profiles, label), count);
+		if (this.additions.addAndGet(count) >= this.sampleSize) {
+			age();
+		}
+		if (estimate <= this.threshold && this.top.size() >= this.maxSize) {
+			return;
+		}
+		Request request = new Request(name, profiles, label);
+		if (this.top.containsKey(request) || !this.lock.tryLock()) {
+			// either known already or another thread is updating, next request will tell
+			return;
+		}
+		try {
+			admit(request, estimate);
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	private void admit(Request request, long estimate) {
+		if (this.top.size() < this.maxSize) {
+			this.top.put(request, Boolean.TRUE);
+			if (this.top.size() >= this.maxSize) {
+				this.threshold = findColdest().estimate;
+			}
+			return;
+		}
+		Candidate coldest = findColdest();
+		if (estimate > coldest.estimate) {
+			this.top.remove(coldest.request);
+			this.top.put(request, Boolean.TRUE);
+			this.threshold = findColdest().estimate;
+		}
+	}
+
+	private Candidate findColdest() {
+		Candidate coldest = null;
+		for (Request request : this.top.keySet()) {
+			long estimate = estimate(request);
+			if (coldest == null || estimate < coldest.estimate) {
+				coldest = new Candidate(request, estimate);
+			}
+		}
+		return coldest != null ? coldest : new Candidate(null, 0);
+	}
+
+	/**
+	 * Halve all counts, so that old requests weigh less than recent ones.
+	 */
+	private void age() {
+		if (!this.lock.tryLock()) {
+			return;
+		}
+		try {
+			if (this.additions.get() < this.sampleSize) {
+				return;
+			}
+			this.additions.set(0);
+			for (int i = 0; i < this.counters.length(); i++) {
+				this.counters.getAndUpdate(i, value -> value >>> 1);
+			}
+			this.threshold = this.top.size() >= this.maxSize ? findColdest().estimate : 0;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	private long increment(int hash, long count) {
+		long estimate = Long.MAX_VALUE;
+		for (int i = 0; i < DEPTH; i++) {
+			estimate = Math.min(estimate, this.counters.addAndGet(index(hash, i), count));
+		}
+		return estimate;
+	}
+
+	/**
+	 * @param name the application name
+	 * @param profiles the (comma separated) profiles
+	 * @param label the label (may be null)
+	 * @return the estimated (recent) number of requests for the environment, which may
+	 * be higher but never lower than the actual number
+	 */
+	public long estimate(String name, String profiles, String label) {
+		int hash = hash(name, profiles, label);
+		long estimate = Long.MAX_VALUE;
+		for (int i = 0; i < DEPTH; i++) {
+			estimate = Math.min(estimate, this.counters.get(index(hash, i)));
+		}
+		return estimate;
+	}
+
+	/**
+	 * @param request the environment request
+	 * @return the estimated (recent) number of requests for the environment
+	 */
+	public long estimate(Request request) {
+		return estimate(request.getName(), request.getProfiles(), request.getLabel());
+	}
+
+	private int index(int hash, int row) {
+		int h = hash * SEEDS[row];
+		h ^= h >>> 16;
+		return row * this.width + (h & (this.width - 1));
+	}
+
+	private static int hash(String name, String profiles, String label) {
+		int hash = name.hashCode();
+		hash = 31 * hash + profiles.hashCode();
+		hash = 31 * hash + (label != null ? label.hashCode() : 0);
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * @param limit the maximum number of environments to return
+	 * @return the most requested environments, most requested first
+	 */
+	public List<Request> getMostRequested(int limit) {
+		List<Candidate> candidates = new ArrayList<>(this.top.size());
+		for (Request request : this.top.keySet()) {
+			candidates.add(new Candidate(request, estimate(request)));
+		}
+		candidates.sort(Comparator.comparingLong((Candidate candidate) -> candidate.estimate).reversed());
+		List<Request> result = new ArrayList<>(Math.min(limit, candidates.size()));
+		for (int i = 0; i < candidates.size() && i < limit; i++) {
+			result.add(candidates.get(i).request);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of most requested environments remembered
+	 */
+	public int size() {
+		return this.top.size();
+	}
+
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * Write the counts of the most requested environments to a file, one environment per
+	 * line. The file is replaced atomically where the file system supports it.
+	 * @param file the file to write
+	 * @param limit the maximum number of environments to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(Path file, int limit) throws IOException {
+		List<Request> requests = getMostRequested(limit);
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+			for (Request request : requests) {
+				writer.write(estimate(request) + "\t" + request.getName() + "\t" + request.getProfiles() + "\t"
+						+ (request.getLabel() != null ? request.getLabel() : ""));
+				writer.newLine();
+			}
+		}
+		try {
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException ex) {
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Add the counts saved in a file to the current ones. Does nothing if the file does not
+	 * exist, and skips lines that cannot be parsed.
+	 * @param file the file to read
+	 * @throws IOException if the file cannot be read
+	 */
+	public void load(Path file) throws IOException {
+		if (!Files.isReadable(file)) {
+			return;
+		}
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String[] fields = line.split("\t", -1);
+				if (fields.length != 4 || !StringUtils.hasText(fields[1]) || !StringUtils.hasText(fields[2])) {
+					continue;
+				}
+				try {
+					long count = Long.parseLong(fields[0]);
+					if (count > 0) {
+						add(fields[1], fields[2], StringUtils.hasText(fields[3]) ? fields[3] : null, count);
+					}
+				}
+				catch (NumberFormatException ex) {
+					// skip
+				}
+			}
+		}
+	}
+
+	private static final class Candidate {
+
+		private final Request request;
+
+		private final long estimate;
+
+		private Candidate(Request request, long estimate) {
+			this.request = request;
+			this.estimate = estimate;
+		}
+
+	}
+
+	/**
+	 * An environment request: application name, profiles and label.
+	 */
+	public static final class Request {
+
+		private final String name;
+
+		private final String profiles;
+
+		private final String label;
+
+		public Request(String name, String profiles, String label) {
+			Assert.hasText(name, "name must not be empty");
+			Assert.hasText(profiles, "profiles must not be empty");
+			this.name = name;
+			this.profiles = profiles;
+			this.label = label;
+		}
+
+		/**
+		 * Parse a request in the form of an environment endpoint path,
+		 * <code>name/profiles[/label]</code>.
+		 * @param path the path
+		 * @return the request
+		 */
+		public static Request parse(String path) {
+			String[] parts = path.trim().split("/", 3);
+			Assert.isTrue(parts.length >= 2, () -> "Expected name/profiles[/label] but got " + path);
+			return new Request(parts[0], parts[1], parts.length > 2 && StringUtils.hasText(parts[2]) ? parts[2] : null);
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public String getProfiles() {
+			return this.profiles;
+		}
+
+		public String getLabel() {
+			return this.label;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Request other = (Request) o;
+			return this.name.equals(other.name) && this.profiles.equals(other.profiles)
+					&& Objects.equals(this.label, other.label);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.name, this.profiles, this.label);
+		}
+
+		@Override
+		public String toString() {
+			return this.name + "/" + this.profiles + (this.label != null ? "/" + this.label : "");
+		}
+
+	}
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.util.Assert;
+
+/**
+ * Limits the number of environment requests that are served concurrently. Requests
+ * beyond the limit wait in a bounded queue, and are rejected with an
+ * {@link EnvironmentOverloadedException} when the queue is full or when they have waited
+ * too long, so that a slow backend cannot tie up every request thread of the server.
+ * Waiting requests are admitted round robin across applications, so one busy application
+ * cannot starve the others, and the number of waiting requests per application can be
+ * capped as well.
+ *
+ * @since 4.3.0
+ * @see LimitingEnvironmentRepository
+ */
+public class EnvironmentRequestLimiter {
+
+	private final int maxConcurrent;
+
+	private final int maxQueued;
+
+	private int maxQueuedPerApplication;
+
+	private Duration maxWait = Duration.ofSeconds(10);
+
+	private Duration retryAfter = Duration.ofSeconds(5);
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/**
+	 * Waiting requests by application, in the order the applications take turns.
+	 */
+	private final LinkedHashMap<String, ArrayDeque<Waiter>> queues = new LinkedHashMap<>();
+
+	private int active;
+
+	private int queued;
+
+	private final AtomicLong admitted = new AtomicLong();
+
+	private final AtomicLong rejectedQueueFull = new AtomicLong();
+
+	private final AtomicLong rejectedTimeout = new AtomicLong();
+
+	public EnvironmentRequestLimiter(int maxConcurrent, int maxQueued) {
+		Assert.isTrue(maxConcurrent > 0, "maxConcurrent must be greater than 0");
+		Assert.isTrue(maxQueued >= 0, "maxQueued must not be negative");
+		this.maxConcurrent = maxConcurrent;
+		this.maxQueued = maxQueued;
+	}
+
+	/**
+	 * @param maxQueuedPerApplication the maximum number of waiting requests for a single
+	 * application, zero or less for no limit other than the queue size
+	 */
+	public void setMaxQueuedPerApplication(int maxQueuedPerApplication) {
+		this.maxQueuedPerApplication = maxQueuedPerApplication;
+	}
+
+	/**
+	 * @param maxWait the maximum time a request waits before it is rejected
+	 */
+	public void setMaxWait(Duration maxWait) {
+		this.maxWait = maxWait;
+	}
+
+	/**
+	 * @param retryAfter how long rejected clients are told to wait before trying again
+	 */
+	public void setRetryAfter(Duration retryAfter) {
+		this.retryAfter = retryAfter;
+	}
+
+	/**
+	 * Load an environment once the request is admitted.
+	 * @param application the application the request is for
+	 * @param loader loads the environment
+	 * @return the environment
+	 * @throws EnvironmentOverloadedException if the request is rejected
+	 */
+	public Environment findOne(String application, Supplier<Environment> loader) {
+		acquire(application);
+		try {
+			return loader.get();
+		}
+		finally {
+			release();
+		}
+	}
+
+	private void acquire(String application) {
+		String key = application != null ? application : "";
+		Waiter waiter;
+		this.lock.lock();
+		try {
+			if (this.active < this.maxConcurrent && this.queued == 0) {
+				this.active++;
+				this.admitted.incrementAndGet();
+				return;
+			}
+			ArrayDeque<Waiter> queue = this.queues.get(key);
+			if (this.queued >= this.maxQueued || (this.maxQueuedPerApplication > 0 && queue != null
+					&& queue.size() >= this.maxQueuedPerApplication)) {
+				this.rejectedQueueFull.incrementAndGet();
+				throw new EnvironmentOverloadedException("Too many environment requests waiting", this.retryAfter);
+			}
+			waiter = new Waiter(this.lock.newCondition());
+			this.queues.computeIfAbsent(key, k -> new ArrayDeque<>()).add(waiter);
+			this.queued++;
+			long nanos = this.maxWait.toNanos();
+			try {
+				while (!waiter.admitted && nanos > 0) {
+					nanos = waiter.condition.awaitNanos(nanos);
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			if (waiter.admitted) {
+				this.admitted.incrementAndGet();
+				return;
+			}
+			remove(key, waiter);
+			this.rejectedTimeout.incrementAndGet();
+		}
+		finally {
+			this.lock.unlock();
+		}
+		throw new EnvironmentOverloadedException("Timed out waiting to serve an environment request",
+				this.retryAfter);
+	}
+
+	private void release() {
+		this.lock.lock();
+		try {
+			Waiter next = poll();
+			if (next != null) {
+				// hand the slot over instead of freeing it, so no new request can barge in
+				next.admitted = true;
+				next.condition.signal();
+			}
+			else {
+				this.active--;
+			}
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * Takes the next waiter of the application whose turn it is, and moves that
+	 * application to the back of the line.
+	 */
+	private Waiter poll() {
+		Iterator<Map.Entry<String, ArrayDeque<Waiter>>> iterator = this.queues.entrySet().iterator();
+		if (!iterator.hasNext()) {
+			return null;
+		}
+		Map.Entry<String, ArrayDeque<Waiter>> entry = iterator.next();
+		iterator.remove();
+		Waiter waiter = entry.getValue().poll();
+		if (!entry.getValue().isEmpty()) {
+			this.queues.put(entry.getKey(), entry.getValue());
+		}
+		this.queued--;
+		return waiter;
+	}
+
+	private void remove(String key, Waiter waiter) {
+		ArrayDeque<Waiter> queue = this.queues.get(key);
+		if (queue != null && queue.remove(waiter)) {
+			this.queued--;
+			if (queue.isEmpty()) {
+				this.queues.remove(key);
+			}
+		}
+	}
+
+	public int getActive() {
+		this.lock.lock();
+		try {
+			return this.active;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	public int getQueued() {
+		this.lock.lock();
+		try {
+			return this.queued;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	public int getMaxConcurrent() {
+		return this.maxConcurrent;
+	}
+
+	public int getMaxQueued() {
+		return this.maxQueued;
+	}
+
+	public long getAdmitted() {
+		return this.admitted.get();
+	}
+
+	public long getRejectedQueueFull() {
+		return this.rejectedQueueFull.get();
+	}
+
+	public long getRejectedTimeout() {
+		return this.rejectedTimeout.get();
+	}
+
+	private static final class Waiter {
+
+		private final Condition condition;
+
+		private boolean admitted;
+
+		private Waiter(Condition condition) {
+			this.condition = condition;
+		}
+
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes metrics for an {@link EnvironmentRequestLimiter}:
+ * <code>config.server.admission.active</code>, <code>config.server.admission.queued</code>,
+ * <code>config.server.admission.admitted</code> and
+ * <code>config.server.admission.rejected</code> (tagged with the reason,
+ * <code>queue-full</code> or <code>timeout</code>).
+ *
+ * @since 4.3.0
+ */
+public class EnvironmentRequestLimiterMeterBinder implements MeterBinder {
+
+	private final EnvironmentRequestLimiter limiter;
+
+	public EnvironmentRequestLimiterMeterBinder(EnvironmentRequestLimiter limiter) {
+		this.limiter = limiter;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("config.server.admission.active", this.limiter, EnvironmentRequestLimiter::getActive)
+			.description("Environment requests currently being served")
+			.register(registry);
+		Gauge.builder("config.server.admission.queued", this.limiter, EnvironmentRequestLimiter::getQueued)
+			.description("Environment requests currently waiting to be served")
+			.register(registry);
+		FunctionCounter
+			.builder("config.server.admission.admitted", this.limiter, EnvironmentRequestLimiter::getAdmitted)
+			.description("Environment requests that were admitted")
+			.register(registry);
+		FunctionCounter
+			.builder("config.server.admission.rejected", this.limiter, EnvironmentRequestLimiter::getRejectedQueueFull)
+			.tag("reason", "queue-full")
+			.description("Environment requests that were rejected")
+			.register(registry);
+		FunctionCounter
+			.builder("config.server.admission.rejected", this.limiter, EnvironmentRequestLimiter::getRejectedTimeout)
+			.tag("reason", "timeout")
+			.description("Environment requests that were rejected")
+			.register(registry);
+	}
+
+}
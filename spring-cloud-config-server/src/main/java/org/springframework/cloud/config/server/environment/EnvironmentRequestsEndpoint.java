@@ -0,0 +1,107 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.cloud.config.server.environment.EnvironmentRequestHistory.Request;
+import org.springframework.lang.Nullable;
+
+/**
+ * Actuator endpoint that lists the most requested environments tracked by an
+ * {@link EnvironmentRequestHistory}, with their estimated recent request counts.
+ *
+ * @since 4.3.0
+ */
+@Endpoint(id = "environmentrequests")
+public class EnvironmentRequestsEndpoint {
+
+	private final EnvironmentRequestHistory history;
+
+	public EnvironmentRequestsEndpoint(EnvironmentRequestHistory history) {
+		this.history = history;
+	}
+
+	@ReadOperation
+	public EnvironmentRequestsDescriptor environmentRequests(@Nullable Integer limit) {
+		int max = limit != null && limit > 0 ? limit : this.history.getMaxSize();
+		List<EnvironmentRequestDescriptor> environments = new ArrayList<>();
+		for (Request request : this.history.getMostRequested(max)) {
+			environments.add(new EnvironmentRequestDescriptor(request, this.history.estimate(request)));
+		}
+		return new EnvironmentRequestsDescriptor(environments);
+	}
+
+	/**
+	 * The most requested environments, most requested first.
+	 */
+	public static final class EnvironmentRequestsDescriptor {
+
+		private final List<EnvironmentRequestDescriptor> environments;
+
+		private EnvironmentRequestsDescriptor(List<EnvironmentRequestDescriptor> environments) {
+			this.environments = environments;
+		}
+
+		public List<EnvironmentRequestDescriptor> getEnvironments() {
+			return this.environments;
+		}
+
+	}
+
+	/**
+	 * A requested environment and its estimated recent request count.
+	 */
+	public static final class EnvironmentRequestDescriptor {
+
+		private final String name;
+
+		private final String profiles;
+
+		private final String label;
+
+		private final long count;
+
+		private EnvironmentRequestDescriptor(Request request, long count) {
+			this.name = request.getName();
+			this.profiles = request.getProfiles();
+			this.label = request.getLabel();
+			this.count = count;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public String getProfiles() {
+			return this.profiles;
+		}
+
+		public String getLabel() {
+			return this.label;
+		}
+
+		public long getCount() {
+			return this.count;
+		}
+
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+/**
+ * A bounded, least recently used cache of rendered environment responses. Keys are the
+ * entity tags computed by the {@link EnvironmentController}, which already identify the
+ * environment version, the representation and everything else that affects the body,
+ * so a cached body is only ever served for exactly the content it was rendered from.
+ * The cache is bounded by the total number of bytes it holds.
+ *
+ * @since 4.3.0
+ */
+public class EnvironmentResponseCache {
+
+	/**
+	 * Default maximum number of bytes held by the cache.
+	 */
+	public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	private final long maxBytes;
+
+	private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long bytes;
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	private final AtomicLong puts = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	public EnvironmentResponseCache() {
+		this(DEFAULT_MAX_BYTES);
+	}
+
+	public EnvironmentResponseCache(long maxBytes) {
+		Assert.isTrue(maxBytes > 0, "maxBytes must be greater than 0");
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Look up a rendered response. Callers must not modify the returned array.
+	 * @param key the entity tag of the response
+	 * @return the rendered body or null
+	 */
+	public byte[] get(String key) {
+		byte[] body;
+		synchronized (this.entries) {
+			body = this.entries.get(key);
+		}
+		if (body == null) {
+			this.misses.incrementAndGet();
+		}
+		else {
+			this.hits.incrementAndGet();
+		}
+		return body;
+	}
+
+	/**
+	 * Store a rendered response. Bodies larger than the whole cache are not stored.
+	 * @param key the entity tag of the response
+	 * @param body the rendered body, which must not be modified afterwards
+	 */
+	public void put(String key, byte[] body) {
+		if (body.length > this.maxBytes) {
+			return;
+		}
+		synchronized (this.entries) {
+			byte[] previous = this.entries.put(key, body);
+			if (previous != null) {
+				this.bytes -= previous.length;
+			}
+			this.bytes += body.length;
+			Iterator<Map.Entry<String, byte[]>> iterator = this.entries.entrySet().iterator();
+			while (this.bytes > this.maxBytes && iterator.hasNext()) {
+				Map.Entry<String, byte[]> eldest = iterator.next();
+				this.bytes -= eldest.getValue().length;
+				iterator.remove();
+				this.evictions.incrementAndGet();
+			}
+		}
+		this.puts.incrementAndGet();
+	}
+
+	/**
+	 * Remove all cached responses.
+	 */
+	public void clear() {
+		synchronized (this.entries) {
+			this.entries.clear();
+			this.bytes = 0;
+		}
+	}
+
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	public long getBytes() {
+		synchronized (this.entries) {
+			return this.bytes;
+		}
+	}
+
+	public long getMaxBytes() {
+		return this.maxBytes;
+	}
+
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	public long getPuts() {
+		return this.puts.get();
+	}
+
+	public long getEvictions() {
+		return this.evictions.get();
+	}
+
+}
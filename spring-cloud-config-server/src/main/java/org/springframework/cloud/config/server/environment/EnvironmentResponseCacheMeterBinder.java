@@ -0,0 +1,83 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.Collections;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Publishes the standard Micrometer cache metrics (<code>cache.gets</code>,
+ * <code>cache.puts</code>, <code>cache.evictions</code> and <code>cache.size</code>)
+ * for an {@link EnvironmentResponseCache}, plus the number of bytes it holds.
+ *
+ * @since 4.3.0
+ */
+public class EnvironmentResponseCacheMeterBinder extends CacheMeterBinder<EnvironmentResponseCache> {
+
+	/**
+	 * Name of the cache tag.
+	 */
+	public static final String CACHE_NAME = "config.server.response";
+
+	public EnvironmentResponseCacheMeterBinder(EnvironmentResponseCache cache) {
+		super(cache, CACHE_NAME, Collections.emptyList());
+	}
+
+	@Override
+	protected Long size() {
+		EnvironmentResponseCache cache = getCache();
+		return cache != null ? (long) cache.size() : null;
+	}
+
+	@Override
+	protected long hitCount() {
+		EnvironmentResponseCache cache = getCache();
+		return cache != null ? cache.getHits() : 0L;
+	}
+
+	@Override
+	protected Long missCount() {
+		EnvironmentResponseCache cache = getCache();
+		return cache != null ? cache.getMisses() : null;
+	}
+
+	@Override
+	protected Long evictionCount() {
+		EnvironmentResponseCache cache = getCache();
+		return cache != null ? cache.getEvictions() : null;
+	}
+
+	@Override
+	protected long putCount() {
+		EnvironmentResponseCache cache = getCache();
+		return cache != null ? cache.getPuts() : 0L;
+	}
+
+	@Override
+	protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+		Gauge.builder("cache.bytes", getCache(), EnvironmentResponseCache::getBytes)
+			.tags(getTagsWithCacheName())
+			.description("The number of bytes held by the cache")
+			.baseUnit(BaseUnits.BYTES)
+			.register(registry);
+	}
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.EnvironmentDelta;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.environment.PropertySourceDelta;
+import org.springframework.cloud.config.environment.PropertyValueDescriptor;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Retains the property values of the last few versions of each environment served, so
+ * that clients holding one of those versions can be sent an {@link EnvironmentDelta}
+ * instead of the whole environment. Snapshots are taken from the environments as served
+ * (after decryption and overrides), which works the same for every backend. The number
+ * of environments and the number of versions kept per environment are bounded.
+ * <p>
+ * Snapshots are kept per {@code X-Config-Token}, so a client is only ever sent a delta
+ * from values loaded with its own token. Environments that are not cacheable (see
+ * {@link Environment#isCacheable()}) may change without a new version, so they are never
+ * recorded and clients always get all of their values.
+ *
+ * @since 4.3.0
+ */
+public class EnvironmentSnapshots {
+
+	/**
+	 * Default maximum number of environments with snapshots.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	/**
+	 * Default maximum number of versions kept per environment.
+	 */
+	public static final int DEFAULT_MAX_VERSIONS = 5;
+
+	private final int maxVersions;
+
+	private final Map<String, Map<String, Snapshot>> entries;
+
+	public EnvironmentSnapshots() {
+		this(DEFAULT_MAX_SIZE, DEFAULT_MAX_VERSIONS);
+	}
+
+	public EnvironmentSnapshots(int maxSize, int maxVersions) {
+		Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+		Assert.isTrue(maxVersions > 0, "maxVersions must be greater than 0");
+		this.maxVersions = maxVersions;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Map<String, Snapshot>> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Take a snapshot of an environment unless one exists for its version already.
+	 * Environments without a version or that are not cacheable are ignored.
+	 * @param application the requested application name
+	 * @param profile the requested (comma separated) profiles
+	 * @param label the requested label
+	 * @param environment the environment as served
+	 */
+	public void record(String application, String profile, String label, Environment environment) {
+		if (!isVersioned(environment)) {
+			return;
+		}
+		String key = key(application, profile, label);
+		synchronized (this.entries) {
+			Map<String, Snapshot> versions = this.entries.get(key);
+			if (versions != null && versions.containsKey(environment.getVersion())) {
+				return;
+			}
+		}
+		Snapshot snapshot = Snapshot.of(environment);
+		synchronized (this.entries) {
+			Map<String, Snapshot> versions = this.entries.computeIfAbsent(key, k -> new LinkedHashMap<>());
+			versions.putIfAbsent(environment.getVersion(), snapshot);
+			Iterator<String> oldest = versions.keySet().iterator();
+			while (versions.size() > this.maxVersions) {
+				oldest.next();
+				oldest.remove();
+			}
+		}
+	}
+
+	/**
+	 * Compute the changes from a version the client holds to the current environment.
+	 * @param application the requested application name
+	 * @param profile the requested (comma separated) profiles
+	 * @param label the requested label
+	 * @param current the current environment as served
+	 * @param since the version the client holds (may be null)
+	 * @return the delta, which is a reset if there is no snapshot of the given version
+	 */
+	public EnvironmentDelta getDelta(String application, String profile, String label, Environment current,
+			String since) {
+		Snapshot previous = null;
+		if (StringUtils.hasText(since) && isVersioned(current)) {
+			synchronized (this.entries) {
+				Map<String, Snapshot> versions = this.entries.get(key(application, profile, label));
+				previous = versions != null ? versions.get(since) : null;
+			}
+		}
+		return diff(previous, current, since);
+	}
+
+	public int size() {
+		synchronized (this.entries) {
+			return this.entries.size();
+		}
+	}
+
+	/**
+	 * Compute the changes between a snapshot and an environment.
+	 * @param previous the snapshot of the version the client holds (null for a reset)
+	 * @param current the current environment
+	 * @param since the version the client holds
+	 * @return the delta
+	 */
+	static EnvironmentDelta diff(Snapshot previous, Environment current, String since) {
+		EnvironmentDelta delta = new EnvironmentDelta(current.getName(), current.getProfiles(), current.getLabel(),
+				current.getVersion(), current.getState(), since, previous == null);
+		Map<String, Map<String, Object>> before = previous != null ? previous.sources : Collections.emptyMap();
+		Map<String, Map<String, Object>> after = Snapshot.of(current).sources;
+		for (Map.Entry<String, Map<String, Object>> source : after.entrySet()) {
+			Map<String, Object> old = before.getOrDefault(source.getKey(), Collections.emptyMap());
+			PropertySourceDelta change = new PropertySourceDelta(source.getKey());
+			for (Map.Entry<String, Object> property : source.getValue().entrySet()) {
+				if (!old.containsKey(property.getKey())) {
+					change.getAdded().put(property.getKey(), property.getValue());
+				}
+				else if (!Objects.equals(old.get(property.getKey()), property.getValue())) {
+					change.getChanged().put(property.getKey(), property.getValue());
+				}
+			}
+			for (String key : old.keySet()) {
+				if (!source.getValue().containsKey(key)) {
+					change.getRemoved().add(key);
+				}
+			}
+			delta.add(change);
+		}
+		for (Map.Entry<String, Map<String, Object>> source : before.entrySet()) {
+			if (!after.containsKey(source.getKey())) {
+				PropertySourceDelta change = new PropertySourceDelta(source.getKey());
+				change.getRemoved().addAll(source.getValue().keySet());
+				delta.add(change);
+			}
+		}
+		return delta;
+	}
+
+	private static boolean isVersioned(Environment environment) {
+		return environment != null && environment.isCacheable() && StringUtils.hasText(environment.getVersion());
+	}
+
+	private static String key(String application, String profile, String label) {
+		return String.join("\n", application, profile, String.valueOf(label), String.valueOf(RequestConfigToken.get()));
+	}
+
+	/**
+	 * The plain property values of each property source of an environment, without
+	 * origins.
+	 */
+	static final class Snapshot {
+
+		private final Map<String, Map<String, Object>> sources;
+
+		private Snapshot(Map<String, Map<String, Object>> sources) {
+			this.sources = sources;
+		}
+
+		static Snapshot of(Environment environment) {
+			Map<String, Map<String, Object>> sources = new LinkedHashMap<>();
+			for (PropertySource source : environment.getPropertySources()) {
+				Map<String, Object> values = new LinkedHashMap<>(source.getSource().size());
+				for (Map.Entry<?, ?> entry : source.getSource().entrySet()) {
+					Object value = entry.getValue();
+					if (value instanceof PropertyValueDescriptor descriptor) {
+						value = descriptor.getValue();
+					}
+					values.put(String.valueOf(entry.getKey()), value);
+				}
+				// like a property lookup, the first source with a given name wins
+				sources.putIfAbsent(source.getName(), values);
+			}
+			return new Snapshot(sources);
+		}
+
+	}
+
+}
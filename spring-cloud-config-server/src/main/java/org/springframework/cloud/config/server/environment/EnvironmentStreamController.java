@@ -0,0 +1,536 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams a <code>change</code> event (as <code>text/event-stream</code>) every time the
+ * version of an environment changes. The event id is the new version and the data is a
+ * small JSON object with the name, profiles, label and version of the environment, so
+ * that clients can fetch it (or a delta) only when it has actually changed. A first event
+ * is sent on subscription unless the client already holds the current version, which it
+ * can say with the standard <code>Last-Event-ID</code> header when it reconnects.
+ * <p>
+ * Subscribers are grouped by environment and hold only their emitter and the last
+ * version they were sent, so idle subscribers are cheap and their number is bounded by
+ * <code>maxSubscribers</code>. Subscribed environments are loaded once per check,
+ * however many subscribers they have, either at a fixed interval (which picks up e.g.
+ * new git commits as the repository fetches them) or right away when an
+ * {@link EnvironmentChangedEvent} is published, for instance by the monitor webhook
+ * endpoint. Changes are detected on a single background thread, which also schedules
+ * heartbeat comments so that dead connections are noticed and released. Events are
+ * written on other threads, one at a time per subscriber, and a subscriber whose last
+ * event has not been written yet when the next one is due is dropped, so that a client
+ * that stops reading its stream cannot hold up the others.
+ * <p>
+ * Subscribers are only grouped if they sent the same {@code X-Config-Token}, and
+ * environments are loaded in the context of one of their requests, so that backends like
+ * Vault load them with that token.
+ *
+ * @since 4.3.0
+ */
+@RestController
+@RequestMapping(method = RequestMethod.GET, path = "${spring.cloud.config.server.prefix:}/stream")
+public class EnvironmentStreamController implements ApplicationListener<EnvironmentChangedEvent>, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(EnvironmentStreamController.class);
+
+	private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("").build();
+
+	private final EnvironmentController environmentController;
+
+	private final Duration checkInterval;
+
+	private Duration heartbeatInterval = Duration.ofSeconds(30);
+
+	private Duration timeout = Duration.ofMinutes(30);
+
+	private int maxSubscribers = 10000;
+
+	private final ConcurrentMap<Key, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+	private final AtomicInteger count = new AtomicInteger();
+
+	private volatile ScheduledExecutorService scheduler;
+
+	private volatile Executor sender;
+
+	// the default sender, created with the scheduler
+	private ExecutorService senderPool;
+
+	public EnvironmentStreamController(EnvironmentController environmentController, Duration checkInterval) {
+		Assert.isTrue(checkInterval.toMillis() > 0, "checkInterval must be positive");
+		this.environmentController = environmentController;
+		this.checkInterval = checkInterval;
+	}
+
+	/**
+	 * Executor that writes the events to the subscribers. By default a pool of daemon
+	 * threads is created with the first subscription.
+	 * @param sender the executor sending events
+	 */
+	public void setSender(Executor sender) {
+		this.sender = sender;
+	}
+
+	/**
+	 * Interval of the heartbeat comments sent to every subscriber.
+	 * @param heartbeatInterval the heartbeat interval
+	 */
+	public void setHeartbeatInterval(Duration heartbeatInterval) {
+		Assert.isTrue(heartbeatInterval.toMillis() > 0, "heartbeatInterval must be positive");
+		this.heartbeatInterval = heartbeatInterval;
+	}
+
+	/**
+	 * How long a stream stays open before the client has to reconnect.
+	 * @param timeout the stream timeout
+	 */
+	public void setTimeout(Duration timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Maximum number of concurrent subscribers. Further subscriptions are rejected with
+	 * a 503 until others disconnect.
+	 * @param maxSubscribers the maximum number of subscribers
+	 */
+	public void setMaxSubscribers(int maxSubscribers) {
+		this.maxSubscribers = maxSubscribers;
+	}
+
+	@GetMapping(path = "/{name}/{profiles}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter defaultLabel(@PathVariable String name, @PathVariable String profiles,
+			@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+		return subscribe(name, profiles, null, lastEventId);
+	}
+
+	@GetMapping(path = "/{name}/{profiles}/{label:.*}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter labelled(@PathVariable String name, @PathVariable String profiles, @PathVariable String label,
+			@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+		return subscribe(name, profiles, label, lastEventId);
+	}
+
+	/**
+	 * Subscribe to the version changes of an environment.
+	 * @param name the application name
+	 * @param profiles the (comma separated) profiles
+	 * @param label the label (may be null)
+	 * @param version the version the client already holds (may be null)
+	 * @return the emitter of the event stream
+	 */
+	public SseEmitter subscribe(String name, String profiles, String label, String version) {
+		if (this.count.incrementAndGet() > this.maxSubscribers) {
+			this.count.decrementAndGet();
+			throw new TooManySubscribersException();
+		}
+		Key key = new Key(name, profiles, label, RequestConfigToken.get());
+		Subscriber subscriber = new Subscriber(new SseEmitter(this.timeout.toMillis()), version,
+				RequestContextHolder.getRequestAttributes());
+		try {
+			Environment environment = load(key, subscriber.attributes);
+			if (environment != null && StringUtils.hasText(environment.getVersion())) {
+				// the emitter is not handed out yet, so this only buffers the event
+				subscriber.send(environment.getVersion(), event(environment));
+			}
+		}
+		catch (IOException ex) {
+			this.count.decrementAndGet();
+			subscriber.emitter.complete();
+			throw new IllegalStateException("Cannot send the current version of " + key, ex);
+		}
+		catch (RuntimeException ex) {
+			this.count.decrementAndGet();
+			throw ex;
+		}
+		subscriber.emitter.onCompletion(() -> remove(key, subscriber));
+		subscriber.emitter.onTimeout(subscriber.emitter::complete);
+		subscriber.emitter.onError(ex -> remove(key, subscriber));
+		add(key, subscriber);
+		return subscriber.emitter;
+	}
+
+	@Override
+	public void onApplicationEvent(EnvironmentChangedEvent event) {
+		ScheduledExecutorService scheduler = this.scheduler;
+		if (scheduler != null) {
+			scheduler.execute(() -> checkQuietly(key -> event.matches(key.name)));
+		}
+	}
+
+	/**
+	 * Load every subscribed environment once and notify the subscribers of those whose
+	 * version has changed.
+	 */
+	void checkForChanges() {
+		checkForChanges(key -> true);
+	}
+
+	private void checkForChanges(Predicate<Key> filter) {
+		if (this.subscribers.isEmpty()) {
+			return;
+		}
+		try (EnvironmentRefreshBatch batch = EnvironmentRefreshBatch.open()) {
+			for (Map.Entry<Key, Set<Subscriber>> entry : this.subscribers.entrySet()) {
+				RequestAttributes attributes = getAttributes(entry.getValue());
+				if (!filter.test(entry.getKey()) || attributes == null) {
+					continue;
+				}
+				Environment environment;
+				try {
+					environment = load(entry.getKey(), attributes);
+				}
+				catch (RuntimeException ex) {
+					logger.debug("Cannot check " + entry.getKey() + " for changes", ex);
+					continue;
+				}
+				if (environment == null || !StringUtils.hasText(environment.getVersion())) {
+					continue;
+				}
+				Set<DataWithMediaType> event = null;
+				for (Subscriber subscriber : entry.getValue()) {
+					if (!environment.getVersion().equals(subscriber.version)) {
+						if (event == null) {
+							event = event(environment);
+						}
+						send(entry.getKey(), subscriber, environment.getVersion(), event);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Send a heartbeat comment to every subscriber, releasing those that are gone.
+	 */
+	void heartbeat() {
+		for (Map.Entry<Key, Set<Subscriber>> entry : this.subscribers.entrySet()) {
+			for (Subscriber subscriber : entry.getValue()) {
+				send(entry.getKey(), subscriber, subscriber.version, HEARTBEAT);
+			}
+		}
+	}
+
+	/**
+	 * The number of open streams.
+	 * @return the number of subscribers
+	 */
+	public int getSubscribers() {
+		return this.count.get();
+	}
+
+	private void send(Key key, Subscriber subscriber, String version, Set<DataWithMediaType> event) {
+		Executor sender = this.sender;
+		if (sender == null) {
+			// destroyed
+			return;
+		}
+		if (!subscriber.sending.compareAndSet(false, true)) {
+			// the last event is still being written, so the client is not reading
+			drop(key, subscriber, sender);
+			return;
+		}
+		try {
+			sender.execute(() -> {
+				try {
+					subscriber.send(version, event);
+				}
+				catch (IOException | IllegalStateException ex) {
+					// the client has gone away, or the stream has already completed
+					remove(key, subscriber);
+				}
+				finally {
+					subscriber.sending.set(false);
+				}
+			});
+		}
+		catch (RejectedExecutionException ex) {
+			// shutting down
+			subscriber.sending.set(false);
+		}
+	}
+
+	private void drop(Key key, Subscriber subscriber, Executor sender) {
+		if (!remove(key, subscriber)) {
+			return;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Dropping a subscriber of " + key + " that does not keep up with its stream");
+		}
+		try {
+			// completing waits for the write in progress
+			sender.execute(subscriber.emitter::complete);
+		}
+		catch (RejectedExecutionException ex) {
+			// shutting down, the stream is completed anyway
+		}
+	}
+
+	private Set<DataWithMediaType> event(Environment environment) {
+		Map<String, Object> data = new LinkedHashMap<>();
+		data.put("name", environment.getName());
+		data.put("profiles", environment.getProfiles());
+		data.put("label", environment.getLabel());
+		data.put("version", environment.getVersion());
+		return SseEmitter.event()
+			.id(environment.getVersion())
+			.name("change")
+			.data(data, MediaType.APPLICATION_JSON)
+			.build();
+	}
+
+	/**
+	 * Loads an environment in the context of a request, whose token the backend may need.
+	 */
+	private Environment load(Key key, RequestAttributes attributes) {
+		RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+		RequestContextHolder.setRequestAttributes(attributes);
+		try {
+			return this.environmentController.getEnvironment(key.name, key.profiles, key.label, false);
+		}
+		finally {
+			RequestContextHolder.setRequestAttributes(previous);
+		}
+	}
+
+	/**
+	 * The context of any subscriber that is still connected, all of them sent the same
+	 * token.
+	 */
+	private static RequestAttributes getAttributes(Set<Subscriber> subscribers) {
+		for (Subscriber subscriber : subscribers) {
+			return subscriber.attributes;
+		}
+		return null;
+	}
+
+	private void add(Key key, Subscriber subscriber) {
+		this.subscribers.compute(key, (k, set) -> {
+			if (set == null) {
+				set = ConcurrentHashMap.newKeySet();
+			}
+			set.add(subscriber);
+			return set;
+		});
+		start();
+	}
+
+	private boolean remove(Key key, Subscriber subscriber) {
+		boolean[] removed = new boolean[1];
+		this.subscribers.computeIfPresent(key, (k, set) -> {
+			removed[0] = set.remove(subscriber);
+			return set.isEmpty() ? null : set;
+		});
+		if (removed[0]) {
+			this.count.decrementAndGet();
+		}
+		return removed[0];
+	}
+
+	private void checkQuietly(Predicate<Key> filter) {
+		try {
+			checkForChanges(filter);
+		}
+		catch (RuntimeException ex) {
+			logger.warn("Failed to check subscribed environments for changes", ex);
+		}
+	}
+
+	private synchronized void start() {
+		if (this.scheduler != null) {
+			return;
+		}
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("config-server-stream-");
+		threadFactory.setDaemon(true);
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		long interval = this.checkInterval.toMillis();
+		scheduler.scheduleWithFixedDelay(() -> checkQuietly(key -> true), interval, interval, TimeUnit.MILLISECONDS);
+		long heartbeat = this.heartbeatInterval.toMillis();
+		scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+		if (this.sender == null) {
+			CustomizableThreadFactory senderThreadFactory = new CustomizableThreadFactory("config-server-stream-send-");
+			senderThreadFactory.setDaemon(true);
+			// a stuck client holds on to one thread at most, until its write fails
+			this.senderPool = Executors.newCachedThreadPool(senderThreadFactory);
+			this.sender = this.senderPool;
+		}
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public synchronized void destroy() {
+		if (this.scheduler != null) {
+			this.scheduler.shutdownNow();
+			this.scheduler = null;
+		}
+		if (this.senderPool != null) {
+			this.senderPool.shutdownNow();
+			this.senderPool = null;
+			this.sender = null;
+		}
+		for (Set<Subscriber> set : this.subscribers.values()) {
+			for (Subscriber subscriber : set) {
+				subscriber.emitter.complete();
+			}
+		}
+	}
+
+	@ExceptionHandler(TooManySubscribersException.class)
+	public void tooManySubscribers(HttpServletResponse response) throws IOException {
+		response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+	}
+
+	@ExceptionHandler(RepositoryException.class)
+	public void noSuchLabel(HttpServletResponse response) throws IOException {
+		response.sendError(HttpStatus.NOT_FOUND.value());
+	}
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public void illegalArgument(HttpServletResponse response) throws IOException {
+		response.sendError(HttpStatus.BAD_REQUEST.value());
+	}
+
+	@ExceptionHandler(EnvironmentException.class)
+	public void environmentException(HttpServletResponse response, EnvironmentException e) throws IOException {
+		response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage());
+	}
+
+	@ExceptionHandler(EnvironmentOverloadedException.class)
+	public void overloaded(HttpServletResponse response, EnvironmentOverloadedException e) throws IOException {
+		response.setHeader(HttpHeaders.RETRY_AFTER, e.getRetryAfterSeconds());
+		response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage());
+	}
+
+	private static final class Subscriber {
+
+		private final SseEmitter emitter;
+
+		private final AtomicBoolean sending = new AtomicBoolean();
+
+		private final RequestAttributes attributes;
+
+		private volatile String version;
+
+		private Subscriber(SseEmitter emitter, String version, RequestAttributes attributes) {
+			this.emitter = emitter;
+			this.version = version;
+			this.attributes = attributes;
+		}
+
+		private void send(String version, Set<DataWithMediaType> event) throws IOException {
+			if (event != HEARTBEAT && version.equals(this.version)) {
+				return;
+			}
+			this.emitter.send(event);
+			this.version = version;
+		}
+
+	}
+
+	private static final class Key {
+
+		private final String name;
+
+		private final String profiles;
+
+		private final String label;
+
+		private final String token;
+
+		private Key(String name, String profiles, String label, String token) {
+			this.name = name;
+			this.profiles = profiles;
+			this.label = label;
+			this.token = token;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Key other = (Key) o;
+			return Objects.equals(this.name, other.name) && Objects.equals(this.profiles, other.profiles)
+					&& Objects.equals(this.label, other.label) && Objects.equals(this.token, other.token);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.name, this.profiles, this.label, this.token);
+		}
+
+		@Override
+		public String toString() {
+			return this.name + "/" + this.profiles + "/" + this.label;
+		}
+
+	}
+
+	private static final class TooManySubscribersException extends RuntimeException {
+
+		private TooManySubscribersException() {
+			super("Too many subscribers");
+		}
+
+	}
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cloud.config.server.environment.EnvironmentRequestHistory.Request;
+import org.springframework.context.ApplicationListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Prepares environments before clients ask for them, so that the first requests after a
+ * restart or a change in the backend do not all pay for assembling and rendering them at
+ * once. Each warm-up loads a configured list of environments plus the most requested ones
+ * from an {@link EnvironmentRequestHistory} through the {@link EnvironmentController},
+ * which leaves them in the environment and response caches (when those are enabled).
+ * All environments of a warm-up are loaded within one {@link EnvironmentRefreshBatch}, so
+ * each backing repository contacts its remote at most once.
+ * <p>
+ * A warm-up runs when the application has started, either before it reports itself ready
+ * or in the background, and again after every {@link EnvironmentChangedEvent} for the
+ * affected applications. The request history is loaded from and saved to a local file if
+ * one is configured, so the most requested environments survive a restart.
+ *
+ * @since 4.3.0
+ */
+public class EnvironmentWarmer
+		implements ApplicationRunner, ApplicationListener<EnvironmentChangedEvent>, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(EnvironmentWarmer.class);
+
+	private final EnvironmentController environmentController;
+
+	private final EnvironmentRequestHistory history;
+
+	private List<Request> environments = new ArrayList<>();
+
+	private int historySize = 50;
+
+	private Path historyFile;
+
+	private boolean waitForReadiness;
+
+	private final ExecutorService executor;
+
+	private Predicate<Request> pending;
+
+	private final AtomicLong warmed = new AtomicLong();
+
+	private final AtomicLong failed = new AtomicLong();
+
+	private volatile boolean started;
+
+	/**
+	 * Create a new warmer.
+	 * @param environmentController the controller that loads and renders the environments
+	 * @param history the request history (may be null to only warm the configured
+	 * environments)
+	 */
+	public EnvironmentWarmer(EnvironmentController environmentController, EnvironmentRequestHistory history) {
+		this.environmentController = environmentController;
+		this.history = history;
+		this.executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("config-server-warm-up-"));
+	}
+
+	/**
+	 * Environments that are always warmed, in the form <code>name/profiles[/label]</code>.
+	 * @param environments the environments
+	 */
+	public void setEnvironments(List<String> environments) {
+		List<Request> requests = new ArrayList<>(environments.size());
+		for (String environment : environments) {
+			requests.add(Request.parse(environment));
+		}
+		this.environments = requests;
+	}
+
+	/**
+	 * Number of most requested environments from the history that are warmed (and saved).
+	 * @param historySize the number of environments
+	 */
+	public void setHistorySize(int historySize) {
+		this.historySize = historySize;
+	}
+
+	/**
+	 * File to load the request history from on startup and save it to after each warm-up
+	 * and on shutdown.
+	 * @param historyFile the file (may be null to keep the history in memory only)
+	 */
+	public void setHistoryFile(Path historyFile) {
+		this.historyFile = historyFile;
+	}
+
+	/**
+	 * Whether the initial warm-up has to finish before the application reports itself
+	 * ready to accept traffic. Otherwise it runs in the background.
+	 * @param waitForReadiness true to delay readiness
+	 */
+	public void setWaitForReadiness(boolean waitForReadiness) {
+		this.waitForReadiness = waitForReadiness;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (this.history != null && this.historyFile != null) {
+			try {
+				this.history.load(this.historyFile);
+			}
+			catch (IOException ex) {
+				logger.warn("Cannot load the request history from " + this.historyFile, ex);
+			}
+		}
+		this.started = true;
+		if (this.waitForReadiness) {
+			warmUp();
+		}
+		else {
+			schedule(request -> true);
+		}
+	}
+
+	@Override
+	public void onApplicationEvent(EnvironmentChangedEvent event) {
+		if (this.started) {
+			schedule(request -> event.matches(request.getName()));
+		}
+	}
+
+	/**
+	 * Run a warm-up in the background. Changes reported while a warm-up is waiting to run
+	 * are folded into that one.
+	 */
+	private synchronized void schedule(Predicate<Request> filter) {
+		if (this.pending != null) {
+			this.pending = this.pending.or(filter);
+			return;
+		}
+		if (this.executor.isShutdown()) {
+			return;
+		}
+		this.pending = filter;
+		this.executor.execute(() -> warmUp(takePending()));
+	}
+
+	private synchronized Predicate<Request> takePending() {
+		Predicate<Request> filter = this.pending;
+		this.pending = null;
+		return filter;
+	}
+
+	/**
+	 * Load and render every configured and frequently requested environment.
+	 */
+	public void warmUp() {
+		warmUp(request -> true);
+	}
+
+	private void warmUp(Predicate<Request> filter) {
+		Set<Request> requests = new LinkedHashSet<>(this.environments);
+		if (this.history != null) {
+			requests.addAll(this.history.getMostRequested(this.historySize));
+		}
+		long start = System.currentTimeMillis();
+		int count = 0;
+		try (EnvironmentRefreshBatch batch = EnvironmentRefreshBatch.open()) {
+			for (Request request : requests) {
+				if (!filter.test(request)) {
+					continue;
+				}
+				count++;
+				try {
+					this.environmentController.warmUp(request.getName(), request.getProfiles(), request.getLabel());
+					this.warmed.incrementAndGet();
+				}
+				catch (Exception ex) {
+					this.failed.incrementAndGet();
+					logger.debug("Cannot warm up " + request, ex);
+				}
+			}
+		}
+		if (logger.isInfoEnabled() && count > 0) {
+			logger.info("Warmed up " + count + " environments in " + (System.currentTimeMillis() - start) + "ms");
+		}
+		saveHistory();
+	}
+
+	private void saveHistory() {
+		if (this.history == null || this.historyFile == null) {
+			return;
+		}
+		try {
+			this.history.save(this.historyFile, this.historySize);
+		}
+		catch (IOException ex) {
+			logger.warn("Cannot save the request history to " + this.historyFile, ex);
+		}
+	}
+
+	public long getWarmed() {
+		return this.warmed.get();
+	}
+
+	public long getFailed() {
+		return this.failed.get();
+	}
+
+	@Override
+	public void destroy() {
+		this.started = false;
+		this.executor.shutdownNow();
+		saveHistory();
+	}
+
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.EnvironmentMediaType;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * Long polling for environment changes, in the style of Consul blocking queries. A client
+ * sends the <code>version</code> of the environment it holds, and the request is parked
+ * (asynchronously, without holding a thread) until the environment has a different
+ * version or the <code>wait</code> time expires, in which case the response is a 304.
+ * The current version is also loaded asynchronously, so a slow backend does not hold a
+ * servlet thread either.
+ * <p>
+ * Parked requests are checked on a single background thread at a fixed interval. Each
+ * check loads every watched environment once, no matter how many clients are waiting for
+ * it, and all of them within one {@link EnvironmentRefreshBatch}, so each backing
+ * repository contacts its remote at most once per check. Environments without a version
+ * cannot be watched for changes; requests for them are answered with the environment when
+ * the wait time expires. An {@link EnvironmentChangedEvent} triggers a check right
+ * away.
+ * <p>
+ * Requests only share a result if they sent the same {@code X-Config-Token}, and
+ * environments are loaded in the context of one of the requests waiting for them, so
+ * that backends like Vault load them with that token.
+ *
+ * @since 4.3.0
+ */
+@RestController
+@RequestMapping(method = RequestMethod.GET, path = "${spring.cloud.config.server.prefix:}/watch")
+public class EnvironmentWatchController implements ApplicationListener<EnvironmentChangedEvent>, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(EnvironmentWatchController.class);
+
+	private final EnvironmentController environmentController;
+
+	private final Duration checkInterval;
+
+	private Duration defaultWait = Duration.ofSeconds(30);
+
+	private Duration maxWait = Duration.ofMinutes(5);
+
+	private final ConcurrentMap<Key, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+
+	private volatile ScheduledExecutorService scheduler;
+
+	private volatile Executor loader;
+
+	// the default loader, created on first use
+	private ExecutorService loaderPool;
+
+	public EnvironmentWatchController(EnvironmentController environmentController, Duration checkInterval) {
+		Assert.isTrue(checkInterval.toMillis() > 0, "checkInterval must be positive");
+		this.environmentController = environmentController;
+		this.checkInterval = checkInterval;
+	}
+
+	/**
+	 * How long requests without a <code>wait</code> parameter are parked.
+	 * @param defaultWait the default wait time
+	 */
+	public void setDefaultWait(Duration defaultWait) {
+		this.defaultWait = defaultWait;
+	}
+
+	/**
+	 * Upper bound for the <code>wait</code> parameter.
+	 * @param maxWait the maximum wait time
+	 */
+	public void setMaxWait(Duration maxWait) {
+		this.maxWait = maxWait;
+	}
+
+	/**
+	 * The executor that loads the current version of an environment for new requests.
+	 * Defaults to a cached pool of daemon threads.
+	 * @param loader the executor loading environments
+	 */
+	public void setLoader(Executor loader) {
+		this.loader = loader;
+	}
+
+	@GetMapping(path = "/{name}/{profiles}", produces = MediaType.APPLICATION_JSON_VALUE)
+	public DeferredResult<ResponseEntity<Environment>> defaultLabel(@PathVariable String name,
+			@PathVariable String profiles, @RequestParam(required = false) String version,
+			@RequestParam(required = false) String wait) {
+		return watch(name, profiles, null, false, version, wait);
+	}
+
+	@GetMapping(path = "/{name}/{profiles}", produces = EnvironmentMediaType.V2_JSON)
+	public DeferredResult<ResponseEntity<Environment>> defaultLabelIncludeOrigin(@PathVariable String name,
+			@PathVariable String profiles, @RequestParam(required = false) String version,
+			@RequestParam(required = false) String wait) {
+		return watch(name, profiles, null, true, version, wait);
+	}
+
+	@GetMapping(path = "/{name}/{profiles}/{label:.*}", produces = MediaType.APPLICATION_JSON_VALUE)
+	public DeferredResult<ResponseEntity<Environment>> labelled(@PathVariable String name,
+			@PathVariable String profiles, @PathVariable String label, @RequestParam(required = false) String version,
+			@RequestParam(required = false) String wait) {
+		return watch(name, profiles, label, false, version, wait);
+	}
+
+	@GetMapping(path = "/{name}/{profiles}/{label:.*}", produces = EnvironmentMediaType.V2_JSON)
+	public DeferredResult<ResponseEntity<Environment>> labelledIncludeOrigin(@PathVariable String name,
+			@PathVariable String profiles, @PathVariable String label, @RequestParam(required = false) String version,
+			@RequestParam(required = false) String wait) {
+		return watch(name, profiles, label, true, version, wait);
+	}
+
+	/**
+	 * Answer with the environment as soon as its version differs from the given one.
+	 * @param name the application name
+	 * @param profiles the (comma separated) profiles
+	 * @param label the label (may be null)
+	 * @param includeOrigin whether to include property origins
+	 * @param version the version the client holds (may be null)
+	 * @param wait how long to wait for a change, e.g. <code>30s</code> or
+	 * <code>120</code> (seconds)
+	 * @return the result, completed with the environment, or a 304 on timeout
+	 */
+	public DeferredResult<ResponseEntity<Environment>> watch(String name, String profiles, String label,
+			boolean includeOrigin, String version, String wait) {
+		Duration timeout = getWait(wait);
+		Key key = new Key(name, profiles, label, includeOrigin, RequestConfigToken.get());
+		DeferredResult<ResponseEntity<Environment>> result = new DeferredResult<>(timeout.toMillis());
+		Waiter waiter = new Waiter(version, result, RequestContextHolder.getRequestAttributes());
+		result.onTimeout(() -> timeout(key, waiter));
+		result.onCompletion(() -> remove(key, waiter));
+		getLoader().execute(() -> compare(key, waiter));
+		return result;
+	}
+
+	private void compare(Key key, Waiter waiter) {
+		Environment current;
+		try {
+			current = load(key, waiter.attributes);
+		}
+		catch (RuntimeException ex) {
+			waiter.result.setErrorResult(ex);
+			return;
+		}
+		if (current == null || !StringUtils.hasText(current.getVersion())) {
+			// answered when the wait time expires
+			return;
+		}
+		if (!current.getVersion().equals(waiter.version)) {
+			waiter.result.setResult(ResponseEntity.ok(current));
+			return;
+		}
+		waiter.versioned = true;
+		add(key, waiter);
+		if (waiter.result.isSetOrExpired()) {
+			// timed out while loading, so the completion callback has already run
+			remove(key, waiter);
+		}
+	}
+
+	private void timeout(Key key, Waiter waiter) {
+		if (waiter.versioned) {
+			waiter.result.setResult(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+			return;
+		}
+		try {
+			waiter.result.setResult(ResponseEntity.ok(load(key, waiter.attributes)));
+		}
+		catch (RuntimeException ex) {
+			waiter.result.setErrorResult(ex);
+		}
+	}
+
+	@Override
+	public void onApplicationEvent(EnvironmentChangedEvent event) {
+		ScheduledExecutorService scheduler = this.scheduler;
+		if (scheduler != null) {
+			scheduler.execute(this::checkQuietly);
+		}
+	}
+
+	/**
+	 * Load every watched environment once and complete the requests waiting for a
+	 * different version.
+	 */
+	void checkForChanges() {
+		if (this.waiters.isEmpty()) {
+			return;
+		}
+		try (EnvironmentRefreshBatch batch = EnvironmentRefreshBatch.open()) {
+			for (Map.Entry<Key, Set<Waiter>> entry : this.waiters.entrySet()) {
+				RequestAttributes attributes = getAttributes(entry.getValue());
+				if (attributes == null) {
+					continue;
+				}
+				Environment environment;
+				try {
+					environment = load(entry.getKey(), attributes);
+				}
+				catch (RuntimeException ex) {
+					// keep waiting, the backend may recover before the requests time out
+					logger.debug("Cannot check " + entry.getKey() + " for changes", ex);
+					continue;
+				}
+				if (environment == null || !StringUtils.hasText(environment.getVersion())) {
+					continue;
+				}
+				ResponseEntity<Environment> response = ResponseEntity.ok(environment);
+				for (Waiter waiter : entry.getValue()) {
+					if (!environment.getVersion().equals(waiter.version)) {
+						waiter.result.setResult(response);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * The number of parked requests.
+	 * @return the number of requests waiting for a change
+	 */
+	public int getWaiting() {
+		int waiting = 0;
+		for (Set<Waiter> set : this.waiters.values()) {
+			waiting += set.size();
+		}
+		return waiting;
+	}
+
+	/**
+	 * Loads an environment in the context of a request, whose token the backend may need.
+	 */
+	private Environment load(Key key, RequestAttributes attributes) {
+		RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+		RequestContextHolder.setRequestAttributes(attributes);
+		try {
+			return this.environmentController.getEnvironment(key.name, key.profiles, key.label, key.includeOrigin);
+		}
+		finally {
+			RequestContextHolder.setRequestAttributes(previous);
+		}
+	}
+
+	/**
+	 * The context of any request that is still waiting, all of them sent the same token.
+	 */
+	private static RequestAttributes getAttributes(Set<Waiter> waiters) {
+		for (Waiter waiter : waiters) {
+			return waiter.attributes;
+		}
+		return null;
+	}
+
+	private void add(Key key, Waiter waiter) {
+		this.waiters.compute(key, (k, set) -> {
+			if (set == null) {
+				set = ConcurrentHashMap.newKeySet();
+			}
+			set.add(waiter);
+			return set;
+		});
+		start();
+	}
+
+	private void remove(Key key, Waiter waiter) {
+		this.waiters.computeIfPresent(key, (k, set) -> {
+			set.remove(waiter);
+			return set.isEmpty() ? null : set;
+		});
+	}
+
+	private synchronized void start() {
+		if (this.scheduler != null) {
+			return;
+		}
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("config-server-watch-");
+		threadFactory.setDaemon(true);
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		long interval = this.checkInterval.toMillis();
+		this.scheduler.scheduleWithFixedDelay(this::checkQuietly, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	private synchronized Executor getLoader() {
+		if (this.loader == null) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("config-server-watch-load-");
+			threadFactory.setDaemon(true);
+			this.loaderPool = Executors.newCachedThreadPool(threadFactory);
+			this.loader = this.loaderPool;
+		}
+		return this.loader;
+	}
+
+	private void checkQuietly() {
+		try {
+			checkForChanges();
+		}
+		catch (RuntimeException ex) {
+			logger.warn("Failed to check watched environments for changes", ex);
+		}
+	}
+
+	@Override
+	public synchronized void destroy() {
+		if (this.scheduler != null) {
+			this.scheduler.shutdownNow();
+			this.scheduler = null;
+		}
+		if (this.loaderPool != null) {
+			this.loaderPool.shutdownNow();
+			this.loaderPool = null;
+			this.loader = null;
+		}
+	}
+
+	private Duration getWait(String wait) {
+		Duration duration = StringUtils.hasText(wait) ? DurationStyle.detectAndParse(wait, ChronoUnit.SECONDS)
+				: this.defaultWait;
+		if (duration.isNegative() || duration.compareTo(this.maxWait) > 0) {
+			duration = this.maxWait;
+		}
+		// spread out the clients that would otherwise all come back at the same time
+		long jitter = ThreadLocalRandom.current().nextLong(duration.toMillis() / 16 + 1);
+		return duration.plusMillis(jitter);
+	}
+
+	@ExceptionHandler(RepositoryException.class)
+	public void noSuchLabel(HttpServletResponse response) throws IOException {
+		response.sendError(HttpStatus.NOT_FOUND.value());
+	}
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public void illegalArgument(HttpServletResponse response) throws IOException {
+		response.sendError(HttpStatus.BAD_REQUEST.value());
+	}
+
+	@ExceptionHandler(EnvironmentException.class)
+	public void environmentException(HttpServletResponse response, EnvironmentException e) throws IOException {
+		response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), e.getMessage());
+	}
+
+	@ExceptionHandler(EnvironmentOverloadedException.class)
+	public void overloaded(HttpServletResponse response, EnvironmentOverloadedException e) throws IOException {
+		response.setHeader(HttpHeaders.RETRY_AFTER, e.getRetryAfterSeconds());
+		response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), e.getMessage());
+	}
+
+	private static final class Waiter {
+
+		private final String version;
+
+		private final DeferredResult<ResponseEntity<Environment>> result;
+
+		private final RequestAttributes attributes;
+
+		// whether the environment has a version, so that the request waits for a change
+		private volatile boolean versioned;
+
+		private Waiter(String version, DeferredResult<ResponseEntity<Environment>> result,
+				RequestAttributes attributes) {
+			this.version = version;
+			this.result = result;
+			this.attributes = attributes;
+		}
+
+	}
+
+	private static final class Key {
+
+		private final String name;
+
+		private final String profiles;
+
+		private final String label;
+
+		private final boolean includeOrigin;
+
+		private final String token;
+
+		private Key(String name, String profiles, String label, boolean includeOrigin, String token) {
+			this.name = name;
+			this.profiles = profiles;
+			this.label = label;
+			this.includeOrigin = includeOrigin;
+			this.token = token;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) {
+				return true;
+			}
+			if (o == null || getClass() != o.getClass()) {
+				return false;
+			}
+			Key other = (Key) o;
+			return this.includeOrigin == other.includeOrigin && Objects.equals(this.name, other.name)
+					&& Objects.equals(this.profiles, other.profiles) && Objects.equals(this.label, other.label)
+					&& Objects.equals(this.token, other.token);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.name, this.profiles, this.label, this.includeOrigin, this.token);
+		}
+
+		@Override
+		public String toString() {
+			return this.name + "/" + this.profiles + "/" + this.label;
+		}
+
+	}
+
+}
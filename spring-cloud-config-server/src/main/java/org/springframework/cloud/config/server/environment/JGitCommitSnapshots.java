@@ -0,0 +1,339 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import org.eclipse.jgit.util.FileUtils;
+
+import org.springframework.util.Assert;
+
+/**
+ * Read-only copies of the files of git commits, written straight from the object database
+ * with a {@link TreeWalk} instead of checking the commit out into a shared working tree.
+ * Each commit is extracted at most once into a directory named after its id, and the
+ * directory never changes afterwards, so any number of commits can be read concurrently
+ * without locking. At most <code>maxSize</code> commits are kept, the least recently used
+ * ones are deleted a while after they have been evicted, so that requests still reading
+ * them can finish. Optionally only the files in the root directory and in a given set of
+ * directories are extracted, like a sparse checkout.
+ *
+ * @since 4.3.0
+ */
+public class JGitCommitSnapshots {
+
+	/**
+	 * Default maximum number of commits kept.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 16;
+
+	private static final long RETIREMENT_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	private static final Log logger = LogFactory.getLog(JGitCommitSnapshots.class);
+
+	private final File directory;
+
+	private final int maxSize;
+
+	private final TreeFilter filter;
+
+	private final Lock lock = new ReentrantLock();
+
+	private final LinkedHashMap<String, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final Map<File, Long> retired = new LinkedHashMap<>();
+
+	private boolean initialized;
+
+	private long retirementNanos = RETIREMENT_NANOS;
+
+	public JGitCommitSnapshots(File directory) {
+		this(directory, DEFAULT_MAX_SIZE);
+	}
+
+	public JGitCommitSnapshots(File directory, int maxSize) {
+		this(directory, maxSize, null);
+	}
+
+	/**
+	 * Create snapshots that only hold some of the files of each commit.
+	 * @param directory the directory holding the snapshots
+	 * @param maxSize the maximum number of commits kept
+	 * @param directories the directories (relative to the root of the repository) whose
+	 * files are extracted besides the files in the root directory, or null to extract all
+	 * files
+	 */
+	public JGitCommitSnapshots(File directory, int maxSize, Collection<String> directories) {
+		Assert.notNull(directory, "directory must not be null");
+		Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+		this.directory = directory;
+		this.maxSize = maxSize;
+		this.filter = directories != null ? new DirectoryFilter(directories) : TreeFilter.ALL;
+	}
+
+	/**
+	 * The directory holding the files of the given commit once it has been extracted.
+	 * @param commitId the id of the commit
+	 * @return the directory of the commit
+	 */
+	public File getDirectory(String commitId) {
+		return new File(this.directory, commitId);
+	}
+
+	/**
+	 * Extract the files of a commit, unless that has been done already.
+	 * @param repository the repository holding the commit
+	 * @param commitId the id of the commit
+	 * @return the directory holding the files of the commit
+	 * @throws IOException if the commit cannot be read or written
+	 */
+	public File extract(Repository repository, ObjectId commitId) throws IOException {
+		String name = commitId.getName();
+		Snapshot snapshot;
+		List<File> expired = new ArrayList<>();
+		this.lock.lock();
+		try {
+			if (!this.initialized) {
+				// snapshots of a previous run are not tracked, so they would never be
+				// deleted
+				FileUtils.delete(this.directory, FileUtils.RECURSIVE | FileUtils.SKIP_MISSING);
+				this.initialized = true;
+			}
+			snapshot = this.snapshots.get(name);
+			if (snapshot == null) {
+				snapshot = new Snapshot(getDirectory(name), this.filter);
+				this.snapshots.put(name, snapshot);
+				evict();
+			}
+			expire(expired);
+		}
+		finally {
+			this.lock.unlock();
+		}
+		for (File file : expired) {
+			FileUtils.delete(file, FileUtils.RECURSIVE | FileUtils.SKIP_MISSING);
+		}
+		snapshot.extract(repository, commitId);
+		return snapshot.directory;
+	}
+
+	public int size() {
+		this.lock.lock();
+		try {
+			return this.snapshots.size();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * How long evicted snapshots are kept for requests still reading them.
+	 * @param retirement the retirement time
+	 * @param unit the unit of the retirement time
+	 */
+	void setRetirement(long retirement, TimeUnit unit) {
+		this.retirementNanos = unit.toNanos(retirement);
+	}
+
+	private void evict() {
+		Iterator<Snapshot> iterator = this.snapshots.values().iterator();
+		while (this.snapshots.size() > this.maxSize && iterator.hasNext()) {
+			Snapshot eldest = iterator.next();
+			iterator.remove();
+			this.retired.put(eldest.directory, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Move the snapshots retired long enough ago out of the way, so that their commits can
+	 * be extracted again right away, while the moved directories are deleted without
+	 * holding the lock.
+	 */
+	private void expire(List<File> expired) {
+		long now = System.nanoTime();
+		Iterator<Map.Entry<File, Long>> iterator = this.retired.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<File, Long> entry = iterator.next();
+			if (now - entry.getValue() < this.retirementNanos) {
+				break;
+			}
+			iterator.remove();
+			// the commit may have been requested again in the meantime
+			if (!this.snapshots.containsKey(entry.getKey().getName())) {
+				File tombstone = new File(this.directory, entry.getKey().getName() + "." + now + ".expired");
+				try {
+					Files.move(entry.getKey().toPath(), tombstone.toPath(), StandardCopyOption.ATOMIC_MOVE);
+					expired.add(tombstone);
+				}
+				catch (NoSuchFileException ex) {
+					// never extracted
+				}
+				catch (IOException ex) {
+					logger.warn("Could not remove expired snapshot " + entry.getKey(), ex);
+				}
+			}
+		}
+	}
+
+	private static final class Snapshot {
+
+		private final File directory;
+
+		private final TreeFilter filter;
+
+		private final Lock lock = new ReentrantLock();
+
+		private volatile boolean extracted;
+
+		private Snapshot(File directory, TreeFilter filter) {
+			this.directory = directory;
+			this.filter = filter;
+		}
+
+		private void extract(Repository repository, ObjectId commitId) throws IOException {
+			if (this.extracted) {
+				return;
+			}
+			this.lock.lock();
+			try {
+				if (this.extracted) {
+					return;
+				}
+				if (!this.directory.isDirectory()) {
+					File temp = new File(this.directory.getParentFile(), this.directory.getName() + ".tmp");
+					FileUtils.delete(temp, FileUtils.RECURSIVE | FileUtils.SKIP_MISSING);
+					write(repository, commitId, temp.toPath(), this.filter);
+					Files.move(temp.toPath(), this.directory.toPath(), StandardCopyOption.ATOMIC_MOVE);
+				}
+				this.extracted = true;
+			}
+			finally {
+				this.lock.unlock();
+			}
+		}
+
+		private static void write(Repository repository, ObjectId commitId, Path directory, TreeFilter filter)
+				throws IOException {
+			long start = System.nanoTime();
+			int files = 0;
+			Path root = directory.toAbsolutePath().normalize();
+			Files.createDirectories(root);
+			try (RevWalk revWalk = new RevWalk(repository); TreeWalk treeWalk = new TreeWalk(repository)) {
+				RevCommit commit = revWalk.parseCommit(commitId);
+				treeWalk.addTree(commit.getTree());
+				treeWalk.setRecursive(true);
+				treeWalk.setFilter(filter);
+				ObjectReader reader = treeWalk.getObjectReader();
+				while (treeWalk.next()) {
+					// symbolic links and submodules are not extracted
+					if ((treeWalk.getRawMode(0) & FileMode.TYPE_MASK) != FileMode.TYPE_FILE) {
+						continue;
+					}
+					Path target = root.resolve(treeWalk.getPathString()).normalize();
+					if (!target.startsWith(root)) {
+						throw new IOException("Invalid path in commit " + commitId.getName() + ": "
+								+ treeWalk.getPathString());
+					}
+					Files.createDirectories(target.getParent());
+					try (OutputStream output = Files.newOutputStream(target)) {
+						reader.open(treeWalk.getObjectId(0), Constants.OBJ_BLOB).copyTo(output);
+					}
+					files++;
+				}
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("Extracted " + files + " files of commit " + commitId.getName() + " in "
+						+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+			}
+		}
+
+	}
+
+	/**
+	 * Includes the files in the root directory and everything below the given
+	 * directories, without walking into other subtrees.
+	 */
+	private static final class DirectoryFilter extends TreeFilter {
+
+		private final List<String> directories = new ArrayList<>();
+
+		private DirectoryFilter(Collection<String> directories) {
+			for (String directory : directories) {
+				this.directories.add(directory.endsWith("/") ? directory : directory + "/");
+			}
+		}
+
+		@Override
+		public boolean include(TreeWalk walker) {
+			String path = walker.getPathString();
+			if (!walker.isSubtree() && path.indexOf('/') < 0) {
+				return true;
+			}
+			String prefix = walker.isSubtree() ? path + "/" : path;
+			for (String directory : this.directories) {
+				// parents of a directory have to be walked to reach it
+				if (prefix.startsWith(directory) || (walker.isSubtree() && directory.startsWith(prefix))) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public boolean shouldBeRecursive() {
+			return true;
+		}
+
+		@Override
+		public TreeFilter clone() {
+			return this;
+		}
+
+	}
+
+}
@@ -16,7 +16,9 @@
 
 package org.springframework.cloud.config.server.environment;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import jakarta.validation.constraints.Pattern;
@@ -90,6 +92,57 @@ public class JGitEnvironmentProperties extends AbstractScmAccessorProperties
 	 */
 	private int refreshRate = 0;
 
+	/**
+	 * Flag to indicate that labels should be read straight from the git object database
+	 * instead of being checked out into the working directory, so that several labels
+	 * can be served concurrently.
+	 */
+	private boolean checkoutFree = false;
+
+	/**
+	 * Maximum number of working directories, one per label, kept next to the base
+	 * directory. The least recently used ones are deleted first. If 0, every label is
+	 * checked out into the base directory.
+	 */
+	private int maxWorktrees = 0;
+
+	/**
+	 * Flag to indicate that the repository should be fetched in the background every
+	 * refreshRate seconds instead of by the requests. Requires a positive refreshRate.
+	 */
+	private boolean backgroundFetch = false;
+
+	/**
+	 * Time (in seconds) after the last successful background fetch after which requests
+	 * fetch the repository themselves. If 0, requests never wait for a fetch.
+	 */
+	private int maxStaleness = 0;
+
+	/**
+	 * Flag to indicate that before fetching for a request the refs the remote
+	 * advertises for the requested label should be compared with the local ones, and
+	 * the fetch skipped if they are the same.
+	 */
+	private boolean skipUnchangedFetch = false;
+
+	/**
+	 * Number of commits of history to clone. If 0, the whole history is cloned. Later
+	 * fetches only add the commits that are new since then.
+	 */
+	private int cloneDepth = 0;
+
+	/**
+	 * Labels (branches or tags) to clone and fetch, besides the default label. If empty,
+	 * all branches and tags are cloned.
+	 */
+	private List<String> cloneLabels = new ArrayList<>();
+
+	/**
+	 * Flag to indicate that only the files in the root directory and in the search paths
+	 * are written to disk. Only applies with checkoutFree.
+	 */
+	private boolean sparseCheckout = false;
+
 	/**
 	 * Valid SSH private key. Must be set if ignoreLocalSshSettings is true and Git URI is
 	 * SSH format.
@@ -273,4 +326,68 @@ public class JGitEnvironmentProperties extends AbstractScmAccessorProperties
 		this.tryMasterBranch = tryMasterBranch;
 	}
 
+	public boolean isCheckoutFree() {
+		return this.checkoutFree;
+	}
+
+	public void setCheckoutFree(boolean checkoutFree) {
+		this.checkoutFree = checkoutFree;
+	}
+
+	public int getMaxWorktrees() {
+		return this.maxWorktrees;
+	}
+
+	public void setMaxWorktrees(int maxWorktrees) {
+		this.maxWorktrees = maxWorktrees;
+	}
+
+	public boolean isBackgroundFetch() {
+		return this.backgroundFetch;
+	}
+
+	public void setBackgroundFetch(boolean backgroundFetch) {
+		this.backgroundFetch = backgroundFetch;
+	}
+
+	public int getMaxStaleness() {
+		return this.maxStaleness;
+	}
+
+	public void setMaxStaleness(int maxStaleness) {
+		this.maxStaleness = maxStaleness;
+	}
+
+	public boolean isSkipUnchangedFetch() {
+		return this.skipUnchangedFetch;
+	}
+
+	public void setSkipUnchangedFetch(boolean skipUnchangedFetch) {
+		this.skipUnchangedFetch = skipUnchangedFetch;
+	}
+
+	public int getCloneDepth() {
+		return this.cloneDepth;
+	}
+
+	public void setCloneDepth(int cloneDepth) {
+		this.cloneDepth = cloneDepth;
+	}
+
+	public List<String> getCloneLabels() {
+		return this.cloneLabels;
+	}
+
+	public void setCloneLabels(List<String> cloneLabels) {
+		this.cloneLabels = cloneLabels;
+	}
+
+	public boolean isSparseCheckout() {
+		return this.sparseCheckout;
+	}
+
+	public void setSparseCheckout(boolean sparseCheckout) {
+		this.sparseCheckout = sparseCheckout;
+	}
+
 }
@@ -18,12 +18,17 @@ package org.springframework.cloud.config.server.environment;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import io.micrometer.observation.ObservationRegistry;
 import org.eclipse.jgit.api.CheckoutCommand;
@@ -45,18 +50,30 @@ import org.eclipse.jgit.api.TransportConfigCallback;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.JGitInternalException;
 import org.eclipse.jgit.api.errors.RefNotFoundException;
+import org.eclipse.jgit.errors.IncorrectObjectTypeException;
+import org.eclipse.jgit.errors.MissingObjectException;
 import org.eclipse.jgit.errors.NoRemoteRepositoryException;
+import org.eclipse.jgit.errors.RevisionSyntaxException;
 import org.eclipse.jgit.lib.BranchTrackingStatus;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.transport.CredentialsProvider;
+import org.eclipse.jgit.transport.FetchConnection;
 import org.eclipse.jgit.transport.FetchResult;
 import org.eclipse.jgit.transport.ReceiveCommand;
+import org.eclipse.jgit.transport.RefSpec;
 import org.eclipse.jgit.transport.TagOpt;
 import org.eclipse.jgit.transport.TrackingRefUpdate;
+import org.eclipse.jgit.transport.Transport;
 import org.eclipse.jgit.util.FileUtils;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.cloud.config.server.support.GitCredentialsProviderFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.io.UrlResource;
 import org.springframework.util.Assert;
@@ -79,7 +96,8 @@ import static org.eclipse.jgit.transport.ReceiveCommand.Type.DELETE;
  * @author ChaoDong Xi
  */
 public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
-		implements EnvironmentRepository, SearchPathLocator, InitializingBean {
+		implements EnvironmentRepository, SearchPathLocator, InitializingBean, DisposableBean,
+		ApplicationEventPublisherAware {
 
 	/**
 	 * Error message for URI for git repo.
@@ -147,8 +165,101 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 
 	private boolean tryMasterBranch;
 
+	/**
+	 * Flag to indicate that labels are read straight from the object database instead of
+	 * being checked out into the working directory.
+	 */
+	private boolean checkoutFree;
+
+	/**
+	 * Files of the commits served when {@link #checkoutFree} is set, created on first
+	 * use because the base directory may still change until then.
+	 */
+	private volatile JGitCommitSnapshots commitSnapshots;
+
+	/**
+	 * Maximum number of working directories kept, one per label. Zero checks every label
+	 * out into the base directory.
+	 */
+	private int maxWorktrees;
+
+	/**
+	 * Working directories of the labels served when {@link #maxWorktrees} is set,
+	 * created on first use because the base directory may still change until then.
+	 */
+	private volatile JGitWorktrees worktrees;
+
+	/**
+	 * Flag to indicate that the repository is fetched by the {@link #fetchScheduler}
+	 * every {@link #refreshRate} seconds instead of by requests.
+	 */
+	private boolean backgroundFetch;
+
+	/**
+	 * Time (in seconds) after the last successful fetch after which requests fetch
+	 * themselves when fetching in the background. Zero means requests never wait for a
+	 * fetch.
+	 */
+	private int maxStaleness;
+
+	private JGitFetchScheduler fetchScheduler;
+
+	/**
+	 * Guards {@link #destroyed}, so that a request that is still running when the
+	 * repository is destroyed cannot schedule it again.
+	 */
+	private final Lock scheduleLock = new ReentrantLock();
+
+	private boolean destroyed;
+
+	/**
+	 * Serializes fetches from requests and from the background, without blocking reads.
+	 */
+	private final Lock fetchLock = new ReentrantLock();
+
+	/**
+	 * Time of the last successful fetch (or clone) of the git repository.
+	 */
+	private volatile long lastFetch;
+
+	/**
+	 * Number of fetches started so far, and the number of the last one that succeeded.
+	 * Once a fetch that started after a caller arrived has succeeded, another fetch
+	 * would find nothing new, so concurrent fetch attempts collapse into one.
+	 */
+	private volatile long startedFetches;
+
+	private volatile long succeededFetch;
+
+	/**
+	 * Flag to indicate that requests compare the refs the remote advertises for their
+	 * label with the local ones before fetching, and skip the fetch if nothing changed.
+	 */
+	private boolean skipUnchangedFetch;
+
+	/**
+	 * Number of commits of history to clone, 0 for all of it.
+	 */
+	private int cloneDepth;
+
+	/**
+	 * Labels to clone and fetch besides the default label, all of them if empty.
+	 */
+	private List<String> cloneLabels = new ArrayList<>();
+
+	/**
+	 * Flag to indicate that commit snapshots only hold the files of the root directory
+	 * and the search paths.
+	 */
+	private boolean sparseCheckout;
+
 	private final ObservationRegistry observationRegistry;
 
+	/**
+	 * Notified with an {@link EnvironmentChangedEvent} when a fetch finds new commits.
+	 */
+	private ApplicationEventPublisher applicationEventPublisher;
+
 	public JGitEnvironmentRepository(ConfigurableEnvironment environment, JGitEnvironmentProperties properties,
 			ObservationRegistry observationRegistry) {
 		super(environment, properties, observationRegistry);
@@ -161,6 +272,14 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 		this.skipSslValidation = properties.isSkipSslValidation();
 		this.gitFactory = new JGitFactory(properties.isCloneSubmodules());
 		this.tryMasterBranch = properties.isTryMasterBranch();
+		this.checkoutFree = properties.isCheckoutFree();
+		this.maxWorktrees = properties.getMaxWorktrees();
+		this.backgroundFetch = properties.isBackgroundFetch();
+		this.maxStaleness = properties.getMaxStaleness();
+		this.skipUnchangedFetch = properties.isSkipUnchangedFetch();
+		this.cloneDepth = properties.getCloneDepth();
+		this.cloneLabels = properties.getCloneLabels();
+		this.sparseCheckout = properties.isSparseCheckout();
 		this.observationRegistry = observationRegistry;
 	}
 
@@ -172,6 +291,86 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 		this.tryMasterBranch = tryMasterBranch;
 	}
 
+	public boolean isCheckoutFree() {
+		return this.checkoutFree;
+	}
+
+	public void setCheckoutFree(boolean checkoutFree) {
+		this.checkoutFree = checkoutFree;
+	}
+
+	public int getMaxWorktrees() {
+		return this.maxWorktrees;
+	}
+
+	public void setMaxWorktrees(int maxWorktrees) {
+		this.maxWorktrees = maxWorktrees;
+	}
+
+	public boolean isBackgroundFetch() {
+		return this.backgroundFetch;
+	}
+
+	public void setBackgroundFetch(boolean backgroundFetch) {
+		this.backgroundFetch = backgroundFetch;
+	}
+
+	public int getMaxStaleness() {
+		return this.maxStaleness;
+	}
+
+	public void setMaxStaleness(int maxStaleness) {
+		this.maxStaleness = maxStaleness;
+	}
+
+	public boolean isSkipUnchangedFetch() {
+		return this.skipUnchangedFetch;
+	}
+
+	public void setSkipUnchangedFetch(boolean skipUnchangedFetch) {
+		this.skipUnchangedFetch = skipUnchangedFetch;
+	}
+
+	public int getCloneDepth() {
+		return this.cloneDepth;
+	}
+
+	public void setCloneDepth(int cloneDepth) {
+		this.cloneDepth = cloneDepth;
+	}
+
+	public List<String> getCloneLabels() {
+		return this.cloneLabels;
+	}
+
+	public void setCloneLabels(List<String> cloneLabels) {
+		this.cloneLabels = cloneLabels;
+	}
+
+	public boolean isSparseCheckout() {
+		return this.sparseCheckout;
+	}
+
+	public void setSparseCheckout(boolean sparseCheckout) {
+		this.sparseCheckout = sparseCheckout;
+	}
+
+	public JGitFetchScheduler getFetchScheduler() {
+		return this.fetchScheduler;
+	}
+
+	public void setFetchScheduler(JGitFetchScheduler fetchScheduler) {
+		this.fetchScheduler = fetchScheduler;
+	}
+
+	/**
+	 * The time of the last successful fetch (or clone).
+	 * @return the time in milliseconds since the epoch, 0 if there was none yet
+	 */
+	public long getLastFetch() {
+		return this.lastFetch;
+	}
+
 	public boolean isCloneOnStart() {
 		return this.cloneOnStart;
 	}
@@ -196,6 +395,15 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 		this.refreshRate = refreshRate;
 	}
 
+	public ApplicationEventPublisher getApplicationEventPublisher() {
+		return this.applicationEventPublisher;
+	}
+
+	@Override
+	public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+		this.applicationEventPublisher = applicationEventPublisher;
+	}
+
 	public TransportConfigCallback getTransportConfigCallback() {
 		return this.transportConfigCallback;
 	}
@@ -253,7 +461,30 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 	}
 
 	@Override
-	public synchronized Locations getLocations(String application, String profile, String label) {
+	public Locations getLocations(String application, String profile, String label) {
+		if (this.checkoutFree) {
+			// refresh() only holds the lock while it fetches
+			return doGetLocations(application, profile, label);
+		}
+		if (isWorktreePerLabel()) {
+			Lock lock = getWorktrees().lock(label != null ? label : this.defaultLabel);
+			try {
+				return doGetLocations(application, profile, label);
+			}
+			finally {
+				lock.unlock();
+			}
+		}
+		getLock().lock();
+		try {
+			return doGetLocations(application, profile, label);
+		}
+		finally {
+			getLock().unlock();
+		}
+	}
+
+	private Locations doGetLocations(String application, String profile, String label) {
 		if (label == null) {
 			label = this.defaultLabel;
 		}
@@ -272,15 +503,164 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 				throw e;
 			}
 		}
+		File directory;
+		if (this.checkoutFree) {
+			directory = getCommitSnapshots().getDirectory(version);
+		}
+		else if (isWorktreePerLabel()) {
+			directory = checkoutWorktree(label, version);
+		}
+		else {
+			directory = getWorkingDirectory();
+		}
 		return new Locations(application, profile, label, version,
-				getSearchLocations(getWorkingDirectory(), application, profile, label));
+				getSearchLocations(directory, application, profile, label));
 	}
 
+	/**
+	 * In checkout free mode every commit is read from a directory of its own that never
+	 * changes, and with a working directory per label only that of the label is locked.
+	 */
 	@Override
-	public synchronized void afterPropertiesSet() throws Exception {
+	protected Lock lockWorkingDirectory(String label) {
+		if (this.checkoutFree) {
+			return null;
+		}
+		if (isWorktreePerLabel()) {
+			return getWorktrees().lock(label != null ? label : this.defaultLabel);
+		}
+		return super.lockWorkingDirectory(label);
+	}
+
+	@Override
+	protected File getWorkingDirectory(Locations locations) {
+		if (this.checkoutFree && StringUtils.hasText(locations.getVersion())) {
+			return getCommitSnapshots().getDirectory(locations.getVersion());
+		}
+		if (isWorktreePerLabel()) {
+			File directory = getWorktrees().getDirectory(locations.getLabel());
+			if (directory != null) {
+				return directory;
+			}
+		}
+		return super.getWorkingDirectory(locations);
+	}
+
+	private boolean isWorktreePerLabel() {
+		return !this.checkoutFree && this.maxWorktrees > 0;
+	}
+
+	/**
+	 * Whether labels are resolved to commits that are read elsewhere, so that the base
+	 * directory is never checked out.
+	 */
+	private boolean isResolvingCommits() {
+		return this.checkoutFree || this.maxWorktrees > 0;
+	}
+
+	private File checkoutWorktree(String label, String version) {
+		try (Git git = createGitClient()) {
+			return getWorktrees().checkout(label, git.getRepository(), ObjectId.fromString(version));
+		}
+		catch (IOException | GitAPIException e) {
+			throw new IllegalStateException("Cannot check out " + label + " into its working directory", e);
+		}
+	}
+
+	private JGitWorktrees getWorktrees() {
+		JGitWorktrees worktrees = this.worktrees;
+		if (worktrees == null) {
+			getLock().lock();
+			try {
+				if (this.worktrees == null) {
+					File basedir = getBasedir().getAbsoluteFile();
+					this.worktrees = new JGitWorktrees(
+							new File(basedir.getParentFile(), basedir.getName() + "-worktrees"), this.maxWorktrees);
+				}
+				worktrees = this.worktrees;
+			}
+			finally {
+				getLock().unlock();
+			}
+		}
+		return worktrees;
+	}
+
+	/**
+	 * The directories that may hold search locations, i.e. the search paths up to their
+	 * first placeholder or wildcard.
+	 * @return the directories, or null if all files are needed
+	 */
+	private List<String> getSparseDirectories() {
+		if (!this.sparseCheckout) {
+			return null;
+		}
+		List<String> directories = new ArrayList<>();
+		if (getSearchPaths() == null) {
+			return directories;
+		}
+		for (String searchPath : getSearchPaths()) {
+			String directory = StringUtils.trimLeadingCharacter(searchPath.trim(), '/');
+			for (int i = 0; i < directory.length(); i++) {
+				if ("{*?[".indexOf(directory.charAt(i)) >= 0) {
+					directory = directory.substring(0, directory.lastIndexOf('/', i) + 1);
+					break;
+				}
+			}
+			directory = StringUtils.trimTrailingCharacter(directory, '/');
+			if (directory.isEmpty() || directory.equals(".")) {
+				// e.g. {application}, any directory may be needed
+				return null;
+			}
+			directories.add(directory);
+		}
+		return directories;
+	}
+
+	private JGitCommitSnapshots getCommitSnapshots() {
+		JGitCommitSnapshots snapshots = this.commitSnapshots;
+		if (snapshots == null) {
+			getLock().lock();
+			try {
+				if (this.commitSnapshots == null) {
+					// next to the base directory, which must stay empty for cloning
+					File basedir = getBasedir().getAbsoluteFile();
+					this.commitSnapshots = new JGitCommitSnapshots(
+							new File(basedir.getParentFile(), basedir.getName() + "-commits"),
+							JGitCommitSnapshots.DEFAULT_MAX_SIZE, getSparseDirectories());
+				}
+				snapshots = this.commitSnapshots;
+			}
+			finally {
+				getLock().unlock();
+			}
+		}
+		return snapshots;
+	}
+
+	/**
+	 * A local <code>file:</code> repository is read straight from its working tree, so
+	 * uncommitted changes are not reflected in the version and must never be cached
+	 * (unless the commits are read from the object database or checked out into working
+	 * directories of their own).
+	 */
+	@Override
+	protected boolean isCacheable(Locations locations) {
+		return super.isCacheable(locations) && (isResolvingCommits() || !getUri().startsWith(FILE_URI_PREFIX));
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception {
 		Assert.state(getUri() != null, MESSAGE);
 		if (this.cloneOnStart) {
-			initClonedRepository();
+			getLock().lock();
+			try {
+				initClonedRepository();
+			}
+			finally {
+				getLock().unlock();
+			}
+			scheduleFetches();
 		}
 	}
 
@@ -290,15 +670,30 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 	 * @return head id
 	 */
 	public String refresh(String label) {
+		long arrival = this.startedFetches;
 		Git git = null;
 		try {
-			git = createGitClient();
-			if (shouldPull(git)) {
-				FetchResult fetchStatus = fetch(git, label);
-				if (this.deleteUntrackedBranches && fetchStatus != null) {
-					deleteUntrackedLocalBranches(fetchStatus.getTrackingRefUpdates(), git);
+			if (isResolvingCommits()) {
+				// only cloning and fetching change the repository, reading a commit
+				// does not
+				getLock().lock();
+				try {
+					git = createGitClient();
+					fetchIfNecessary(git, label, arrival);
+				}
+				finally {
+					getLock().unlock();
+				}
+				scheduleFetches();
+				ObjectId commitId = resolveCommit(git, label);
+				if (this.checkoutFree) {
+					getCommitSnapshots().extract(git.getRepository(), commitId);
 				}
+				return commitId.getName();
 			}
+			git = createGitClient();
+			scheduleFetches();
+			fetchIfNecessary(git, label, arrival);
 
 			// checkout after fetch so we can get any new branches, tags, ect.
 			// if nothing to update so just checkout and merge.
@@ -333,6 +728,210 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 		}
 	}
 
+	private void fetchIfNecessary(Git git, String label, long arrival) throws GitAPIException {
+		if (shouldPull(git) && !isUnchangedOnRemote(git, label)) {
+			FetchResult fetchStatus;
+			this.fetchLock.lock();
+			try {
+				if (this.succeededFetch > arrival) {
+					// fetched by another thread after this request arrived
+					return;
+				}
+				fetchStatus = fetchNext(git, label);
+			}
+			finally {
+				this.fetchLock.unlock();
+			}
+			// no local branches are created when resolving commits
+			if (this.deleteUntrackedBranches && !isResolvingCommits() && fetchStatus != null) {
+				deleteUntrackedLocalBranches(fetchStatus.getTrackingRefUpdates(), git);
+			}
+			publishChanges(fetchStatus);
+			EnvironmentRefreshBatch.setRefreshed(this, null);
+		}
+	}
+
+	/**
+	 * Fetch and keep track of the fetch in the sequence of fetches. Must be called with
+	 * the {@link #fetchLock} held.
+	 */
+	private FetchResult fetchNext(Git git, String label) {
+		long fetchNumber = ++this.startedFetches;
+		FetchResult fetchStatus = fetch(git, label);
+		if (fetchStatus != null) {
+			this.succeededFetch = fetchNumber;
+		}
+		return fetchStatus;
+	}
+
+	/**
+	 * Compare the refs the remote advertises for a label with the local ones. Only the
+	 * refs of the label are requested, so with git protocol v2 the remote does not have
+	 * to advertise all of its branches and tags. This is only done once the
+	 * {@link #refreshRate} has expired, which then counts as a refresh, so with the
+	 * default refresh rate of zero every request still fetches.
+	 * @param git the git client
+	 * @param label the label to check
+	 * @return true if the label is known to the remote and unchanged, false if it has to
+	 * be fetched
+	 */
+	private boolean isUnchangedOnRemote(Git git, String label) {
+		if (!this.skipUnchangedFetch || this.refreshRate <= 0 || !StringUtils.hasText(label)) {
+			return false;
+		}
+		Repository repository = git.getRepository();
+		String branch = Constants.R_HEADS + label;
+		String tag = Constants.R_TAGS + label;
+		try {
+			RemoteRefsCommand command = new RemoteRefsCommand(repository, branch, tag);
+			configureCommand(command);
+			Map<String, Ref> remoteRefs = command.call();
+			if (!remoteRefs.containsKey(branch) && !remoteRefs.containsKey(tag)) {
+				// e.g. a commit id, or a new or deleted branch
+				return false;
+			}
+			if (!isSameRef(remoteRefs.get(branch), repository.exactRef(Constants.R_REMOTES + "origin/" + label))
+					|| !isSameRef(remoteRefs.get(tag), repository.exactRef(tag))) {
+				return false;
+			}
+		}
+		catch (Exception e) {
+			this.logger.debug("Could not list remote refs for " + label + ", fetching instead", e);
+			return false;
+		}
+		// like a fetch, so that the remote is not asked again before the refresh rate expires
+		setLastRefresh(System.currentTimeMillis());
+		if (this.logger.isDebugEnabled()) {
+			this.logger.debug("Remote refs for " + label + " are unchanged, not fetching");
+		}
+		return true;
+	}
+
+	private static boolean isSameRef(Ref remote, Ref local) {
+		if (remote == null) {
+			return true;
+		}
+		return local != null && remote.getObjectId().equals(local.getObjectId());
+	}
+
+	private void publishChanges(FetchResult fetchStatus) {
+		if (this.applicationEventPublisher != null && fetchStatus != null
+				&& !CollectionUtils.isEmpty(fetchStatus.getTrackingRefUpdates())) {
+			this.applicationEventPublisher.publishEvent(new EnvironmentChangedEvent(this, "*"));
+		}
+	}
+
+	/**
+	 * Fetch from the remote repository outside of any request. Reads are not blocked
+	 * while fetching; requests check out or resolve the fetched commits afterwards.
+	 * Called by the {@link JGitFetchScheduler} once the repository has been cloned.
+	 * @return true if the fetch succeeded
+	 */
+	public boolean fetchInBackground() {
+		if (getUri().startsWith(FILE_URI_PREFIX)) {
+			return true;
+		}
+		long arrival = this.startedFetches;
+		try (Git git = openGitRepository()) {
+			FetchResult fetchStatus;
+			this.fetchLock.lock();
+			try {
+				if (this.succeededFetch > arrival) {
+					// a request fetched in the meantime
+					return true;
+				}
+				fetchStatus = fetchNext(git, this.defaultLabel);
+			}
+			finally {
+				this.fetchLock.unlock();
+			}
+			if (fetchStatus == null) {
+				return false;
+			}
+			if (this.deleteUntrackedBranches && !isResolvingCommits()
+					&& !CollectionUtils.isEmpty(fetchStatus.getTrackingRefUpdates())) {
+				// deleting local branches checks out the default label
+				getLock().lock();
+				try {
+					deleteUntrackedLocalBranches(fetchStatus.getTrackingRefUpdates(), git);
+				}
+				finally {
+					getLock().unlock();
+				}
+			}
+			publishChanges(fetchStatus);
+			return true;
+		}
+		catch (IOException e) {
+			warn("Could not open git repository " + getWorkingDirectory(), e);
+			return false;
+		}
+	}
+
+	private boolean isFetchingInBackground() {
+		return this.backgroundFetch && this.fetchScheduler != null && this.refreshRate > 0;
+	}
+
+	private void scheduleFetches() {
+		if (!isFetchingInBackground() || getUri().startsWith(FILE_URI_PREFIX)) {
+			return;
+		}
+		this.scheduleLock.lock();
+		try {
+			if (!this.destroyed) {
+				this.fetchScheduler.schedule(this);
+			}
+		}
+		finally {
+			this.scheduleLock.unlock();
+		}
+	}
+
+	/**
+	 * Stops the background fetches of this repository, so that a repository replaced by
+	 * a refresh is no longer fetched.
+	 */
+	@Override
+	public void destroy() {
+		this.scheduleLock.lock();
+		try {
+			this.destroyed = true;
+			if (this.fetchScheduler != null) {
+				this.fetchScheduler.unschedule(this);
+			}
+		}
+		finally {
+			this.scheduleLock.unlock();
+		}
+	}
+
+	/**
+	 * Resolve a label to a commit without touching the working directory. Remote
+	 * branches take precedence over local branches, which take precedence over tags,
+	 * followed by anything else git can resolve to a commit (e.g. a commit id).
+	 * @param git the git client
+	 * @param label the label to resolve
+	 * @return the id of the commit
+	 * @throws RefNotFoundException if the label does not resolve to a commit
+	 * @throws IOException if the repository cannot be read
+	 */
+	private ObjectId resolveCommit(Git git, String label) throws RefNotFoundException, IOException {
+		Repository repository = git.getRepository();
+		for (String name : new String[] { LOCAL_BRANCH_REF_PREFIX + label, Constants.R_HEADS + label,
+				Constants.R_TAGS + label, label }) {
+			try {
+				ObjectId commitId = repository.resolve(name + "^{commit}");
+				if (commitId != null) {
+					return commitId;
+				}
+			}
+			catch (RevisionSyntaxException | MissingObjectException | IncorrectObjectTypeException e) {
+				// try the next candidate
+			}
+		}
+		throw new RefNotFoundException("No such label: " + label);
+	}
+
 	private void tryMerge(Git git, String label) {
 		try {
 			if (isBranch(git, label)) {
@@ -367,7 +966,8 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 
 			// Check if git points to valid repository and default label is not empty or
 			// null.
-			if (null != git && git.getRepository() != null && !ObjectUtils.isEmpty(getDefaultLabel())) {
+			if (!isResolvingCommits() && null != git && git.getRepository() != null
+					&& !ObjectUtils.isEmpty(getDefaultLabel())) {
 				// Checkout the default branch set for repo in git. This may not always be
 				// master. It depends on the
 				// admin and organization settings.
@@ -470,10 +1070,24 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 	protected boolean shouldPull(Git git) throws GitAPIException {
 		boolean shouldPull;
 
+		if (isFetchingInBackground() && this.lastFetch > 0 && (this.maxStaleness <= 0
+				|| System.currentTimeMillis() - this.lastFetch < this.maxStaleness * 1000L)) {
+			// the background fetches are recent enough
+			return false;
+		}
+
 		if (this.refreshRate < 0 || (this.refreshRate > 0
 				&& System.currentTimeMillis() - this.lastRefresh < (this.refreshRate * 1000))) {
 			return false;
 		}
+		if (EnvironmentRefreshBatch.isRefreshed(this)) {
+			// fetched already for another label of the same batch
+			return false;
+		}
+		if (isResolvingCommits()) {
+			// the working tree is never used, so its state does not matter
+			return git.getRepository().getConfig().getString("remote", "origin", "url") != null;
+		}
 
 		Status gitStatus;
 		try {
@@ -540,7 +1154,8 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 	protected FetchResult fetch(Git git, String label) {
 		FetchCommand fetch = git.fetch();
 		fetch.setRemote("origin");
-		fetch.setTagOpt(TagOpt.FETCH_TAGS);
+		// with restricted labels only tags of the fetched history are needed
+		fetch.setTagOpt(CollectionUtils.isEmpty(this.cloneLabels) ? TagOpt.FETCH_TAGS : TagOpt.AUTO_FOLLOW);
 		fetch.setRemoveDeletedRefs(this.deleteUntrackedBranches);
 		if (this.refreshRate > 0) {
 			this.setLastRefresh(System.currentTimeMillis());
@@ -549,6 +1164,7 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 		configureCommand(fetch);
 		try {
 			FetchResult result = fetch.call();
+			this.lastFetch = System.currentTimeMillis();
 			if (result.getTrackingRefUpdates() != null && result.getTrackingRefUpdates().size() > 0) {
 				this.logger.info("Fetched for remote " + label + " and found " + result.getTrackingRefUpdates().size()
 						+ " updates");
@@ -617,20 +1233,26 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 		}
 	}
 
-	// Synchronize here so that multiple requests don't all try and delete the
+	// Lock here so that multiple requests don't all try and delete the
 	// base dir
 	// together (this is a once only operation, so it only holds things up on
 	// the first
 	// request).
-	private synchronized Git copyRepository() throws IOException, GitAPIException {
-		deleteBaseDirIfExists();
-		getBasedir().mkdirs();
-		Assert.state(getBasedir().exists(), "Could not create basedir: " + getBasedir());
-		if (getUri().startsWith(FILE_URI_PREFIX)) {
-			return copyFromLocalRepository();
+	private Git copyRepository() throws IOException, GitAPIException {
+		getLock().lock();
+		try {
+			deleteBaseDirIfExists();
+			getBasedir().mkdirs();
+			Assert.state(getBasedir().exists(), "Could not create basedir: " + getBasedir());
+			if (getUri().startsWith(FILE_URI_PREFIX)) {
+				return copyFromLocalRepository();
+			}
+			else {
+				return cloneToBasedir();
+			}
 		}
-		else {
-			return cloneToBasedir();
+		finally {
+			getLock().unlock();
 		}
 	}
 
@@ -653,10 +1275,19 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 	private Git cloneToBasedir() throws GitAPIException {
 		CloneCommand clone = this.gitFactory.getCloneCommandByCloneRepository()
 			.setURI(getUri())
-			.setDirectory(getBasedir());
+			.setDirectory(getBasedir())
+			.setNoCheckout(isResolvingCommits());
+		if (this.cloneDepth > 0) {
+			clone.setDepth(this.cloneDepth);
+		}
+		if (!CollectionUtils.isEmpty(this.cloneLabels)) {
+			clone.setBranchesToClone(getRefsToClone());
+		}
 		configureCommand(clone);
 		try {
-			return clone.call();
+			Git git = clone.call();
+			this.lastFetch = System.currentTimeMillis();
+			return git;
 		}
 		catch (GitAPIException e) {
 			this.logger.warn("Error occured cloning to base directory.", e);
@@ -665,6 +1296,25 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 		}
 	}
 
+	private List<String> getRefsToClone() {
+		Set<String> labels = new LinkedHashSet<>(this.cloneLabels);
+		labels.add(this.defaultLabel);
+		if (JGitEnvironmentProperties.MAIN_LABEL.equals(this.defaultLabel) && this.tryMasterBranch) {
+			labels.add(JGitEnvironmentProperties.MASTER_LABEL);
+		}
+		List<String> refs = new ArrayList<>();
+		for (String label : labels) {
+			if (label.startsWith(Constants.R_REFS)) {
+				refs.add(label);
+			}
+			else {
+				refs.add(Constants.R_HEADS + label);
+				refs.add(Constants.R_TAGS + label);
+			}
+		}
+		return refs;
+	}
+
 	private void deleteBaseDirIfExists() {
 		if (getBasedir().exists()) {
 			for (File file : getBasedir().listFiles()) {
@@ -781,4 +1431,36 @@ public class JGitEnvironmentRepository extends AbstractScmEnvironmentRepository
 
 	}
 
+	/**
+	 * Lists the refs the remote advertises for the given ref names only. Unlike
+	 * {@link org.eclipse.jgit.api.LsRemoteCommand}, which asks for all branches or tags,
+	 * the names are sent as ref prefixes to servers speaking git protocol v2.
+	 */
+	static class RemoteRefsCommand extends TransportCommand<RemoteRefsCommand, Map<String, Ref>> {
+
+		private final List<RefSpec> refSpecs = new ArrayList<>();
+
+		RemoteRefsCommand(Repository repository, String... refNames) {
+			super(repository);
+			for (String refName : refNames) {
+				this.refSpecs.add(new RefSpec(refName));
+			}
+		}
+
+		@Override
+		public Map<String, Ref> call() throws GitAPIException {
+			checkCallable();
+			try (Transport transport = Transport.open(this.repo, "origin")) {
+				configure(transport);
+				try (FetchConnection connection = transport.openFetch(this.refSpecs)) {
+					return connection.getRefsMap();
+				}
+			}
+			catch (URISyntaxException | IOException e) {
+				throw new JGitInternalException(e.getMessage(), e);
+			}
+		}
+
+	}
+
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Fetches git repositories in the background, so that requests never pay for the
+ * latency of the remote. Every {@link JGitEnvironmentRepository} with
+ * <code>background-fetch</code> enabled (including the repositories of patterns and
+ * placeholders of a {@link MultipleJGitEnvironmentRepository}) schedules itself once it
+ * has been cloned, and is then fetched every <code>refresh-rate</code> seconds by a small
+ * pool of daemon threads shared by all repositories, until it is destroyed (e.g. when a
+ * refresh rebuilds the repositories).
+ *
+ * @since 4.3.0
+ */
+public class JGitFetchScheduler implements DisposableBean {
+
+	/**
+	 * Default number of threads fetching repositories.
+	 */
+	public static final int DEFAULT_THREADS = 2;
+
+	private static final Log logger = LogFactory.getLog(JGitFetchScheduler.class);
+
+	private final int threads;
+
+	private final Map<JGitEnvironmentRepository, ScheduledFuture<?>> repositories = new ConcurrentHashMap<>();
+
+	private final Lock lock = new ReentrantLock();
+
+	private ScheduledExecutorService executor;
+
+	private boolean destroyed;
+
+	private final AtomicLong fetches = new AtomicLong();
+
+	private final AtomicLong failures = new AtomicLong();
+
+	private final AtomicLong fetchNanos = new AtomicLong();
+
+	public JGitFetchScheduler() {
+		this(DEFAULT_THREADS);
+	}
+
+	public JGitFetchScheduler(int threads) {
+		Assert.isTrue(threads > 0, "threads must be greater than 0");
+		this.threads = threads;
+	}
+
+	/**
+	 * Fetch a repository every <code>refresh-rate</code> seconds, unless it is scheduled
+	 * already or this scheduler has been destroyed.
+	 * @param repository the repository to fetch
+	 */
+	public void schedule(JGitEnvironmentRepository repository) {
+		int interval = repository.getRefreshRate();
+		if (interval <= 0) {
+			return;
+		}
+		// the repository has just been cloned or fetched
+		this.repositories.computeIfAbsent(repository, key -> scheduleFetches(repository, interval));
+	}
+
+	/**
+	 * Stop fetching a repository, e.g. because it has been replaced by a new instance.
+	 * A fetch that is running already is not interrupted.
+	 * @param repository the repository
+	 */
+	public void unschedule(JGitEnvironmentRepository repository) {
+		ScheduledFuture<?> future = this.repositories.remove(repository);
+		if (future != null) {
+			future.cancel(false);
+		}
+	}
+
+	/**
+	 * Fetch a repository and record the outcome.
+	 * @param repository the repository to fetch
+	 */
+	void fetch(JGitEnvironmentRepository repository) {
+		long start = System.nanoTime();
+		boolean fetched;
+		try {
+			fetched = repository.fetchInBackground();
+		}
+		catch (RuntimeException e) {
+			// an exception would cancel all further fetches of the repository
+			logger.warn("Could not fetch " + repository.getUri() + " in the background", e);
+			fetched = false;
+		}
+		this.fetchNanos.addAndGet(System.nanoTime() - start);
+		this.fetches.incrementAndGet();
+		if (!fetched) {
+			this.failures.incrementAndGet();
+		}
+	}
+
+	@Override
+	public void destroy() {
+		this.lock.lock();
+		try {
+			this.destroyed = true;
+			if (this.executor != null) {
+				this.executor.shutdownNow();
+			}
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	/**
+	 * The number of repositories fetched in the background.
+	 * @return the number of repositories
+	 */
+	public int size() {
+		return this.repositories.size();
+	}
+
+	public long getFetches() {
+		return this.fetches.get();
+	}
+
+	public long getFailures() {
+		return this.failures.get();
+	}
+
+	/**
+	 * The total time spent fetching.
+	 * @return the time in nanoseconds
+	 */
+	public long getFetchNanos() {
+		return this.fetchNanos.get();
+	}
+
+	/**
+	 * The time since the last successful fetch of the repository that has gone longest
+	 * without one.
+	 * @return the time in milliseconds
+	 */
+	public long getMaxStaleness() {
+		long now = System.currentTimeMillis();
+		long result = 0;
+		for (JGitEnvironmentRepository repository : this.repositories.keySet()) {
+			long lastFetch = repository.getLastFetch();
+			if (lastFetch > 0) {
+				result = Math.max(result, now - lastFetch);
+			}
+		}
+		return result;
+	}
+
+	private ScheduledFuture<?> scheduleFetches(JGitEnvironmentRepository repository, int interval) {
+		this.lock.lock();
+		try {
+			if (this.destroyed) {
+				return null;
+			}
+			if (this.executor == null) {
+				CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("config-server-git-fetch-");
+				threadFactory.setDaemon(true);
+				this.executor = Executors.newScheduledThreadPool(this.threads, threadFactory);
+			}
+			return this.executor.scheduleWithFixedDelay(() -> fetch(repository), interval, interval,
+					TimeUnit.SECONDS);
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes metrics for a {@link JGitFetchScheduler}:
+ * <code>config.server.git.fetch</code> (the number and duration of background fetches),
+ * <code>config.server.git.fetch.failures</code> and
+ * <code>config.server.git.fetch.staleness</code> (the time since the last successful
+ * fetch of the repository that has gone longest without one).
+ *
+ * @since 4.3.0
+ */
+public class JGitFetchSchedulerMeterBinder implements MeterBinder {
+
+	private final JGitFetchScheduler scheduler;
+
+	public JGitFetchSchedulerMeterBinder(JGitFetchScheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionTimer
+			.builder("config.server.git.fetch", this.scheduler, JGitFetchScheduler::getFetches,
+					JGitFetchScheduler::getFetchNanos, TimeUnit.NANOSECONDS)
+			.description("Background fetches of git repositories")
+			.register(registry);
+		FunctionCounter
+			.builder("config.server.git.fetch.failures", this.scheduler, JGitFetchScheduler::getFailures)
+			.description("Background fetches of git repositories that failed")
+			.register(registry);
+		TimeGauge
+			.builder("config.server.git.fetch.staleness", this.scheduler, TimeUnit.MILLISECONDS,
+					JGitFetchScheduler::getMaxStaleness)
+			.description("Time since the last successful fetch of the least recently fetched git repository")
+			.register(registry);
+	}
+
+}
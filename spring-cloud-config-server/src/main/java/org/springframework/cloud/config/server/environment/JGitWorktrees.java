@@ -0,0 +1,247 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.util.FileUtils;
+
+import org.springframework.util.Assert;
+
+/**
+ * A pool of working directories, one per label, so that requests for different labels
+ * neither evict each other's files nor wait for each other. Every working directory is a
+ * git repository of its own that borrows all objects from the main clone through
+ * <code>objects/info/alternates</code>, so it costs no more than the checked out files,
+ * and moving it to a newer commit only rewrites the files that changed. At most
+ * <code>maxSize</code> working directories are kept, the least recently used ones that
+ * are not being read are deleted first.
+ *
+ * @since 4.3.0
+ */
+public class JGitWorktrees {
+
+	/**
+	 * Default maximum number of working directories.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 8;
+
+	private static final Log logger = LogFactory.getLog(JGitWorktrees.class);
+
+	private final File directory;
+
+	private final int maxSize;
+
+	private final Lock lock = new ReentrantLock();
+
+	private final LinkedHashMap<String, Worktree> worktrees = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final AtomicLong counter = new AtomicLong();
+
+	private final AtomicLong evictions = new AtomicLong();
+
+	private boolean initialized;
+
+	public JGitWorktrees(File directory) {
+		this(directory, DEFAULT_MAX_SIZE);
+	}
+
+	public JGitWorktrees(File directory, int maxSize) {
+		Assert.notNull(directory, "directory must not be null");
+		Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+		this.directory = directory;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Lock the working directory of a label, creating it if necessary. While the lock is
+	 * held the working directory is neither moved to another commit by other threads nor
+	 * evicted.
+	 * @param label the label
+	 * @return the lock that was acquired
+	 */
+	public Lock lock(String label) {
+		while (true) {
+			Worktree worktree = get(label);
+			worktree.lock.lock();
+			if (!worktree.evicted) {
+				return worktree.lock;
+			}
+			// evicted between looking it up and locking it
+			worktree.lock.unlock();
+		}
+	}
+
+	/**
+	 * Move the working directory of a label to a commit, unless it is there already.
+	 * Callers must hold the {@link #lock(String) lock} of the label.
+	 * @param label the label
+	 * @param repository the main repository, which holds the commit
+	 * @param commitId the id of the commit
+	 * @return the working directory
+	 * @throws IOException if the working directory cannot be written
+	 * @throws GitAPIException if the commit cannot be checked out
+	 */
+	public File checkout(String label, Repository repository, ObjectId commitId) throws IOException, GitAPIException {
+		Worktree worktree = get(label);
+		Assert.state(worktree.lock.isHeldByCurrentThread(), "The working directory of " + label + " is not locked");
+		worktree.checkout(repository, commitId);
+		return worktree.directory;
+	}
+
+	/**
+	 * The working directory of a label.
+	 * @param label the label
+	 * @return the working directory or null if there is none
+	 */
+	public File getDirectory(String label) {
+		this.lock.lock();
+		try {
+			Worktree worktree = this.worktrees.get(label);
+			return worktree != null ? worktree.directory : null;
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	public int size() {
+		this.lock.lock();
+		try {
+			return this.worktrees.size();
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	public long getEvictions() {
+		return this.evictions.get();
+	}
+
+	private Worktree get(String label) {
+		this.lock.lock();
+		try {
+			if (!this.initialized) {
+				// working directories of a previous run are not tracked, so they would
+				// never be deleted
+				FileUtils.delete(this.directory, FileUtils.RECURSIVE | FileUtils.SKIP_MISSING);
+				this.initialized = true;
+			}
+			Worktree worktree = this.worktrees.get(label);
+			if (worktree == null) {
+				// a fresh directory, so an evicted one is never reused
+				worktree = new Worktree(new File(this.directory, String.valueOf(this.counter.incrementAndGet())));
+				this.worktrees.put(label, worktree);
+				evict(worktree);
+			}
+			return worktree;
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Cannot initialize working directories in " + this.directory, e);
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	private void evict(Worktree added) {
+		Iterator<Worktree> iterator = this.worktrees.values().iterator();
+		while (this.worktrees.size() > this.maxSize && iterator.hasNext()) {
+			Worktree eldest = iterator.next();
+			// working directories being read are skipped (the lock is reentrant)
+			if (eldest != added && !eldest.lock.isHeldByCurrentThread() && eldest.lock.tryLock()) {
+				try {
+					iterator.remove();
+					eldest.evict();
+					this.evictions.incrementAndGet();
+				}
+				finally {
+					eldest.lock.unlock();
+				}
+			}
+		}
+	}
+
+	private static final class Worktree {
+
+		private final File directory;
+
+		private final ReentrantLock lock = new ReentrantLock();
+
+		private volatile boolean evicted;
+
+		private Git git;
+
+		private ObjectId commitId;
+
+		private Worktree(File directory) {
+			this.directory = directory;
+		}
+
+		private void checkout(Repository repository, ObjectId commitId) throws IOException, GitAPIException {
+			if (commitId.equals(this.commitId)) {
+				return;
+			}
+			if (this.git == null) {
+				Git.init().setDirectory(this.directory).call().close();
+				File objects = new File(repository.getDirectory(), "objects").getAbsoluteFile();
+				Files.writeString(new File(this.directory, ".git/objects/info/alternates").toPath(),
+						objects.getPath() + "\n", StandardCharsets.UTF_8);
+				// opened after the alternates were added, so that it sees them
+				this.git = Git.open(this.directory);
+			}
+			this.commitId = null;
+			this.git.checkout().setName(commitId.getName()).setForced(true).call();
+			this.commitId = commitId.copy();
+		}
+
+		private void evict() {
+			this.evicted = true;
+			if (this.git != null) {
+				this.git.close();
+				this.git = null;
+			}
+			try {
+				FileUtils.delete(this.directory, FileUtils.RECURSIVE | FileUtils.SKIP_MISSING);
+			}
+			catch (IOException e) {
+				logger.warn("Could not delete working directory " + this.directory, e);
+			}
+		}
+
+	}
+
+}
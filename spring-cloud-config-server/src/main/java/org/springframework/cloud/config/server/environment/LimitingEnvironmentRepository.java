@@ -0,0 +1,53 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import org.springframework.cloud.config.environment.Environment;
+
+/**
+ * A delegating {@link EnvironmentRepository} that only calls the delegate once an
+ * {@link EnvironmentRequestLimiter} admits the request.
+ *
+ * @since 4.3.0
+ */
+public class LimitingEnvironmentRepository implements EnvironmentRepository {
+
+	private final EnvironmentRepository delegate;
+
+	private final EnvironmentRequestLimiter limiter;
+
+	public LimitingEnvironmentRepository(EnvironmentRepository delegate, EnvironmentRequestLimiter limiter) {
+		this.delegate = delegate;
+		this.limiter = limiter;
+	}
+
+	@Override
+	public Environment findOne(String application, String profile, String label) {
+		return findOne(application, profile, label, false);
+	}
+
+	@Override
+	public Environment findOne(String application, String profile, String label, boolean includeOrigin) {
+		return this.limiter.findOne(application,
+				() -> this.delegate.findOne(application, profile, label, includeOrigin));
+	}
+
+	public EnvironmentRepository getDelegate() {
+		return this.delegate;
+	}
+
+}
@@ -100,6 +100,39 @@ public class MultipleJGitEnvironmentRepository extends JGitEnvironmentRepository
 			if (isSkipSslValidation()) {
 				repo.setSkipSslValidation(true);
 			}
+			if (isCheckoutFree()) {
+				repo.setCheckoutFree(true);
+			}
+			if (getMaxWorktrees() != 0 && repo.getMaxWorktrees() == 0) {
+				repo.setMaxWorktrees(getMaxWorktrees());
+			}
+			if (isBackgroundFetch()) {
+				repo.setBackgroundFetch(true);
+			}
+			if (getMaxStaleness() != 0 && repo.getMaxStaleness() == 0) {
+				repo.setMaxStaleness(getMaxStaleness());
+			}
+			if (isSkipUnchangedFetch()) {
+				repo.setSkipUnchangedFetch(true);
+			}
+			if (getCloneDepth() != 0 && repo.getCloneDepth() == 0) {
+				repo.setCloneDepth(getCloneDepth());
+			}
+			if (!getCloneLabels().isEmpty() && repo.getCloneLabels().isEmpty()) {
+				repo.setCloneLabels(getCloneLabels());
+			}
+			if (isSparseCheckout()) {
+				repo.setSparseCheckout(true);
+			}
+			if (repo.getFetchScheduler() == null) {
+				repo.setFetchScheduler(getFetchScheduler());
+			}
+			if (repo.getEnvironmentCache() == null) {
+				repo.setEnvironmentCache(getEnvironmentCache());
+			}
+			if (repo.getApplicationEventPublisher() == null) {
+				repo.setApplicationEventPublisher(getApplicationEventPublisher());
+			}
 			repo.afterPropertiesSet();
 		}
 		if (!getBasedir().exists() && !getBasedir().mkdirs()) {
@@ -246,6 +279,17 @@ public class MultipleJGitEnvironmentRepository extends JGitEnvironmentRepository
 		return repository;
 	}
 
+	@Override
+	public void destroy() {
+		super.destroy();
+		for (PatternMatchingJGitEnvironmentRepository repository : this.repos.values()) {
+			repository.destroy();
+		}
+		for (JGitEnvironmentRepository repository : this.placeholders.values()) {
+			repository.destroy();
+		}
+	}
+
 	@Override
 	public void setOrder(int order) {
 		super.setOrder(order);
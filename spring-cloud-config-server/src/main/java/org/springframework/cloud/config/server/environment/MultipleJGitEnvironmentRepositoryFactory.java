@@ -46,6 +46,10 @@ public class MultipleJGitEnvironmentRepositoryFactory
 
 	private final List<HttpClient4BuilderCustomizer> customizers;
 
+	private EnvironmentCache environmentCache;
+
+	private JGitFetchScheduler fetchScheduler;
+
 	@Deprecated
 	public MultipleJGitEnvironmentRepositoryFactory(ConfigurableEnvironment environment, ConfigServerProperties server,
 			TransportConfigCallbackFactory transportConfigCallbackFactory) {
@@ -99,7 +103,25 @@ public class MultipleJGitEnvironmentRepositoryFactory
 		repository.setGitCredentialsProviderFactory(gitCredentialsProviderFactory);
 		repository.getRepos()
 			.forEach((name, repo) -> repo.setGitCredentialsProviderFactory(gitCredentialsProviderFactory));
+		repository.setEnvironmentCache(this.environmentCache);
+		repository.setFetchScheduler(this.fetchScheduler);
 		return repository;
 	}
 
+	/**
+	 * Cache shared by the repositories built by this factory.
+	 * @param environmentCache the cache, may be null to disable caching
+	 */
+	public void setEnvironmentCache(EnvironmentCache environmentCache) {
+		this.environmentCache = environmentCache;
+	}
+
+	/**
+	 * Scheduler fetching the repositories built by this factory in the background.
+	 * @param fetchScheduler the scheduler, may be null to only fetch from requests
+	 */
+	public void setFetchScheduler(JGitFetchScheduler fetchScheduler) {
+		this.fetchScheduler = fetchScheduler;
+	}
+
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import org.springframework.cloud.config.environment.Environment;
+
+/**
+ * A delegating {@link EnvironmentRepository} that answers repeated requests for unknown
+ * labels, repositories and applications from an {@link EnvironmentNegativeCache}.
+ *
+ * @since 4.3.0
+ */
+public class NegativeCachingEnvironmentRepository implements EnvironmentRepository {
+
+	private final EnvironmentRepository delegate;
+
+	private final EnvironmentNegativeCache cache;
+
+	public NegativeCachingEnvironmentRepository(EnvironmentRepository delegate, EnvironmentNegativeCache cache) {
+		this.delegate = delegate;
+		this.cache = cache;
+	}
+
+	@Override
+	public Environment findOne(String application, String profile, String label) {
+		return findOne(application, profile, label, false);
+	}
+
+	@Override
+	public Environment findOne(String application, String profile, String label, boolean includeOrigin) {
+		return this.cache.findOne(application, profile, label,
+				() -> this.delegate.findOne(application, profile, label, includeOrigin));
+	}
+
+	public EnvironmentRepository getDelegate() {
+		return this.delegate;
+	}
+
+}
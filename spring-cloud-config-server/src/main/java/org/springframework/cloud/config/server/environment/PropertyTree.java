@@ -0,0 +1,378 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.server.support.EnvironmentPlaceholderResolver;
+import org.springframework.util.StringUtils;
+
+/**
+ * The properties of an {@link Environment} merged the way the properties, JSON and YAML
+ * views present them, with every key split once into the {@link Path} of maps and lists
+ * it is written to. A tree only depends on the environment, so it can be shared by all
+ * requests for the same environment version (see {@link Cache}).
+ *
+ * @since 4.3.0
+ */
+final class PropertyTree {
+
+	private final Map<String, Object> properties;
+
+	private final String[] keys;
+
+	private final Object[] values;
+
+	// parsed on first use, because the properties view does not need them
+	private final Path[] paths;
+
+	private PropertyTree(Map<String, Object> properties) {
+		this.properties = Collections.unmodifiableMap(properties);
+		this.keys = new String[properties.size()];
+		this.values = new Object[properties.size()];
+		this.paths = new Path[properties.size()];
+		int i = 0;
+		for (Map.Entry<String, Object> entry : properties.entrySet()) {
+			this.keys[i] = entry.getKey();
+			this.values[i] = entry.getValue();
+			i++;
+		}
+	}
+
+	/**
+	 * Merge the property sources of an environment. Sources are applied from the lowest
+	 * to the highest precedence, and array elements (keys containing <code>[</code>) are
+	 * replaced as a whole by the highest precedence source that defines any element of
+	 * the array.
+	 * @param environment the environment to merge
+	 * @return the merged properties
+	 */
+	static PropertyTree of(Environment environment) {
+		List<PropertySource> sources = environment.getPropertySources();
+		Map<String, Object> combined = new LinkedHashMap<>();
+		Map<String, Map<String, Object>> arrays = new LinkedHashMap<>();
+		for (int i = sources.size() - 1; i >= 0; i--) {
+			Map<String, Map<String, Object>> current = null;
+			for (Map.Entry<?, ?> entry : sources.get(i).getSource().entrySet()) {
+				String key = String.valueOf(entry.getKey());
+				int bracket = key.indexOf('[');
+				if (bracket < 0) {
+					combined.put(key, entry.getValue());
+				}
+				else {
+					if (current == null) {
+						current = new LinkedHashMap<>();
+					}
+					current.computeIfAbsent(key.substring(0, bracket), k -> new LinkedHashMap<>())
+						.put(key, entry.getValue());
+				}
+			}
+			if (current != null) {
+				// Override array properties by prefix key
+				arrays.putAll(current);
+			}
+		}
+		for (Map<String, Object> array : arrays.values()) {
+			combined.putAll(array);
+		}
+		combined.remove("spring.profiles");
+		return new PropertyTree(combined);
+	}
+
+	/**
+	 * The merged, flat properties.
+	 * @return an unmodifiable map of the properties in presentation order
+	 */
+	Map<String, Object> getProperties() {
+		return this.properties;
+	}
+
+	/**
+	 * Build the nested map (and list) structure of a yml/json document in a single pass
+	 * over the properties.
+	 * @param resolver resolves placeholders in keys and string values (may be null)
+	 * @return a new nested map, owned by the caller
+	 */
+	Map<String, Object> toMap(EnvironmentPlaceholderResolver resolver) {
+		Map<String, Object> root = new LinkedHashMap<>();
+		for (int i = 0; i < this.keys.length; i++) {
+			String key = this.keys[i];
+			Object value = this.values[i];
+			Path path;
+			if (resolver != null && key.contains("${")) {
+				path = Path.parse(resolver.resolvePlaceholders(key));
+			}
+			else {
+				path = this.paths[i];
+				if (path == null) {
+					path = Path.parse(key);
+					this.paths[i] = path;
+				}
+			}
+			if (resolver != null && value instanceof String text) {
+				value = resolver.resolvePlaceholders(text);
+			}
+			path.setValue(root, value);
+		}
+		return root;
+	}
+
+	/**
+	 * A property key split into map keys and list indexes. The following rules in
+	 * yml/json are implemented: <pre>
+	 * 1. an array element can be:
+	 *    - a value (leaf)
+	 *    - a map
+	 *    - a nested array
+	 * 2. a map value can be:
+	 *    - a value (leaf)
+	 *    - a nested map
+	 *    - an array
+	 * </pre>
+	 */
+	static final class Path {
+
+		private final String key;
+
+		// the map key of each step, or null if the step is a list index
+		private final String[] names;
+
+		private final int[] indexes;
+
+		private Path(String key, String[] names, int[] indexes) {
+			this.key = key;
+			this.names = names;
+			this.indexes = indexes;
+		}
+
+		static Path parse(String key) {
+			List<String> names = new ArrayList<>();
+			int[] indexes = new int[4];
+			int position = 0;
+			boolean index = false;
+			while (true) {
+				if (indexes.length == names.size()) {
+					int[] grown = new int[indexes.length * 2];
+					System.arraycopy(indexes, 0, grown, 0, indexes.length);
+					indexes = grown;
+				}
+				if (index) {
+					int end = key.indexOf(']', position);
+					int value = end > position ? parseIndex(key, position, end) : -1;
+					if (value < 0) {
+						throw new IllegalArgumentException("Invalid key: " + key);
+					}
+					indexes[names.size()] = value;
+					names.add(null);
+					position = end + 1;
+				}
+				else {
+					int end = findKeyEnd(key, position);
+					// '..', '.[' or a leading '.' or '['
+					if (end == position && end < key.length()) {
+						throw new IllegalArgumentException("Invalid key: " + key);
+					}
+					names.add(key.substring(position, end));
+					position = end;
+				}
+				if (position == key.length()) {
+					break;
+				}
+				char delimiter = key.charAt(position);
+				if (delimiter == '.') {
+					index = false;
+				}
+				else if (delimiter == '[') {
+					index = true;
+				}
+				else {
+					throw new IllegalArgumentException("Invalid key: " + key);
+				}
+				position++;
+			}
+			return new Path(key, names.toArray(new String[0]), indexes);
+		}
+
+		/**
+		 * Find the end of a map key: the next <code>.</code> or the <code>[</code> of an
+		 * array index. Brackets that do not contain an integer are part of the key.
+		 */
+		private static int findKeyEnd(String key, int start) {
+			int openingBracket = -1;
+			for (int i = start; i < key.length(); i++) {
+				char c = key.charAt(i);
+				if (c == '.') {
+					return i;
+				}
+				else if (c == '[') {
+					openingBracket = i;
+				}
+				else if (c == ']' && openingBracket >= 0 && isInteger(key, openingBracket + 1, i)) {
+					return openingBracket;
+				}
+			}
+			return key.length();
+		}
+
+		/**
+		 * Whether {@link Integer#parseInt(String)} would accept the given range. Signed
+		 * values count as integers and are rejected as indexes later.
+		 */
+		private static boolean isInteger(String key, int start, int end) {
+			int digits = start;
+			if (digits < end && (key.charAt(digits) == '-' || key.charAt(digits) == '+')) {
+				digits++;
+			}
+			if (digits == end || end - digits > 10) {
+				return false;
+			}
+			long value = 0;
+			for (int i = digits; i < end; i++) {
+				char c = key.charAt(i);
+				if (c < '0' || c > '9') {
+					return false;
+				}
+				value = value * 10 + (c - '0');
+			}
+			return value <= (key.charAt(start) == '-' ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE);
+		}
+
+		/**
+		 * Parse an unsigned list index without allocating.
+		 * @return the index or -1 if the range is not a valid index
+		 */
+		private static int parseIndex(String key, int start, int end) {
+			if (end - start > 10) {
+				return -1;
+			}
+			long value = 0;
+			for (int i = start; i < end; i++) {
+				char c = key.charAt(i);
+				if (c < '0' || c > '9') {
+					return -1;
+				}
+				value = value * 10 + (c - '0');
+			}
+			return value <= Integer.MAX_VALUE ? (int) value : -1;
+		}
+
+		/**
+		 * Set the value at this path, creating the maps and lists making up the nested
+		 * structure. Supports keys like org.x and org.x.y like in boot logging: once a
+		 * step hits a value that is not a map, the remaining keys are stored with a
+		 * compound prefix.
+		 */
+		@SuppressWarnings("unchecked")
+		void setValue(Map<String, Object> root, Object value) {
+			Object container = root;
+			String prefix = null;
+			int last = this.names.length - 1;
+			for (int i = 0; i <= last; i++) {
+				String name = this.names[i];
+				boolean nextIsMap = i < last && this.names[i + 1] != null;
+				if (name != null) {
+					Map<String, Object> map = (Map<String, Object>) container;
+					if (i == last) {
+						map.put(prefix != null ? prefix + name : name, value);
+						return;
+					}
+					Object child = map.get(name);
+					if (nextIsMap && child != null && !(child instanceof Map)) {
+						// not an object, set prefix for later
+						prefix = name + ".";
+						continue;
+					}
+					if (child == null) {
+						child = nextIsMap ? new LinkedHashMap<String, Object>() : new ArrayList<>();
+						map.put(name, child);
+					}
+					container = child;
+				}
+				else {
+					List<Object> list = (List<Object>) container;
+					int index = this.indexes[i];
+					// Fill missing elements if needed
+					while (list.size() <= index) {
+						list.add(null);
+					}
+					if (i == last) {
+						list.set(index, value);
+						return;
+					}
+					Object child = list.get(index);
+					if (child == null) {
+						child = nextIsMap ? new LinkedHashMap<String, Object>() : new ArrayList<>();
+						list.set(index, child);
+					}
+					container = child;
+				}
+			}
+		}
+
+		@Override
+		public String toString() {
+			return this.key;
+		}
+
+	}
+
+	/**
+	 * A bounded, least recently used cache of trees keyed by environment version.
+	 * Environments without a version, or whose content may change without a new
+	 * version, always get a new tree.
+	 */
+	static final class Cache {
+
+		private static final int MAX_SIZE = 100;
+
+		private final Map<String, PropertyTree> trees = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PropertyTree> eldest) {
+				return size() > MAX_SIZE;
+			}
+		};
+
+		PropertyTree get(Environment environment) {
+			if (!environment.isCacheable() || !StringUtils.hasText(environment.getVersion())) {
+				return PropertyTree.of(environment);
+			}
+			String key = String.join("\n", environment.getName(),
+					StringUtils.arrayToCommaDelimitedString(environment.getProfiles()), environment.getLabel(),
+					environment.getVersion(), environment.getState());
+			synchronized (this.trees) {
+				PropertyTree tree = this.trees.get(key);
+				if (tree != null) {
+					return tree;
+				}
+			}
+			// built without holding the lock, so that other environments are not held up
+			PropertyTree tree = PropertyTree.of(environment);
+			synchronized (this.trees) {
+				PropertyTree existing = this.trees.putIfAbsent(key, tree);
+				return existing != null ? existing : tree;
+			}
+		}
+
+	}
+
+}
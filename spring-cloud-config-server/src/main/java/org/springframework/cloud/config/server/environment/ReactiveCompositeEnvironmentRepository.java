@@ -0,0 +1,99 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.core.OrderComparator;
+
+/**
+ * A {@link ReactiveEnvironmentRepository} composed of multiple ordered
+ * {@link ReactiveEnvironmentRepository}s, with the semantics of the
+ * {@link CompositeEnvironmentRepository}. The repositories are queried concurrently, but
+ * their property sources are combined in order.
+ *
+ * @since 4.3.0
+ */
+public class ReactiveCompositeEnvironmentRepository implements ReactiveEnvironmentRepository {
+
+	private static final Log log = LogFactory.getLog(ReactiveCompositeEnvironmentRepository.class);
+
+	private final List<ReactiveEnvironmentRepository> environmentRepositories;
+
+	private final boolean failOnError;
+
+	/**
+	 * Creates a new {@link ReactiveCompositeEnvironmentRepository}.
+	 * @param environmentRepositories the repositories to create the composite from
+	 * @param failOnError whether to fail if one of the repositories fails
+	 */
+	public ReactiveCompositeEnvironmentRepository(List<? extends ReactiveEnvironmentRepository> environmentRepositories,
+			boolean failOnError) {
+		this.environmentRepositories = new ArrayList<>(environmentRepositories);
+		this.environmentRepositories.sort(OrderComparator.INSTANCE);
+		this.failOnError = failOnError;
+	}
+
+	@Override
+	public Mono<Environment> findOne(String application, String profile, String label) {
+		return findOne(application, profile, label, false);
+	}
+
+	@Override
+	public Mono<Environment> findOne(String application, String profile, String label, boolean includeOrigin) {
+		Environment env = new Environment(application, new String[] { profile }, label, null, null);
+		if (this.environmentRepositories.size() == 1) {
+			return this.environmentRepositories.get(0)
+				.findOne(application, profile, label, includeOrigin)
+				.map(envRepo -> {
+					env.addAll(envRepo.getPropertySources());
+					env.setVersion(envRepo.getVersion());
+					env.setState(envRepo.getState());
+					env.setCacheable(envRepo.isCacheable());
+					return env;
+				});
+		}
+		return Flux.fromIterable(this.environmentRepositories)
+			.flatMapSequential(repo -> find(repo, application, profile, label, includeOrigin))
+			.doOnNext(envRepo -> env.addAll(envRepo.getPropertySources()))
+			.then(Mono.just(env));
+	}
+
+	private Mono<Environment> find(ReactiveEnvironmentRepository repo, String application, String profile,
+			String label, boolean includeOrigin) {
+		Mono<Environment> environment = Mono.defer(() -> repo.findOne(application, profile, label, includeOrigin));
+		if (this.failOnError) {
+			return environment;
+		}
+		return environment.onErrorResume(e -> {
+			log.info("Error adding environment for " + repo);
+			return Mono.empty();
+		});
+	}
+
+	public List<ReactiveEnvironmentRepository> getEnvironmentRepositories() {
+		return this.environmentRepositories;
+	}
+
+}
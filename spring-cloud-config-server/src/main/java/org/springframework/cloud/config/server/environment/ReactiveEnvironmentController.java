@@ -0,0 +1,262 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.EnvironmentMediaType;
+import org.springframework.cloud.config.server.environment.EnvironmentRenderer.Renderer;
+import org.springframework.cloud.config.server.support.PathUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * The WebFlux counterpart of the {@link EnvironmentController}, serving the same
+ * environment endpoints with the same bodies and ETags from a
+ * {@link ReactiveEnvironmentRepository}, so that no request thread waits for a backend.
+ *
+ * @since 4.3.0
+ */
+@RestController
+@RequestMapping(method = RequestMethod.GET, path = "${spring.cloud.config.server.prefix:}")
+public class ReactiveEnvironmentController {
+
+	private static final Log LOG = LogFactory.getLog(ReactiveEnvironmentController.class);
+
+	private final ReactiveEnvironmentRepository repository;
+
+	private final EnvironmentRenderer environmentRenderer;
+
+	private boolean acceptEmpty = true;
+
+	public ReactiveEnvironmentController(ReactiveEnvironmentRepository repository) {
+		this(repository, new ObjectMapper());
+	}
+
+	public ReactiveEnvironmentController(ReactiveEnvironmentRepository repository, ObjectMapper objectMapper) {
+		this.repository = repository;
+		this.environmentRenderer = new EnvironmentRenderer(objectMapper);
+	}
+
+	/**
+	 * Flag to indicate that YAML documents which are not a map should be stripped of the
+	 * "document" prefix that is added by Spring (to facilitate conversion to Properties).
+	 * @param stripDocument the flag to set
+	 */
+	public void setStripDocumentFromYaml(boolean stripDocument) {
+		this.environmentRenderer.setStripDocument(stripDocument);
+	}
+
+	/**
+	 * Flag to indicate that If HTTP 404 needs to be sent if Application is not Found.
+	 * @param acceptEmpty the flag to set
+	 */
+	public void setAcceptEmpty(boolean acceptEmpty) {
+		this.acceptEmpty = acceptEmpty;
+	}
+
+	/**
+	 * Secret mixed into every ETag. Should change whenever the server side
+	 * transformation of environments (overrides, decryption) changes.
+	 * @param etagSalt the salt to set
+	 */
+	public void setEtagSalt(String etagSalt) {
+		this.environmentRenderer.setEtagSalt(etagSalt);
+	}
+
+	@GetMapping(path = "/{name}/{profiles:(?!.*\\b\\.(?:ya?ml|properties|json)\\b).*}",
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<ResponseEntity<Environment>> defaultLabel(@PathVariable String name, @PathVariable String profiles,
+			ServerWebExchange exchange) {
+		return getEnvironment(exchange, name, profiles, null, false);
+	}
+
+	@GetMapping(path = "/{name}/{profiles:(?!.*\\b\\.(?:ya?ml|properties|json)\\b).*}",
+			produces = EnvironmentMediaType.V2_JSON)
+	public Mono<ResponseEntity<Environment>> defaultLabelIncludeOrigin(@PathVariable String name,
+			@PathVariable String profiles, ServerWebExchange exchange) {
+		return getEnvironment(exchange, name, profiles, null, true);
+	}
+
+	@GetMapping(path = "/{name}/{profiles}/{label:.*}", produces = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<ResponseEntity<Environment>> labelled(@PathVariable String name, @PathVariable String profiles,
+			@PathVariable String label, ServerWebExchange exchange) {
+		return getEnvironment(exchange, name, profiles, label, false);
+	}
+
+	@GetMapping(path = "/{name}/{profiles}/{label:.*}", produces = EnvironmentMediaType.V2_JSON)
+	public Mono<ResponseEntity<Environment>> labelledIncludeOrigin(@PathVariable String name,
+			@PathVariable String profiles, @PathVariable String label, ServerWebExchange exchange) {
+		return getEnvironment(exchange, name, profiles, label, true);
+	}
+
+	private Mono<ResponseEntity<Environment>> getEnvironment(ServerWebExchange exchange, String name,
+			String profiles, String label, boolean includeOrigin) {
+		return getEnvironment(name, profiles, label, includeOrigin).mapNotNull(environment -> {
+			String etag = this.environmentRenderer.getEtag(environment, includeOrigin ? "origin" : "json", false);
+			if (checkNotModified(exchange, etag)) {
+				return null;
+			}
+			// leave serialization and content negotiation to the message writers
+			return ResponseEntity.ok(environment);
+		});
+	}
+
+	public Mono<Environment> getEnvironment(String name, String profiles, String label, boolean includeOrigin) {
+		Mono<Environment> environment = Mono
+			.defer(() -> this.repository.findOne(normalize(name), profiles, normalize(label), includeOrigin));
+		if (!this.acceptEmpty) {
+			environment = environment.filter(env -> !env.getPropertySources().isEmpty())
+				.switchIfEmpty(Mono.error(() -> new EnvironmentNotFoundException("Profile Not found")));
+		}
+		return environment.doOnError(e -> LOG.warn(
+				String.format("Error getting the Environment with name=%s profiles=%s label=%s includeOrigin=%b",
+						name, profiles, label, includeOrigin),
+				e));
+	}
+
+	private String normalize(String part) {
+		if (PathUtils.isInvalidEncodedLocation(part)) {
+			throw new InvalidEnvironmentRequestException("Invalid request");
+		}
+		return Environment.normalize(part);
+	}
+
+	@GetMapping("/{name}-{profiles}.properties")
+	public Mono<ResponseEntity<String>> properties(@PathVariable String name, @PathVariable String profiles,
+			@RequestParam(defaultValue = "true") boolean resolvePlaceholders, ServerWebExchange exchange) {
+		return labelledProperties(name, profiles, null, resolvePlaceholders, exchange);
+	}
+
+	@GetMapping("/{label}/{name}-{profiles}.properties")
+	public Mono<ResponseEntity<String>> labelledProperties(@PathVariable String name, @PathVariable String profiles,
+			@PathVariable String label, @RequestParam(defaultValue = "true") boolean resolvePlaceholders,
+			ServerWebExchange exchange) {
+		return render(exchange, name, profiles, label, "properties", resolvePlaceholders, MediaType.TEXT_PLAIN,
+				environment -> this.environmentRenderer.properties(environment, resolvePlaceholders));
+	}
+
+	@GetMapping("{name}-{profiles}.json")
+	public Mono<ResponseEntity<String>> jsonProperties(@PathVariable String name, @PathVariable String profiles,
+			@RequestParam(defaultValue = "true") boolean resolvePlaceholders, ServerWebExchange exchange) {
+		return labelledJsonProperties(name, profiles, null, resolvePlaceholders, exchange);
+	}
+
+	@GetMapping("/{label}/{name}-{profiles}.json")
+	public Mono<ResponseEntity<String>> labelledJsonProperties(@PathVariable String name,
+			@PathVariable String profiles, @PathVariable String label,
+			@RequestParam(defaultValue = "true") boolean resolvePlaceholders, ServerWebExchange exchange) {
+		return render(exchange, name, profiles, label, "properties.json", resolvePlaceholders,
+				MediaType.APPLICATION_JSON,
+				environment -> this.environmentRenderer.jsonProperties(environment, resolvePlaceholders));
+	}
+
+	@GetMapping({ "/{name}-{profiles}.yml", "/{name}-{profiles}.yaml" })
+	public Mono<ResponseEntity<String>> yaml(@PathVariable String name, @PathVariable String profiles,
+			@RequestParam(defaultValue = "true") boolean resolvePlaceholders, ServerWebExchange exchange) {
+		return labelledYaml(name, profiles, null, resolvePlaceholders, exchange);
+	}
+
+	@GetMapping({ "/{label}/{name}-{profiles}.yml", "/{label}/{name}-{profiles}.yaml" })
+	public Mono<ResponseEntity<String>> labelledYaml(@PathVariable String name, @PathVariable String profiles,
+			@PathVariable String label, @RequestParam(defaultValue = "true") boolean resolvePlaceholders,
+			ServerWebExchange exchange) {
+		return render(exchange, name, profiles, label, this.environmentRenderer.getYamlRepresentation(),
+				resolvePlaceholders, MediaType.TEXT_PLAIN,
+				environment -> this.environmentRenderer.yaml(environment, resolvePlaceholders));
+	}
+
+	/**
+	 * Renders a text representation of an environment once it has been loaded, answering
+	 * conditional requests without rendering anything.
+	 */
+	private Mono<ResponseEntity<String>> render(ServerWebExchange exchange, String name, String profiles,
+			String label, String representation, boolean resolvePlaceholders, MediaType mediaType,
+			RendererFactory factory) {
+		return Mono.defer(() -> {
+			EnvironmentRenderer.validateProfiles(profiles);
+			return getEnvironment(name, profiles, label, false);
+		}).mapNotNull(environment -> {
+			String etag = this.environmentRenderer.getEtag(environment, representation, resolvePlaceholders);
+			if (checkNotModified(exchange, etag)) {
+				return null;
+			}
+			try {
+				String body = EnvironmentRenderer.render(factory.get(environment));
+				return new ResponseEntity<>(body, getHttpHeaders(mediaType), HttpStatus.OK);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * Sets the ETag and answers a matching <code>If-None-Match</code> with a 304.
+	 * @param exchange the current exchange (may be null)
+	 * @param etag the ETag of the response (may be null)
+	 * @return true if the response is complete and nothing more should be written
+	 */
+	private boolean checkNotModified(ServerWebExchange exchange, String etag) {
+		return exchange != null && etag != null && exchange.checkNotModified(etag);
+	}
+
+	@ExceptionHandler(RepositoryException.class)
+	public ResponseEntity<Void> noSuchLabel() {
+		return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+	}
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<Void> illegalArgument() {
+		return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+	}
+
+	@ExceptionHandler(EnvironmentException.class)
+	public ResponseEntity<Void> environmentException() {
+		return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+	}
+
+	private HttpHeaders getHttpHeaders(MediaType mediaType) {
+		HttpHeaders httpHeaders = new HttpHeaders();
+		httpHeaders.setContentType(mediaType);
+		return httpHeaders;
+	}
+
+	private interface RendererFactory {
+
+		Renderer get(Environment environment);
+
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.config.environment.Environment;
+
+/**
+ * A delegating {@link ReactiveEnvironmentRepository} that decrypts the properties and
+ * adds the overrides of an {@link EnvironmentEncryptorEnvironmentRepository}.
+ *
+ * @since 4.3.0
+ */
+public class ReactiveEnvironmentEncryptorEnvironmentRepository implements ReactiveEnvironmentRepository {
+
+	private final ReactiveEnvironmentRepository delegate;
+
+	private final EnvironmentEncryptorEnvironmentRepository encryptor;
+
+	public ReactiveEnvironmentEncryptorEnvironmentRepository(ReactiveEnvironmentRepository delegate,
+			EnvironmentEncryptorEnvironmentRepository encryptor) {
+		this.delegate = delegate;
+		this.encryptor = encryptor;
+	}
+
+	@Override
+	public Mono<Environment> findOne(String application, String profile, String label) {
+		return findOne(application, profile, label, false);
+	}
+
+	@Override
+	public Mono<Environment> findOne(String application, String profile, String label, boolean includeOrigin) {
+		return this.delegate.findOne(application, profile, label, includeOrigin)
+			.map(environment -> this.encryptor.decrypt(environment, includeOrigin));
+	}
+
+	/**
+	 * @return the fingerprint of the overrides and encryptors applied to environments
+	 * @see EnvironmentEncryptorEnvironmentRepository#getFingerprint()
+	 */
+	public String getFingerprint() {
+		return this.encryptor.getFingerprint();
+	}
+
+}
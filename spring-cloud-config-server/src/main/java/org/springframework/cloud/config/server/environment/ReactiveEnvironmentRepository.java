@@ -0,0 +1,39 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.config.environment.Environment;
+
+/**
+ * The non-blocking counterpart of {@link EnvironmentRepository}, used by the
+ * {@link ReactiveEnvironmentController} when the server runs on a reactive web stack.
+ * Implementations must not block the calling thread; blocking repositories are adapted
+ * with {@link ReactiveEnvironmentRepositoryAdapter}.
+ *
+ * @since 4.3.0
+ */
+public interface ReactiveEnvironmentRepository {
+
+	Mono<Environment> findOne(String application, String profile, String label);
+
+	default Mono<Environment> findOne(String application, String profile, String label, boolean includeOrigin) {
+		return findOne(application, profile, label);
+	}
+
+}
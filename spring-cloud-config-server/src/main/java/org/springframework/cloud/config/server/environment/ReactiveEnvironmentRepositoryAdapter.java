@@ -0,0 +1,74 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.OrderUtils;
+
+/**
+ * Adapts a blocking {@link EnvironmentRepository} to a
+ * {@link ReactiveEnvironmentRepository} by calling it on a {@link Scheduler} meant for
+ * blocking work, by default {@link Schedulers#boundedElastic()}, whose number of threads
+ * and queued tasks are bounded.
+ *
+ * @since 4.3.0
+ */
+public class ReactiveEnvironmentRepositoryAdapter implements ReactiveEnvironmentRepository, Ordered {
+
+	private final EnvironmentRepository delegate;
+
+	private final Scheduler scheduler;
+
+	public ReactiveEnvironmentRepositoryAdapter(EnvironmentRepository delegate) {
+		this(delegate, Schedulers.boundedElastic());
+	}
+
+	public ReactiveEnvironmentRepositoryAdapter(EnvironmentRepository delegate, Scheduler scheduler) {
+		this.delegate = delegate;
+		this.scheduler = scheduler;
+	}
+
+	@Override
+	public Mono<Environment> findOne(String application, String profile, String label) {
+		return findOne(application, profile, label, false);
+	}
+
+	@Override
+	public Mono<Environment> findOne(String application, String profile, String label, boolean includeOrigin) {
+		return Mono.fromCallable(() -> this.delegate.findOne(application, profile, label, includeOrigin))
+			.subscribeOn(this.scheduler);
+	}
+
+	public EnvironmentRepository getDelegate() {
+		return this.delegate;
+	}
+
+	@Override
+	public int getOrder() {
+		if (this.delegate instanceof Ordered ordered) {
+			return ordered.getOrder();
+		}
+		Integer order = OrderUtils.getOrder(this.delegate.getClass());
+		return order != null ? order : Ordered.LOWEST_PRECEDENCE;
+	}
+
+}
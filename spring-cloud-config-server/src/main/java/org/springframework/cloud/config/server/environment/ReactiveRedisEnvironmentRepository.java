@@ -0,0 +1,84 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.core.Ordered;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.util.StringUtils;
+
+/**
+ * The non-blocking counterpart of the {@link RedisEnvironmentRepository}, reading the
+ * same hashes through a {@link ReactiveStringRedisTemplate}.
+ *
+ * @since 4.3.0
+ */
+public class ReactiveRedisEnvironmentRepository implements ReactiveEnvironmentRepository, Ordered {
+
+	private final ReactiveStringRedisTemplate redis;
+
+	private final int order;
+
+	public ReactiveRedisEnvironmentRepository(ReactiveStringRedisTemplate redis,
+			RedisEnvironmentProperties properties) {
+		this.redis = redis;
+		this.order = properties.getOrder();
+	}
+
+	@Override
+	public Mono<Environment> findOne(String application, String profile, String label) {
+		String[] profiles = StringUtils.commaDelimitedListToStringArray(profile);
+		return Flux.fromIterable(getKeys(application, Arrays.asList(profiles)))
+			.flatMapSequential(key -> this.redis.<Object, Object>opsForHash()
+				.entries(key)
+				.collectMap(Map.Entry::getKey, Map.Entry::getValue, LinkedHashMap::new)
+				.map(map -> new PropertySource("redis:" + key, map)))
+			.collectList()
+			.map(sources -> {
+				Environment environment = new Environment(application, profiles, label, null, null);
+				sources.forEach(environment::add);
+				return environment;
+			});
+	}
+
+	private List<String> getKeys(String application, List<String> profiles) {
+		List<String> keys = new ArrayList<>();
+		keys.add(application);
+		for (String profile : profiles) {
+			keys.add(application + "-" + profile);
+		}
+		Collections.reverse(keys);
+		return keys;
+	}
+
+	@Override
+	public int getOrder() {
+		return this.order;
+	}
+
+}
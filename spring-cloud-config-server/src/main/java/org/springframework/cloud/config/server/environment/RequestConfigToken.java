@@ -0,0 +1,48 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Access to the token a client sent with the current request. Backends like Vault load
+ * environments with that token (see {@link HttpRequestConfigTokenProvider}), so results
+ * shared between requests must only be shared between requests with the same token.
+ *
+ * @since 4.3.0
+ */
+final class RequestConfigToken {
+
+	private RequestConfigToken() {
+	}
+
+	/**
+	 * @return the value of the {@link ConfigClientProperties#TOKEN_HEADER} header of the
+	 * current request, or null if there is none
+	 */
+	static String get() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes instanceof ServletRequestAttributes servletAttributes) {
+			return servletAttributes.getRequest().getHeader(ConfigClientProperties.TOKEN_HEADER);
+		}
+		return null;
+	}
+
+}
@@ -33,6 +33,8 @@ public class SvnEnvironmentRepositoryFactory
 
 	private final ObservationRegistry observationRegistry;
 
+	private EnvironmentCache environmentCache;
+
 	public SvnEnvironmentRepositoryFactory(ConfigurableEnvironment environment, ConfigServerProperties server,
 			ObservationRegistry observationRegistry) {
 		this.environment = environment;
@@ -47,7 +49,16 @@ public class SvnEnvironmentRepositoryFactory
 		if (this.server.getDefaultLabel() != null) {
 			repository.setDefaultLabel(this.server.getDefaultLabel());
 		}
+		repository.setEnvironmentCache(this.environmentCache);
 		return repository;
 	}
 
+	/**
+	 * Cache shared by the repositories built by this factory.
+	 * @param environmentCache the cache, may be null to disable caching
+	 */
+	public void setEnvironmentCache(EnvironmentCache environmentCache) {
+		this.environmentCache = environmentCache;
+	}
+
 }
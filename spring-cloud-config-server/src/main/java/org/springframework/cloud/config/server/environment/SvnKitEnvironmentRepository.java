@@ -70,7 +70,17 @@ public class SvnKitEnvironmentRepository extends AbstractScmEnvironmentRepositor
 	}
 
 	@Override
-	public synchronized Locations getLocations(String application, String profile, String label) {
+	public Locations getLocations(String application, String profile, String label) {
+		getLock().lock();
+		try {
+			return doGetLocations(application, profile, label);
+		}
+		finally {
+			getLock().unlock();
+		}
+	}
+
+	private Locations doGetLocations(String application, String profile, String label) {
 		if (label == null) {
 			label = this.defaultLabel;
 		}
@@ -80,12 +90,16 @@ public class SvnKitEnvironmentRepository extends AbstractScmEnvironmentRepositor
 					new DefaultSVNAuthenticationManager(null, false, getUsername(), getPassword()));
 		}
 		try {
-			String version;
-			if (new File(getWorkingDirectory(), ".svn").exists()) {
-				version = update(svnOperationFactory, label);
-			}
-			else {
-				version = checkout(svnOperationFactory);
+			// the whole working copy is updated, so once per batch is enough
+			String version = EnvironmentRefreshBatch.getVersion(this);
+			if (version == null) {
+				if (new File(getWorkingDirectory(), ".svn").exists()) {
+					version = update(svnOperationFactory, label);
+				}
+				else {
+					version = checkout(svnOperationFactory);
+				}
+				EnvironmentRefreshBatch.setRefreshed(this, version);
 			}
 			return new Locations(application, profile, label, version, getPaths(application, profile, label));
 		}
@@ -26,6 +26,7 @@ import java.util.Set;
 
 import org.springframework.cloud.config.server.config.ConfigServerProperties;
 import org.springframework.cloud.config.server.environment.SearchPathLocator;
+import org.springframework.cloud.config.server.support.InstrumentedLock;
 import org.springframework.cloud.config.server.support.PathUtils;
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.core.io.Resource;
@@ -46,6 +47,8 @@ public class GenericResourceRepository implements ResourceRepository, ResourceLo
 
 	private ConfigServerProperties properties;
 
+	private final InstrumentedLock lock = new InstrumentedLock("resource-repository");
+
 	public GenericResourceRepository(SearchPathLocator service) {
 		this.service = service;
 	}
@@ -55,13 +58,32 @@ public class GenericResourceRepository implements ResourceRepository, ResourceLo
 		this.properties = properties;
 	}
 
+	/**
+	 * The lock that serializes reads of resources, exposed so that its metrics can be
+	 * published.
+	 * @return the lock of this repository
+	 */
+	public InstrumentedLock getLock() {
+		return this.lock;
+	}
+
 	@Override
 	public void setResourceLoader(ResourceLoader resourceLoader) {
 		this.resourceLoader = resourceLoader;
 	}
 
 	@Override
-	public synchronized Resource findOne(String application, String profile, String label, String path) {
+	public Resource findOne(String application, String profile, String label, String path) {
+		this.lock.lock();
+		try {
+			return doFindOne(application, profile, label, path);
+		}
+		finally {
+			this.lock.unlock();
+		}
+	}
+
+	private Resource doFindOne(String application, String profile, String label, String path) {
 
 		if (StringUtils.hasText(path)) {
 			String[] locations = this.service.getLocations(application, profile, label).getLocations();
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.resource;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * The WebFlux counterpart of the {@link ResourceController}. Resources are read from
+ * files on disk, so the {@link ResourceController} is called on a {@link Scheduler}
+ * meant for blocking work, by default {@link Schedulers#boundedElastic()}.
+ *
+ * @since 4.3.0
+ */
+@RestController
+@RequestMapping(method = RequestMethod.GET, path = "${spring.cloud.config.server.prefix:}")
+public class ReactiveResourceController {
+
+	private final ResourceController delegate;
+
+	private final Scheduler scheduler;
+
+	public ReactiveResourceController(ResourceController delegate) {
+		this(delegate, Schedulers.boundedElastic());
+	}
+
+	public ReactiveResourceController(ResourceController delegate, Scheduler scheduler) {
+		this.delegate = delegate;
+		this.scheduler = scheduler;
+	}
+
+	@GetMapping("/{name}/{profile}/{label}/**")
+	public Mono<String> retrieve(@PathVariable String name, @PathVariable String profile, @PathVariable String label,
+			ServerWebExchange exchange, @RequestParam(defaultValue = "true") boolean resolvePlaceholders,
+			@RequestHeader(value = HttpHeaders.ACCEPT_CHARSET, required = false,
+					defaultValue = "UTF-8") String acceptedCharset) {
+		String path = getFilePath(exchange, name, profile, label);
+		return doRetrieve(name, profile, label, path, resolvePlaceholders, acceptedCharset);
+	}
+
+	@GetMapping(value = "/{name}/{profile}/{path:.*}", params = "useDefaultLabel")
+	public Mono<String> retrieveDefault(@PathVariable String name, @PathVariable String profile,
+			@PathVariable String path, @RequestParam(defaultValue = "true") boolean resolvePlaceholders,
+			@RequestHeader(value = HttpHeaders.ACCEPT_CHARSET, required = false,
+					defaultValue = "UTF-8") String acceptedCharset) {
+		return doRetrieve(name, profile, null, path, resolvePlaceholders, acceptedCharset);
+	}
+
+	private Mono<String> doRetrieve(String name, String profile, String label, String path,
+			boolean resolvePlaceholders, String acceptedCharset) {
+		return Mono
+			.fromCallable(
+					() -> this.delegate.retrieve(name, profile, label, path, resolvePlaceholders, acceptedCharset))
+			.subscribeOn(this.scheduler);
+	}
+
+	@GetMapping(value = "/{name}/{profile}/{label}/**", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+	public Mono<byte[]> binary(@PathVariable String name, @PathVariable String profile, @PathVariable String label,
+			ServerWebExchange exchange) {
+		String path = getFilePath(exchange, name, profile, label);
+		return doBinary(name, profile, label, path);
+	}
+
+	@GetMapping(value = "/{name}/{profile}/{path:.*}", params = "useDefaultLabel",
+			produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+	public Mono<byte[]> binaryDefault(@PathVariable String name, @PathVariable String profile,
+			@PathVariable String path) {
+		return doBinary(name, profile, null, path);
+	}
+
+	private Mono<byte[]> doBinary(String name, String profile, String label, String path) {
+		return Mono.fromCallable(() -> this.delegate.binary(name, profile, label, path)).subscribeOn(this.scheduler);
+	}
+
+	private String getFilePath(ServerWebExchange exchange, String name, String profile, String label) {
+		String stem = String.format("/%s/%s/%s/", name, profile, label);
+		String path = exchange.getRequest().getPath().pathWithinApplication().value();
+		return path.substring(path.indexOf(stem) + stem.length());
+	}
+
+}
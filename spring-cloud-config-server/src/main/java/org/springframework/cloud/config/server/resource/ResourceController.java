@@ -25,15 +25,24 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 
+import jakarta.servlet.http.HttpServletResponse;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.cloud.config.environment.Environment;
 import org.springframework.cloud.config.server.encryption.ResourceEncryptor;
+import org.springframework.cloud.config.server.environment.EnvironmentCacheControl;
 import org.springframework.cloud.config.server.environment.EnvironmentRepository;
+import org.springframework.cloud.config.server.environment.EnvironmentRequestHistory;
+import org.springframework.cloud.config.server.environment.EnvironmentResponseCache;
+import org.springframework.cloud.config.server.support.EnvironmentPlaceholderResolverCache;
+import org.springframework.cloud.config.server.support.InstrumentedLock;
+import org.springframework.cloud.config.server.support.ResponseCompressor;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.util.DigestUtils;
 import org.springframework.util.StreamUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -46,9 +55,6 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.util.UrlPathHelper;
 
-import static org.springframework.cloud.config.server.support.EnvironmentPropertySource.prepareEnvironment;
-import static org.springframework.cloud.config.server.support.EnvironmentPropertySource.resolvePlaceholders;
-
 /**
  * An HTTP endpoint for serving up templated plain text resources from an underlying
  * repository. Can be used to supply config files for consumption by a wide variety of
@@ -67,6 +73,8 @@ public class ResourceController {
 
 	private static Log logger = LogFactory.getLog(ResourceController.class);
 
+	private static final MediaType TEXT_YAML = MediaType.valueOf("text/yaml");
+
 	private ResourceRepository resourceRepository;
 
 	private EnvironmentRepository environmentRepository;
@@ -75,10 +83,24 @@ public class ResourceController {
 
 	private UrlPathHelper helper = new UrlPathHelper();
 
+	private final EnvironmentPlaceholderResolverCache placeholderResolvers = new EnvironmentPlaceholderResolverCache();
+
 	private boolean encryptEnabled = false;
 
 	private boolean plainTextEncryptEnabled = false;
 
+	private ResponseCompressor compressor;
+
+	private EnvironmentResponseCache responseCache;
+
+	private String cacheSalt = "";
+
+	private EnvironmentRequestHistory requestHistory;
+
+	private EnvironmentCacheControl cacheControl;
+
+	private final InstrumentedLock lock = new InstrumentedLock("resource");
+
 	public ResourceController(ResourceRepository resourceRepository, EnvironmentRepository environmentRepository,
 			Map<String, ResourceEncryptor> resourceEncryptorMap) {
 		this.resourceRepository = resourceRepository;
@@ -101,6 +123,59 @@ public class ResourceController {
 		this.plainTextEncryptEnabled = plainTextEncryptEnabled;
 	}
 
+	/**
+	 * Compresses text resources for clients that accept it.
+	 * @param compressor the compressor to use (may be null)
+	 */
+	public void setCompressor(ResponseCompressor compressor) {
+		this.compressor = compressor;
+	}
+
+	/**
+	 * Cache for compressed text resources. Only resources served with a versioned
+	 * environment are cached, so each version is compressed only once.
+	 * @param responseCache the cache to use (may be null)
+	 */
+	public void setResponseCache(EnvironmentResponseCache responseCache) {
+		this.responseCache = responseCache;
+	}
+
+	/**
+	 * Secret mixed into every cache key. Should change whenever the server side
+	 * transformation of environments (overrides, decryption) changes.
+	 * @param cacheSalt the salt to set
+	 */
+	public void setCacheSalt(String cacheSalt) {
+		this.cacheSalt = cacheSalt;
+	}
+
+	/**
+	 * Counts the resource requests served per environment, to find the most requested
+	 * environments.
+	 * @param requestHistory the history to use (may be null)
+	 */
+	public void setRequestHistory(EnvironmentRequestHistory requestHistory) {
+		this.requestHistory = requestHistory;
+	}
+
+	/**
+	 * Decides the <code>Cache-Control</code> header of resources from the environment
+	 * they are served with.
+	 * @param cacheControl the cache control to use (may be null for no header)
+	 */
+	public void setCacheControl(EnvironmentCacheControl cacheControl) {
+		this.cacheControl = cacheControl;
+	}
+
+	/**
+	 * The lock that serializes the rendering of resources, exposed so that its metrics
+	 * can be published.
+	 * @return the lock of this controller
+	 */
+	public InstrumentedLock getLock() {
+		return this.lock;
+	}
+
 	@GetMapping("/{name}/{profile}/{label}/**")
 	public String retrieve(@PathVariable String name, @PathVariable String profile, @PathVariable String label,
 			ServletWebRequest request, @RequestParam(defaultValue = "true") boolean resolvePlaceholders,
@@ -134,15 +209,31 @@ public class ResourceController {
 	}
 
 	/**
-	 * This method is synchronized because the underlying EnvironmentRespositorys may not
-	 * be threadsafe (JGit for example). Calling this method could result in an update to
-	 * the files on disk.
+	 * This method is locked because the underlying EnvironmentRespositorys may not be
+	 * threadsafe (JGit for example). Calling this method could result in an update to the
+	 * files on disk.
 	 */
-	synchronized String retrieve(ServletWebRequest request, String name, String profile, String label, String path,
+	String retrieve(ServletWebRequest request, String name, String profile, String label, String path,
+			boolean resolvePlaceholders, String acceptedCharset) throws IOException {
+		String text;
+		this.lock.lock();
+		try {
+			text = doRetrieve(request, name, profile, label, path, resolvePlaceholders, acceptedCharset);
+		}
+		finally {
+			this.lock.unlock();
+		}
+		record(request, name, profile, label);
+		return text;
+	}
+
+	private String doRetrieve(ServletWebRequest request, String name, String profile, String label, String path,
 			boolean resolvePlaceholders, String acceptedCharset) throws IOException {
 		name = Environment.normalize(name);
 		label = Environment.normalize(label);
 		Resource resource = this.resourceRepository.findOne(name, profile, label, path);
+		String coding = this.compressor != null && request != null && request.getResponse() != null
+				? this.compressor.negotiate(request.getRequest(), request.getResponse()) : null;
 		if (checkNotModified(request, resource)) {
 			// Content was not modified. Just return.
 			return null;
@@ -164,8 +255,19 @@ public class ResourceController {
 				ext = ext.toLowerCase(Locale.ROOT);
 			}
 			Environment environment = this.environmentRepository.findOne(name, profile, label, false);
+			applyCacheControl(request, environment);
+			MediaType contentType = getContentType(resource, ext, charset);
+			if (request != null && request.getResponse() != null) {
+				// also encodes the uncompressed text with the charset
+				request.getResponse().setContentType(contentType.toString());
+			}
+			String key = getCacheKey(environment, path, resolvePlaceholders, charset, coding);
+			byte[] compressed = key != null ? this.responseCache.get(key) : null;
+			if (compressed != null) {
+				return writeCompressed(request.getResponse(), compressed, coding);
+			}
 			if (resolvePlaceholders) {
-				text = resolvePlaceholders(prepareEnvironment(environment), text);
+				text = this.placeholderResolvers.get(environment).resolvePlaceholders(text);
 			}
 			if (ext != null && encryptEnabled && plainTextEncryptEnabled) {
 				ResourceEncryptor re = this.resourceEncryptorMap.get(ext);
@@ -176,12 +278,71 @@ public class ResourceController {
 					text = re.decrypt(text, environment);
 				}
 			}
+			if (coding != null) {
+				byte[] body = text.getBytes(charset);
+				if (this.compressor.shouldCompress(body.length)) {
+					compressed = this.compressor.compress(body, coding);
+					if (key != null) {
+						this.responseCache.put(key, compressed);
+					}
+					return writeCompressed(request.getResponse(), compressed, coding);
+				}
+			}
 			return text;
 		}
 	}
 
+	/**
+	 * The cache key of a compressed text resource, or null if it should not be cached.
+	 * The content of a resource is identified by the version of the environment it is
+	 * served with, like the ETag of the environment itself. Resources that may be
+	 * decrypted are never cached, because the keys may change without a new version.
+	 */
+	private String getCacheKey(Environment environment, String path, boolean resolvePlaceholders, Charset charset,
+			String coding) {
+		if (coding == null || this.responseCache == null || environment == null || !environment.isCacheable()
+				|| !StringUtils.hasText(environment.getVersion())
+				|| (this.encryptEnabled && this.plainTextEncryptEnabled)) {
+			return null;
+		}
+		String key = String.join("\n", "resource", path, String.valueOf(resolvePlaceholders), charset.name(),
+				environment.getName(), StringUtils.arrayToCommaDelimitedString(environment.getProfiles()),
+				environment.getLabel(), environment.getVersion(), environment.getState(), this.cacheSalt);
+		return ResponseCompressor.getEtag(DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)), coding);
+	}
+
+	/**
+	 * The content type of a text resource, the same with or without compression: the
+	 * type of its file extension if that is a text format, otherwise plain text.
+	 */
+	private static MediaType getContentType(Resource resource, String ext, Charset charset) {
+		MediaType type = null;
+		if ("yml".equals(ext) || "yaml".equals(ext)) {
+			type = TEXT_YAML;
+		}
+		else if (ext != null && !"properties".equals(ext)) {
+			type = MediaTypeFactory.getMediaType(resource.getFilename())
+				.filter(ResourceController::isText)
+				.orElse(null);
+		}
+		return new MediaType(type != null ? type : MediaType.TEXT_PLAIN, charset);
+	}
+
+	private static boolean isText(MediaType type) {
+		String subtype = type.getSubtypeSuffix() != null ? type.getSubtypeSuffix() : type.getSubtype();
+		return "text".equals(type.getType()) || "json".equals(subtype) || "xml".equals(subtype);
+	}
+
+	private String writeCompressed(HttpServletResponse response, byte[] body, String coding) throws IOException {
+		response.setHeader(HttpHeaders.CONTENT_ENCODING, coding);
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+		response.flushBuffer();
+		return null;
+	}
+
 	/*
-	 * Used only for unit tests.
+	 * Used by unit tests and the ReactiveResourceController.
 	 */
 	String retrieve(String name, String profile, String label, String path, boolean resolvePlaceholders,
 			String acceptedCharset) throws IOException {
@@ -203,14 +364,34 @@ public class ResourceController {
 	}
 
 	/*
-	 * Used only for unit tests.
+	 * Used by unit tests and the ReactiveResourceController.
 	 */
 	byte[] binary(String name, String profile, String label, String path) throws IOException {
 		return binary(null, name, profile, label, path);
 	}
 
-	private synchronized byte[] binary(ServletWebRequest request, String name, String profile, String label,
-			String path) throws IOException {
+	private byte[] binary(ServletWebRequest request, String name, String profile, String label, String path)
+			throws IOException {
+		byte[] body;
+		this.lock.lock();
+		try {
+			body = doBinary(request, name, profile, label, path);
+		}
+		finally {
+			this.lock.unlock();
+		}
+		record(request, name, profile, label);
+		return body;
+	}
+
+	private void record(ServletWebRequest request, String name, String profile, String label) {
+		if (request != null && this.requestHistory != null) {
+			this.requestHistory.record(name, profile, label);
+		}
+	}
+
+	private byte[] doBinary(ServletWebRequest request, String name, String profile, String label, String path)
+			throws IOException {
 		name = Environment.normalize(name);
 		label = Environment.normalize(label);
 		Resource resource = this.resourceRepository.findOne(name, profile, label, path);
@@ -219,12 +400,19 @@ public class ResourceController {
 			return null;
 		}
 		// TODO: is this line needed for side effects?
-		prepareEnvironment(this.environmentRepository.findOne(name, profile, label));
+		Environment environment = this.environmentRepository.findOne(name, profile, label);
+		applyCacheControl(request, environment);
 		try (InputStream is = resource.getInputStream()) {
 			return StreamUtils.copyToByteArray(is);
 		}
 	}
 
+	private void applyCacheControl(ServletWebRequest request, Environment environment) {
+		if (this.cacheControl != null && request != null && request.getResponse() != null) {
+			request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, this.cacheControl.getHeaderValue(environment));
+		}
+	}
+
 	private boolean checkNotModified(ServletWebRequest request, Resource resource) {
 		try {
 			return request != null && request.checkNotModified(resource.lastModified());
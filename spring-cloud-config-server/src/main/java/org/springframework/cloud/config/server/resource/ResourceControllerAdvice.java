@@ -19,9 +19,12 @@ package org.springframework.cloud.config.server.resource;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.cloud.config.server.environment.EnvironmentOverloadedException;
 import org.springframework.cloud.config.server.environment.NoSuchLabelException;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -46,4 +49,11 @@ public class ResourceControllerAdvice {
 		logger.debug("Error when fetching resource", e);
 	}
 
+	@ExceptionHandler(EnvironmentOverloadedException.class)
+	ResponseEntity<Void> overloaded(EnvironmentOverloadedException e) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+			.header(HttpHeaders.RETRY_AFTER, e.getRetryAfterSeconds())
+			.build();
+	}
+
 }
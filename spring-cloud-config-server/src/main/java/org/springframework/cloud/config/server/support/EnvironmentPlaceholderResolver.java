@@ -0,0 +1,230 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.support;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.environment.PropertyValueDescriptor;
+
+/**
+ * Resolves <code>${...}</code> placeholders against the properties of an
+ * {@link Environment}. The property sources are flattened into a single index when the
+ * resolver is created, so every lookup is a single hash lookup instead of a scan of all
+ * property sources, and resolved property values are remembered, so a resolver can be
+ * shared by all requests for the same environment version.
+ * <p>
+ * The syntax matches {@link EnvironmentPropertySource#resolvePlaceholders}: placeholders
+ * may be nested and may declare a default value after a <code>:</code>, unresolvable
+ * placeholders are left as they are, and <code>\${</code> (or <code>\\${</code> in JSON)
+ * escapes a placeholder in the resolved text. Inside property values only a single
+ * <code>\</code> is an escape, as in a Spring {@code Environment}. Circular references
+ * are rejected with an {@link IllegalArgumentException}. Instances are thread safe.
+ *
+ * @since 4.3.0
+ */
+public class EnvironmentPlaceholderResolver {
+
+	private static final String PREFIX = "${";
+
+	private static final char SUFFIX = '}';
+
+	private static final char SIMPLE_PREFIX = '{';
+
+	private static final char SEPARATOR = ':';
+
+	private static final char ESCAPE = '\\';
+
+	// "\${" (from text) or "\\${" from JSON to signal escaped placeholder
+	private static final int TEXT_ESCAPES = 2;
+
+	private static final int VALUE_ESCAPES = 1;
+
+	private final Map<String, Object> index;
+
+	private final Map<String, String> resolved = new ConcurrentHashMap<>();
+
+	public EnvironmentPlaceholderResolver(Environment environment) {
+		List<PropertySource> sources = environment.getPropertySources();
+		Map<String, Object> index = new HashMap<>();
+		// the first property source wins, like in EnvironmentPropertySource
+		for (PropertySource source : sources) {
+			for (Map.Entry<?, ?> entry : source.getSource().entrySet()) {
+				index.putIfAbsent(String.valueOf(entry.getKey()), entry.getValue());
+			}
+		}
+		this.index = index;
+	}
+
+	/**
+	 * Look up a property without resolving placeholders in its value.
+	 * @param key the property name
+	 * @return the raw value as a String or null if there is no such property
+	 */
+	public String getRawProperty(String key) {
+		Object value = this.index.get(key);
+		if (value instanceof PropertyValueDescriptor descriptor) {
+			value = descriptor.getValue();
+		}
+		return value != null ? value.toString() : null;
+	}
+
+	/**
+	 * Look up a property and resolve the placeholders in its value.
+	 * @param key the property name
+	 * @return the resolved value or null if there is no such property
+	 */
+	public String getProperty(String key) {
+		return resolveProperty(key, new HashSet<>());
+	}
+
+	/**
+	 * Resolve the placeholders in the given text.
+	 * @param text the text to resolve (may be null)
+	 * @return the resolved text
+	 * @throws IllegalArgumentException if the placeholders reference each other in a
+	 * cycle
+	 */
+	public String resolvePlaceholders(String text) {
+		if (text == null || text.indexOf(PREFIX) < 0) {
+			return text;
+		}
+		return parse(text, TEXT_ESCAPES, new HashSet<>());
+	}
+
+	private String parse(String text, int maxEscapes, Set<String> visiting) {
+		int start = text.indexOf(PREFIX);
+		if (start < 0) {
+			return text;
+		}
+		StringBuilder result = new StringBuilder(text.length());
+		int position = 0;
+		while (start >= 0) {
+			int escapes = 0;
+			while (escapes < maxEscapes && start - escapes > position && text.charAt(start - escapes - 1) == ESCAPE) {
+				escapes++;
+			}
+			if (escapes > 0) {
+				// an escaped placeholder is kept literally, without the escape characters
+				result.append(text, position, start - escapes).append(PREFIX);
+				position = start + PREFIX.length();
+			}
+			else {
+				int end = findPlaceholderEnd(text, start + PREFIX.length());
+				if (end < 0) {
+					break;
+				}
+				String placeholder = text.substring(start + PREFIX.length(), end);
+				String value = resolvePlaceholder(placeholder, maxEscapes, visiting);
+				result.append(text, position, start);
+				if (value != null) {
+					result.append(value);
+				}
+				else {
+					// kept as it is, but escapes inside are removed like everywhere else
+					result.append(removeEscapes(text.substring(start, end + 1), maxEscapes));
+				}
+				position = end + 1;
+			}
+			start = text.indexOf(PREFIX, position);
+		}
+		result.append(text, position, text.length());
+		return result.toString();
+	}
+
+	private String resolvePlaceholder(String placeholder, int maxEscapes, Set<String> visiting) {
+		String key = parse(placeholder, maxEscapes, visiting);
+		String value = resolveProperty(key, visiting);
+		if (value == null) {
+			int separator = key.indexOf(SEPARATOR);
+			if (separator >= 0) {
+				value = resolveProperty(key.substring(0, separator), visiting);
+				if (value == null) {
+					value = key.substring(separator + 1);
+				}
+			}
+		}
+		return value;
+	}
+
+	private String resolveProperty(String key, Set<String> visiting) {
+		String value = this.resolved.get(key);
+		if (value != null) {
+			return value;
+		}
+		value = getRawProperty(key);
+		if (value == null) {
+			return null;
+		}
+		if (value.indexOf(PREFIX) >= 0) {
+			if (!visiting.add(key)) {
+				throw new IllegalArgumentException(
+						"Circular placeholder reference '" + key + "' in property definitions");
+			}
+			try {
+				value = parse(value, VALUE_ESCAPES, visiting);
+			}
+			finally {
+				visiting.remove(key);
+			}
+		}
+		// the resolved value of a property does not depend on where it is referenced from
+		this.resolved.put(key, value);
+		return value;
+	}
+
+	private static String removeEscapes(String text, int maxEscapes) {
+		StringBuilder result = new StringBuilder(text.length());
+		int position = 0;
+		int start = text.indexOf(PREFIX);
+		while (start >= 0) {
+			int escapes = 0;
+			while (escapes < maxEscapes && start - escapes > position && text.charAt(start - escapes - 1) == ESCAPE) {
+				escapes++;
+			}
+			result.append(text, position, start - escapes).append(PREFIX);
+			position = start + PREFIX.length();
+			start = text.indexOf(PREFIX, position);
+		}
+		result.append(text, position, text.length());
+		return result.toString();
+	}
+
+	private static int findPlaceholderEnd(String text, int start) {
+		int nested = 0;
+		for (int i = start; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == SIMPLE_PREFIX) {
+				nested++;
+			}
+			else if (c == SUFFIX) {
+				if (nested == 0) {
+					return i;
+				}
+				nested--;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * A bounded, least recently used cache of {@link EnvironmentPlaceholderResolver
+ * resolvers}, so that the property index is built once per environment version rather
+ * than once per request. Environments without a version, or whose content may change
+ * without a new version (see {@link Environment#isCacheable()}), always get a new resolver
+ * because there is no way to tell whether their content changed.
+ *
+ * @since 4.3.0
+ */
+public class EnvironmentPlaceholderResolverCache {
+
+	/**
+	 * Default maximum number of cached resolvers.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 100;
+
+	private final Map<String, EnvironmentPlaceholderResolver> resolvers;
+
+	public EnvironmentPlaceholderResolverCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public EnvironmentPlaceholderResolverCache(int maxSize) {
+		Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+		this.resolvers = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, EnvironmentPlaceholderResolver> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Get a resolver for the given environment.
+	 * @param environment the environment to resolve placeholders against
+	 * @return a resolver, shared with other callers if the environment has a version that
+	 * identifies its content
+	 */
+	public EnvironmentPlaceholderResolver get(Environment environment) {
+		if (!environment.isCacheable() || !StringUtils.hasText(environment.getVersion())) {
+			return new EnvironmentPlaceholderResolver(environment);
+		}
+		String key = String.join("\n", environment.getName(),
+				StringUtils.arrayToCommaDelimitedString(environment.getProfiles()), environment.getLabel(),
+				environment.getVersion(), environment.getState());
+		synchronized (this.resolvers) {
+			EnvironmentPlaceholderResolver resolver = this.resolvers.get(key);
+			if (resolver != null) {
+				return resolver;
+			}
+		}
+		// built without holding the lock, so that other environments are not held up
+		EnvironmentPlaceholderResolver resolver = new EnvironmentPlaceholderResolver(environment);
+		synchronized (this.resolvers) {
+			EnvironmentPlaceholderResolver existing = this.resolvers.putIfAbsent(key, resolver);
+			return existing != null ? existing : resolver;
+		}
+	}
+
+	/**
+	 * Remove all cached resolvers.
+	 */
+	public void clear() {
+		synchronized (this.resolvers) {
+			this.resolvers.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (this.resolvers) {
+			return this.resolvers.size();
+		}
+	}
+
+}
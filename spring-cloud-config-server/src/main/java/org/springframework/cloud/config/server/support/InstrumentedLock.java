@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.support;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link ReentrantLock} that records how often, and for how long, threads had to wait
+ * for it. It guards the sections of the server that do blocking I/O (fetches, checkouts
+ * and reads of a working directory) in place of <code>synchronized</code>: a virtual
+ * thread blocked in or waiting for a monitor pins its carrier thread, while one waiting
+ * for a {@link ReentrantLock} is simply unmounted. Each lock keeps its own statistics,
+ * which {@link InstrumentedLockMeterBinder} publishes under the name of the lock.
+ *
+ * @since 4.3.0
+ */
+public class InstrumentedLock extends ReentrantLock {
+
+	private final String name;
+
+	private final LongAdder acquisitions = new LongAdder();
+
+	private final LongAdder contentions = new LongAdder();
+
+	private final LongAdder waitTime = new LongAdder();
+
+	private final AtomicInteger waiting = new AtomicInteger();
+
+	/**
+	 * Create a lock.
+	 * @param name the name of the lock, used to tag its metrics
+	 */
+	public InstrumentedLock(String name) {
+		this.name = name;
+	}
+
+	@Override
+	public void lock() {
+		this.acquisitions.increment();
+		if (tryLock()) {
+			return;
+		}
+		this.contentions.increment();
+		this.waiting.incrementAndGet();
+		long start = System.nanoTime();
+		try {
+			super.lock();
+		}
+		finally {
+			this.waiting.decrementAndGet();
+			this.waitTime.add(System.nanoTime() - start);
+		}
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * The number of times this lock was locked with {@link #lock()}.
+	 * @return the number of acquisitions
+	 */
+	public long getAcquisitions() {
+		return this.acquisitions.sum();
+	}
+
+	/**
+	 * The number of times a thread had to wait for another one to release this lock.
+	 * @return the number of contended acquisitions
+	 */
+	public long getContentions() {
+		return this.contentions.sum();
+	}
+
+	/**
+	 * The total time threads spent waiting for this lock.
+	 * @param unit the time unit of the result
+	 * @return the total wait time
+	 */
+	public double getWaitTime(TimeUnit unit) {
+		return (double) this.waitTime.sum() / TimeUnit.NANOSECONDS.convert(1, unit);
+	}
+
+	/**
+	 * The number of threads currently waiting for this lock.
+	 * @return the number of waiting threads
+	 */
+	public int getWaiting() {
+		return this.waiting.get();
+	}
+
+	@Override
+	public String toString() {
+		return this.name + ": " + super.toString();
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.support;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes metrics for the {@link InstrumentedLock InstrumentedLocks} that serialize
+ * access to repositories: <code>config.server.locks.acquisitions</code>,
+ * <code>config.server.locks.wait</code> (the acquisitions that had to wait, and for how
+ * long) and <code>config.server.locks.waiting</code>. The meters are tagged with the
+ * <code>lock</code> name, and locks with the same name (e.g. those of several git
+ * repositories) are added up. Nothing is published if there are no locks.
+ *
+ * @since 4.3.0
+ */
+public class InstrumentedLockMeterBinder implements MeterBinder {
+
+	private final Supplier<? extends Collection<InstrumentedLock>> locks;
+
+	/**
+	 * Create a binder for some locks.
+	 * @param locks supplies the locks once the meters are bound, so that their owners
+	 * need not be created before the meter registry
+	 */
+	public InstrumentedLockMeterBinder(Supplier<? extends Collection<InstrumentedLock>> locks) {
+		this.locks = locks;
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Map<String, List<InstrumentedLock>> byName = new LinkedHashMap<>();
+		for (InstrumentedLock lock : this.locks.get()) {
+			byName.computeIfAbsent(lock.getName(), name -> new ArrayList<>()).add(lock);
+		}
+		byName.forEach((name, locks) -> bindTo(registry, name, locks));
+	}
+
+	private void bindTo(MeterRegistry registry, String name, List<InstrumentedLock> locks) {
+		FunctionCounter
+			.builder("config.server.locks.acquisitions", locks, sum(InstrumentedLock::getAcquisitions))
+			.tag("lock", name)
+			.description("Acquisitions of repository locks")
+			.register(registry);
+		FunctionTimer
+			.builder("config.server.locks.wait", locks, InstrumentedLockMeterBinder::getContentions,
+					sum(lock -> lock.getWaitTime(TimeUnit.NANOSECONDS)), TimeUnit.NANOSECONDS)
+			.tag("lock", name)
+			.description("Time spent waiting for repository locks held by other requests")
+			.register(registry);
+		Gauge.builder("config.server.locks.waiting", locks, sum(InstrumentedLock::getWaiting))
+			.tag("lock", name)
+			.description("Requests currently waiting for a repository lock")
+			.register(registry);
+	}
+
+	private static long getContentions(List<InstrumentedLock> locks) {
+		long contentions = 0;
+		for (InstrumentedLock lock : locks) {
+			contentions += lock.getContentions();
+		}
+		return contentions;
+	}
+
+	private static ToDoubleFunction<List<InstrumentedLock>> sum(ToDoubleFunction<InstrumentedLock> value) {
+		return locks -> {
+			double sum = 0;
+			for (InstrumentedLock lock : locks) {
+				sum += value.applyAsDouble(lock);
+			}
+			return sum;
+		};
+	}
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.support;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Negotiates and applies a <code>gzip</code> or <code>deflate</code> content coding for
+ * rendered responses. Compressed bodies are meant to be cached next to the uncompressed
+ * ones, keyed by {@link #getEtag(String, String) a variant of their ETag}, so that each
+ * version of a response is only compressed once.
+ *
+ * @since 4.3.0
+ */
+public class ResponseCompressor {
+
+	/**
+	 * The gzip content coding.
+	 */
+	public static final String GZIP = "gzip";
+
+	/**
+	 * The deflate (zlib) content coding.
+	 */
+	public static final String DEFLATE = "deflate";
+
+	/**
+	 * Default minimum size of a response body for it to be compressed.
+	 */
+	public static final long DEFAULT_MIN_RESPONSE_SIZE = 2048;
+
+	private final long minResponseSize;
+
+	public ResponseCompressor() {
+		this(DEFAULT_MIN_RESPONSE_SIZE);
+	}
+
+	public ResponseCompressor(long minResponseSize) {
+		Assert.isTrue(minResponseSize >= 0, "minResponseSize must not be negative");
+		this.minResponseSize = minResponseSize;
+	}
+
+	public long getMinResponseSize() {
+		return this.minResponseSize;
+	}
+
+	/**
+	 * Choose a content coding for the request and mark the response as varying with the
+	 * <code>Accept-Encoding</code> header, which it does whether or not it ends up
+	 * compressed.
+	 * @param request the current request
+	 * @param response the current response (may be null)
+	 * @return {@link #GZIP}, {@link #DEFLATE} or null if the client accepts neither
+	 */
+	public String negotiate(HttpServletRequest request, HttpServletResponse response) {
+		if (response != null) {
+			response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		}
+		return negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+	}
+
+	/**
+	 * Choose a content coding from an <code>Accept-Encoding</code> header, preferring
+	 * gzip when the client accepts both equally.
+	 * @param acceptEncoding the header value (may be null)
+	 * @return {@link #GZIP}, {@link #DEFLATE} or null if the client accepts neither
+	 */
+	public String negotiate(String acceptEncoding) {
+		if (!StringUtils.hasText(acceptEncoding)) {
+			return null;
+		}
+		double gzip = -1;
+		double deflate = -1;
+		double any = -1;
+		for (String element : StringUtils.tokenizeToStringArray(acceptEncoding, ",")) {
+			String[] parts = StringUtils.tokenizeToStringArray(element, ";");
+			if (parts.length == 0) {
+				continue;
+			}
+			String coding = parts[0].toLowerCase(Locale.ROOT);
+			double quality = getQuality(parts);
+			if (GZIP.equals(coding) || "x-gzip".equals(coding)) {
+				gzip = quality;
+			}
+			else if (DEFLATE.equals(coding)) {
+				deflate = quality;
+			}
+			else if ("*".equals(coding)) {
+				any = quality;
+			}
+		}
+		if (gzip < 0) {
+			gzip = any;
+		}
+		if (deflate < 0) {
+			deflate = any;
+		}
+		if (gzip > 0 && gzip >= deflate) {
+			return GZIP;
+		}
+		return deflate > 0 ? DEFLATE : null;
+	}
+
+	private static double getQuality(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			String parameter = parts[i];
+			if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+				try {
+					return Double.parseDouble(parameter.substring(2));
+				}
+				catch (NumberFormatException ex) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	/**
+	 * Whether a body is large enough to be worth compressing.
+	 * @param length the length of the uncompressed body
+	 * @return true if the body should be compressed
+	 */
+	public boolean shouldCompress(int length) {
+		return length >= this.minResponseSize;
+	}
+
+	/**
+	 * Compress a body.
+	 * @param body the uncompressed body
+	 * @param coding {@link #GZIP} or {@link #DEFLATE}
+	 * @return the compressed body
+	 */
+	public byte[] compress(byte[] body, String coding) {
+		ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(32, body.length / 4));
+		try (OutputStream compressed = GZIP.equals(coding) ? new GZIPOutputStream(output)
+				: new DeflaterOutputStream(output)) {
+			compressed.write(body);
+		}
+		catch (IOException ex) {
+			// cannot happen when writing to memory
+			throw new UncheckedIOException(ex);
+		}
+		return output.toByteArray();
+	}
+
+	/**
+	 * The ETag of the compressed variant of a response. Strong ETags must differ between
+	 * content codings, and the variant ETag doubles as the cache key of the compressed
+	 * body.
+	 * @param etag the ETag of the uncompressed response (may be null)
+	 * @param coding the content coding (may be null)
+	 * @return the ETag of the variant, or the given ETag if there is no coding
+	 */
+	public static String getEtag(String etag, String coding) {
+		if (etag == null || coding == null) {
+			return etag;
+		}
+		if (etag.endsWith("\"")) {
+			return etag.substring(0, etag.length() - 1) + "-" + coding + "\"";
+		}
+		return etag + "-" + coding;
+	}
+
+}
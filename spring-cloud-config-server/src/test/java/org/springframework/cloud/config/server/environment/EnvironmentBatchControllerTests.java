@@ -0,0 +1,187 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class EnvironmentBatchControllerTests {
+
+	private final EnvironmentRepository repository = mock(EnvironmentRepository.class);
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private EnvironmentBatchController controller;
+
+	@BeforeEach
+	public void init() {
+		this.controller = new EnvironmentBatchController(new EnvironmentController(this.repository),
+				this.objectMapper);
+	}
+
+	@Test
+	public void itemsReturnedInOrder() throws Exception {
+		when(this.repository.findOne("foo", "default", null, false)).thenReturn(environment("foo"));
+		when(this.repository.findOne("bar", "dev", "main", false)).thenReturn(environment("bar"));
+		List<Map<String, Object>> result = write(new EnvironmentBatchController.Item("foo", "default", null),
+				new EnvironmentBatchController.Item("bar", "dev", "main"));
+		assertThat(result).hasSize(2);
+		assertThat(result.get(0)).containsEntry("name", "foo").containsKey("environment");
+		assertThat(result.get(1)).containsEntry("label", "main").containsKey("environment");
+		assertThat(environmentOf(result.get(1))).containsEntry("name", "bar");
+	}
+
+	@Test
+	public void failingItemDoesNotFailTheBatch() throws Exception {
+		when(this.repository.findOne("foo", "default", "missing", false))
+			.thenThrow(new NoSuchLabelException("No such label: missing"));
+		when(this.repository.findOne("bar", "default", null, false)).thenReturn(environment("bar"));
+		List<Map<String, Object>> result = write(new EnvironmentBatchController.Item("foo", "default", "missing"),
+				new EnvironmentBatchController.Item(null, "default", null), null,
+				new EnvironmentBatchController.Item("bar", "default", null));
+		assertThat(result).hasSize(4);
+		assertThat(result.get(0)).doesNotContainKey("environment");
+		assertThat(result.get(0).get("error")).isEqualTo(Map.of("status", 404, "message", "No such label: missing"));
+		assertThat(errorOf(result.get(1))).containsEntry("status", 400);
+		assertThat(errorOf(result.get(2))).containsEntry("status", 400);
+		assertThat(result.get(3)).containsKey("environment");
+	}
+
+	@Test
+	public void repositoriesRefreshedOncePerBatch() throws Exception {
+		int[] refreshes = new int[1];
+		when(this.repository.findOne("foo", "default", null, false)).thenAnswer(invocation -> {
+			if (!EnvironmentRefreshBatch.isRefreshed(this.repository)) {
+				refreshes[0]++;
+				EnvironmentRefreshBatch.setRefreshed(this.repository, null);
+			}
+			return environment("foo");
+		});
+		write(new EnvironmentBatchController.Item("foo", "default", null),
+				new EnvironmentBatchController.Item("foo", "default", null));
+		assertThat(refreshes[0]).isEqualTo(1);
+		assertThat(EnvironmentRefreshBatch.isRefreshed(this.repository)).isFalse();
+	}
+
+	@Test
+	public void mappingForBatch() throws Exception {
+		when(this.repository.findOne("foo", "default", null, false)).thenReturn(environment("foo"));
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(this.controller).build();
+		MvcResult result = mvc
+			.perform(MockMvcRequestBuilders.post("/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"name\":\"foo\",\"profiles\":\"default\"}]"))
+			.andExpect(MockMvcResultMatchers.request().asyncStarted())
+			.andReturn();
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
+			.andExpect(MockMvcResultMatchers.jsonPath("$[0].environment.name").value("foo"));
+	}
+
+	@Test
+	public void tooManyItemsRejected() throws Exception {
+		this.controller.setMaxSize(1);
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(this.controller).build();
+		mvc.perform(MockMvcRequestBuilders.post("/batch")
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("[{\"name\":\"foo\",\"profiles\":\"default\"},{\"name\":\"bar\",\"profiles\":\"default\"}]"))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest());
+	}
+
+	@Test
+	public void invalidItemsRejected() throws Exception {
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(this.controller).build();
+		mvc.perform(MockMvcRequestBuilders.post("/batch")
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("[{\"name\":\"foo\",\"profiles\":\"default\"},null]"))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest());
+		mvc.perform(MockMvcRequestBuilders.post("/batch")
+			.contentType(MediaType.APPLICATION_JSON)
+			.content("[{\"name\":\"foo\"}]"))
+			.andExpect(MockMvcResultMatchers.status().isBadRequest());
+		verifyNoInteractions(this.repository);
+	}
+
+	@Test
+	public void requestAvailableWhileWriting() throws Exception {
+		List<String> tokens = new ArrayList<>();
+		when(this.repository.findOne("foo", "default", null, false)).thenAnswer(invocation -> {
+			tokens.add(RequestConfigToken.get());
+			return environment("foo");
+		});
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(this.controller).build();
+		MvcResult result = mvc
+			.perform(MockMvcRequestBuilders.post("/batch")
+				.header(ConfigClientProperties.TOKEN_HEADER, "token")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"name\":\"foo\",\"profiles\":\"default\"}]"))
+			.andExpect(MockMvcResultMatchers.request().asyncStarted())
+			.andReturn();
+		mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+			.andExpect(MockMvcResultMatchers.jsonPath("$[0].environment.name").value("foo"));
+		assertThat(tokens).containsExactly("token");
+	}
+
+	private List<Map<String, Object>> write(EnvironmentBatchController.Item... items) throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		this.controller.write(Arrays.asList(items), output);
+		return this.objectMapper.readValue(output.toByteArray(), new TypeReference<>() {
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> environmentOf(Map<String, Object> item) {
+		return (Map<String, Object>) item.get("environment");
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> errorOf(Map<String, Object> item) {
+		return (Map<String, Object>) item.get("error");
+	}
+
+	private static Environment environment(String name) {
+		Environment environment = new Environment(name, "default");
+		environment.add(new PropertySource("one", Collections.singletonMap("a", "b")));
+		return environment;
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.config.environment.Environment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EnvironmentCacheControlTests {
+
+	private static final String COMMIT = "0123456789abcdef0123456789abcdef01234567";
+
+	@Test
+	public void maxAgeWithStaleWhileRevalidate() {
+		EnvironmentCacheControl cacheControl = new EnvironmentCacheControl(Duration.ofSeconds(30));
+		cacheControl.setStaleWhileRevalidate(Duration.ofSeconds(60));
+		assertThat(cacheControl.getHeaderValue(environment("main", COMMIT)))
+			.isEqualTo("max-age=30, stale-while-revalidate=60");
+	}
+
+	@Test
+	public void revalidateWithoutMaxAge() {
+		EnvironmentCacheControl cacheControl = new EnvironmentCacheControl(null);
+		cacheControl.setCachePublic(true);
+		assertThat(cacheControl.getHeaderValue(environment("main", COMMIT))).isEqualTo("no-cache, public");
+	}
+
+	@Test
+	public void commitIdLabelIsImmutable() {
+		EnvironmentCacheControl cacheControl = new EnvironmentCacheControl(Duration.ofSeconds(30));
+		assertThat(cacheControl.getHeaderValue(environment(COMMIT, COMMIT)))
+			.isEqualTo("max-age=31536000, immutable");
+		// a label that only looks like a commit id but was not built from it
+		assertThat(cacheControl.getHeaderValue(environment(COMMIT, "v2"))).isEqualTo("max-age=30");
+	}
+
+	@Test
+	public void noStoreWins() {
+		EnvironmentCacheControl cacheControl = new EnvironmentCacheControl(Duration.ofSeconds(30));
+		cacheControl.setNoStore(true);
+		assertThat(cacheControl.getHeaderValue(environment(COMMIT, COMMIT))).isEqualTo("no-store");
+	}
+
+	@Test
+	public void refreshIntervalFollowsGitRefreshRate() {
+		JGitEnvironmentRepository slow = mock(JGitEnvironmentRepository.class);
+		when(slow.getRefreshRate()).thenReturn(60);
+		JGitEnvironmentRepository fast = mock(JGitEnvironmentRepository.class);
+		when(fast.getRefreshRate()).thenReturn(30);
+		JGitEnvironmentRepository always = mock(JGitEnvironmentRepository.class);
+		assertThat(EnvironmentCacheControl.getRefreshInterval(Arrays.asList(slow, fast)))
+			.isEqualTo(Duration.ofSeconds(30));
+		assertThat(EnvironmentCacheControl.getRefreshInterval(Arrays.asList(slow, always))).isNull();
+		assertThat(EnvironmentCacheControl.getRefreshInterval(
+				Arrays.asList(slow, mock(NativeEnvironmentRepository.class))))
+			.isNull();
+	}
+
+	@Test
+	public void secretBackendsAreDetected() {
+		assertThat(EnvironmentCacheControl.containsSecrets(
+				Arrays.asList(mock(JGitEnvironmentRepository.class), mock(CredhubEnvironmentRepository.class))))
+			.isTrue();
+		assertThat(EnvironmentCacheControl
+			.containsSecrets(Collections.singletonList(mock(VaultEnvironmentRepository.class)))).isTrue();
+		assertThat(EnvironmentCacheControl
+			.containsSecrets(Collections.singletonList(mock(JGitEnvironmentRepository.class)))).isFalse();
+	}
+
+	private static Environment environment(String label, String version) {
+		return new Environment("foo", new String[] { "default" }, label, version, null);
+	}
+
+}
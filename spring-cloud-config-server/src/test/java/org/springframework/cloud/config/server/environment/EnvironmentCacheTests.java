@@ -0,0 +1,108 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.environment.PropertyValueDescriptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EnvironmentCacheTests {
+
+	private final EnvironmentCache cache = new EnvironmentCache(2);
+
+	@Test
+	public void hitForSameVersion() {
+		this.cache.put("repo", "foo", "bar", "main", false, "v1", environment("a", "b"));
+		Environment cached = this.cache.get("repo", "foo", "bar", "main", false, "v1");
+		assertThat(cached).isNotNull();
+		assertThat(cached.getPropertySources().get(0).getSource()).containsEntry("a", "b");
+		assertThat(this.cache.getHits()).isEqualTo(1);
+		assertThat(this.cache.getMisses()).isEqualTo(0);
+	}
+
+	@Test
+	public void newVersionEvictsStaleEntry() {
+		this.cache.put("repo", "foo", "bar", "main", false, "v1", environment("a", "b"));
+		assertThat(this.cache.get("repo", "foo", "bar", "main", false, "v2")).isNull();
+		assertThat(this.cache.size()).isEqualTo(0);
+		assertThat(this.cache.get("repo", "foo", "bar", "main", false, "v1")).isNull();
+		assertThat(this.cache.getMisses()).isEqualTo(2);
+		assertThat(this.cache.getEvictions()).isEqualTo(1);
+	}
+
+	@Test
+	public void keyIncludesOriginFlagAndSource() {
+		this.cache.put("repo", "foo", "bar", "main", false, "v1", environment("a", "b"));
+		assertThat(this.cache.get("repo", "foo", "bar", "main", true, "v1")).isNull();
+		assertThat(this.cache.get("other", "foo", "bar", "main", false, "v1")).isNull();
+	}
+
+	@Test
+	public void unversionedEnvironmentsAreNotCached() {
+		this.cache.put("repo", "foo", "bar", "main", false, null, environment("a", "b"));
+		this.cache.put("repo", "foo", "bar", "main", false, "", environment("a", "b"));
+		assertThat(this.cache.size()).isEqualTo(0);
+		assertThat(this.cache.getPuts()).isEqualTo(0);
+	}
+
+	@Test
+	public void leastRecentlyUsedEntryIsEvicted() {
+		this.cache.put("repo", "one", "default", "main", false, "v1", environment("a", "1"));
+		this.cache.put("repo", "two", "default", "main", false, "v1", environment("a", "2"));
+		this.cache.get("repo", "one", "default", "main", false, "v1");
+		this.cache.put("repo", "three", "default", "main", false, "v1", environment("a", "3"));
+		assertThat(this.cache.size()).isEqualTo(2);
+		assertThat(this.cache.get("repo", "two", "default", "main", false, "v1")).isNull();
+		assertThat(this.cache.get("repo", "one", "default", "main", false, "v1")).isNotNull();
+		assertThat(this.cache.getEvictions()).isEqualTo(1);
+	}
+
+	@Test
+	public void cachedEnvironmentIsNotSharedWithCallers() {
+		Environment environment = new Environment("foo", new String[] { "bar" }, "main", "v1", null);
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("a", new PropertyValueDescriptor("b", "origin"));
+		environment.add(new PropertySource("one", map));
+		this.cache.put("repo", "foo", "bar", "main", true, "v1", environment);
+		map.clear();
+
+		Environment first = this.cache.get("repo", "foo", "bar", "main", true, "v1");
+		((PropertyValueDescriptor) first.getPropertySources().get(0).getSource().get("a")).setOrigin("changed");
+		first.addFirst(new PropertySource("overrides", Collections.singletonMap("x", "y")));
+
+		Environment second = this.cache.get("repo", "foo", "bar", "main", true, "v1");
+		assertThat(second.getVersion()).isEqualTo("v1");
+		assertThat(second.getPropertySources()).hasSize(1);
+		assertThat(((PropertyValueDescriptor) second.getPropertySources().get(0).getSource().get("a")).getOrigin())
+			.isEqualTo("origin");
+	}
+
+	private Environment environment(String key, String value) {
+		Environment environment = new Environment("foo", "bar");
+		environment.add(new PropertySource("one", Collections.singletonMap(key, value)));
+		return environment;
+	}
+
+}
@@ -16,14 +16,20 @@
 
 package org.springframework.cloud.config.server.environment;
 
+import java.io.ByteArrayInputStream;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.zip.GZIPInputStream;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -33,7 +39,10 @@ import org.skyscreamer.jsonassert.JSONCompareMode;
 import org.yaml.snakeyaml.Yaml;
 
 import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.EnvironmentMediaType;
 import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.server.support.ResponseCompressor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -46,8 +55,11 @@ import org.springframework.web.util.pattern.PathPatternParser;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.entry;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -467,6 +479,16 @@ class EnvironmentControllerTests {
 		JSONAssert.assertEquals("{\"a\":{\"b\":{\"c\":\"bar\"}},\"foo\":\"bar\"}", json, JSONCompareMode.STRICT);
 	}
 
+	@Test
+	public void resolvedPlaceholdersEscapedInJson() throws Exception {
+		this.environment.add(new PropertySource("one", Collections.singletonMap("foo", "say \"hi\"")));
+		this.environment.addFirst(new PropertySource("two", Collections.singletonMap("a.b.c", "${foo}")));
+		when(this.repository.findOne("foo", "bar", null, false)).thenReturn(this.environment);
+		String json = this.controller.jsonProperties("foo", "bar", true).getBody();
+		JSONAssert.assertEquals("{\"a\":{\"b\":{\"c\":\"say \\\"hi\\\"\"}},\"foo\":\"say \\\"hi\\\"\"}", json,
+				JSONCompareMode.STRICT);
+	}
+
 	@Test
 	public void placeholdersNotResolvedInJson() throws Exception {
 		whenPlaceholders();
@@ -656,6 +678,330 @@ class EnvironmentControllerTests {
 
 		}
 
+		@Test
+		public void binaryEnvironment() throws Exception {
+			EnvironmentControllerTests.this.environment.setVersion("v1");
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, true))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			byte[] body = this.mvc
+				.perform(MockMvcRequestBuilders.get("/foo/bar").accept(EnvironmentMediaType.V2_SMILE))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.content().contentType(EnvironmentMediaType.V2_SMILE))
+				.andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.ETAG))
+				.andReturn()
+				.getResponse()
+				.getContentAsByteArray();
+			Environment environment = new ObjectMapper(new SmileFactory()).readValue(body, Environment.class);
+			assertThat(environment.getName()).isEqualTo("foo");
+			assertThat(environment.getVersion()).isEqualTo("v1");
+			assertThat(environment.getPropertySources()).hasSize(1);
+		}
+
+		@Test
+		public void anyMediaTypeStillGetsJson() throws Exception {
+			when(EnvironmentControllerTests.this.repository.findOne(eq("foo"), eq("bar"), isNull(), anyBoolean()))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			String contentType = this.mvc.perform(MockMvcRequestBuilders.get("/foo/bar").accept(MediaType.ALL))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andReturn()
+				.getResponse()
+				.getContentType();
+			assertThat(contentType).contains("json");
+		}
+
+		@Test
+		public void unresolvablePropertiesRejectedBeforeBodyWritten() throws Exception {
+			Map<String, Object> map = new LinkedHashMap<>();
+			map.put("a", "${b}");
+			map.put("b", "${a}");
+			EnvironmentControllerTests.this.environment.add(new PropertySource("one", map));
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.properties"))
+				.andExpect(MockMvcResultMatchers.status().isBadRequest())
+				.andExpect(MockMvcResultMatchers.content().string(""));
+		}
+
+		@Test
+		public void overloadedReturnsServiceUnavailableWithRetryAfter() throws Exception {
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenThrow(new EnvironmentOverloadedException("busy", Duration.ofMillis(1500)));
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo/bar"))
+				.andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+				.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.RETRY_AFTER, "2"));
+		}
+
+		@Test
+		public void notModifiedForMatchingEtag() throws Exception {
+			EnvironmentControllerTests.this.environment.setVersion("v1");
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			String etag = this.mvc.perform(MockMvcRequestBuilders.get("/foo/bar"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.ETAG))
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo/bar").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(MockMvcResultMatchers.status().isNotModified())
+				.andExpect(MockMvcResultMatchers.content().string(""));
+		}
+
+		@Test
+		public void cacheControlOnFreshAndNotModifiedResponses() throws Exception {
+			EnvironmentCacheControl cacheControl = new EnvironmentCacheControl(Duration.ofSeconds(30));
+			cacheControl.setStaleWhileRevalidate(Duration.ofSeconds(60));
+			EnvironmentControllerTests.this.controller.setCacheControl(cacheControl);
+			EnvironmentControllerTests.this.environment.setVersion("v1");
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			String etag = this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.yml"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header()
+					.string(HttpHeaders.CACHE_CONTROL, "max-age=30, stale-while-revalidate=60"))
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.yml").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(MockMvcResultMatchers.status().isNotModified())
+				.andExpect(MockMvcResultMatchers.header()
+					.string(HttpHeaders.CACHE_CONTROL, "max-age=30, stale-while-revalidate=60"));
+		}
+
+		@Test
+		public void etagChangesWithVersion() throws Exception {
+			EnvironmentControllerTests.this.environment.setVersion("v1");
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			String etag = this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.yml"))
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+			EnvironmentControllerTests.this.environment.setVersion("v2");
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.yml").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, not(etag)));
+		}
+
+		@Test
+		public void etagDependsOnRepresentation() throws Exception {
+			EnvironmentControllerTests.this.environment.setVersion("v1");
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			String etag = this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.yml"))
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.properties").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+		}
+
+		@Test
+		public void noEtagWithoutVersion() throws Exception {
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo/bar"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.ETAG));
+		}
+
+		@Test
+		public void noEtagForUncacheableEnvironment() throws Exception {
+			EnvironmentControllerTests.this.environment.setVersion("v1");
+			EnvironmentControllerTests.this.environment.setCacheable(false);
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo/bar"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.ETAG));
+		}
+
+		@Test
+		public void mappingForYamlWithPlaceholders() throws Exception {
+			whenPlaceholders();
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.yml"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.content().contentType(MediaType.TEXT_PLAIN))
+				.andExpect(MockMvcResultMatchers.content().string("foo: bar\na:\n  b:\n    c: bar\n"));
+		}
+
+		@Test
+		public void cachedResponseServedForSameVersion() throws Exception {
+			EnvironmentResponseCache cache = new EnvironmentResponseCache();
+			EnvironmentControllerTests.this.controller.setResponseCache(cache);
+			EnvironmentControllerTests.this.environment.setVersion("v1");
+			EnvironmentControllerTests.this.environment
+				.add(new PropertySource("one", Collections.singletonMap("a.b.c", "d")));
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			for (int i = 0; i < 2; i++) {
+				this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.yml"))
+					.andExpect(MockMvcResultMatchers.status().isOk())
+					.andExpect(MockMvcResultMatchers.content().contentType(MediaType.TEXT_PLAIN))
+					.andExpect(MockMvcResultMatchers.content().string("a:\n  b:\n    c: d\n"));
+			}
+			assertThat(cache.getPuts()).isEqualTo(1);
+			assertThat(cache.getHits()).isEqualTo(1);
+		}
+
+		@Test
+		public void cachedResponseRenderedAgainForNewVersion() throws Exception {
+			EnvironmentResponseCache cache = new EnvironmentResponseCache();
+			EnvironmentControllerTests.this.controller.setResponseCache(cache);
+			Map<String, Object> map = new HashMap<>();
+			map.put("a.b.c", "d");
+			EnvironmentControllerTests.this.environment.setVersion("v1");
+			EnvironmentControllerTests.this.environment.add(new PropertySource("one", map));
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.properties"))
+				.andExpect(MockMvcResultMatchers.content().string("a.b.c: d"));
+			map.put("a.b.c", "e");
+			EnvironmentControllerTests.this.environment.setVersion("v2");
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.properties"))
+				.andExpect(MockMvcResultMatchers.content().string("a.b.c: e"));
+			assertThat(cache.getHits()).isZero();
+			assertThat(cache.getPuts()).isEqualTo(2);
+		}
+
+		@Test
+		public void uncacheableResponseRenderedAgain() throws Exception {
+			EnvironmentResponseCache cache = new EnvironmentResponseCache();
+			EnvironmentControllerTests.this.controller.setResponseCache(cache);
+			Map<String, Object> map = new HashMap<>();
+			map.put("a.b.c", "d");
+			EnvironmentControllerTests.this.environment.setVersion("v1");
+			EnvironmentControllerTests.this.environment.setCacheable(false);
+			EnvironmentControllerTests.this.environment.add(new PropertySource("one", map));
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.properties"))
+				.andExpect(MockMvcResultMatchers.content().string("a.b.c: d"));
+			// e.g. an uncommitted change in the working tree of a local git repository
+			map.put("a.b.c", "e");
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.properties"))
+				.andExpect(MockMvcResultMatchers.content().string("a.b.c: e"));
+			assertThat(cache.getPuts()).isZero();
+		}
+
+		@Test
+		public void cachedEnvironmentKeepsMediaType() throws Exception {
+			EnvironmentResponseCache cache = new EnvironmentResponseCache();
+			EnvironmentControllerTests.this.controller.setResponseCache(cache);
+			EnvironmentControllerTests.this.environment.setVersion("v1");
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, true))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			for (int i = 0; i < 2; i++) {
+				this.mvc.perform(MockMvcRequestBuilders.get("/foo/bar").accept(EnvironmentMediaType.V2_JSON))
+					.andExpect(MockMvcResultMatchers.status().isOk())
+					.andExpect(MockMvcResultMatchers.content().contentType(EnvironmentMediaType.V2_JSON))
+					.andExpect(MockMvcResultMatchers.jsonPath("$.name").value("foo"))
+					.andExpect(MockMvcResultMatchers.jsonPath("$.version").value("v1"));
+			}
+			assertThat(cache.getHits()).isEqualTo(1);
+		}
+
+		@Test
+		public void warmedUpResponseServedFromCache() throws Exception {
+			EnvironmentResponseCache cache = new EnvironmentResponseCache();
+			EnvironmentRequestHistory history = new EnvironmentRequestHistory();
+			EnvironmentControllerTests.this.controller.setResponseCache(cache);
+			EnvironmentControllerTests.this.controller.setRequestHistory(history);
+			EnvironmentControllerTests.this.environment.setVersion("v1");
+			when(EnvironmentControllerTests.this.repository.findOne(eq("foo"), eq("bar"), isNull(), anyBoolean()))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			EnvironmentControllerTests.this.controller.warmUp("foo", "bar", null);
+			assertThat(cache.getPuts()).isEqualTo(2);
+			assertThat(history.size()).isZero();
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo/bar").accept(EnvironmentMediaType.V2_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.name").value("foo"));
+			assertThat(cache.getHits()).isEqualTo(1);
+			assertThat(cache.getPuts()).isEqualTo(2);
+			assertThat(history.getMostRequested(1))
+				.containsExactly(new EnvironmentRequestHistory.Request("foo", "bar", null));
+		}
+
+		@Test
+		public void unversionedResponseNotCached() throws Exception {
+			EnvironmentResponseCache cache = new EnvironmentResponseCache();
+			EnvironmentControllerTests.this.controller.setResponseCache(cache);
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.json"))
+				.andExpect(MockMvcResultMatchers.status().isOk());
+			assertThat(cache.size()).isZero();
+		}
+
+		@Test
+		public void compressedResponseCachedForSameVersion() throws Exception {
+			EnvironmentResponseCache cache = new EnvironmentResponseCache();
+			EnvironmentControllerTests.this.controller.setResponseCache(cache);
+			EnvironmentControllerTests.this.controller.setCompressor(new ResponseCompressor(0));
+			EnvironmentControllerTests.this.environment.setVersion("v1");
+			EnvironmentControllerTests.this.environment
+				.add(new PropertySource("one", Collections.singletonMap("a.b.c", "d")));
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			for (int i = 0; i < 2; i++) {
+				MvcResult result = this.mvc
+					.perform(MockMvcRequestBuilders.get("/foo-bar.yml").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+					.andExpect(MockMvcResultMatchers.status().isOk())
+					.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+					.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+					.andReturn();
+				assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).endsWith("-gzip\"");
+				byte[] compressed = result.getResponse().getContentAsByteArray();
+				byte[] body = new GZIPInputStream(new ByteArrayInputStream(compressed)).readAllBytes();
+				assertThat(new String(body, StandardCharsets.UTF_8)).isEqualTo("a:\n  b:\n    c: d\n");
+			}
+			// the plain and the compressed body, each rendered once
+			assertThat(cache.getPuts()).isEqualTo(2);
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo-bar.yml"))
+				.andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+				.andExpect(MockMvcResultMatchers.content().string("a:\n  b:\n    c: d\n"));
+		}
+
+		@Test
+		public void smallResponseNotCompressed() throws Exception {
+			EnvironmentControllerTests.this.controller.setCompressor(new ResponseCompressor());
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo/bar").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.name").value("foo"));
+		}
+
+		@Test
+		public void deltaSinceRecordedVersion() throws Exception {
+			EnvironmentControllerTests.this.controller.setSnapshots(new EnvironmentSnapshots());
+			Map<String, Object> map = new LinkedHashMap<>();
+			map.put("a", "b");
+			map.put("c", "d");
+			EnvironmentControllerTests.this.environment.setVersion("v1");
+			EnvironmentControllerTests.this.environment.add(new PropertySource("one", map));
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false))
+				.thenReturn(EnvironmentControllerTests.this.environment);
+			this.mvc.perform(MockMvcRequestBuilders.get("/foo/bar"))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.jsonPath("$.reset").doesNotExist());
+			Environment changed = new Environment("foo", new String[] { "bar" }, null, "v2", null);
+			changed.add(new PropertySource("one", Map.of("a", "e")));
+			when(EnvironmentControllerTests.this.repository.findOne("foo", "bar", null, false)).thenReturn(changed);
+			this.mvc
+				.perform(MockMvcRequestBuilders.get("/foo/bar")
+					.param("since", "v1")
+					.accept(EnvironmentMediaType.DELTA_JSON))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.content().contentType(EnvironmentMediaType.DELTA_JSON))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.version").value("v2"))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.since").value("v1"))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.reset").value(false))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.propertySources[0].changed.a").value("e"))
+				.andExpect(MockMvcResultMatchers.jsonPath("$.propertySources[0].removed[0]").value("c"));
+		}
+
 		@Test
 		public void handleEnvironmentException() throws Exception {
 			when(EnvironmentControllerTests.this.repository.findOne(eq("exception"), eq("bad_syntax.ext"), any(),
@@ -18,6 +18,7 @@ package org.springframework.cloud.config.server.environment;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import io.micrometer.observation.ObservationRegistry;
@@ -29,6 +30,7 @@ import org.mockito.Mockito;
 
 import org.springframework.cloud.config.environment.Environment;
 import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.server.encryption.EnvironmentEncryptor;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
@@ -81,4 +83,39 @@ public class EnvironmentEncryptorEnvironmentRepositoryTests {
 			.toString()).isEqualTo("{foo=${bar}}");
 	}
 
+	@Test
+	public void decryptedEnvironmentNotCacheable() {
+		this.environment.add(new PropertySource("one", Map.of("password", "{cipher}secret")));
+		this.environment.setVersion("v1");
+		this.controller = new EnvironmentEncryptorEnvironmentRepository(this.repository,
+				List.of(copy("{cipher}secret", "secret")), ObservationRegistry.NOOP);
+		when(this.repository.findOne("foo", "bar", "master", false)).thenReturn(this.environment);
+		Environment decrypted = this.controller.findOne("foo", "bar", "master", false);
+		assertThat(decrypted.getPropertySources().get(0).getSource()).containsEntry("password", "secret");
+		assertThat(decrypted.isCacheable()).isFalse();
+		assertThat(this.environment.isCacheable()).isTrue();
+	}
+
+	@Test
+	public void environmentWithoutEncryptedValuesStaysCacheable() {
+		this.environment.add(new PropertySource("one", Map.of("password", "secret")));
+		this.environment.setVersion("v1");
+		this.controller = new EnvironmentEncryptorEnvironmentRepository(this.repository,
+				List.of(copy("{cipher}secret", "secret")), ObservationRegistry.NOOP);
+		when(this.repository.findOne("foo", "bar", "master", false)).thenReturn(this.environment);
+		assertThat(this.controller.findOne("foo", "bar", "master", false).isCacheable()).isTrue();
+	}
+
+	private static EnvironmentEncryptor copy(String encrypted, String decrypted) {
+		return environment -> {
+			Environment result = new Environment(environment);
+			for (PropertySource source : environment.getPropertySources()) {
+				Map<Object, Object> map = new HashMap<>(source.getSource());
+				map.replaceAll((key, value) -> encrypted.equals(value) ? decrypted : value);
+				result.add(new PropertySource(source.getName(), map));
+			}
+			return result;
+		};
+	}
+
 }
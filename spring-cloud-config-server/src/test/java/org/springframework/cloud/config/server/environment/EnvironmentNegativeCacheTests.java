@@ -0,0 +1,161 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class EnvironmentNegativeCacheTests {
+
+	private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+	private final EnvironmentNegativeCache cache = new EnvironmentNegativeCache(2, Duration.ofSeconds(10));
+
+	private final AtomicInteger calls = new AtomicInteger();
+
+	@BeforeEach
+	public void init() {
+		this.cache.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+	}
+
+	@Test
+	public void unknownLabelIsRememberedUntilItExpires() {
+		for (int i = 0; i < 3; i++) {
+			assertThatExceptionOfType(NoSuchLabelException.class)
+				.isThrownBy(() -> this.cache.findOne("foo", "default", "missing", this::noSuchLabel));
+		}
+		assertThat(this.calls).hasValue(1);
+		assertThat(this.cache.getHits()).isEqualTo(2);
+
+		this.cache.setClock(Clock.fixed(NOW.plusSeconds(10), ZoneOffset.UTC));
+		assertThatExceptionOfType(NoSuchLabelException.class)
+			.isThrownBy(() -> this.cache.findOne("foo", "default", "missing", this::noSuchLabel));
+		assertThat(this.calls).hasValue(2);
+		assertThat(this.cache.getEvictions()).isEqualTo(1);
+	}
+
+	@Test
+	public void unknownRepositoryIsRemembered() {
+		for (int i = 0; i < 2; i++) {
+			assertThatExceptionOfType(NoSuchRepositoryException.class)
+				.isThrownBy(() -> this.cache.findOne("foo", "default", "main", () -> {
+					this.calls.incrementAndGet();
+					throw new NoSuchRepositoryException("No such repository");
+				}));
+		}
+		assertThat(this.calls).hasValue(1);
+	}
+
+	@Test
+	public void applicationWithoutFilesIsRemembered() {
+		Environment first = this.cache.findOne("foo", "default", "main", () -> environment(false));
+		Environment second = this.cache.findOne("foo", "default", "main", () -> environment(false));
+		assertThat(this.calls).hasValue(1);
+		assertThat(second).isNotSameAs(first);
+		assertThat(second.getName()).isEqualTo("foo");
+		assertThat(second.getVersion()).isEqualTo("v1");
+		assertThat(second.getPropertySources()).isEmpty();
+	}
+
+	@Test
+	public void positiveResultsAndOtherFailuresAreNotCached() {
+		this.cache.findOne("foo", "default", "main", () -> environment(true));
+		this.cache.findOne("foo", "default", "main", () -> environment(true));
+		for (int i = 0; i < 2; i++) {
+			assertThatExceptionOfType(IllegalStateException.class)
+				.isThrownBy(() -> this.cache.findOne("bar", "default", "main", () -> {
+					this.calls.incrementAndGet();
+					throw new IllegalStateException("Cannot load environment");
+				}));
+		}
+		assertThat(this.calls).hasValue(4);
+		assertThat(this.cache.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void changeEventClearsMatchingApplications() {
+		this.cache.findOne("foo", "default", "main", () -> environment(false));
+		this.cache.findOne("bar", "default", "main", () -> environment(false));
+		this.cache.onApplicationEvent(new EnvironmentChangedEvent(this, "foo"));
+		assertThat(this.cache.size()).isEqualTo(1);
+		this.cache.onApplicationEvent(new EnvironmentChangedEvent(this, "*"));
+		assertThat(this.cache.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void cacheIsBounded() {
+		this.cache.findOne("one", "default", "main", () -> environment(false));
+		this.cache.findOne("two", "default", "main", () -> environment(false));
+		this.cache.findOne("three", "default", "main", () -> environment(false));
+		assertThat(this.cache.size()).isEqualTo(2);
+		assertThat(this.cache.getEvictions()).isEqualTo(1);
+	}
+
+	@Test
+	public void resultsAreNotSharedBetweenTokens() {
+		try {
+			setToken("one");
+			this.cache.findOne("foo", "default", "main", () -> environment(false));
+			this.cache.findOne("foo", "default", "main", () -> environment(false));
+			setToken("two");
+			this.cache.findOne("foo", "default", "main", () -> environment(false));
+		}
+		finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+		assertThat(this.calls).hasValue(2);
+		assertThat(this.cache.size()).isEqualTo(2);
+	}
+
+	private void setToken(String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader(ConfigClientProperties.TOKEN_HEADER, token);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+
+	private Environment noSuchLabel() {
+		this.calls.incrementAndGet();
+		throw new NoSuchLabelException("No such label: missing");
+	}
+
+	private Environment environment(boolean withFiles) {
+		this.calls.incrementAndGet();
+		Environment environment = new Environment("foo", new String[] { "default" }, "main", "v1", null);
+		if (withFiles) {
+			environment.add(new PropertySource("application.yml", Collections.singletonMap("a", "b")));
+		}
+		return environment;
+	}
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EnvironmentRequestCoalescerTests {
+
+	private final EnvironmentRequestCoalescer coalescer = new EnvironmentRequestCoalescer();
+
+	private final EnvironmentRepository delegate = mock(EnvironmentRepository.class);
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+	@AfterEach
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void concurrentIdenticalCallsShareOneExecution() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		Future<Environment> leader = this.executor.submit(() -> this.coalescer.findOne(this.delegate, "foo", "bar",
+				"main", false, () -> {
+					calls.incrementAndGet();
+					started.countDown();
+					await(release);
+					return environment();
+				}));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		Thread follower = new Thread(() -> {
+			Environment environment = this.coalescer.findOne(this.delegate, "foo", "bar", "main", false, () -> {
+				calls.incrementAndGet();
+				return environment();
+			});
+			environment.addFirst(new PropertySource("overrides", Collections.singletonMap("x", "y")));
+		});
+		follower.start();
+		while (this.coalescer.getCoalesced() == 0) {
+			Thread.sleep(10);
+		}
+		release.countDown();
+		follower.join(5000);
+		assertThat(leader.get(5, TimeUnit.SECONDS).getPropertySources()).hasSize(1);
+		assertThat(calls).hasValue(1);
+		assertThat(this.coalescer.getExecutions()).isEqualTo(1);
+		assertThat(this.coalescer.getInFlight()).isZero();
+	}
+
+	@Test
+	public void sequentialCallsAreNotShared() {
+		CoalescingEnvironmentRepository repository = new CoalescingEnvironmentRepository(this.delegate,
+				this.coalescer);
+		when(this.delegate.findOne("foo", "bar", "main", false)).thenReturn(environment());
+		repository.findOne("foo", "bar", "main");
+		repository.findOne("foo", "bar", "main");
+		assertThat(this.coalescer.getExecutions()).isEqualTo(2);
+		assertThat(this.coalescer.getCoalesced()).isZero();
+	}
+
+	@Test
+	public void waitersReceiveTheException() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Environment> leader = this.executor.submit(() -> this.coalescer.findOne(this.delegate, "foo", "bar",
+				"main", false, () -> {
+					started.countDown();
+					await(release);
+					throw new NoSuchLabelException("missing");
+				}));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		Thread releaser = new Thread(() -> {
+			while (this.coalescer.getCoalesced() == 0) {
+				Thread.onSpinWait();
+			}
+			release.countDown();
+		});
+		releaser.start();
+		assertThatThrownBy(() -> this.coalescer.findOne(this.delegate, "foo", "bar", "main", false, () -> null))
+			.isInstanceOf(NoSuchLabelException.class);
+		releaser.join(5000);
+		assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(NoSuchLabelException.class);
+	}
+
+	@Test
+	public void callsWithDifferentTokensAreNotShared() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		Future<Environment> leader = this.executor.submit(() -> withToken("one",
+				() -> this.coalescer.findOne(this.delegate, "foo", "bar", "main", false, () -> {
+					calls.incrementAndGet();
+					started.countDown();
+					await(release);
+					return environment();
+				})));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		Environment other = withToken("two",
+				() -> this.coalescer.findOne(this.delegate, "foo", "bar", "main", false, () -> {
+					calls.incrementAndGet();
+					return new Environment("foo", "bar");
+				}));
+		release.countDown();
+		assertThat(leader.get(5, TimeUnit.SECONDS).getPropertySources()).hasSize(1);
+		assertThat(other.getPropertySources()).isEmpty();
+		assertThat(calls).hasValue(2);
+		assertThat(this.coalescer.getCoalesced()).isZero();
+	}
+
+	private static <T> T withToken(String token, Supplier<T> action) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader(ConfigClientProperties.TOKEN_HEADER, token);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+		try {
+			return action.get();
+		}
+		finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static Environment environment() {
+		Environment environment = new Environment("foo", "bar");
+		environment.add(new PropertySource("one", Collections.singletonMap("a", "b")));
+		return environment;
+	}
+
+}
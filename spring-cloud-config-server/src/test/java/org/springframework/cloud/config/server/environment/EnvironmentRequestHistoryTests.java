@@ -0,0 +1,128 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.cloud.config.server.environment.EnvironmentRequestHistory.Request;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class EnvironmentRequestHistoryTests {
+
+	@TempDir
+	Path dir;
+
+	private final EnvironmentRequestHistory history = new EnvironmentRequestHistory(3);
+
+	@Test
+	public void mostRequestedComeFirst() {
+		this.history.record("foo", "default", null);
+		this.history.record("bar", "dev", "main");
+		this.history.record("bar", "dev", "main");
+		this.history.record("baz", "default", null);
+		this.history.record("bar", "dev", "main");
+		this.history.record("baz", "default", null);
+		assertThat(this.history.getMostRequested(2)).containsExactly(new Request("bar", "dev", "main"),
+				new Request("baz", "default", null));
+	}
+
+	@Test
+	public void numberOfTrackedEnvironmentsIsBounded() {
+		this.history.record("one", "default", null);
+		this.history.record("two", "default", null);
+		this.history.record("three", "default", null);
+		this.history.record("four", "default", null);
+		this.history.record("one", "default", null);
+		assertThat(this.history.size()).isEqualTo(3);
+		assertThat(this.history.getMostRequested(10)).first().isEqualTo(new Request("one", "default", null));
+		assertThat(this.history.getMostRequested(10)).doesNotContain(new Request("four", "default", null));
+	}
+
+	@Test
+	public void hotEnvironmentStaysOnTopOfManyColdOnes() {
+		for (int i = 0; i < 20; i++) {
+			this.history.record("hot", "default", null);
+		}
+		for (int i = 0; i < 5000; i++) {
+			this.history.record("cold" + i, "default", null);
+		}
+		assertThat(this.history.size()).isEqualTo(3);
+		assertThat(this.history.getMostRequested(1)).containsExactly(new Request("hot", "default", null));
+		assertThat(this.history.estimate("hot", "default", null)).isGreaterThanOrEqualTo(20);
+	}
+
+	@Test
+	public void countsAreHalvedPeriodically() {
+		EnvironmentRequestHistory history = new EnvironmentRequestHistory(1);
+		for (int i = 0; i < 10 * 1024; i++) {
+			history.record("foo", "default", null);
+		}
+		assertThat(history.estimate("foo", "default", null)).isEqualTo(5 * 1024);
+	}
+
+	@Test
+	public void newlyHotEnvironmentReplacesColdestOne() {
+		this.history.record("one", "default", null);
+		this.history.record("two", "default", null);
+		this.history.record("three", "default", null);
+		this.history.record("four", "default", null);
+		this.history.record("four", "default", null);
+		assertThat(this.history.getMostRequested(10)).first().isEqualTo(new Request("four", "default", null));
+		assertThat(this.history.size()).isEqualTo(3);
+	}
+
+	@Test
+	public void historySurvivesRestart() throws Exception {
+		Path file = this.dir.resolve("history.txt");
+		this.history.record("foo", "default", null);
+		this.history.record("bar", "dev", "feature/x");
+		this.history.record("bar", "dev", "feature/x");
+		this.history.save(file, 10);
+
+		EnvironmentRequestHistory restarted = new EnvironmentRequestHistory();
+		restarted.load(file);
+		restarted.record("foo", "default", null);
+		restarted.record("foo", "default", null);
+		List<Request> requests = restarted.getMostRequested(10);
+		assertThat(requests).containsExactly(new Request("foo", "default", null),
+				new Request("bar", "dev", "feature/x"));
+	}
+
+	@Test
+	public void missingOrCorruptFilesAreIgnored() throws Exception {
+		this.history.load(this.dir.resolve("missing.txt"));
+		Path file = this.dir.resolve("corrupt.txt");
+		Files.writeString(file, "garbage\nx\tfoo\tdefault\t\n3\tbar\tdefault\t\n");
+		this.history.load(file);
+		assertThat(this.history.getMostRequested(10)).containsExactly(new Request("bar", "default", null));
+	}
+
+	@Test
+	public void parseRequest() {
+		assertThat(Request.parse("foo/dev,db")).isEqualTo(new Request("foo", "dev,db", null));
+		assertThat(Request.parse("foo/dev/feature/x")).isEqualTo(new Request("foo", "dev", "feature/x"));
+		assertThatIllegalArgumentException().isThrownBy(() -> Request.parse("foo"));
+	}
+
+}
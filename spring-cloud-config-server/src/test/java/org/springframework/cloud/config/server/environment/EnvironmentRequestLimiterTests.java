@@ -0,0 +1,148 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.config.environment.Environment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+public class EnvironmentRequestLimiterTests {
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@AfterEach
+	public void close() {
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void admitsUpToMaxConcurrent() {
+		EnvironmentRequestLimiter limiter = new EnvironmentRequestLimiter(2, 0);
+		Environment environment = limiter.findOne("foo", () -> new Environment("foo", "default"));
+		assertThat(environment.getName()).isEqualTo("foo");
+		assertThat(limiter.getActive()).isZero();
+		assertThat(limiter.getAdmitted()).isEqualTo(1);
+	}
+
+	@Test
+	public void rejectsWhenQueueIsFull() throws Exception {
+		EnvironmentRequestLimiter limiter = new EnvironmentRequestLimiter(1, 0);
+		limiter.setRetryAfter(Duration.ofSeconds(7));
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Environment> busy = hold(limiter, "foo", release);
+		waitUntil(() -> limiter.getActive() == 1);
+		assertThatExceptionOfType(EnvironmentOverloadedException.class)
+			.isThrownBy(() -> limiter.findOne("bar", () -> new Environment("bar", "default")))
+			.satisfies(ex -> assertThat(ex.getRetryAfterSeconds()).isEqualTo("7"));
+		assertThat(limiter.getRejectedQueueFull()).isEqualTo(1);
+		release.countDown();
+		busy.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void rejectsAfterMaxWait() throws Exception {
+		EnvironmentRequestLimiter limiter = new EnvironmentRequestLimiter(1, 10);
+		limiter.setMaxWait(Duration.ofMillis(50));
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Environment> busy = hold(limiter, "foo", release);
+		waitUntil(() -> limiter.getActive() == 1);
+		assertThatExceptionOfType(EnvironmentOverloadedException.class)
+			.isThrownBy(() -> limiter.findOne("bar", () -> new Environment("bar", "default")));
+		assertThat(limiter.getRejectedTimeout()).isEqualTo(1);
+		assertThat(limiter.getQueued()).isZero();
+		release.countDown();
+		busy.get(5, TimeUnit.SECONDS);
+		assertThat(limiter.getActive()).isZero();
+	}
+
+	@Test
+	public void limitsQueuePerApplication() throws Exception {
+		EnvironmentRequestLimiter limiter = new EnvironmentRequestLimiter(1, 10);
+		limiter.setMaxQueuedPerApplication(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Environment> busy = hold(limiter, "foo", release);
+		waitUntil(() -> limiter.getActive() == 1);
+		Future<Environment> queued = hold(limiter, "foo", new CountDownLatch(0));
+		waitUntil(() -> limiter.getQueued() == 1);
+		assertThatExceptionOfType(EnvironmentOverloadedException.class)
+			.isThrownBy(() -> limiter.findOne("foo", () -> new Environment("foo", "default")));
+		release.countDown();
+		busy.get(5, TimeUnit.SECONDS);
+		queued.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void admitsWaitingApplicationsRoundRobin() throws Exception {
+		EnvironmentRequestLimiter limiter = new EnvironmentRequestLimiter(1, 10);
+		List<String> order = new CopyOnWriteArrayList<>();
+		CountDownLatch release = new CountDownLatch(1);
+		Future<Environment> busy = hold(limiter, "busy", release);
+		waitUntil(() -> limiter.getActive() == 1);
+		String[] applications = { "foo", "foo", "foo", "bar" };
+		Future<?>[] waiting = new Future<?>[applications.length];
+		for (int i = 0; i < applications.length; i++) {
+			String application = applications[i];
+			waiting[i] = this.executor.submit(() -> limiter.findOne(application, () -> {
+				order.add(application);
+				return new Environment(application, "default");
+			}));
+			int queued = i + 1;
+			waitUntil(() -> limiter.getQueued() == queued);
+		}
+		release.countDown();
+		busy.get(5, TimeUnit.SECONDS);
+		for (Future<?> future : waiting) {
+			future.get(5, TimeUnit.SECONDS);
+		}
+		assertThat(order).containsExactly("foo", "bar", "foo", "foo");
+	}
+
+	private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime()).as("timed out waiting").isLessThan(deadline);
+			Thread.sleep(5);
+		}
+	}
+
+	private Future<Environment> hold(EnvironmentRequestLimiter limiter, String application, CountDownLatch release) {
+		return this.executor.submit(() -> limiter.findOne(application, () -> {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return new Environment(application, "default");
+		}));
+	}
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.config.server.environment.EnvironmentRequestsEndpoint.EnvironmentRequestDescriptor;
+import org.springframework.cloud.config.server.environment.EnvironmentRequestsEndpoint.EnvironmentRequestsDescriptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EnvironmentRequestsEndpointTests {
+
+	private final EnvironmentRequestHistory history = new EnvironmentRequestHistory();
+
+	private final EnvironmentRequestsEndpoint endpoint = new EnvironmentRequestsEndpoint(this.history);
+
+	@Test
+	public void listsMostRequestedEnvironments() {
+		this.history.record("foo", "default", null);
+		this.history.record("bar", "dev", "main");
+		this.history.record("bar", "dev", "main");
+		EnvironmentRequestsDescriptor descriptor = this.endpoint.environmentRequests(null);
+		assertThat(descriptor.getEnvironments()).extracting(EnvironmentRequestDescriptor::getName)
+			.containsExactly("bar", "foo");
+		EnvironmentRequestDescriptor first = descriptor.getEnvironments().get(0);
+		assertThat(first.getProfiles()).isEqualTo("dev");
+		assertThat(first.getLabel()).isEqualTo("main");
+		assertThat(first.getCount()).isEqualTo(2);
+		assertThat(this.endpoint.environmentRequests(1).getEnvironments()).hasSize(1);
+	}
+
+}
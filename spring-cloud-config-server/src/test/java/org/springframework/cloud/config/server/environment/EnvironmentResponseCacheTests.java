@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EnvironmentResponseCacheTests {
+
+	private final EnvironmentResponseCache cache = new EnvironmentResponseCache(10);
+
+	@Test
+	public void hitReturnsStoredBytes() {
+		byte[] body = new byte[] { 1, 2, 3 };
+		this.cache.put("a", body);
+		assertThat(this.cache.get("a")).isSameAs(body);
+		assertThat(this.cache.get("b")).isNull();
+		assertThat(this.cache.getHits()).isEqualTo(1);
+		assertThat(this.cache.getMisses()).isEqualTo(1);
+		assertThat(this.cache.getBytes()).isEqualTo(3);
+	}
+
+	@Test
+	public void leastRecentlyUsedEvictedWhenFull() {
+		this.cache.put("a", new byte[4]);
+		this.cache.put("b", new byte[4]);
+		this.cache.get("a");
+		this.cache.put("c", new byte[4]);
+		assertThat(this.cache.get("b")).isNull();
+		assertThat(this.cache.get("a")).isNotNull();
+		assertThat(this.cache.get("c")).isNotNull();
+		assertThat(this.cache.getBytes()).isEqualTo(8);
+		assertThat(this.cache.getEvictions()).isEqualTo(1);
+	}
+
+	@Test
+	public void replacingEntryUpdatesSize() {
+		this.cache.put("a", new byte[4]);
+		this.cache.put("a", new byte[6]);
+		assertThat(this.cache.size()).isEqualTo(1);
+		assertThat(this.cache.getBytes()).isEqualTo(6);
+	}
+
+	@Test
+	public void oversizedBodyNotStored() {
+		this.cache.put("a", new byte[11]);
+		assertThat(this.cache.size()).isZero();
+		assertThat(this.cache.getBytes()).isZero();
+	}
+
+}
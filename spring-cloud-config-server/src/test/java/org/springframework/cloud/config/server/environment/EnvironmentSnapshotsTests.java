@@ -0,0 +1,143 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.EnvironmentDelta;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.environment.PropertySourceDelta;
+import org.springframework.cloud.config.environment.PropertyValueDescriptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class EnvironmentSnapshotsTests {
+
+	private final EnvironmentSnapshots snapshots = new EnvironmentSnapshots(10, 2);
+
+	@Test
+	public void deltaContainsAddedChangedAndRemovedKeys() {
+		this.snapshots.record("foo", "default", null,
+				environment("v1", "application.yml", "a", "1", "b", "2", "c", "3"));
+		Environment current = environment("v2", "application.yml", "a", "1", "b", "20", "d", "4");
+		EnvironmentDelta delta = this.snapshots.getDelta("foo", "default", null, current, "v1");
+		assertThat(delta.isReset()).isFalse();
+		assertThat(delta.getSince()).isEqualTo("v1");
+		assertThat(delta.getVersion()).isEqualTo("v2");
+		assertThat(delta.getPropertySources()).hasSize(1);
+		PropertySourceDelta source = delta.getPropertySources().get(0);
+		assertThat(source.getName()).isEqualTo("application.yml");
+		assertThat(source.getAdded()).containsExactly(entry("d", "4"));
+		assertThat(source.getChanged()).containsExactly(entry("b", "20"));
+		assertThat(source.getRemoved()).containsExactly("c");
+	}
+
+	@Test
+	public void removedPropertySourcesListedLast() {
+		this.snapshots.record("foo", "default", null, environment("v1", "foo.yml", "a", "1"));
+		Environment current = environment("v2", "application.yml", "b", "2");
+		EnvironmentDelta delta = this.snapshots.getDelta("foo", "default", null, current, "v1");
+		assertThat(delta.getPropertySources()).extracting(PropertySourceDelta::getName)
+			.containsExactly("application.yml", "foo.yml");
+		assertThat(delta.getPropertySources().get(0).getAdded()).containsExactly(entry("b", "2"));
+		assertThat(delta.getPropertySources().get(1).getRemoved()).containsExactly("a");
+	}
+
+	@Test
+	public void unknownVersionIsReset() {
+		Environment current = environment("v2", "application.yml", "a", "1");
+		EnvironmentDelta delta = this.snapshots.getDelta("foo", "default", null, current, "v1");
+		assertThat(delta.isReset()).isTrue();
+		assertThat(delta.getPropertySources().get(0).getAdded()).containsExactly(entry("a", "1"));
+	}
+
+	@Test
+	public void originsIgnored() {
+		Environment previous = new Environment("foo", new String[] { "default" }, null, "v1", null);
+		Map<Object, Object> map = new LinkedHashMap<>();
+		map.put("a", new PropertyValueDescriptor("1", "application.yml:1:3"));
+		previous.add(new PropertySource("application.yml", map));
+		this.snapshots.record("foo", "default", null, previous);
+		Environment current = environment("v2", "application.yml", "a", "1");
+		EnvironmentDelta delta = this.snapshots.getDelta("foo", "default", null, current, "v1");
+		assertThat(delta.getPropertySources().get(0).isEmpty()).isTrue();
+	}
+
+	@Test
+	public void oldestVersionsEvicted() {
+		this.snapshots.record("foo", "default", null, environment("v1", "application.yml", "a", "1"));
+		this.snapshots.record("foo", "default", null, environment("v2", "application.yml", "a", "2"));
+		this.snapshots.record("foo", "default", null, environment("v3", "application.yml", "a", "3"));
+		Environment current = environment("v3", "application.yml", "a", "3");
+		assertThat(this.snapshots.getDelta("foo", "default", null, current, "v1").isReset()).isTrue();
+		assertThat(this.snapshots.getDelta("foo", "default", null, current, "v2").isReset()).isFalse();
+		assertThat(this.snapshots.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void uncacheableEnvironmentNotRecorded() {
+		Environment previous = environment("v1", "application.yml", "a", "1");
+		previous.setCacheable(false);
+		this.snapshots.record("foo", "default", null, previous);
+		assertThat(this.snapshots.size()).isZero();
+		this.snapshots.record("foo", "default", null, environment("v1", "application.yml", "a", "1"));
+		Environment current = environment("v2", "application.yml", "a", "2");
+		current.setCacheable(false);
+		assertThat(this.snapshots.getDelta("foo", "default", null, current, "v1").isReset()).isTrue();
+	}
+
+	@Test
+	public void snapshotsKeptPerToken() {
+		Environment current = environment("v2", "application.yml", "a", "2");
+		try {
+			setToken("one");
+			this.snapshots.record("foo", "default", null, environment("v1", "application.yml", "a", "1"));
+			assertThat(this.snapshots.getDelta("foo", "default", null, current, "v1").isReset()).isFalse();
+			setToken("two");
+			assertThat(this.snapshots.getDelta("foo", "default", null, current, "v1").isReset()).isTrue();
+		}
+		finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+
+	private void setToken(String token) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader(ConfigClientProperties.TOKEN_HEADER, token);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+
+	private static Environment environment(String version, String name, String... keysAndValues) {
+		Environment environment = new Environment("foo", new String[] { "default" }, null, version, null);
+		Map<Object, Object> map = new LinkedHashMap<>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			map.put(keysAndValues[i], keysAndValues[i + 1]);
+		}
+		environment.add(new PropertySource(name, map));
+		return environment;
+	}
+
+}
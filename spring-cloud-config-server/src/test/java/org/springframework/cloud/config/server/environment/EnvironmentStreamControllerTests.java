@@ -0,0 +1,190 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class EnvironmentStreamControllerTests {
+
+	private final EnvironmentRepository repository = mock(EnvironmentRepository.class);
+
+	private EnvironmentStreamController controller;
+
+	private MockMvc mvc;
+
+	@BeforeEach
+	public void init() {
+		this.controller = new EnvironmentStreamController(new EnvironmentController(this.repository),
+				Duration.ofHours(1));
+		this.controller.setSender(Runnable::run);
+		this.mvc = MockMvcBuilders.standaloneSetup(this.controller).build();
+	}
+
+	@AfterEach
+	public void close() {
+		this.controller.destroy();
+	}
+
+	@Test
+	public void currentVersionSentOnSubscribe() throws Exception {
+		when(this.repository.findOne("foo", "default", "main", false)).thenReturn(environment("v1"));
+		MvcResult result = subscribe("/stream/foo/default/main");
+		assertThat(result.getResponse().getContentAsString()).contains("id:v1\nevent:change\ndata:")
+			.contains("\"version\":\"v1\"");
+		assertThat(this.controller.getSubscribers()).isEqualTo(1);
+	}
+
+	@Test
+	public void nothingSentWhenClientHoldsCurrentVersion() throws Exception {
+		when(this.repository.findOne("foo", "default", null, false)).thenReturn(environment("v1"));
+		MvcResult result = this.mvc
+			.perform(MockMvcRequestBuilders.get("/stream/foo/default")
+				.accept(MediaType.TEXT_EVENT_STREAM)
+				.header("Last-Event-ID", "v1"))
+			.andExpect(MockMvcResultMatchers.request().asyncStarted())
+			.andReturn();
+		assertThat(result.getResponse().getContentAsString()).doesNotContain("event:change");
+	}
+
+	@Test
+	public void changeSentOnceWhenVersionChanges() throws Exception {
+		when(this.repository.findOne("foo", "default", null, false)).thenReturn(environment("v1"),
+				environment("v2"));
+		MvcResult first = subscribe("/stream/foo/default");
+		MvcResult second = subscribe("/stream/foo/default");
+		this.controller.checkForChanges();
+		this.controller.checkForChanges();
+		for (MvcResult result : new MvcResult[] { first, second }) {
+			String content = result.getResponse().getContentAsString();
+			assertThat(content).contains("id:v1").contains("id:v2");
+			assertThat(content.indexOf("id:v2")).isEqualTo(content.lastIndexOf("id:v2"));
+		}
+	}
+
+	@Test
+	public void subscribersWithDifferentTokensCheckedSeparately() throws Exception {
+		// the version is the token the environment was loaded with
+		when(this.repository.findOne("foo", "default", null, false))
+			.thenAnswer(invocation -> environment(RequestConfigToken.get()));
+		MvcResult alice = subscribe("/stream/foo/default", "alice");
+		MvcResult bob = subscribe("/stream/foo/default", "bob");
+		this.controller.checkForChanges();
+		assertThat(alice.getResponse().getContentAsString()).contains("id:alice").doesNotContain("id:bob");
+		assertThat(bob.getResponse().getContentAsString()).contains("id:bob").doesNotContain("id:alice");
+	}
+
+	@Test
+	public void heartbeatSentToSubscribers() throws Exception {
+		when(this.repository.findOne("foo", "default", null, false)).thenReturn(environment("v1"));
+		MvcResult result = subscribe("/stream/foo/default");
+		this.controller.heartbeat();
+		assertThat(result.getResponse().getContentAsString()).endsWith(":\n\n");
+	}
+
+	@Test
+	public void subscriberNotReadingDropped() throws Exception {
+		List<Runnable> writes = new ArrayList<>();
+		this.controller.setSender(writes::add);
+		when(this.repository.findOne("foo", "default", null, false)).thenReturn(environment("v1"));
+		subscribe("/stream/foo/default");
+		this.controller.heartbeat();
+		writes.forEach(Runnable::run);
+		writes.clear();
+		this.controller.heartbeat();
+		assertThat(this.controller.getSubscribers()).isEqualTo(1);
+		// the last heartbeat has not been written yet
+		this.controller.heartbeat();
+		assertThat(this.controller.getSubscribers()).isZero();
+	}
+
+	@Test
+	public void subscribeWithRealEmitter() throws Exception {
+		when(this.repository.findOne("foo", "default", null, false)).thenReturn(environment("v1"));
+		SseEmitter emitter = this.controller.subscribe("foo", "default", null, null);
+		assertThat(emitter).isNotNull();
+		assertThat(this.controller.getSubscribers()).isEqualTo(1);
+		assertThat(this.controller.subscribe("foo", "default", null, "v1")).isNotNull();
+		assertThat(this.controller.getSubscribers()).isEqualTo(2);
+	}
+
+	@Test
+	public void failedSubscriptionNotCounted() {
+		when(this.repository.findOne("foo", "default", "missing", false))
+			.thenThrow(new NoSuchLabelException("No such label: missing"));
+		assertThatExceptionOfType(NoSuchLabelException.class)
+			.isThrownBy(() -> this.controller.subscribe("foo", "default", "missing", null));
+		assertThat(this.controller.getSubscribers()).isZero();
+	}
+
+	@Test
+	public void subscribersLimited() throws Exception {
+		this.controller.setMaxSubscribers(1);
+		when(this.repository.findOne("foo", "default", null, false)).thenReturn(environment("v1"));
+		subscribe("/stream/foo/default");
+		this.mvc.perform(MockMvcRequestBuilders.get("/stream/foo/default").accept(MediaType.TEXT_EVENT_STREAM))
+			.andExpect(MockMvcResultMatchers.status().isServiceUnavailable());
+		assertThat(this.controller.getSubscribers()).isEqualTo(1);
+	}
+
+	@Test
+	public void changedEventMatchesApplication() {
+		assertThat(new EnvironmentChangedEvent(this, "foo").matches("bar,foo")).isTrue();
+		assertThat(new EnvironmentChangedEvent(this, "foo").matches("bar")).isFalse();
+		assertThat(new EnvironmentChangedEvent(this, "*").matches("bar")).isTrue();
+	}
+
+	private MvcResult subscribe(String url) throws Exception {
+		return this.mvc.perform(MockMvcRequestBuilders.get(url).accept(MediaType.TEXT_EVENT_STREAM))
+			.andExpect(MockMvcResultMatchers.request().asyncStarted())
+			.andReturn();
+	}
+
+	private MvcResult subscribe(String url, String token) throws Exception {
+		return this.mvc
+			.perform(MockMvcRequestBuilders.get(url)
+				.accept(MediaType.TEXT_EVENT_STREAM)
+				.header(ConfigClientProperties.TOKEN_HEADER, token))
+			.andExpect(MockMvcResultMatchers.request().asyncStarted())
+			.andReturn();
+	}
+
+	private static Environment environment(String version) {
+		return new Environment("foo", new String[] { "default" }, null, version, null);
+	}
+
+}
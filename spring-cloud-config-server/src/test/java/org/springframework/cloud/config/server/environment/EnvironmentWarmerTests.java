@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.boot.DefaultApplicationArguments;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class EnvironmentWarmerTests {
+
+	@TempDir
+	Path dir;
+
+	private final EnvironmentController controller = mock(EnvironmentController.class);
+
+	private final EnvironmentRequestHistory history = new EnvironmentRequestHistory();
+
+	private final EnvironmentWarmer warmer = new EnvironmentWarmer(this.controller, this.history);
+
+	@AfterEach
+	public void close() {
+		this.warmer.destroy();
+	}
+
+	@Test
+	public void warmsConfiguredAndMostRequestedEnvironmentsBeforeReadiness() throws Exception {
+		this.history.record("bar", "dev", "main");
+		this.warmer.setEnvironments(Arrays.asList("foo/default", "bar/dev/main"));
+		this.warmer.setWaitForReadiness(true);
+		this.warmer.run(new DefaultApplicationArguments());
+		verify(this.controller).warmUp("foo", "default", null);
+		verify(this.controller).warmUp("bar", "dev", "main");
+		assertThat(this.warmer.getWarmed()).isEqualTo(2);
+	}
+
+	@Test
+	public void failuresDoNotStopWarmUp() throws Exception {
+		doThrow(new NoSuchLabelException("No such label")).when(this.controller).warmUp("foo", "default", "missing");
+		this.warmer.setEnvironments(Arrays.asList("foo/default/missing", "bar/default"));
+		this.warmer.setWaitForReadiness(true);
+		this.warmer.run(new DefaultApplicationArguments());
+		verify(this.controller).warmUp("bar", "default", null);
+		assertThat(this.warmer.getFailed()).isEqualTo(1);
+		assertThat(this.warmer.getWarmed()).isEqualTo(1);
+	}
+
+	@Test
+	public void changeEventWarmsAffectedApplications() throws Exception {
+		this.warmer.setEnvironments(Arrays.asList("foo/default", "bar/default"));
+		this.warmer.setWaitForReadiness(true);
+		this.warmer.run(new DefaultApplicationArguments());
+		this.warmer.onApplicationEvent(new EnvironmentChangedEvent(this, "foo"));
+		verify(this.controller, timeout(5000).times(2)).warmUp("foo", "default", null);
+		verify(this.controller, times(1)).warmUp("bar", "default", null);
+	}
+
+	@Test
+	public void noWarmUpOnChangesBeforeStartup() throws Exception {
+		this.warmer.setEnvironments(Arrays.asList("foo/default"));
+		this.warmer.onApplicationEvent(new EnvironmentChangedEvent(this, "*"));
+		this.warmer.destroy();
+		verify(this.controller, never()).warmUp(any(), any(), any());
+	}
+
+	@Test
+	public void historyIsLoadedOnStartupAndSavedOnShutdown() throws Exception {
+		Path file = this.dir.resolve("history.txt");
+		EnvironmentRequestHistory previous = new EnvironmentRequestHistory();
+		previous.record("foo", "default", null);
+		previous.save(file, 10);
+
+		this.warmer.setHistoryFile(file);
+		this.warmer.setWaitForReadiness(true);
+		this.warmer.run(new DefaultApplicationArguments());
+		verify(this.controller).warmUp(eq("foo"), eq("default"), isNull());
+
+		this.history.record("bar", "default", null);
+		this.warmer.destroy();
+		EnvironmentRequestHistory next = new EnvironmentRequestHistory();
+		next.load(file);
+		assertThat(next.size()).isEqualTo(2);
+	}
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.config.client.ConfigClientProperties;
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EnvironmentWatchControllerTests {
+
+	private final EnvironmentRepository repository = mock(EnvironmentRepository.class);
+
+	private EnvironmentWatchController controller;
+
+	private MockMvc mvc;
+
+	@BeforeEach
+	public void init() {
+		this.controller = new EnvironmentWatchController(new EnvironmentController(this.repository),
+				Duration.ofHours(1));
+		this.controller.setLoader(Runnable::run);
+		this.mvc = MockMvcBuilders.standaloneSetup(this.controller).build();
+	}
+
+	@AfterEach
+	public void close() {
+		this.controller.destroy();
+	}
+
+	@Test
+	public void differentVersionReturnedImmediately() throws Exception {
+		when(this.repository.findOne("foo", "default", null, false)).thenReturn(environment("v2"));
+		MvcResult result = watch("/watch/foo/default?version=v1");
+		this.mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("$.version").value("v2"));
+		assertThat(this.controller.getWaiting()).isZero();
+	}
+
+	@Test
+	public void requestHeldUntilVersionChanges() throws Exception {
+		when(this.repository.findOne("foo", "default", "main", false)).thenReturn(environment("v1"),
+				environment("v1"), environment("v2"));
+		MvcResult result = watch("/watch/foo/default/main?version=v1&wait=60");
+		assertThat(this.controller.getWaiting()).isEqualTo(1);
+		this.controller.checkForChanges();
+		assertThat(this.controller.getWaiting()).isEqualTo(1);
+		this.controller.checkForChanges();
+		this.mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("$.version").value("v2"));
+		assertThat(this.controller.getWaiting()).isZero();
+	}
+
+	@Test
+	public void watchedEnvironmentLoadedOncePerCheck() throws Exception {
+		when(this.repository.findOne("foo", "default", null, false)).thenReturn(environment("v1"));
+		watch("/watch/foo/default?version=v1");
+		watch("/watch/foo/default?version=v1");
+		assertThat(this.controller.getWaiting()).isEqualTo(2);
+		this.controller.checkForChanges();
+		verify(this.repository, times(3)).findOne("foo", "default", null, false);
+		assertThat(this.controller.getWaiting()).isEqualTo(2);
+	}
+
+	@Test
+	public void timeoutReturnsNotModified() throws Exception {
+		when(this.repository.findOne("foo", "default", null, false)).thenReturn(environment("v1"));
+		MvcResult result = watch("/watch/foo/default?version=v1&wait=1s");
+		timeout(result);
+		this.mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+			.andExpect(MockMvcResultMatchers.status().isNotModified());
+		assertThat(this.controller.getWaiting()).isZero();
+	}
+
+	@Test
+	public void unversionedEnvironmentReturnedAfterWait() throws Exception {
+		when(this.repository.findOne("foo", "default", null, false)).thenReturn(environment(null));
+		MvcResult result = watch("/watch/foo/default");
+		assertThat(this.controller.getWaiting()).isZero();
+		timeout(result);
+		this.mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("$.name").value("foo"));
+	}
+
+	@Test
+	public void noSuchLabel() throws Exception {
+		when(this.repository.findOne("foo", "default", "missing", false))
+			.thenThrow(new NoSuchLabelException("No such label: missing"));
+		MvcResult result = watch("/watch/foo/default/missing");
+		this.mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+			.andExpect(MockMvcResultMatchers.status().isNotFound());
+	}
+
+	@Test
+	public void currentVersionLoadedOffRequestThread() throws Exception {
+		List<Runnable> loads = new ArrayList<>();
+		this.controller.setLoader(loads::add);
+		when(this.repository.findOne("foo", "default", null, false)).thenReturn(environment("v2"));
+		MvcResult result = watch("/watch/foo/default?version=v1");
+		verify(this.repository, never()).findOne("foo", "default", null, false);
+		assertThat(loads).hasSize(1);
+		loads.get(0).run();
+		this.mvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.jsonPath("$.version").value("v2"));
+	}
+
+	@Test
+	public void requestsWithDifferentTokensWatchedSeparately() throws Exception {
+		// the version is the token the environment was loaded with
+		when(this.repository.findOne("foo", "default", null, false))
+			.thenAnswer(invocation -> environment(RequestConfigToken.get()));
+		watch("/watch/foo/default?version=alice", "alice");
+		watch("/watch/foo/default?version=bob", "bob");
+		assertThat(this.controller.getWaiting()).isEqualTo(2);
+		this.controller.checkForChanges();
+		verify(this.repository, times(4)).findOne("foo", "default", null, false);
+		assertThat(this.controller.getWaiting()).isEqualTo(2);
+	}
+
+	private MvcResult watch(String url) throws Exception {
+		return this.mvc.perform(MockMvcRequestBuilders.get(url).accept(MediaType.APPLICATION_JSON))
+			.andExpect(MockMvcResultMatchers.request().asyncStarted())
+			.andReturn();
+	}
+
+	private MvcResult watch(String url, String token) throws Exception {
+		return this.mvc
+			.perform(MockMvcRequestBuilders.get(url)
+				.accept(MediaType.APPLICATION_JSON)
+				.header(ConfigClientProperties.TOKEN_HEADER, token))
+			.andExpect(MockMvcResultMatchers.request().asyncStarted())
+			.andReturn();
+	}
+
+	private static void timeout(MvcResult result) throws Exception {
+		MockAsyncContext context = (MockAsyncContext) result.getRequest().getAsyncContext();
+		for (AsyncListener listener : context.getListeners()) {
+			listener.onTimeout(new AsyncEvent(context));
+		}
+	}
+
+	private static Environment environment(String version) {
+		return new Environment("foo", new String[] { "default" }, null, version, null);
+	}
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.junit.MockSystemReader;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.util.SystemReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JGitCommitSnapshotsTests {
+
+	@TempDir
+	Path temp;
+
+	private Git git;
+
+	private JGitCommitSnapshots snapshots;
+
+	@BeforeAll
+	public static void initClass() {
+		// mock Git configuration to make tests independent of local Git configuration
+		SystemReader.setInstance(new MockSystemReader());
+	}
+
+	@BeforeEach
+	public void init() throws Exception {
+		this.git = Git.init().setDirectory(this.temp.resolve("repo").toFile()).call();
+		this.snapshots = new JGitCommitSnapshots(this.temp.resolve("commits").toFile(), 1);
+	}
+
+	@AfterEach
+	public void close() {
+		this.git.close();
+	}
+
+	@Test
+	public void extractsFilesOfCommit() throws Exception {
+		write("application.yml", "foo: bar\n");
+		write("config/bar.properties", "bar: foo\n");
+		ObjectId first = commit();
+		write("application.yml", "foo: baz\n");
+		commit();
+
+		File directory = this.snapshots.extract(this.git.getRepository(), first);
+
+		assertThat(directory).isEqualTo(this.snapshots.getDirectory(first.getName()));
+		assertThat(new File(directory, "application.yml")).hasContent("foo: bar");
+		assertThat(new File(directory, "config/bar.properties")).hasContent("bar: foo");
+		assertThat(new File(directory, ".git")).doesNotExist();
+	}
+
+	@Test
+	public void extractsOnlyOnce() throws Exception {
+		write("application.yml", "foo: bar\n");
+		ObjectId commit = commit();
+		File directory = this.snapshots.extract(this.git.getRepository(), commit);
+		File file = new File(directory, "application.yml");
+		Files.writeString(file.toPath(), "changed");
+
+		assertThat(this.snapshots.extract(this.git.getRepository(), commit)).isEqualTo(directory);
+		assertThat(file).hasContent("changed");
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() throws Exception {
+		write("application.yml", "foo: bar\n");
+		ObjectId first = commit();
+		write("application.yml", "foo: baz\n");
+		ObjectId second = commit();
+
+		this.snapshots.extract(this.git.getRepository(), first);
+		File directory = this.snapshots.extract(this.git.getRepository(), second);
+
+		assertThat(this.snapshots.size()).isEqualTo(1);
+		assertThat(new File(directory, "application.yml")).hasContent("foo: baz");
+		// evicted snapshots are kept for a while for requests still reading them
+		assertThat(this.snapshots.getDirectory(first.getName())).isDirectory();
+	}
+
+	@Test
+	public void expiredSnapshotExtractedAgain() throws Exception {
+		write("application.yml", "foo: bar\n");
+		ObjectId first = commit();
+		write("application.yml", "foo: baz\n");
+		ObjectId second = commit();
+		this.snapshots.setRetirement(0, TimeUnit.NANOSECONDS);
+
+		this.snapshots.extract(this.git.getRepository(), first);
+		// evicts and expires the first snapshot right away
+		this.snapshots.extract(this.git.getRepository(), second);
+		assertThat(this.snapshots.getDirectory(first.getName())).doesNotExist();
+		File directory = this.snapshots.extract(this.git.getRepository(), first);
+
+		assertThat(new File(directory, "application.yml")).hasContent("foo: bar");
+		// no expired directories are left behind
+		assertThat(this.temp.resolve("commits").toFile().list()).containsExactly(first.getName());
+	}
+
+	@Test
+	public void extractsOnlyGivenDirectories() throws Exception {
+		write("application.yml", "foo: bar\n");
+		write("config/app/bar.properties", "bar: foo\n");
+		write("conf/bar.properties", "bar: foo\n");
+		write("other/bar.properties", "bar: foo\n");
+		ObjectId commit = commit();
+		JGitCommitSnapshots snapshots = new JGitCommitSnapshots(this.temp.resolve("sparse").toFile(), 1,
+				List.of("config"));
+
+		File directory = snapshots.extract(this.git.getRepository(), commit);
+
+		assertThat(new File(directory, "application.yml")).exists();
+		assertThat(new File(directory, "config/app/bar.properties")).exists();
+		assertThat(new File(directory, "conf")).doesNotExist();
+		assertThat(new File(directory, "other")).doesNotExist();
+	}
+
+	private void write(String path, String content) throws Exception {
+		Path file = this.git.getRepository().getWorkTree().toPath().resolve(path);
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, content);
+	}
+
+	private ObjectId commit() throws Exception {
+		this.git.add().addFilepattern(".").call();
+		return this.git.commit().setMessage("update").call();
+	}
+
+}
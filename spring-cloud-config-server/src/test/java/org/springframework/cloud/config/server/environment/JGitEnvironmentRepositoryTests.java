@@ -79,6 +79,7 @@ import org.springframework.cloud.config.server.support.GitSkipSslValidationCrede
 import org.springframework.cloud.config.server.support.PassphraseCredentialsProvider;
 import org.springframework.cloud.config.server.test.ConfigServerTestUtils;
 import org.springframework.core.env.StandardEnvironment;
+import org.springframework.util.ResourceUtils;
 
 import static junit.framework.TestCase.assertTrue;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -137,6 +138,14 @@ public class JGitEnvironmentRepositoryTests {
 		assertVersion(environment);
 	}
 
+	@Test
+	public void workingTreeOfFileUriIsNotCacheable() {
+		assertThat(this.repository.findOne("bar", "staging", "master").isCacheable()).isFalse();
+		this.repository.setBasedir(this.basedir);
+		this.repository.setCheckoutFree(true);
+		assertThat(this.repository.findOne("bar", "staging", "master").isCacheable()).isTrue();
+	}
+
 	@Test
 	public void nested() throws IOException {
 		String uri = ConfigServerTestUtils.prepareLocalRepo("another-config-repo");
@@ -217,6 +226,184 @@ public class JGitEnvironmentRepositoryTests {
 		assertThat(environment.getPropertySources()).hasSize(6);
 	}
 
+	@Test
+	public void checkoutFreeMultipleLabels() throws Exception {
+		this.repository.setBasedir(this.basedir);
+		this.repository.setCheckoutFree(true);
+		File local = ResourceUtils.getFile(this.repository.getUri());
+		String branch;
+		try (Git git = Git.open(local)) {
+			branch = git.getRepository().getBranch();
+		}
+		Environment environment = this.repository.findOne("bar", "staging", "master,foo,raw");
+		assertThat(environment.getPropertySources()).hasSize(6);
+		assertThat(environment.getPropertySources().get(0).getName())
+			.isEqualTo(this.repository.getUri() + "/bar.properties");
+		try (Git git = Git.open(local)) {
+			assertThat(git.getRepository().getBranch()).isEqualTo(branch);
+		}
+	}
+
+	@Test
+	public void checkoutFreeVersionIsCommitOfLabel() throws Exception {
+		this.repository.setBasedir(this.basedir);
+		this.repository.setCheckoutFree(true);
+		String commitId;
+		try (Git git = Git.open(ResourceUtils.getFile(this.repository.getUri()))) {
+			commitId = git.getRepository().resolve("raw^{commit}").getName();
+		}
+		Environment environment = this.repository.findOne("bar", "staging", "raw");
+		assertThat(environment.getVersion()).isEqualTo(commitId);
+		Environment byCommit = this.repository.findOne("bar", "staging", commitId);
+		assertThat(byCommit.getVersion()).isEqualTo(commitId);
+		assertThat(byCommit.getPropertySources().get(0).getSource())
+			.isEqualTo(environment.getPropertySources().get(0).getSource());
+	}
+
+	@Test
+	public void worktreePerLabel() throws Exception {
+		this.repository.setBasedir(this.basedir);
+		this.repository.setMaxWorktrees(2);
+		Environment environment = this.repository.findOne("bar", "staging", "master,foo,raw");
+		assertThat(environment.getPropertySources()).hasSize(6);
+		assertThat(environment.getPropertySources().get(0).getName())
+			.isEqualTo(this.repository.getUri() + "/bar.properties");
+		File master = ResourceUtils.getFile(this.repository.getLocations("bar", "staging", "master").getLocations()[0]);
+		File raw = ResourceUtils.getFile(this.repository.getLocations("bar", "staging", "raw").getLocations()[0]);
+		assertThat(master).isDirectory();
+		assertThat(raw).isDirectory();
+		assertThat(master).isNotEqualTo(raw);
+	}
+
+	@Test
+	public void backgroundFetchRelievesRequests() throws Exception {
+		JGitFetchScheduler scheduler = mock(JGitFetchScheduler.class);
+		// a plain path is cloned into the basedir, unlike a file: URI
+		this.repository.setUri(ResourceUtils.getFile(this.repository.getUri()).getAbsolutePath());
+		this.repository.setBasedir(this.basedir);
+		this.repository.setRefreshRate(60);
+		this.repository.setBackgroundFetch(true);
+		this.repository.setFetchScheduler(scheduler);
+
+		this.repository.findOne("bar", "staging", "master");
+
+		verify(scheduler).schedule(this.repository);
+		assertThat(this.repository.getLastFetch()).isPositive();
+		try (Git git = Git.open(this.basedir)) {
+			assertThat(this.repository.shouldPull(git)).isFalse();
+		}
+		assertThat(this.repository.fetchInBackground()).isTrue();
+
+		this.repository.destroy();
+		verify(scheduler).unschedule(this.repository);
+	}
+
+	@Test
+	public void destroyedRepositoryNotScheduledByRequestInFlight() throws Exception {
+		JGitFetchScheduler scheduler = new JGitFetchScheduler();
+		this.repository.setUri(ResourceUtils.getFile(this.repository.getUri()).getAbsolutePath());
+		this.repository.setBasedir(this.basedir);
+		this.repository.setRefreshRate(60);
+		this.repository.setBackgroundFetch(true);
+		this.repository.setFetchScheduler(scheduler);
+		try {
+			this.repository.destroy();
+			// a request that was still running when a refresh destroyed the repository
+			this.repository.findOne("bar", "staging", "master");
+			assertThat(scheduler.size()).isZero();
+		}
+		finally {
+			scheduler.destroy();
+		}
+	}
+
+	@Test
+	public void skipUnchangedFetch() throws Exception {
+		File remote = ResourceUtils.getFile(this.repository.getUri());
+		this.repository.setUri(remote.getAbsolutePath());
+		this.repository.setBasedir(this.basedir);
+		this.repository.setSkipUnchangedFetch(true);
+		this.repository.setRefreshRate(60);
+		String version = this.repository.findOne("bar", "staging", "master").getVersion();
+
+		try (Git git = Git.open(remote)) {
+			git.branchCreate().setName("other").call();
+			// the refresh rate has expired
+			this.repository.setLastRefresh(0);
+			this.repository.findOne("bar", "staging", "master");
+			try (Git local = Git.open(this.basedir)) {
+				// master is unchanged, so nothing was fetched
+				assertThat(local.getRepository().exactRef("refs/remotes/origin/other")).isNull();
+			}
+			// the check counts as a refresh
+			assertThat(this.repository.getLastRefresh()).isPositive();
+
+			git.commit().setMessage("Updated master").setAllowEmpty(true).call();
+			this.repository.setLastRefresh(0);
+			assertThat(this.repository.findOne("bar", "staging", "master").getVersion()).isNotEqualTo(version);
+			try (Git local = Git.open(this.basedir)) {
+				assertThat(local.getRepository().exactRef("refs/remotes/origin/other")).isNotNull();
+			}
+		}
+	}
+
+	@Test
+	public void skipUnchangedFetchWithoutRefreshRateStillFetches() throws Exception {
+		File remote = ResourceUtils.getFile(this.repository.getUri());
+		this.repository.setUri(remote.getAbsolutePath());
+		this.repository.setBasedir(this.basedir);
+		this.repository.setSkipUnchangedFetch(true);
+		this.repository.findOne("bar", "staging", "master");
+
+		try (Git git = Git.open(remote)) {
+			git.branchCreate().setName("other").call();
+			this.repository.findOne("bar", "staging", "master");
+			try (Git local = Git.open(this.basedir)) {
+				assertThat(local.getRepository().exactRef("refs/remotes/origin/other")).isNotNull();
+			}
+		}
+	}
+
+	@Test
+	public void checkoutFreeNoSuchLabel() {
+		this.repository.setBasedir(this.basedir);
+		this.repository.setCheckoutFree(true);
+		Assertions.assertThatThrownBy(() -> this.repository.findOne("bar", "staging", "nosuchlabel"))
+			.isInstanceOf(NoSuchLabelException.class);
+	}
+
+	@Test
+	public void shallowCloneOfLabels() throws Exception {
+		this.repository.setUri(ResourceUtils.getFile(this.repository.getUri()).getAbsolutePath());
+		this.repository.setBasedir(this.basedir);
+		this.repository.setCloneDepth(1);
+		this.repository.setCloneLabels(List.of("raw"));
+
+		assertThat(this.repository.findOne("bar", "staging", "raw").getPropertySources()).isNotEmpty();
+		assertThat(this.repository.findOne("bar", "staging", "master").getPropertySources()).isNotEmpty();
+		Assertions.assertThatThrownBy(() -> this.repository.findOne("bar", "staging", "composite"))
+			.isInstanceOf(NoSuchLabelException.class);
+		try (Git git = Git.open(this.basedir)) {
+			assertThat(git.getRepository().getObjectDatabase().getShallowCommits()).isNotEmpty();
+			assertThat(git.getRepository().exactRef("refs/remotes/origin/composite")).isNull();
+		}
+	}
+
+	@Test
+	public void sparseCheckoutOfSearchPaths() throws Exception {
+		this.repository.setBasedir(this.basedir);
+		this.repository.setCheckoutFree(true);
+		this.repository.setSparseCheckout(true);
+		this.repository.setSearchPaths("config/{application}");
+
+		Environment environment = this.repository.findOne("bar", "staging", "master");
+
+		assertThat(environment.getPropertySources()).isNotEmpty();
+		File snapshot = new File(this.basedir.getAbsoluteFile().getParentFile(),
+				this.basedir.getName() + "-commits/" + environment.getVersion());
+		assertThat(new File(snapshot, "bar.properties")).exists();
+	}
+
 	@Test
 	public void basedirExists() throws Exception {
 		assertThat(this.basedir.mkdirs()).isTrue();
@@ -354,6 +541,32 @@ public class JGitEnvironmentRepositoryTests {
 		assertThat(shouldPull).as("shouldPull was true").isFalse();
 	}
 
+	@Test
+	public void shouldPullOncePerBatch() throws Exception {
+		Git git = mock(Git.class);
+		StatusCommand statusCommand = mock(StatusCommand.class);
+		Status status = mock(Status.class);
+		Repository repository = mock(Repository.class);
+		StoredConfig storedConfig = mock(StoredConfig.class);
+
+		when(git.status()).thenReturn(statusCommand);
+		when(git.getRepository()).thenReturn(repository);
+		when(repository.getConfig()).thenReturn(storedConfig);
+		when(storedConfig.getString("remote", "origin", "url")).thenReturn("http://example/git");
+		when(statusCommand.call()).thenReturn(status);
+		when(status.isClean()).thenReturn(true);
+
+		JGitEnvironmentRepository repo = new JGitEnvironmentRepository(this.environment,
+				new JGitEnvironmentProperties(), ObservationRegistry.NOOP);
+
+		try (EnvironmentRefreshBatch batch = EnvironmentRefreshBatch.open()) {
+			assertThat(repo.shouldPull(git)).as("first pull of the batch").isTrue();
+			EnvironmentRefreshBatch.setRefreshed(repo, null);
+			assertThat(repo.shouldPull(git)).as("second pull of the batch").isFalse();
+		}
+		assertThat(repo.shouldPull(git)).as("pull after the batch").isTrue();
+	}
+
 	@Test
 	public void shouldPullTruncatedIndexForcePull() throws Exception {
 		Git git = mock(Git.class);
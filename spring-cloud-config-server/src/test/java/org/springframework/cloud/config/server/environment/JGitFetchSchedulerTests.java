@@ -0,0 +1,102 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JGitFetchSchedulerTests {
+
+	private final JGitFetchScheduler scheduler = new JGitFetchScheduler();
+
+	@AfterEach
+	public void destroy() {
+		this.scheduler.destroy();
+	}
+
+	@Test
+	public void schedulesRepositoriesWithRefreshRateOnce() {
+		JGitEnvironmentRepository repository = mock(JGitEnvironmentRepository.class);
+		when(repository.getRefreshRate()).thenReturn(60);
+		this.scheduler.schedule(repository);
+		this.scheduler.schedule(repository);
+		this.scheduler.schedule(mock(JGitEnvironmentRepository.class));
+		assertThat(this.scheduler.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void unschedulesRepositories() throws Exception {
+		JGitEnvironmentRepository repository = mock(JGitEnvironmentRepository.class);
+		when(repository.getRefreshRate()).thenReturn(1);
+		this.scheduler.schedule(repository);
+		this.scheduler.unschedule(repository);
+		this.scheduler.unschedule(repository);
+		assertThat(this.scheduler.size()).isZero();
+		Thread.sleep(1500);
+		verify(repository, never()).fetchInBackground();
+
+		this.scheduler.schedule(repository);
+		assertThat(this.scheduler.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void destroyedSchedulerSchedulesNothing() {
+		JGitEnvironmentRepository repository = mock(JGitEnvironmentRepository.class);
+		when(repository.getRefreshRate()).thenReturn(60);
+		this.scheduler.destroy();
+		this.scheduler.schedule(repository);
+		assertThat(this.scheduler.size()).isZero();
+	}
+
+	@Test
+	public void recordsFetchesAndFailures() {
+		JGitEnvironmentRepository fetched = mock(JGitEnvironmentRepository.class);
+		when(fetched.fetchInBackground()).thenReturn(true);
+		JGitEnvironmentRepository failed = mock(JGitEnvironmentRepository.class);
+		JGitEnvironmentRepository broken = mock(JGitEnvironmentRepository.class);
+		when(broken.fetchInBackground()).thenThrow(new IllegalStateException("broken"));
+
+		this.scheduler.fetch(fetched);
+		this.scheduler.fetch(failed);
+		this.scheduler.fetch(broken);
+
+		assertThat(this.scheduler.getFetches()).isEqualTo(3);
+		assertThat(this.scheduler.getFailures()).isEqualTo(2);
+		assertThat(this.scheduler.getFetchNanos()).isPositive();
+	}
+
+	@Test
+	public void maxStalenessOfLeastRecentlyFetchedRepository() {
+		long now = System.currentTimeMillis();
+		JGitEnvironmentRepository recent = mock(JGitEnvironmentRepository.class);
+		when(recent.getRefreshRate()).thenReturn(60);
+		when(recent.getLastFetch()).thenReturn(now - 1000);
+		JGitEnvironmentRepository stale = mock(JGitEnvironmentRepository.class);
+		when(stale.getRefreshRate()).thenReturn(60);
+		when(stale.getLastFetch()).thenReturn(now - 120000);
+		this.scheduler.schedule(recent);
+		this.scheduler.schedule(stale);
+		assertThat(this.scheduler.getMaxStaleness()).isBetween(120000L, 180000L);
+	}
+
+}
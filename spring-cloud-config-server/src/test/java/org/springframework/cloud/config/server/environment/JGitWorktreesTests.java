@@ -0,0 +1,154 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.locks.Lock;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.junit.MockSystemReader;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.util.SystemReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+public class JGitWorktreesTests {
+
+	@TempDir
+	Path temp;
+
+	private Git git;
+
+	private JGitWorktrees worktrees;
+
+	@BeforeAll
+	public static void initClass() {
+		// mock Git configuration to make tests independent of local Git configuration
+		SystemReader.setInstance(new MockSystemReader());
+	}
+
+	@BeforeEach
+	public void init() throws Exception {
+		this.git = Git.init().setDirectory(this.temp.resolve("repo").toFile()).call();
+		this.worktrees = new JGitWorktrees(this.temp.resolve("worktrees").toFile(), 1);
+	}
+
+	@AfterEach
+	public void close() {
+		this.git.close();
+	}
+
+	@Test
+	public void labelsHaveWorkingDirectoriesOfTheirOwn() throws Exception {
+		write("application.yml", "foo: bar\n");
+		ObjectId first = commit();
+		write("application.yml", "foo: baz\n");
+		ObjectId second = commit();
+
+		Lock one = this.worktrees.lock("one");
+		Lock two = this.worktrees.lock("two");
+		try {
+			File directory = this.worktrees.checkout("one", this.git.getRepository(), first);
+			File other = this.worktrees.checkout("two", this.git.getRepository(), second);
+
+			assertThat(directory).isNotEqualTo(other);
+			assertThat(new File(directory, "application.yml")).hasContent("foo: bar");
+			assertThat(new File(other, "application.yml")).hasContent("foo: baz");
+			// both are locked, so neither is evicted
+			assertThat(this.worktrees.size()).isEqualTo(2);
+		}
+		finally {
+			one.unlock();
+			two.unlock();
+		}
+	}
+
+	@Test
+	public void workingDirectoryFollowsCommit() throws Exception {
+		write("application.yml", "foo: bar\n");
+		ObjectId first = commit();
+		write("application.yml", "foo: baz\n");
+		write("bar.yml", "bar: foo\n");
+		ObjectId second = commit();
+
+		Lock lock = this.worktrees.lock("main");
+		try {
+			File directory = this.worktrees.checkout("main", this.git.getRepository(), first);
+			assertThat(new File(directory, "bar.yml")).doesNotExist();
+
+			assertThat(this.worktrees.checkout("main", this.git.getRepository(), second)).isEqualTo(directory);
+			assertThat(new File(directory, "application.yml")).hasContent("foo: baz");
+			assertThat(new File(directory, "bar.yml")).hasContent("bar: foo");
+			assertThat(this.worktrees.getDirectory("main")).isEqualTo(directory);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() throws Exception {
+		write("application.yml", "foo: bar\n");
+		ObjectId commit = commit();
+		File directory = checkout("one", commit);
+
+		checkout("two", commit);
+
+		assertThat(this.worktrees.size()).isEqualTo(1);
+		assertThat(this.worktrees.getEvictions()).isEqualTo(1);
+		assertThat(this.worktrees.getDirectory("one")).isNull();
+		assertThat(directory).doesNotExist();
+	}
+
+	@Test
+	public void checkoutRequiresLock() throws Exception {
+		write("application.yml", "foo: bar\n");
+		ObjectId commit = commit();
+		assertThatIllegalStateException()
+			.isThrownBy(() -> this.worktrees.checkout("main", this.git.getRepository(), commit));
+	}
+
+	private File checkout(String label, ObjectId commit) throws Exception {
+		Lock lock = this.worktrees.lock(label);
+		try {
+			return this.worktrees.checkout(label, this.git.getRepository(), commit);
+		}
+		finally {
+			lock.unlock();
+		}
+	}
+
+	private void write(String path, String content) throws Exception {
+		Path file = this.git.getRepository().getWorkTree().toPath().resolve(path);
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, content);
+	}
+
+	private ObjectId commit() throws Exception {
+		this.git.add().addFilepattern(".").call();
+		return this.git.commit().setMessage("update").call();
+	}
+
+}
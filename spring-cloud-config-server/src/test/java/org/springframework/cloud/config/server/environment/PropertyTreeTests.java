@@ -0,0 +1,135 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class PropertyTreeTests {
+
+	private final Environment environment = new Environment("foo", "default");
+
+	@Test
+	public void higherPrecedenceSourcesWin() {
+		source("application-dev.yml", "foo", "dev", "list[0]", "dev0");
+		source("application.yml", "foo", "default", "bar", "spam", "list[0]", "a", "list[1]", "b",
+				"spring.profiles", "dev");
+		PropertyTree tree = PropertyTree.of(this.environment);
+		assertThat(tree.getProperties()).containsExactly(Map.entry("foo", "dev"), Map.entry("bar", "spam"),
+				Map.entry("list[0]", "dev0"));
+	}
+
+	@Test
+	public void nestedMapsAndLists() {
+		source("application.yml", "a.b.c", "d", "a.list[0].name", "x", "a.list[1][1]", "y", "a[b].c", "e");
+		Map<String, Object> map = PropertyTree.of(this.environment).toMap(null);
+		assertThat(map).containsOnlyKeys("a", "a[b]");
+		Map<?, ?> a = (Map<?, ?>) map.get("a");
+		assertThat(a.get("b")).isEqualTo(Map.of("c", "d"));
+		List<?> list = (List<?>) a.get("list");
+		assertThat(list.get(0)).isEqualTo(Map.of("name", "x"));
+		assertThat(list.get(1)).isEqualTo(Arrays.asList(null, "y"));
+		assertThat(map.get("a[b]")).isEqualTo(Map.of("c", "e"));
+	}
+
+	@Test
+	public void compoundKeysForValuesThatAreNotMaps() {
+		source("application.yml", "logging.level.org", "INFO", "logging.level.org.springframework", "DEBUG");
+		Map<String, Object> map = PropertyTree.of(this.environment).toMap(null);
+		assertThat(map.get("logging"))
+			.isEqualTo(Map.of("level", Map.of("org", "INFO", "org.springframework", "DEBUG")));
+	}
+
+	@Test
+	public void invalidKeysRejected() {
+		for (String key : Arrays.asList("a..b", ".a", "[0]", "a[0]b", "a[0][", "a[0][x]", "a[-1]")) {
+			assertThatIllegalArgumentException().as(key).isThrownBy(() -> PropertyTree.Path.parse(key));
+		}
+	}
+
+	@Test
+	public void treeSharedPerVersion() {
+		source("application.yml", "foo", "bar");
+		PropertyTree.Cache cache = new PropertyTree.Cache();
+		assertThat(cache.get(this.environment)).isNotSameAs(cache.get(this.environment));
+		this.environment.setVersion("v1");
+		PropertyTree tree = cache.get(this.environment);
+		assertThat(cache.get(this.environment)).isSameAs(tree);
+		assertThat(tree.toMap(null)).isNotSameAs(tree.toMap(null)).isEqualTo(tree.toMap(null));
+		this.environment.setCacheable(false);
+		assertThat(cache.get(this.environment)).isNotSameAs(tree);
+	}
+
+	@Test
+	public void concurrentRequestsShareOneTree() throws Exception {
+		source("application.yml", "foo", "bar");
+		this.environment.setVersion("v1");
+		PropertyTree.Cache cache = new PropertyTree.Cache();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<PropertyTree>> trees = new ArrayList<>();
+			for (int i = 0; i < 32; i++) {
+				trees.add(executor.submit(() -> cache.get(this.environment)));
+			}
+			PropertyTree tree = cache.get(this.environment);
+			for (Future<PropertyTree> future : trees) {
+				assertThat(future.get(10, TimeUnit.SECONDS)).isSameAs(tree);
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void largeEnvironment() {
+		Map<Object, Object> source = new LinkedHashMap<>();
+		for (int i = 0; i < 10000; i++) {
+			source.put("group" + (i % 100) + ".items[" + (i / 100) + "].name", "value" + i);
+		}
+		this.environment.add(new PropertySource("application.yml", source));
+		Map<String, Object> map = PropertyTree.of(this.environment).toMap(null);
+		assertThat(map).hasSize(100);
+		List<?> items = (List<?>) ((Map<?, ?>) map.get("group42")).get("items");
+		assertThat(items).hasSize(100);
+		assertThat(items.get(99)).isEqualTo(Map.of("name", "value9942"));
+	}
+
+	private void source(String name, String... keysAndValues) {
+		Map<Object, Object> map = new LinkedHashMap<>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			map.put(keysAndValues[i], keysAndValues[i + 1]);
+		}
+		this.environment.add(new PropertySource(name, map));
+	}
+
+}
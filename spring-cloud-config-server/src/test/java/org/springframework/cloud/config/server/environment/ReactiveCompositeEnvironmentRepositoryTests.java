@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.core.Ordered;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class ReactiveCompositeEnvironmentRepositoryTests {
+
+	@Test
+	public void combinesInOrderRegardlessOfCompletion() {
+		ReactiveCompositeEnvironmentRepository composite = new ReactiveCompositeEnvironmentRepository(
+				Arrays.asList(new TestRepository(2, "p2", Duration.ZERO),
+						new TestRepository(1, "p1", Duration.ofMillis(50))),
+				true);
+		Environment environment = composite.findOne("app", "dev", "label").block();
+		assertThat(environment.getPropertySources()).extracting(PropertySource::getName)
+			.containsExactly("p1", "p2");
+	}
+
+	@Test
+	public void singleRepositoryKeepsVersion() {
+		EnvironmentRepository blocking = mock(EnvironmentRepository.class);
+		Environment found = new Environment("app", "dev");
+		found.setVersion("v1");
+		found.setState("state");
+		when(blocking.findOne("app", "dev", "label", false)).thenReturn(found);
+		ReactiveCompositeEnvironmentRepository composite = new ReactiveCompositeEnvironmentRepository(
+				Collections.singletonList(new ReactiveEnvironmentRepositoryAdapter(blocking)), true);
+		Environment environment = composite.findOne("app", "dev", "label").block();
+		assertThat(environment.getVersion()).isEqualTo("v1");
+		assertThat(environment.getState()).isEqualTo("state");
+	}
+
+	@Test
+	public void failOnError() {
+		ReactiveEnvironmentRepository failing = (application, profile, label) -> Mono
+			.error(new IllegalStateException("failed"));
+		TestRepository working = new TestRepository(1, "p1", Duration.ZERO);
+		assertThatExceptionOfType(IllegalStateException.class)
+			.isThrownBy(() -> new ReactiveCompositeEnvironmentRepository(Arrays.asList(working, failing), true)
+				.findOne("app", "dev", "label")
+				.block());
+		Environment environment = new ReactiveCompositeEnvironmentRepository(Arrays.asList(working, failing), false)
+			.findOne("app", "dev", "label")
+			.block();
+		assertThat(environment.getPropertySources()).extracting(PropertySource::getName).containsExactly("p1");
+	}
+
+	@Test
+	public void adapterUsesOrderOfDelegate() {
+		EnvironmentRepository blocking = mock(EnvironmentRepository.class,
+				withSettings().extraInterfaces(Ordered.class));
+		when(((Ordered) blocking).getOrder()).thenReturn(5);
+		assertThat(new ReactiveEnvironmentRepositoryAdapter(blocking).getOrder()).isEqualTo(5);
+	}
+
+	private static final class TestRepository implements ReactiveEnvironmentRepository, Ordered {
+
+		private final int order;
+
+		private final String name;
+
+		private final Duration delay;
+
+		private TestRepository(int order, String name, Duration delay) {
+			this.order = order;
+			this.name = name;
+			this.delay = delay;
+		}
+
+		@Override
+		public Mono<Environment> findOne(String application, String profile, String label) {
+			Environment environment = new Environment(application, profile);
+			environment.add(new PropertySource(this.name, Collections.singletonMap("name", this.name)));
+			return Mono.just(environment).delayElement(this.delay);
+		}
+
+		@Override
+		public int getOrder() {
+			return this.order;
+		}
+
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.environment;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ReactiveEnvironmentControllerTests {
+
+	private ReactiveEnvironmentRepository repository = mock(ReactiveEnvironmentRepository.class);
+
+	private ReactiveEnvironmentController controller;
+
+	private WebTestClient client;
+
+	private Environment environment = new Environment("foo", "default");
+
+	@BeforeEach
+	public void init() {
+		this.environment.setVersion("v1");
+		this.environment.add(new PropertySource("one", Collections.singletonMap("a.b.c", "d")));
+		this.controller = new ReactiveEnvironmentController(this.repository);
+		this.client = WebTestClient.bindToController(this.controller).build();
+	}
+
+	@Test
+	public void environment() {
+		when(this.repository.findOne("foo", "default", null, false)).thenReturn(Mono.just(this.environment));
+		this.client.get()
+			.uri("/foo/default")
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectHeader()
+			.exists(HttpHeaders.ETAG)
+			.expectBody()
+			.jsonPath("$.name")
+			.isEqualTo("foo")
+			.jsonPath("$.version")
+			.isEqualTo("v1")
+			.jsonPath("$.propertySources[0].source['a.b.c']")
+			.isEqualTo("d");
+	}
+
+	@Test
+	public void environmentNotModified() {
+		when(this.repository.findOne("foo", "default", "master", false)).thenReturn(Mono.just(this.environment));
+		String etag = this.client.get()
+			.uri("/foo/default/master")
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.returnResult(Environment.class)
+			.getResponseHeaders()
+			.getETag();
+		this.client.get()
+			.uri("/foo/default/master")
+			.accept(MediaType.APPLICATION_JSON)
+			.ifNoneMatch(etag)
+			.exchange()
+			.expectStatus()
+			.isNotModified();
+	}
+
+	@Test
+	public void propertiesMatchServletController() throws Exception {
+		when(this.repository.findOne("foo", "bar", null, false)).thenReturn(Mono.just(this.environment));
+		EnvironmentRepository blocking = mock(EnvironmentRepository.class);
+		when(blocking.findOne("foo", "bar", null, false)).thenReturn(this.environment);
+		String expected = new EnvironmentController(blocking).properties("foo", "bar", true).getBody();
+		this.client.get()
+			.uri("/foo-bar.properties")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectHeader()
+			.contentTypeCompatibleWith(MediaType.TEXT_PLAIN)
+			.expectBody(String.class)
+			.isEqualTo(expected);
+	}
+
+	@Test
+	public void yaml() {
+		when(this.repository.findOne("foo", "bar", "master", false)).thenReturn(Mono.just(this.environment));
+		this.client.get()
+			.uri("/master/foo-bar.yml")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody(String.class)
+			.isEqualTo("a:\n  b:\n    c: d\n");
+	}
+
+	@Test
+	public void noSuchLabel() {
+		when(this.repository.findOne(anyString(), anyString(), anyString(), anyBoolean()))
+			.thenReturn(Mono.error(new NoSuchLabelException("no label")));
+		this.client.get()
+			.uri("/foo/default/missing")
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isNotFound();
+	}
+
+	@Test
+	public void mappingForPropertiesWithHyphen() {
+		when(this.repository.findOne("foo-bar", "spam", null, false)).thenReturn(Mono.just(this.environment));
+		this.client.get()
+			.uri("/foo-bar-spam.properties")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody(String.class)
+			.isEqualTo("a.b.c: d");
+	}
+
+	@Test
+	public void emptyEnvironmentNotAccepted() {
+		this.controller.setAcceptEmpty(false);
+		when(this.repository.findOne(anyString(), anyString(), isNull(), anyBoolean()))
+			.thenReturn(Mono.just(new Environment("foo", "default")));
+		this.client.get()
+			.uri("/foo/default")
+			.accept(MediaType.APPLICATION_JSON)
+			.exchange()
+			.expectStatus()
+			.isNotFound();
+	}
+
+}
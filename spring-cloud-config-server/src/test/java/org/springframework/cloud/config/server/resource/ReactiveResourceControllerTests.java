@@ -0,0 +1,113 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.resource;
+
+import java.util.Collections;
+
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.config.server.environment.NativeEnvironmentProperties;
+import org.springframework.cloud.config.server.environment.NativeEnvironmentRepository;
+import org.springframework.cloud.config.server.environment.NativeEnvironmentRepositoryTests;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReactiveResourceControllerTests {
+
+	private ConfigurableApplicationContext context;
+
+	private WebTestClient client;
+
+	@BeforeEach
+	public void init() {
+		this.context = new SpringApplicationBuilder(NativeEnvironmentRepositoryTests.class).web(WebApplicationType.NONE)
+			.run();
+		NativeEnvironmentRepository environmentRepository = new NativeEnvironmentRepository(
+				this.context.getEnvironment(), new NativeEnvironmentProperties(), ObservationRegistry.NOOP);
+		environmentRepository.setSearchLocations("classpath:/test");
+		GenericResourceRepository repository = new GenericResourceRepository(environmentRepository);
+		repository.setResourceLoader(this.context);
+		ResourceController delegate = new ResourceController(repository, environmentRepository,
+				Collections.emptyMap());
+		this.client = WebTestClient
+			.bindToController(new ReactiveResourceController(delegate, Schedulers.immediate()))
+			.controllerAdvice(new ResourceControllerAdvice())
+			.build();
+	}
+
+	@AfterEach
+	public void close() {
+		if (this.context != null) {
+			this.context.close();
+		}
+	}
+
+	@Test
+	public void resource() {
+		String body = this.client.get()
+			.uri("/foo/bar/dev/placeholder.txt")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody(String.class)
+			.returnResult()
+			.getResponseBody();
+		assertThat(body).isEqualToIgnoringNewLines("foo: ${foo}");
+	}
+
+	@Test
+	public void resourceWithDefaultLabel() {
+		String body = this.client.get()
+			.uri("/foo/bar/foo.properties?useDefaultLabel")
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody(String.class)
+			.returnResult()
+			.getResponseBody();
+		assertThat(body).isEqualToIgnoringNewLines("foo:test_bar");
+	}
+
+	@Test
+	public void binaryResourceNotResolved() {
+		byte[] body = this.client.get()
+			.uri("/foo/bar/dev/template.json")
+			.accept(MediaType.APPLICATION_OCTET_STREAM)
+			.exchange()
+			.expectStatus()
+			.isOk()
+			.expectBody(byte[].class)
+			.returnResult()
+			.getResponseBody();
+		assertThat(new String(body)).contains("${foo}");
+	}
+
+	@Test
+	public void missingResource() {
+		this.client.get().uri("/foo/bar/dev/missing.txt").exchange().expectStatus().isNotFound();
+	}
+
+}
@@ -16,7 +16,10 @@
 
 package org.springframework.cloud.config.server.resource;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.AfterEach;
@@ -31,7 +34,9 @@ import org.springframework.cloud.config.server.encryption.ResourceEncryptor;
 import org.springframework.cloud.config.server.environment.NativeEnvironmentProperties;
 import org.springframework.cloud.config.server.environment.NativeEnvironmentRepository;
 import org.springframework.cloud.config.server.environment.NativeEnvironmentRepositoryTests;
+import org.springframework.cloud.config.server.support.ResponseCompressor;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.web.context.request.ServletWebRequest;
@@ -213,6 +218,54 @@ public class ResourceControllerTests {
 		assertThat(resource).isEqualToIgnoringNewLines("foo: dev_bar/spam");
 	}
 
+	@Test
+	public void compressedResourceRequest() throws Exception {
+		this.environmentRepository.setSearchLocations("classpath:/test");
+		this.controller.setCompressor(new ResponseCompressor(0));
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletWebRequest webRequest = new ServletWebRequest(request, response);
+		request.setRequestURI("/foo/bar/dev/" + "spam/foo.txt");
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		String resource = this.controller.retrieve("foo", "bar", "dev", webRequest, true, "UTF-8");
+		assertThat(resource).isNull();
+		assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		byte[] body = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())).readAllBytes();
+		assertThat(new String(body, StandardCharsets.UTF_8)).isEqualToIgnoringNewLines("foo: dev_bar/spam");
+	}
+
+	@Test
+	public void compressedResourceWithAcceptedCharset() throws Exception {
+		this.environmentRepository.setSearchLocations("classpath:/test");
+		this.controller.setCompressor(new ResponseCompressor(0));
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		request.setRequestURI("/foo_enc/bar/dev/" + "foo_enc");
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		String resource = this.controller.retrieve("foo_enc", "bar", "dev", new ServletWebRequest(request, response),
+				true, "ISO-8859-1");
+		assertThat(resource).isNull();
+		assertThat(response.getContentType()).isEqualTo("text/plain;charset=ISO-8859-1");
+		byte[] body = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())).readAllBytes();
+		assertThat(new String(body, StandardCharsets.ISO_8859_1)).isEqualToIgnoringNewLines("foo: Ã¼Ã¤Ã¶");
+	}
+
+	@Test
+	public void compressedResourceKeepsContentType() throws Exception {
+		this.environmentRepository.setSearchLocations("classpath:/test");
+		this.controller.setCompressor(new ResponseCompressor(0));
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setRequestURI("/foo/bar/dev/" + "template.json");
+		MockHttpServletResponse plain = new MockHttpServletResponse();
+		this.controller.retrieve("foo", "bar", "dev", new ServletWebRequest(request, plain), true, "UTF-8");
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+		MockHttpServletResponse compressed = new MockHttpServletResponse();
+		this.controller.retrieve("foo", "bar", "dev", new ServletWebRequest(request, compressed), true, "UTF-8");
+		assertThat(compressed.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		assertThat(plain.getContentType()).isEqualTo("application/json;charset=UTF-8");
+		assertThat(compressed.getContentType()).isEqualTo(plain.getContentType());
+	}
+
 	@Test
 	public void labelWithSlashForResolvePlaceholdersFalse() throws Exception {
 		this.environmentRepository.setSearchLocations("classpath:/test");
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.support;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.cloud.config.environment.Environment;
+import org.springframework.cloud.config.environment.PropertySource;
+import org.springframework.cloud.config.environment.PropertyValueDescriptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+public class EnvironmentPlaceholderResolverTests {
+
+	private final Environment environment = new Environment("foo", "default");
+
+	@Test
+	public void firstPropertySourceWins() {
+		source("overrides", "foo", "bar");
+		source("application.yml", "foo", "spam", "bar", "baz");
+		EnvironmentPlaceholderResolver resolver = new EnvironmentPlaceholderResolver(this.environment);
+		assertThat(resolver.resolvePlaceholders("${foo}-${bar}")).isEqualTo("bar-baz");
+	}
+
+	@Test
+	public void nestedPlaceholdersAndDefaults() {
+		source("application.yml", "foo", "${bar}", "bar", "${baz:spam}", "name", "bar", "key.bar", "value");
+		EnvironmentPlaceholderResolver resolver = new EnvironmentPlaceholderResolver(this.environment);
+		assertThat(resolver.resolvePlaceholders("foo: ${foo}")).isEqualTo("foo: spam");
+		assertThat(resolver.resolvePlaceholders("${key.${name}}")).isEqualTo("value");
+		assertThat(resolver.resolvePlaceholders("${missing:${name}}")).isEqualTo("bar");
+		assertThat(resolver.getProperty("foo")).isEqualTo("spam");
+		assertThat(resolver.getRawProperty("foo")).isEqualTo("${bar}");
+	}
+
+	@Test
+	public void unresolvablePlaceholdersAreKept() {
+		source("application.yml", "foo", "bar");
+		EnvironmentPlaceholderResolver resolver = new EnvironmentPlaceholderResolver(this.environment);
+		assertThat(resolver.resolvePlaceholders("${missing} ${foo}")).isEqualTo("${missing} bar");
+		assertThat(resolver.resolvePlaceholders("${foo")).isEqualTo("${foo");
+		assertThat(resolver.resolvePlaceholders(null)).isNull();
+	}
+
+	@Test
+	public void escapedPlaceholdersRemoved() {
+		source("application.yml", "foo", "bar");
+		EnvironmentPlaceholderResolver resolver = new EnvironmentPlaceholderResolver(this.environment);
+		assertThat(resolver.resolvePlaceholders("\\${foo}")).isEqualTo("${foo}");
+		// JSON generated from jackson will be double escaped
+		assertThat(resolver.resolvePlaceholders("\\\\${foo}")).isEqualTo("${foo}");
+		assertThat(resolver.resolvePlaceholders("${foo} \\${foo}")).isEqualTo("bar ${foo}");
+	}
+
+	@Test
+	public void escapesMatchMaskedResolution() {
+		source("application.yml", "foo", "bar", "dir", "C:\\temp\\", "file", "app.log", "escaped", "\\${foo}",
+				"double", "\\\\${foo}");
+		EnvironmentPlaceholderResolver resolver = new EnvironmentPlaceholderResolver(this.environment);
+		// at most two escape characters are removed from the text
+		assertThat(resolver.resolvePlaceholders("\\\\\\${foo}")).isEqualTo("\\${foo}");
+		assertThat(resolver.resolvePlaceholders("${missing\\${foo}}")).isEqualTo("${missing${foo}}");
+		// a trailing escape character does not escape the next placeholder
+		assertThat(resolver.resolvePlaceholders("${dir}${file}")).isEqualTo("C:\\temp\\app.log");
+		assertThat(resolver.resolvePlaceholders("${foo}\\")).isEqualTo("bar\\");
+		// property values are resolved like in a Spring Environment
+		assertThat(resolver.resolvePlaceholders("${escaped}")).isEqualTo("${foo}");
+		assertThat(resolver.resolvePlaceholders("${double}")).isEqualTo("\\${foo}");
+	}
+
+	@Test
+	public void circularReferenceRejected() {
+		source("application.yml", "foo", "${bar}", "bar", "${foo}");
+		EnvironmentPlaceholderResolver resolver = new EnvironmentPlaceholderResolver(this.environment);
+		assertThatIllegalArgumentException().isThrownBy(() -> resolver.resolvePlaceholders("${foo}"))
+			.withMessageContaining("Circular placeholder reference");
+	}
+
+	@Test
+	public void valuesAreConvertedToStrings() {
+		Map<Object, Object> map = new LinkedHashMap<>();
+		map.put("port", 8080);
+		map.put("described", new PropertyValueDescriptor("bar", "application.yml:1:6"));
+		this.environment.add(new PropertySource("application.yml", map));
+		EnvironmentPlaceholderResolver resolver = new EnvironmentPlaceholderResolver(this.environment);
+		assertThat(resolver.resolvePlaceholders("${port}/${described}")).isEqualTo("8080/bar");
+	}
+
+	@Test
+	public void resolverSharedPerVersion() {
+		source("application.yml", "foo", "bar");
+		EnvironmentPlaceholderResolverCache cache = new EnvironmentPlaceholderResolverCache();
+		assertThat(cache.get(this.environment)).isNotSameAs(cache.get(this.environment));
+		this.environment.setVersion("v1");
+		EnvironmentPlaceholderResolver resolver = cache.get(this.environment);
+		assertThat(cache.get(this.environment)).isSameAs(resolver);
+		this.environment.setVersion("v2");
+		assertThat(cache.get(this.environment)).isNotSameAs(resolver);
+		assertThat(cache.size()).isEqualTo(2);
+		this.environment.setCacheable(false);
+		assertThat(cache.get(this.environment)).isNotSameAs(cache.get(this.environment));
+		assertThat(cache.size()).isEqualTo(2);
+	}
+
+	private void source(String name, String... keysAndValues) {
+		Map<Object, Object> map = new LinkedHashMap<>();
+		for (int i = 0; i < keysAndValues.length; i += 2) {
+			map.put(keysAndValues[i], keysAndValues[i + 1]);
+		}
+		this.environment.add(new PropertySource(name, map));
+	}
+
+}
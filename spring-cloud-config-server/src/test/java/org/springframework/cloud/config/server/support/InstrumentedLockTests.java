@@ -0,0 +1,123 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.support;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InstrumentedLockTests {
+
+	@Test
+	public void uncontendedLockIsNotCountedAsWait() {
+		InstrumentedLock lock = new InstrumentedLock("test");
+		lock.lock();
+		try {
+			lock.lock();
+			lock.unlock();
+		}
+		finally {
+			lock.unlock();
+		}
+		assertThat(lock.isLocked()).isFalse();
+		assertThat(lock.getAcquisitions()).isEqualTo(2);
+		assertThat(lock.getContentions()).isZero();
+		assertThat(lock.getWaitTime(TimeUnit.NANOSECONDS)).isZero();
+		assertThat(lock.getWaiting()).isZero();
+	}
+
+	@Test
+	public void waitForHeldLockIsRecorded() throws Exception {
+		InstrumentedLock lock = new InstrumentedLock("test");
+		CountDownLatch acquired = new CountDownLatch(1);
+		lock.lock();
+		Thread waiter = new Thread(() -> {
+			lock.lock();
+			try {
+				acquired.countDown();
+			}
+			finally {
+				lock.unlock();
+			}
+		});
+		try {
+			waiter.start();
+			while (!lock.hasQueuedThread(waiter)) {
+				Thread.sleep(1);
+			}
+			assertThat(lock.getWaiting()).isEqualTo(1);
+			Thread.sleep(20);
+		}
+		finally {
+			lock.unlock();
+		}
+		assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+		waiter.join();
+		assertThat(lock.getAcquisitions()).isEqualTo(2);
+		assertThat(lock.getContentions()).isEqualTo(1);
+		assertThat(lock.getWaitTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(20);
+		assertThat(lock.getWaiting()).isZero();
+	}
+
+	@Test
+	public void locksCountedSeparately() {
+		InstrumentedLock one = new InstrumentedLock("one");
+		InstrumentedLock two = new InstrumentedLock("two");
+		one.lock();
+		one.unlock();
+		assertThat(one.getAcquisitions()).isEqualTo(1);
+		assertThat(two.getAcquisitions()).isZero();
+	}
+
+	@Test
+	public void metricsPublishedPerLockName() {
+		InstrumentedLock first = new InstrumentedLock("environment");
+		InstrumentedLock second = new InstrumentedLock("environment");
+		InstrumentedLock resource = new InstrumentedLock("resource");
+		MeterRegistry registry = new SimpleMeterRegistry();
+		new InstrumentedLockMeterBinder(() -> List.of(first, second, resource)).bindTo(registry);
+		first.lock();
+		first.unlock();
+		second.lock();
+		second.unlock();
+		assertThat(registry.get("config.server.locks.acquisitions").tag("lock", "environment").functionCounter())
+			.extracting(FunctionCounter::count)
+			.isEqualTo(2.0);
+		assertThat(registry.get("config.server.locks.acquisitions").tag("lock", "resource").functionCounter())
+			.extracting(FunctionCounter::count)
+			.isEqualTo(0.0);
+		assertThat(registry.get("config.server.locks.wait").tag("lock", "environment").functionTimer().count())
+			.isZero();
+		assertThat(registry.get("config.server.locks.waiting").tag("lock", "environment").gauge().value()).isZero();
+	}
+
+	@Test
+	public void nothingPublishedWithoutLocks() {
+		MeterRegistry registry = new SimpleMeterRegistry();
+		new InstrumentedLockMeterBinder(Collections::emptyList).bindTo(registry);
+		assertThat(registry.getMeters()).isEmpty();
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cloud.config.server.support;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCompressorTests {
+
+	private final ResponseCompressor compressor = new ResponseCompressor();
+
+	@Test
+	public void negotiatesPreferredCoding() {
+		assertThat(this.compressor.negotiate("gzip, deflate, br")).isEqualTo("gzip");
+		assertThat(this.compressor.negotiate("deflate")).isEqualTo("deflate");
+		assertThat(this.compressor.negotiate("gzip;q=0.5, deflate")).isEqualTo("deflate");
+		assertThat(this.compressor.negotiate("*")).isEqualTo("gzip");
+		assertThat(this.compressor.negotiate("gzip;q=0, *")).isEqualTo("deflate");
+		assertThat(this.compressor.negotiate("identity")).isNull();
+		assertThat(this.compressor.negotiate("gzip;q=0")).isNull();
+		assertThat(this.compressor.negotiate(null)).isNull();
+	}
+
+	@Test
+	public void negotiationMarksResponseAsVarying() {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertThat(this.compressor.negotiate(request, response)).isNull();
+		assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+	}
+
+	@Test
+	public void compressesRoundTrip() throws IOException {
+		byte[] body = "foo: bar\n".repeat(1000).getBytes(StandardCharsets.UTF_8);
+		byte[] gzip = this.compressor.compress(body, ResponseCompressor.GZIP);
+		assertThat(gzip.length).isLessThan(body.length);
+		assertThat(new GZIPInputStream(new ByteArrayInputStream(gzip)).readAllBytes()).isEqualTo(body);
+		byte[] deflate = this.compressor.compress(body, ResponseCompressor.DEFLATE);
+		assertThat(new InflaterInputStream(new ByteArrayInputStream(deflate)).readAllBytes()).isEqualTo(body);
+	}
+
+	@Test
+	public void onlyLargeBodiesCompressed() {
+		assertThat(this.compressor.shouldCompress(100)).isFalse();
+		assertThat(this.compressor.shouldCompress(4096)).isTrue();
+	}
+
+	@Test
+	public void variantEtag() {
+		assertThat(ResponseCompressor.getEtag("\"abc\"", "gzip")).isEqualTo("\"abc-gzip\"");
+		assertThat(ResponseCompressor.getEtag("\"abc\"", null)).isEqualTo("\"abc\"");
+		assertThat(ResponseCompressor.getEtag(null, "gzip")).isNull();
+	}
+
+}